@@ -29,15 +29,22 @@ import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
 import java.util.zip.Deflater;
+import java.util.zip.ZipException;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.entity.mime.AbstractContentBody;
+import org.apache.hc.client5.http.entity.mime.ContentBody;
+import org.apache.hc.client5.http.entity.mime.FileBody;
 import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
-import org.apache.hc.client5.http.impl.classic.BasicHttpClientResponseHandler;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.sling.maven.bundlesupport.bundle.ManifestRewriter;
+import org.apache.sling.maven.bundlesupport.deploy.method.BoundedStringResponseHandler;
 import org.osgi.framework.Constants;
 
 /**
@@ -54,6 +61,15 @@ abstract class AbstractBundleDeployMojo extends AbstractBundleRequestMojo {
     @Parameter(required = true, property = "obr")
     private String obr;
 
+    /**
+     * If set to {@code true} a bundle with a fixed version is written directly into the request body instead of
+     * being written to a new file in the build directory first. The rewritten bundle is not available afterwards.
+     * Bundles whose archive format is not supported for streaming are still written to a file.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.deploy.streaming", defaultValue = "false")
+    private boolean streaming;
+
     /**
      * Returns the path and name of the jar file containing the bundle to be
      * uploaded. This method always returns a non-<code>null</code> name but
@@ -67,16 +83,13 @@ abstract class AbstractBundleDeployMojo extends AbstractBundleRequestMojo {
     protected abstract String getJarFileName() throws MojoExecutionException;
 
     /**
-     * Optionally fixes up the version of the bundle given in the jar File. If
-     * no version fixup is required the <code>jarFile</code> may just be
-     * returned.
+     * Optionally determines a fixed up version of the bundle to be uploaded.
      *
-     * @param jarFile The file whose bundle version should be fixed
-     * @return The file containing the fixed version or <code>jarFile</code>
-     *         if the version was not fixed.
+     * @return The version change to apply or <code>null</code> if the bundle
+     *         should be uploaded as is.
      * @throws MojoExecutionException May be thrown in case of any problems
      */
-    protected abstract File fixBundleVersion(File jarFile) throws MojoExecutionException;
+    protected abstract VersionChange getVersionChange() throws MojoExecutionException;
 
     /**
      * Execute this Mojo
@@ -91,25 +104,57 @@ abstract class AbstractBundleDeployMojo extends AbstractBundleRequestMojo {
         }
 
         // optionally fix up the bundle version
-        jarFile = fixBundleVersion(jarFile);
+        ContentBody body;
+        VersionChange versionChange = getVersionChange();
+        if (versionChange == null) {
+            body = new FileBody(jarFile);
+        } else if (streaming) {
+            body = createRewrittenBody(jarFile, versionChange);
+        } else {
+            body = new FileBody(changeVersion(jarFile, versionChange.oldVersion, versionChange.newVersion));
+        }
 
-        getLog().info("Deploying Bundle " + bundleName + "(" + jarFile + ") to " + obr);
+        getLog().info("Deploying Bundle " + bundleName + "(" + body.getFilename() + ") to " + obr);
         try (CloseableHttpClient httpClient = getHttpClient()) {
-            this.post(httpClient, this.obr, jarFile);
+            this.post(httpClient, this.obr, body);
             getLog().info("Bundle deployed");
         } catch (IOException ex) {
             throw new MojoExecutionException("Deployment on " + this.obr + " failed, cause: " + ex.getMessage(), ex);
         }
     }
 
-    private void post(CloseableHttpClient httpClient, String targetURL, File file) throws IOException {
+    private void post(CloseableHttpClient httpClient, String targetURL, ContentBody body) throws IOException {
         HttpPost filePost = new HttpPost(targetURL);
+        filePost.setEntity(createEntity(body));
+        String response = httpClient.execute(filePost, new BoundedStringResponseHandler());
+        getLog().debug("Received response: " + response);
+    }
+
+    static HttpEntity createEntity(ContentBody body) {
         MultipartEntityBuilder builder = MultipartEntityBuilder.create();
         builder.addTextBody("_noredir_", "_noredir_");
-        builder.addBinaryBody(file.getName(), file);
-        filePost.setEntity(builder.build());
-        String response = httpClient.execute(filePost, new BasicHttpClientResponseHandler());
-        getLog().debug("Received response: " + response);
+        builder.addPart(body.getFilename(), body);
+        return builder.build();
+    }
+
+    /**
+     * Creates a body which rewrites the version of the given bundle while being written to the request.
+     * @param file the bundle
+     * @param versionChange the version change
+     * @return the body or a body of a rewritten file in case the archive format is not supported for streaming
+     * @throws MojoExecutionException in case the bundle could not be read
+     */
+    ContentBody createRewrittenBody(File file, VersionChange versionChange) throws MojoExecutionException {
+        try {
+            ManifestRewriter rewriter = ManifestRewriter.create(file, manifest -> manifest.getMainAttributes()
+                    .putValue(Constants.BUNDLE_VERSION, versionChange.newVersion));
+            return new ManifestRewriterBody(rewriter, versionChange.getFileName(file));
+        } catch (ZipException e) {
+            getLog().debug("Cannot stream " + file + " with changed version, writing it to a file: " + e.getMessage());
+            return new FileBody(changeVersion(file, versionChange.oldVersion, versionChange.newVersion));
+        } catch (IOException ioe) {
+            throw new MojoExecutionException("Unable to update version in jar file.", ioe);
+        }
     }
 
     /**
@@ -121,12 +166,21 @@ abstract class AbstractBundleDeployMojo extends AbstractBundleRequestMojo {
      * @throws MojoExecutionException Exception
      */
     protected File changeVersion(File file, String oldVersion, String newVersion) throws MojoExecutionException {
-        String fileName = file.getName();
-        int pos = fileName.indexOf(oldVersion);
-        fileName = fileName.substring(0, pos) + newVersion + fileName.substring(pos + oldVersion.length());
-        final File destJar = new File(file.getParentFile(), fileName);
+        final File destJar =
+                new File(file.getParentFile(), new VersionChange(oldVersion, newVersion).getFileName(file));
+
+        // only rewrite the manifest, all other entries are copied as they are
+        try {
+            ManifestRewriter.rewrite(file, destJar, manifest -> manifest.getMainAttributes()
+                    .putValue(Constants.BUNDLE_VERSION, newVersion));
+            return destJar;
+        } catch (ZipException e) {
+            getLog().debug("Cannot copy entries of " + file + " as they are, recompressing them: " + e.getMessage());
+        } catch (IOException ioe) {
+            throw new MojoExecutionException("Unable to update version in jar file.", ioe);
+        }
 
-        // now create a temporary file and update the version
+        // fallback for archives not supported by ManifestRewriter
         try (JarFile sourceJar = new JarFile(file)) {
             final Manifest manifest = sourceJar.getManifest();
             manifest.getMainAttributes().putValue(Constants.BUNDLE_VERSION, newVersion);
@@ -137,6 +191,10 @@ abstract class AbstractBundleDeployMojo extends AbstractBundleRequestMojo {
                 Enumeration<JarEntry> entries = sourceJar.entries();
                 while (entries.hasMoreElements()) {
                     JarEntry entryIn = entries.nextElement();
+                    if (JarFile.MANIFEST_NAME.equalsIgnoreCase(entryIn.getName())) {
+                        // already written
+                        continue;
+                    }
                     JarEntry entryOut = new JarEntry(entryIn);
                     jos.putNextEntry(entryOut);
                     if (!entryIn.isDirectory()) {
@@ -151,4 +209,71 @@ abstract class AbstractBundleDeployMojo extends AbstractBundleRequestMojo {
             throw new MojoExecutionException("Unable to update version in jar file.", ioe);
         }
     }
+
+    /**
+     * A change of the bundle version.
+     */
+    protected static final class VersionChange {
+        private final String oldVersion;
+        private final String newVersion;
+
+        /**
+         * @param oldVersion the version contained in the file name of the bundle
+         * @param newVersion the new bundle version replacing the old version in the file name
+         */
+        protected VersionChange(String oldVersion, String newVersion) {
+            this.oldVersion = oldVersion;
+            this.newVersion = newVersion;
+        }
+
+        /**
+         * @param file the bundle file
+         * @return the file name with the old version replaced by the new one, never the name of the given file
+         */
+        String getFileName(File file) {
+            String fileName = file.getName();
+            int pos = fileName.indexOf(oldVersion);
+            String newFileName = pos == -1
+                    ? fileName
+                    : fileName.substring(0, pos) + newVersion + fileName.substring(pos + oldVersion.length());
+            if (newFileName.equals(fileName)) {
+                // e.g. custom final name without version, the bundle must never be overwritten with its copy
+                int extensionPos = fileName.lastIndexOf('.');
+                if (extensionPos == -1) {
+                    extensionPos = fileName.length();
+                }
+                newFileName = fileName.substring(0, extensionPos) + "-" + newVersion + fileName.substring(extensionPos);
+            }
+            return newFileName;
+        }
+    }
+
+    /**
+     * Body writing the bundle with the rewritten manifest directly into the request.
+     */
+    private static final class ManifestRewriterBody extends AbstractContentBody {
+        private final ManifestRewriter rewriter;
+        private final String fileName;
+
+        ManifestRewriterBody(ManifestRewriter rewriter, String fileName) {
+            super(ContentType.DEFAULT_BINARY);
+            this.rewriter = rewriter;
+            this.fileName = fileName;
+        }
+
+        @Override
+        public String getFilename() {
+            return fileName;
+        }
+
+        @Override
+        public long getContentLength() {
+            return rewriter.getSize();
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            rewriter.writeTo(out);
+        }
+    }
 }
@@ -19,17 +19,21 @@
 package org.apache.sling.maven.bundlesupport;
 
 import java.io.File;
-import java.io.IOException;
 import java.net.URI;
+import java.util.List;
 
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
+import org.apache.sling.maven.bundlesupport.bundle.JarEntryFilter;
 import org.apache.sling.maven.bundlesupport.deploy.BundleDeploymentMethod;
 import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
 import org.apache.sling.maven.bundlesupport.fsresource.SlingInitialContentMounter;
 
+/**
+ * Common super class of all goals installing or uninstalling bundles, providing the deployment configuration.
+ */
 abstract class AbstractBundleInstallMojo extends AbstractBundleRequestMojo {
 
     /**
@@ -92,6 +96,26 @@ abstract class AbstractBundleInstallMojo extends AbstractBundleRequestMojo {
     @Parameter(property = "sling.refreshPackages", defaultValue = "true")
     private boolean refreshPackages;
 
+    /**
+     * Glob patterns (Ant style, e.g. {@code OSGI-OPT/**}) of the JAR entries to strip from the bundle before
+     * uploading it. The entries are removed on the fly while the bundle is being sent (without recompressing the
+     * remaining entries), the bundle file itself is not modified. The manifest is never stripped.
+     * This is only meant for development and test instances (e.g. to skip embedded sources or documentation), as
+     * the installed bundle differs from the artifact (and signed bundles become invalid).
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.slimUpload.excludes")
+    private List<String> slimUploadExcludes;
+
+    /**
+     * Glob patterns (Ant style, e.g. {@code **}{@code /*.class}) of the JAR entries to keep when uploading the bundle.
+     * If set, all entries not matching any of the patterns are stripped (except for the manifest).
+     * See {@link #slimUploadExcludes} for details.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.slimUpload.includes")
+    private List<String> slimUploadIncludes;
+
     /**
      * Whether to add (for install)/remove (for uninstall) the mapping for the
      * <a href="https://sling.apache.org/documentation/bundles/accessing-filesystem-resources-extensions-fsresource.html">Apache Sling File System Resource Provider</a>
@@ -111,62 +135,27 @@ abstract class AbstractBundleInstallMojo extends AbstractBundleRequestMojo {
         super();
     }
 
-    protected abstract File getBundleFileName() throws MojoExecutionException;
-
-    @Override
-    public void execute() throws MojoExecutionException {
-
-        // get the file to upload
-        File bundleFile = getBundleFileName();
-
-        // only upload if packaging as an osgi-bundle
-        if (!bundleFile.exists()) {
-            throw new MojoExecutionException("The given bundle file " + bundleFile + " does not exist!");
-        }
-
-        String bundleName = getBundleSymbolicName(bundleFile);
-        if (bundleName == null) {
-            throw new MojoExecutionException("The given file " + bundleFile + " is no OSGi bundle");
-        }
-
-        URI targetURL = getTargetURL();
-
-        BundleDeploymentMethod deploymentMethod = getDeploymentMethod();
-        getLog().info("Installing Bundle " + bundleName + "(" + bundleFile + ") to " + targetURL + " via "
-                + deploymentMethod + "...");
-
-        try (CloseableHttpClient httpClient = getHttpClient()) {
-            deploymentMethod
-                    .execute()
-                    .deploy(
-                            targetURL,
-                            bundleFile,
-                            bundleName,
-                            new DeployContext()
-                                    .log(getLog())
-                                    .httpClient(httpClient)
-                                    .failOnError(failOnError)
-                                    .bundleStartLevel(bundleStartLevel)
-                                    .bundleStart(bundleStart)
-                                    .mimeType(mimeType)
-                                    .refreshPackages(refreshPackages));
-            getLog().info("Bundle installed successfully");
-            if (mountByFS) {
-                configure(httpClient, getConsoleTargetURL(), bundleFile);
-            }
-        } catch (IOException e) {
-            String msg = "Installation failed, cause: " + e.getMessage();
-            if (failOnError) {
-                throw new MojoExecutionException(msg, e);
-            } else {
-                getLog().error(msg, e);
-            }
-        }
+    /**
+     * @param httpClient the http client to use
+     * @return the deploy context reflecting the plugin configuration
+     */
+    protected DeployContext createDeployContext(CloseableHttpClient httpClient) {
+        return new DeployContext()
+                .log(getLog())
+                .httpClient(httpClient)
+                .failOnError(failOnError)
+                .bundleStartLevel(bundleStartLevel)
+                .bundleStart(bundleStart)
+                .mimeType(mimeType)
+                .refreshPackages(refreshPackages)
+                .uploadStatistics(getUploadStatistics())
+                .uploadEntryFilter(new JarEntryFilter(slimUploadIncludes, slimUploadExcludes));
     }
 
     protected void configure(CloseableHttpClient httpClient, final URI consoleTargetURL, final File file)
             throws MojoExecutionException {
-        new SlingInitialContentMounter(getLog(), httpClient, getRequestConfigBuilder(), project)
+        new SlingInitialContentMounter(
+                        getLog(), httpClient, getRequestConfigBuilder(), project, getBundleMetadataCache())
                 .mount(consoleTargetURL, file);
     }
 
@@ -23,14 +23,18 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.jar.JarFile;
-import java.util.jar.Manifest;
+import java.util.regex.Pattern;
 
 import org.apache.hc.client5.http.auth.UsernamePasswordCredentials;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.auth.BasicScheme;
+import org.apache.hc.client5.http.impl.cache.CacheConfig;
+import org.apache.hc.client5.http.impl.cache.CachingHttpClients;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.EntityDetails;
@@ -40,21 +44,36 @@ import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.HttpRequestInterceptor;
 import org.apache.hc.core5.http.protocol.HttpContext;
 import org.apache.hc.core5.util.Timeout;
-import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.sling.maven.bundlesupport.bundle.BundleMetadataCache;
+import org.apache.sling.maven.bundlesupport.deploy.UploadStatistics;
+import org.apache.sling.maven.bundlesupport.http.FileHttpCacheStorage;
+import org.apache.sling.maven.bundlesupport.http.HttpExchangeRecorder;
+import org.apache.sling.maven.bundlesupport.http.HttpTimings;
+import org.apache.sling.maven.bundlesupport.http.RevalidatingResponseInterceptor;
+import org.apache.sling.maven.bundlesupport.jfr.PhaseEvent;
+import org.apache.sling.maven.bundlesupport.metrics.MetricsRegistry;
 import org.eclipse.aether.RepositorySystem;
-import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.repository.RepositoryPolicy;
 import org.eclipse.aether.resolution.ArtifactRequest;
 import org.eclipse.aether.resolution.ArtifactResolutionException;
 import org.eclipse.aether.resolution.ArtifactResult;
-import org.osgi.framework.Constants;
+import org.eclipse.aether.util.artifact.ArtifactIdUtils;
 
-abstract class AbstractBundleRequestMojo extends AbstractMojo {
+abstract class AbstractBundleRequestMojo extends AbstractSlingMojo {
+
+    /** Maximum size of a single response body being cached (the Felix Web Console listings may be large). */
+    private static final long HTTP_CACHE_MAX_OBJECT_SIZE = 32L * 1024 * 1024;
+
+    private static final Pattern UPDATE_POLICY_INTERVAL_PATTERN =
+            Pattern.compile(Pattern.quote(RepositoryPolicy.UPDATE_POLICY_INTERVAL + ":") + "\\d+");
+
+    /** Same as the default of httpclient5 */
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 5;
 
     /**
      * The URL of the running Sling instance.
@@ -120,12 +139,110 @@ abstract class AbstractBundleRequestMojo extends AbstractMojo {
     @Parameter(property = "sling.httpResponseTimeoutSec", defaultValue = "60")
     private int httpResponseTimeoutSec;
 
+    /**
+     * Directory in which the responses to GET requests (e.g. the bundle and configuration listings of the Felix Web Console)
+     * are cached across executions. Cached responses are always revalidated with conditional requests
+     * ({@code If-None-Match}/{@code If-Modified-Since}), even if the Sling instance (or a proxy in front of it) declares
+     * them to be fresh via {@code Cache-Control} or {@code Expires}. Therefore this only saves traffic if the Sling
+     * instance (or the proxy) emits {@code ETag} or {@code Last-Modified} headers.
+     * If not set, no responses are cached.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.httpCacheDirectory")
+    private File httpCacheDirectory;
+
+    /**
+     * The maximum number of requests being sent in parallel to the Sling instance by goals dealing with
+     * multiple bundles at once (e.g. when deploying the prerequisites of <a href="fsmount-mojo.html">fsmount</a>).
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.parallelRequests", defaultValue = "4")
+    private int parallelRequests;
+
+    /**
+     * The maximum number of concurrent requests to the same host by all goal executions of the Maven session.
+     * This prevents overwhelming the Sling instance in parallel builds ({@code -T}) where multiple modules deploy at
+     * the same time. Only the value of the first execution sending a request to a host is effective.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.maxConcurrentRequestsPerHost", defaultValue = "8")
+    private int maxConcurrentRequestsPerHost;
+
+    /**
+     * The number of consecutive failed requests to a host (I/O errors like timeouts or refused connections, or the
+     * status codes 502, 503 and 504) after which all further requests to that host fail immediately instead of
+     * waiting for the timeouts. After <a href="#circuitBreakerCoolDownSec">the cool-down period</a> a single probe
+     * request is sent and the requests are only resumed once it succeeds.
+     * The state is shared by all goal executions of the Maven session, so that a reactor build does not run into the
+     * timeouts once per module when the Sling instance is overloaded or restarting.
+     * Set to {@code 0} to disable.
+     * Only the value of the first execution sending a request to a host is effective.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.circuitBreakerThreshold", defaultValue = "5")
+    private int circuitBreakerThreshold;
+
+    /**
+     * The time (in seconds) during which requests to a host fail immediately once the
+     * <a href="#circuitBreakerThreshold">circuit breaker threshold</a> has been reached.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.circuitBreakerCoolDownSec", defaultValue = "30")
+    private int circuitBreakerCoolDownSec;
+
+    /**
+     * The update policy being used for release artifacts when resolving them from the remote repositories.
+     * One of {@code never}, {@code daily}, {@code always} or {@code interval:<minutes>}.
+     * As released artifacts never change by default no remote metadata is checked for them.
+     * Executing Maven with {@code -U} enforces the update check for all artifacts.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.releaseUpdatePolicy", defaultValue = RepositoryPolicy.UPDATE_POLICY_NEVER)
+    private String releaseUpdatePolicy;
+
+    /**
+     * The update policy being used for snapshot artifacts when resolving them from the remote repositories.
+     * One of {@code never}, {@code daily}, {@code always} or {@code interval:<minutes>}.
+     * By default the remote metadata is only checked if the local copy has not been checked in the last 5 minutes.
+     * Executing Maven with {@code -U} enforces the update check for all artifacts.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.snapshotUpdatePolicy", defaultValue = RepositoryPolicy.UPDATE_POLICY_INTERVAL + ":5")
+    private String snapshotUpdatePolicy;
+
+    /**
+     * If set to {@code true} metrics of all goal executions of this plugin (durations of goals and their phases like
+     * artifact resolution, manifest inspection, HTTP DNS resolution, TCP connect, TLS handshake, upload, server
+     * processing and download as well as the bytes sent
+     * and received) are recorded. They are written at the end of the build to {@code sling-plugin-metrics.json} and
+     * in Prometheus text exposition format to {@code sling-plugin-metrics.prom}
+     * in the <a href="#metricsDirectory">metrics directory</a>.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.metrics", defaultValue = "false")
+    private boolean metrics;
+
+    /**
+     * The directory to which the metrics are written. Only the value used by the first goal execution of the build
+     * is effective.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.metricsDirectory", defaultValue = "${session.executionRootDirectory}/target")
+    private File metricsDirectory;
+
+    /**
+     * HTTP requests taking longer than this number of milliseconds (from sending the request until the response body
+     * has been consumed) are logged as warning together with a breakdown of the time spent in DNS resolution, TCP
+     * connect, TLS handshake, upload, server processing and download. Disabled by default (i.e. {@code 0}) as timing
+     * the phases of each request has a small overhead.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.slowRequestThreshold", defaultValue = "0")
+    private long slowRequestThreshold;
+
     @Component
     protected RepositorySystem repoSystem;
 
-    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true, required = true)
-    protected RepositorySystemSession repoSession;
-
     @Parameter(defaultValue = "${project.remoteProjectRepositories}", readonly = true, required = true)
     protected List<RemoteRepository> repositories;
 
@@ -155,14 +272,9 @@ abstract class AbstractBundleRequestMojo extends AbstractMojo {
             return null;
         }
 
-        try (JarFile jaf = new JarFile(jarFile)) {
-            Manifest manif = jaf.getManifest();
-            if (manif == null) {
-                getLog().debug("getBundleSymbolicName: Missing manifest in " + jarFile);
-                return null;
-            }
-
-            String symbName = manif.getMainAttributes().getValue(Constants.BUNDLE_SYMBOLICNAME);
+        long start = System.nanoTime();
+        try {
+            String symbName = getBundleMetadataCache().get(jarFile).getSymbolicName();
             if (symbName == null) {
                 getLog().debug("getBundleSymbolicName: No Bundle-SymbolicName in " + jarFile);
                 return null;
@@ -171,6 +283,8 @@ abstract class AbstractBundleRequestMojo extends AbstractMojo {
             return symbName;
         } catch (IOException ioe) {
             getLog().warn("getBundleSymbolicName: Problem checking " + jarFile, ioe);
+        } finally {
+            recordPhase(MetricsRegistry.PHASE_MANIFEST, start);
         }
         // fall back to not being a bundle
         return null;
@@ -234,10 +348,57 @@ abstract class AbstractBundleRequestMojo extends AbstractMojo {
                 getTargetURL().getHost(),
                 getTargetURL().getPort());
 
-        return HttpClients.custom()
+        HttpClientBuilder builder = createHttpClientBuilder();
+        // innermost handler to not include the time waiting for a permit
+        HttpExchangeRecorder.create(getGoal())
+                .metrics(getMetricsRegistry())
+                .report(getExecutionReport())
+                .slowRequestLog(slowRequestThreshold, getLog())
+                .register(builder)
+                .setConnectionManager(HttpTimings.createConnectionManager(
+                        Math.max(parallelRequests, DEFAULT_MAX_CONNECTIONS_PER_ROUTE),
+                        Math.max(parallelRequests, DEFAULT_MAX_CONNECTIONS_PER_ROUTE) * 2))
                 .setDefaultRequestConfig(getRequestConfigBuilder().build())
                 .addRequestInterceptorFirst(new PreemptiveBasicAuthInterceptor(basicAuth, target, getLog()))
-                .build();
+                .addExecInterceptorFirst(
+                        "sling-target-governor",
+                        TargetGovernor.get(repoSession).createExecChainHandler(maxConcurrentRequestsPerHost));
+        if (isCircuitBreakerEnabled()) {
+            // outermost handler to fail fast without waiting for a permit, failures are counted after retries
+            builder.addExecInterceptorFirst(
+                    "sling-circuit-breaker",
+                    TargetGovernor.get(repoSession)
+                            .createCircuitBreakerHandler(circuitBreakerThreshold, circuitBreakerCoolDownSec));
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return {@code true} if the requests should be guarded by the circuit breaker
+     */
+    protected boolean isCircuitBreakerEnabled() {
+        return circuitBreakerThreshold > 0;
+    }
+
+    private HttpClientBuilder createHttpClientBuilder() {
+        if (httpCacheDirectory == null) {
+            return HttpClients.custom();
+        }
+        try {
+            getLog().debug("Caching HTTP responses in " + httpCacheDirectory);
+            return CachingHttpClients.custom()
+                    .setHttpCacheStorage(new FileHttpCacheStorage(httpCacheDirectory))
+                    .setCacheConfig(CacheConfig.custom()
+                            // the responses are specific to the authenticated user
+                            .setSharedCache(false)
+                            .setMaxObjectSize(HTTP_CACHE_MAX_OBJECT_SIZE)
+                            .build())
+                    // the listings are read-modify-write inputs, never serve them without asking the server
+                    .addResponseInterceptorFirst(new RevalidatingResponseInterceptor());
+        } catch (IOException e) {
+            getLog().warn("Could not use HTTP cache directory " + httpCacheDirectory + ", not caching responses", e);
+            return HttpClients.custom();
+        }
     }
 
     protected RequestConfig.Builder getRequestConfigBuilder() {
@@ -246,35 +407,239 @@ abstract class AbstractBundleRequestMojo extends AbstractMojo {
                 .setResponseTimeout(Timeout.ofSeconds(httpResponseTimeoutSec));
     }
 
+    /**
+     * Executes the given operation while no other exclusive operation on the same target is running
+     * in the Maven session (e.g. in another module of a parallel build).
+     * Used for read-modify-write operations on the server state like the fsresource configuration diff.
+     * @param operation the operation
+     * @throws MojoExecutionException in case the operation failed
+     */
+    protected void executeExclusively(TargetGovernor.ExclusiveOperation operation) throws MojoExecutionException {
+        TargetGovernor.get(repoSession).executeExclusively(getExclusiveKey(), () -> {
+            long start = System.nanoTime();
+            try {
+                operation.execute();
+            } finally {
+                recordPhase(MetricsRegistry.PHASE_FSMOUNT_CONFIG_DIFF, start);
+            }
+        });
+    }
+
+    /**
+     * The server state modified by exclusive operations (i.e. the OSGi configurations) is managed via the web console,
+     * so all goals must use the same key no matter which URL they use for other requests.
+     * @return the key for {@link #executeExclusively(TargetGovernor.ExclusiveOperation)}
+     */
+    private String getExclusiveKey() {
+        return getConsoleTargetURL().toString();
+    }
+
+    /**
+     * @return the statistics of all uploads in the Maven session (shared by all goal executions)
+     */
+    protected UploadStatistics getUploadStatistics() {
+        return SessionDataSupport.getOrCreate(repoSession, UploadStatistics.class, UploadStatistics::new);
+    }
+
+    /**
+     * @return the cache of the bundle metadata shared by all goal executions of the Maven session
+     */
+    protected BundleMetadataCache getBundleMetadataCache() {
+        return SessionDataSupport.getOrCreate(repoSession, BundleMetadataCache.class, BundleMetadataCache::new);
+    }
+
+    /**
+     * @return the metrics registry of the Maven session or {@code null} if metrics are not enabled
+     */
+    protected MetricsRegistry getMetricsRegistry() {
+        if (!metrics || session == null || mojoExecution == null) {
+            return null;
+        }
+        MetricsListener listener = SessionDataSupport.getOrCreate(repoSession, MetricsListener.class, () -> {
+            MetricsListener newListener = new MetricsListener(metricsDirectory, getLog());
+            UploadStatistics uploadStatistics = getUploadStatistics();
+            newListener
+                    .getRegistry()
+                    .gauge(
+                            "sling_upload_throughput_bytes_per_second",
+                            "Throughput of all bundle and content uploads, based on the wall-clock time during which "
+                                    + "at least one upload was in progress",
+                            uploadStatistics::getBytesPerSecond);
+            return newListener;
+        });
+        listener.install(session, mojoExecution);
+        return listener.getRegistry();
+    }
+
+    /**
+     * Records the duration of a phase of this goal execution if metrics are enabled.
+     * @param phase the phase (e.g. {@link MetricsRegistry#PHASE_RESOLVE})
+     * @param startNanos the start of the phase as returned by {@link System#nanoTime()}
+     */
+    protected void recordPhase(String phase, long startNanos) {
+        MetricsRegistry registry = getMetricsRegistry();
+        if (registry != null) {
+            registry.phaseDuration(getGoal(), phase).record(System.nanoTime() - startNanos);
+        }
+    }
+
+    private String getGoal() {
+        return mojoExecution != null ? mojoExecution.getGoal() : "unknown";
+    }
+
+    /**
+     * Reads the bundle metadata of the given file (recorded as manifest phase).
+     * @param file the file
+     * @return the bundle file
+     * @throws IOException in case the file could not be read
+     */
+    BundleFile readBundleFile(File file) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return BundleFile.read(file, getBundleMetadataCache());
+        } finally {
+            recordPhase(MetricsRegistry.PHASE_MANIFEST, start);
+        }
+    }
+
+    /**
+     * @return a new executor for parallel requests, must be closed by the caller
+     */
+    ParallelExecutor createParallelExecutor() {
+        return new ParallelExecutor("sling-maven-plugin", parallelRequests);
+    }
+
     protected File resolveArtifact(org.eclipse.aether.artifact.Artifact artifact) throws MojoExecutionException {
-        ArtifactRequest req = new ArtifactRequest(
-                artifact,
-                getRemoteRepositoriesWithUpdatePolicy(repositories, RepositoryPolicy.UPDATE_POLICY_ALWAYS),
-                null);
+        ArtifactRequest req = new ArtifactRequest(artifact, getResolutionRepositories(), null);
         ArtifactResult resolutionResult;
+        PhaseEvent event = PhaseEvent.begin(PhaseEvent.PHASE_RESOLVE, artifact);
+        long start = System.nanoTime();
         try {
             resolutionResult = repoSystem.resolveArtifact(repoSession, req);
             return resolutionResult.getArtifact().getFile();
         } catch (ArtifactResolutionException e) {
             throw new MojoExecutionException("Artifact " + artifact + " could not be resolved.", e);
+        } finally {
+            PhaseEvent.end(event);
+            recordPhase(MetricsRegistry.PHASE_RESOLVE, start);
         }
     }
 
-    private List<RemoteRepository> getRemoteRepositoriesWithUpdatePolicy(
-            List<RemoteRepository> repositories, String updatePolicy) {
+    /**
+     * Resolves the given artifacts with one request to the repository system, which downloads them in parallel.
+     * In contrast to {@link #resolveArtifact(org.eclipse.aether.artifact.Artifact)} this does not fail if some of the
+     * artifacts cannot be resolved.
+     * @param artifacts the artifacts to resolve
+     * @return the results in the order of the given artifacts (check {@link ArtifactResult#isResolved()})
+     * @throws MojoExecutionException in case of an invalid update policy
+     */
+    protected List<ArtifactResult> resolveArtifacts(Collection<org.eclipse.aether.artifact.Artifact> artifacts)
+            throws MojoExecutionException {
+        List<RemoteRepository> resolutionRepositories = getResolutionRepositories();
+        List<ArtifactRequest> requests = new ArrayList<>();
+        for (org.eclipse.aether.artifact.Artifact artifact : artifacts) {
+            requests.add(new ArtifactRequest(artifact, resolutionRepositories, null));
+        }
+        PhaseEvent event = PhaseEvent.begin(PhaseEvent.PHASE_RESOLVE, artifacts.size() + " artifacts");
+        long start = System.nanoTime();
+        try {
+            return repoSystem.resolveArtifacts(repoSession, requests);
+        } catch (ArtifactResolutionException e) {
+            // contains the results of all requests, including the successful ones
+            return e.getResults();
+        } finally {
+            PhaseEvent.end(event);
+            recordPhase(MetricsRegistry.PHASE_RESOLVE, start);
+        }
+    }
+
+    /**
+     * @param result the result of {@link #resolveArtifacts(Collection)}
+     * @return the resolved file
+     * @throws MojoExecutionException in case the artifact could not be resolved
+     */
+    protected static File getResolvedFile(ArtifactResult result) throws MojoExecutionException {
+        if (!result.isResolved()) {
+            throw new MojoExecutionException(
+                    "Artifact " + ArtifactIdUtils.toId(result.getRequest().getArtifact()) + " could not be resolved.",
+                    new ArtifactResolutionException(Collections.singletonList(result)));
+        }
+        return result.getArtifact().getFile();
+    }
+
+    /**
+     * Resolves the given artifacts via {@link #resolveArtifacts(Collection)} and reads their bundle metadata.
+     * Artifacts which cannot be resolved or are no OSGi bundles are skipped with a warning.
+     * @param artifacts the artifacts to resolve
+     * @return the resolved bundle files
+     * @throws MojoExecutionException in case some resolved file could not be read
+     */
+    List<BundleFile> resolveBundleFiles(Collection<org.eclipse.aether.artifact.Artifact> artifacts)
+            throws MojoExecutionException {
+        List<BundleFile> result = new ArrayList<>();
+        for (ArtifactResult artifactResult : resolveArtifacts(artifacts)) {
+            if (!artifactResult.isResolved()) {
+                getLog().warn("Could not resolve " + artifactResult.getRequest().getArtifact());
+                continue;
+            }
+            File file = artifactResult.getArtifact().getFile();
+            try {
+                BundleFile bundleFile = readBundleFile(file);
+                if (bundleFile != null) {
+                    result.add(bundleFile);
+                } else {
+                    getLog().warn("Artifact " + artifactResult.getArtifact() + " is no OSGi bundle");
+                }
+            } catch (IOException e) {
+                throw new MojoExecutionException("Could not read manifest from " + file, e);
+            }
+        }
+        return result;
+    }
+
+    private List<RemoteRepository> getResolutionRepositories() throws MojoExecutionException {
+        return getRemoteRepositoriesWithUpdatePolicy(repositories, releaseUpdatePolicy, snapshotUpdatePolicy);
+    }
+
+    static List<RemoteRepository> getRemoteRepositoriesWithUpdatePolicy(
+            List<RemoteRepository> repositories, String releaseUpdatePolicy, String snapshotUpdatePolicy)
+            throws MojoExecutionException {
+        validateUpdatePolicy("releaseUpdatePolicy", releaseUpdatePolicy);
+        validateUpdatePolicy("snapshotUpdatePolicy", snapshotUpdatePolicy);
         List<RemoteRepository> newRepositories = new ArrayList<>();
         for (RemoteRepository repo : repositories) {
             RemoteRepository.Builder builder = new RemoteRepository.Builder(repo);
-            RepositoryPolicy newPolicy = new RepositoryPolicy(
-                    repo.getPolicy(false).isEnabled(),
-                    updatePolicy,
-                    repo.getPolicy(false).getChecksumPolicy());
-            builder.setPolicy(newPolicy);
+            builder.setReleasePolicy(withUpdatePolicy(repo.getPolicy(false), releaseUpdatePolicy));
+            builder.setSnapshotPolicy(withUpdatePolicy(repo.getPolicy(true), snapshotUpdatePolicy));
             newRepositories.add(builder.build());
         }
         return newRepositories;
     }
 
+    /**
+     * The repository system silently falls back to {@code daily} for unknown update policies, therefore typos must be
+     * detected upfront.
+     * @param parameterName the name of the parameter
+     * @param updatePolicy the update policy
+     * @throws MojoExecutionException in case the update policy is not supported
+     */
+    static void validateUpdatePolicy(String parameterName, String updatePolicy) throws MojoExecutionException {
+        if (RepositoryPolicy.UPDATE_POLICY_NEVER.equals(updatePolicy)
+                || RepositoryPolicy.UPDATE_POLICY_ALWAYS.equals(updatePolicy)
+                || RepositoryPolicy.UPDATE_POLICY_DAILY.equals(updatePolicy)
+                || (updatePolicy != null && UPDATE_POLICY_INTERVAL_PATTERN.matcher(updatePolicy).matches())) {
+            return;
+        }
+        throw new MojoExecutionException("Invalid " + parameterName + " '" + updatePolicy + "', must be one of "
+                + RepositoryPolicy.UPDATE_POLICY_NEVER + ", " + RepositoryPolicy.UPDATE_POLICY_ALWAYS + ", "
+                + RepositoryPolicy.UPDATE_POLICY_DAILY + " or " + RepositoryPolicy.UPDATE_POLICY_INTERVAL
+                + ":<minutes>");
+    }
+
+    private static RepositoryPolicy withUpdatePolicy(RepositoryPolicy policy, String updatePolicy) {
+        return new RepositoryPolicy(policy.isEnabled(), updatePolicy, policy.getChecksumPolicy());
+    }
+
     private static final class PreemptiveBasicAuthInterceptor implements HttpRequestInterceptor {
 
         private final BasicScheme basicAuth;
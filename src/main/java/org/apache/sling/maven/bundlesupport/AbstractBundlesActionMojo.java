@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.sling.maven.bundlesupport.InstalledBundles.InstalledBundle;
+import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
+import org.apache.sling.maven.bundlesupport.deploy.method.FelixBundleActions;
+import org.osgi.framework.Bundle;
+
+/**
+ * Common super class of all goals executing an action via the
+ * <a href="https://felix.apache.org/documentation/subprojects/apache-felix-web-console/web-console-restful-api.html#post-requests">Felix Web Console</a>
+ * on a set of bundles. The bundles are selected by {@link #bundleNames} and/or {@link #bundleNamePattern} with
+ * a single request, the actions are executed in parallel (bounded by {@code sling.parallelRequests}) and afterwards
+ * the states of all bundles are verified with a single request (repeated until {@link #verifyTimeoutSec} is reached).
+ * Actions which are executed asynchronously by the framework (like refresh and update) are only considered complete
+ * once the bundles have been observed leaving their previous state.
+ */
+abstract class AbstractBundlesActionMojo extends AbstractBundleRequestMojo {
+
+    private static final long VERIFICATION_POLL_INTERVAL_MS = 500;
+
+    /**
+     * Poll interval for actions restarting the bundles, short enough to observe the intermediate states in most cases.
+     */
+    static final long RESTART_POLL_INTERVAL_MS = 100;
+
+    /**
+     * The symbolic names of the bundles to select.
+     */
+    @Parameter(property = "sling.bundleNames")
+    private List<String> bundleNames;
+
+    /**
+     * A pattern for the symbolic names of the bundles to select. Either a glob pattern supporting the wildcards
+     * {@code *} and {@code ?} (e.g. {@code com.acme.*}) or a regular expression prefixed with {@code regex:}.
+     */
+    @Parameter(property = "sling.bundle.namePattern")
+    private String bundleNamePattern;
+
+    /**
+     * The number of seconds to wait for all selected bundles to reach the expected state.
+     * Set to {@code 0} to skip the verification.
+     */
+    @Parameter(property = "sling.bundles.verifyTimeout", defaultValue = "30")
+    private int verifyTimeoutSec;
+
+    /**
+     * @return the Felix Web Console action, one of the {@code ACTION_...} constants of {@link FelixBundleActions}
+     */
+    protected abstract String getAction();
+
+    /**
+     * @param bundle the bundle state before executing the action
+     * @return {@code true} if the action should be executed on the given (selected) bundle
+     */
+    protected boolean isApplicable(InstalledBundle bundle) {
+        return true;
+    }
+
+    /**
+     * @param before the bundle state before executing the action
+     * @param observed the bundle states observed since executing the action in the order of their retrieval, the last
+     *      one being the current state (never empty)
+     * @return {@code true} if the bundle reached the expected state
+     */
+    protected abstract boolean isExpectedState(InstalledBundle before, List<InstalledBundle> observed);
+
+    /**
+     * @return the time in milliseconds to wait between two retrievals of the bundle states during verification
+     */
+    protected long getVerificationPollIntervalMillis() {
+        return VERIFICATION_POLL_INTERVAL_MS;
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if ((bundleNames == null || bundleNames.isEmpty()) && bundleNamePattern == null) {
+            throw new MojoExecutionException("Must provide either sling.bundleNames or sling.bundle.namePattern");
+        }
+        final BundleNameMatcher matcher;
+        try {
+            matcher = bundleNamePattern != null ? new BundleNameMatcher(bundleNamePattern) : null;
+        } catch (PatternSyntaxException e) {
+            throw new MojoExecutionException("Invalid bundle name pattern " + bundleNamePattern, e);
+        }
+        URI consoleTargetURL = getConsoleTargetURL();
+        String action = getAction();
+        try (CloseableHttpClient httpClient = getHttpClient();
+                ParallelExecutor executor = createParallelExecutor()) {
+            DeployContext context =
+                    new DeployContext().log(getLog()).httpClient(httpClient).failOnError(failOnError);
+            Map<Long, InstalledBundle> selectedBundles = selectBundles(
+                    InstalledBundles.fetch(httpClient, consoleTargetURL, getLog()),
+                    bundleNames,
+                    matcher,
+                    bundle -> {
+                        if (!isApplicable(bundle)) {
+                            getLog().debug("Skipping bundle " + bundle);
+                            return false;
+                        }
+                        return true;
+                    });
+            if (selectedBundles.isEmpty()) {
+                getLog().info("No bundles selected");
+                return;
+            }
+
+            List<Callable<Boolean>> actions = new ArrayList<>();
+            for (InstalledBundle bundle : selectedBundles.values()) {
+                actions.add(() -> {
+                    getLog().info("Executing action '" + action + "' on bundle " + bundle);
+                    return FelixBundleActions.execute(
+                            consoleTargetURL, String.valueOf(bundle.getId()), action, context);
+                });
+            }
+            executor.invokeAll(actions);
+
+            if (verifyTimeoutSec > 0) {
+                verifyStates(
+                        () -> InstalledBundles.fetch(httpClient, consoleTargetURL, getLog()),
+                        selectedBundles,
+                        TimeUnit.SECONDS.toMillis(verifyTimeoutSec),
+                        getVerificationPollIntervalMillis());
+            }
+            getLog().info("Action '" + action + "' executed successfully on " + selectedBundles.size() + " bundle(s)");
+        } catch (IOException | MojoExecutionException e) {
+            String msg = "Action '" + action + "' failed, cause: " + e.getMessage();
+            if (failOnError) {
+                throw new MojoExecutionException(msg, e);
+            } else {
+                getLog().error(msg, e);
+            }
+        }
+    }
+
+    /**
+     * Selects the bundles by symbolic name and pattern. The system bundle is never selected.
+     * @param installedBundles the installed bundles
+     * @param bundleNames the symbolic names of the bundles to select (may be {@code null})
+     * @param matcher the matcher for the symbolic names of further bundles to select (may be {@code null})
+     * @param applicable further restricts the selected bundles
+     * @return the selected bundles by bundle id, in the order of selection
+     * @throws MojoExecutionException in case one of the given bundle names is not installed
+     */
+    static Map<Long, InstalledBundle> selectBundles(
+            InstalledBundles installedBundles,
+            List<String> bundleNames,
+            BundleNameMatcher matcher,
+            Predicate<InstalledBundle> applicable)
+            throws MojoExecutionException {
+        Map<Long, InstalledBundle> result = new LinkedHashMap<>();
+        if (bundleNames != null) {
+            for (String bundleName : bundleNames) {
+                InstalledBundle bundle = installedBundles.get(bundleName.trim());
+                if (bundle == null) {
+                    throw new MojoExecutionException("Bundle " + bundleName + " is not installed");
+                }
+                result.put(bundle.getId(), bundle);
+            }
+        }
+        if (matcher != null) {
+            for (InstalledBundle bundle : installedBundles.getAll()) {
+                if (matcher.matches(bundle.getSymbolicName())) {
+                    result.put(bundle.getId(), bundle);
+                }
+            }
+        }
+        // never touch the system bundle
+        result.remove(0L);
+        result.values().removeIf(applicable.negate());
+        return result;
+    }
+
+    /**
+     * Retrieves the states of the bundles until all selected bundles reached the
+     * {@link #isExpectedState(InstalledBundle, List) expected state}.
+     * @param installedBundlesSupplier retrieves the current states of all bundles
+     * @param selectedBundles the selected bundles with their state before executing the action
+     * @param timeoutMillis the time after which the verification fails
+     * @param pollIntervalMillis the time to wait between two retrievals
+     * @throws IOException in case the states could not be retrieved
+     * @throws MojoExecutionException in case the bundles did not reach the expected state within the timeout
+     */
+    void verifyStates(
+            InstalledBundlesSupplier installedBundlesSupplier,
+            Map<Long, InstalledBundle> selectedBundles,
+            long timeoutMillis,
+            long pollIntervalMillis)
+            throws IOException, MojoExecutionException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        Map<Long, List<InstalledBundle>> observedBundles = new LinkedHashMap<>();
+        while (true) {
+            Map<Long, InstalledBundle> currentBundles = new LinkedHashMap<>();
+            for (InstalledBundle bundle : installedBundlesSupplier.get().getAll()) {
+                currentBundles.put(bundle.getId(), bundle);
+            }
+            List<String> failures = new ArrayList<>();
+            for (InstalledBundle before : selectedBundles.values()) {
+                InstalledBundle after = currentBundles.get(before.getId());
+                if (after == null) {
+                    failures.add(before + " is no longer installed");
+                    continue;
+                }
+                List<InstalledBundle> observed =
+                        observedBundles.computeIfAbsent(before.getId(), id -> new ArrayList<>());
+                observed.add(after);
+                if (!isExpectedState(before, observed)) {
+                    failures.add(after + (hasLeftState(before, observed) ? "" : " (state unchanged)"));
+                }
+            }
+            if (failures.isEmpty()) {
+                return;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new MojoExecutionException("Bundles did not reach the expected state within "
+                        + TimeUnit.MILLISECONDS.toSeconds(timeoutMillis) + " seconds: " + String.join(", ", failures));
+            }
+            getLog().debug("Waiting for bundles to reach the expected state: " + failures);
+            try {
+                Thread.sleep(pollIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("Interrupted while verifying bundle states", e);
+            }
+        }
+    }
+
+    /**
+     * Checks whether an action which restarts the bundle asynchronously (i.e. refresh or update) has taken effect:
+     * the bundle must have been observed leaving its previous state and previously active bundles must be active
+     * again. As the state of unresolved bundles does not change, any state is accepted for them.
+     * @param before the bundle state before executing the action
+     * @param observed the bundle states observed since executing the action, the last one being the current state
+     * @return {@code true} if the action has taken effect
+     */
+    static boolean isRestarted(InstalledBundle before, List<InstalledBundle> observed) {
+        if (before.getStateRaw() == Bundle.INSTALLED) {
+            return true;
+        }
+        InstalledBundle current = observed.get(observed.size() - 1);
+        return hasLeftState(before, observed) && (!before.isActive() || current.isActive());
+    }
+
+    private static boolean hasLeftState(InstalledBundle before, List<InstalledBundle> observed) {
+        return observed.stream().anyMatch(bundle -> bundle.getStateRaw() != before.getStateRaw());
+    }
+
+    /**
+     * Retrieves the states of all installed bundles.
+     */
+    @FunctionalInterface
+    interface InstalledBundlesSupplier {
+        InstalledBundles get() throws IOException;
+    }
+}
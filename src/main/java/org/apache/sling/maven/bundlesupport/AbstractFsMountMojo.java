@@ -77,6 +77,7 @@ abstract class AbstractFsMountMojo extends AbstractBundleRequestMojo {
     public void execute() throws MojoExecutionException, MojoFailureException {
         if (skip) {
             getLog().info("Skipping fsmount/fsunmount operation as instructed.");
+            recordSkipped("fsmount/fsunmount", "skipped as instructed");
             return;
         }
 
@@ -88,7 +89,8 @@ abstract class AbstractFsMountMojo extends AbstractBundleRequestMojo {
             // check for Sling-Initial-Content
             File bundleFile = new File(bundleFileName);
             if (bundleFile.exists()) {
-                configureSlingInitialContent(httpClient, consoleTargetUrl, bundleFile);
+                // the configuration diff must not interleave with the one of other modules
+                executeExclusively(() -> configureSlingInitialContent(httpClient, consoleTargetUrl, bundleFile));
                 return;
             } else {
                 getLog().debug("Bundle file at " + bundleFileName + " does not exist");
@@ -109,7 +111,8 @@ abstract class AbstractFsMountMojo extends AbstractBundleRequestMojo {
             }
             if (jcrRootFile != null && filterXmlFile != null) {
                 if (jcrRootFile.exists() && filterXmlFile.exists()) {
-                    configureFileVaultXml(httpClient, consoleTargetUrl, jcrRootFile, filterXmlFile);
+                    executeExclusively(
+                            () -> configureFileVaultXml(httpClient, consoleTargetUrl, jcrRootFile, filterXmlFile));
                     return;
                 } else {
                     getLog().warn("jcr_root directory at " + jcrRootFile + " and/or filter.xml file at " + filterXmlFile
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.sling.maven.bundlesupport.InstalledBundles.InstalledBundle;
+import org.apache.sling.maven.bundlesupport.deploy.BundleDeploymentMethod;
+import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
+import org.apache.sling.maven.bundlesupport.deploy.method.FelixBundleActions;
+
+/**
+ * Common super class of all goals installing multiple bundles at once.
+ * Only the bundles which are not yet installed (in the same or a higher version) are uploaded, in parallel.
+ * With deployment method {@code WebConsole} the bundles are installed in waves. The bundles of a wave are only
+ * started once the whole wave has been installed and the packages are refreshed only once in the end.
+ */
+abstract class AbstractMultiBundleInstallMojo extends AbstractBundleInstallMojo {
+
+    private static final long INSTALLATION_POLL_INTERVAL_MS = 500;
+
+    /**
+     * The number of seconds to wait for the asynchronous installation of the bundles of one wave
+     * via the Felix Web Console.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.bundles.installTimeout", defaultValue = "60")
+    private int installTimeoutSec;
+
+    /**
+     * @param installedBundles the bundles installed on the server
+     * @param bundleFiles the bundles to install
+     * @return the bundles which are not installed yet (in the same or a higher version)
+     */
+    protected List<BundleFile> getMissingBundleFiles(InstalledBundles installedBundles, List<BundleFile> bundleFiles) {
+        List<BundleFile> missingBundleFiles = new ArrayList<>();
+        for (BundleFile bundleFile : bundleFiles) {
+            if (installedBundles.isInstalled(bundleFile.getSymbolicName(), bundleFile.getVersion())) {
+                getLog().debug("Bundle " + bundleFile.getSymbolicName() + " " + bundleFile.getVersion()
+                        + " (or higher) already installed.");
+                recordSkipped(
+                        "install " + bundleFile.getSymbolicName() + " " + bundleFile.getVersion(), "already installed");
+            } else {
+                missingBundleFiles.add(bundleFile);
+            }
+        }
+        return missingBundleFiles;
+    }
+
+    /**
+     * Installs the given bundles in waves ordered by their package dependencies.
+     * @param httpClient the http client to use
+     * @param executor the executor for the parallel uploads
+     * @param bundleFiles the bundles to install
+     * @param bundleStartLevel the start level for the given bundles
+     * @throws IOException in case the communication with the server failed
+     * @throws MojoExecutionException in case some bundle could not be installed
+     */
+    protected void installInWaves(
+            CloseableHttpClient httpClient,
+            ParallelExecutor executor,
+            List<BundleFile> bundleFiles,
+            String bundleStartLevel)
+            throws IOException, MojoExecutionException {
+        DeployContext context = createDeployContext(httpClient).bundleStartLevel(bundleStartLevel);
+        if (getDeploymentMethod() != BundleDeploymentMethod.WebConsole) {
+            // the JCR installer takes care of the ordering itself
+            deploy(executor, bundleFiles, context);
+            return;
+        }
+        DeployContext installContext = createDeployContext(httpClient)
+                .bundleStartLevel(bundleStartLevel)
+                .bundleStart(false)
+                .refreshPackages(false);
+        List<List<BundleFile>> waves = BundleInstallWaves.compute(bundleFiles);
+        getLog().debug("Installing bundles in " + waves.size() + " wave(s) ordered by their package dependencies");
+        for (List<BundleFile> wave : waves) {
+            getLog().debug("Installing wave " + wave);
+            deploy(executor, wave, installContext);
+            // the web console installs asynchronously
+            List<InstalledBundle> installedBundles = waitForInstallation(httpClient, wave);
+            if (context.isBundleStart()) {
+                URI consoleTargetURL = getConsoleTargetURL();
+                List<Callable<Boolean>> starts = new ArrayList<>();
+                for (InstalledBundle installedBundle : installedBundles) {
+                    if (!installedBundle.isFragment()) {
+                        starts.add(() -> FelixBundleActions.execute(
+                                consoleTargetURL,
+                                String.valueOf(installedBundle.getId()),
+                                FelixBundleActions.ACTION_START,
+                                context));
+                    }
+                }
+                executor.invokeAll(starts);
+            }
+        }
+    }
+
+    /**
+     * Refreshes the packages once after all bundles have been installed via {@link #installInWaves}
+     * (only if configured and only for deployment method {@code WebConsole}).
+     * @param httpClient the http client to use
+     * @throws IOException in case the refresh failed
+     * @throws MojoExecutionException in case of an invalid configuration
+     */
+    protected void refreshPackages(CloseableHttpClient httpClient) throws IOException, MojoExecutionException {
+        DeployContext context = createDeployContext(httpClient);
+        if (getDeploymentMethod() == BundleDeploymentMethod.WebConsole && context.isRefreshPackages()) {
+            FelixBundleActions.refreshPackages(getConsoleTargetURL(), context);
+        }
+    }
+
+    private void deploy(ParallelExecutor executor, List<BundleFile> bundleFiles, DeployContext context)
+            throws MojoExecutionException {
+        URI targetURL = getTargetURL();
+        BundleDeploymentMethod deploymentMethod = getDeploymentMethod();
+        List<Callable<Void>> deployments = new ArrayList<>();
+        for (BundleFile bundleFile : bundleFiles) {
+            deployments.add(() -> {
+                getLog().info("Installing Bundle " + bundleFile.getSymbolicName() + " " + bundleFile.getVersion() + "("
+                        + bundleFile.getFile() + ") to " + targetURL + " via " + deploymentMethod + "...");
+                try {
+                    deploymentMethod
+                            .execute()
+                            .deploy(targetURL, bundleFile.getFile(), bundleFile.getSymbolicName(), context);
+                } catch (IOException e) {
+                    throw new MojoExecutionException(
+                            "Installation of " + bundleFile.getFile() + " failed, cause: " + e.getMessage(), e);
+                }
+                return null;
+            });
+        }
+        executor.invokeAll(deployments);
+    }
+
+    private List<InstalledBundle> waitForInstallation(CloseableHttpClient httpClient, List<BundleFile> bundleFiles)
+            throws IOException, MojoExecutionException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(installTimeoutSec);
+        while (true) {
+            InstalledBundles installedBundles = InstalledBundles.fetch(httpClient, getConsoleTargetURL(), getLog());
+            List<InstalledBundle> result = new ArrayList<>();
+            List<BundleFile> pending = new ArrayList<>();
+            for (BundleFile bundleFile : bundleFiles) {
+                // the exact version, as an uploaded bundle may also replace a higher version of the same bundle
+                InstalledBundle installedBundle =
+                        installedBundles.get(bundleFile.getSymbolicName(), bundleFile.getVersion());
+                if (installedBundle != null) {
+                    result.add(installedBundle);
+                } else {
+                    pending.add(bundleFile);
+                }
+            }
+            if (pending.isEmpty()) {
+                return result;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new MojoExecutionException(
+                        "Bundles not installed within " + installTimeoutSec + " seconds: " + pending);
+            }
+            getLog().debug("Waiting for installation of " + pending);
+            try {
+                Thread.sleep(INSTALLATION_POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("Interrupted while waiting for bundle installation", e);
+            }
+        }
+    }
+}
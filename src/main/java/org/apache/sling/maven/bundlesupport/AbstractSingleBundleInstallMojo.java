@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.sling.maven.bundlesupport.deploy.BundleDeploymentMethod;
+
+/**
+ * Common super class of all goals dealing with a single bundle file.
+ */
+abstract class AbstractSingleBundleInstallMojo extends AbstractBundleInstallMojo {
+
+    protected abstract File getBundleFileName() throws MojoExecutionException;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+
+        // get the file to upload
+        File bundleFile = getBundleFileName();
+
+        // only upload if packaging as an osgi-bundle
+        if (!bundleFile.exists()) {
+            throw new MojoExecutionException("The given bundle file " + bundleFile + " does not exist!");
+        }
+
+        String bundleName = getBundleSymbolicName(bundleFile);
+        if (bundleName == null) {
+            throw new MojoExecutionException("The given file " + bundleFile + " is no OSGi bundle");
+        }
+
+        URI targetURL = getTargetURL();
+
+        BundleDeploymentMethod deploymentMethod = getDeploymentMethod();
+        getLog().info("Installing Bundle " + bundleName + "(" + bundleFile + ") to " + targetURL + " via "
+                + deploymentMethod + "...");
+
+        try (CloseableHttpClient httpClient = getHttpClient()) {
+            deploymentMethod.execute().deploy(targetURL, bundleFile, bundleName, createDeployContext(httpClient));
+            getLog().info("Bundle installed successfully");
+            if (mountByFS) {
+                executeExclusively(() -> configure(httpClient, getConsoleTargetURL(), bundleFile));
+            }
+        } catch (IOException e) {
+            String msg = "Installation failed, cause: " + e.getMessage();
+            if (failOnError) {
+                throw new MojoExecutionException(msg, e);
+            } else {
+                getLog().error(msg, e);
+            }
+        }
+    }
+}
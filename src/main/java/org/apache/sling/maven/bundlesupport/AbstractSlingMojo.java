@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.sling.maven.bundlesupport.report.ExecutionReport;
+import org.eclipse.aether.RepositorySystemSession;
+
+/**
+ * Base class of all goals of this plugin, providing the Maven session and the build report.
+ */
+abstract class AbstractSlingMojo extends AbstractMojo {
+
+    /**
+     * If set to {@code true} an aggregated report of all executions of this plugin's goals in the reactor is written
+     * at the end of the build to {@code sling-plugin-report.html} and {@code sling-plugin-report.json} in the
+     * <a href="#reportDirectory">report directory</a>. It contains the wall time per module, the critical path of
+     * the reactor, the slowest HTTP calls, the transferred bytes and the skipped or cached operations.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.report", defaultValue = "false")
+    private boolean report;
+
+    /**
+     * The directory to which the report is written. Only the value used by the first goal execution of the build
+     * is effective.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.reportDirectory", defaultValue = "${session.executionRootDirectory}/target")
+    private File reportDirectory;
+
+    @Parameter(defaultValue = "${session}", readonly = true)
+    protected MavenSession session;
+
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    protected MojoExecution mojoExecution;
+
+    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true, required = true)
+    protected RepositorySystemSession repoSession;
+
+    /**
+     * @return the report of this goal execution or {@code null} if the report is not enabled
+     */
+    protected ExecutionReport getExecutionReport() {
+        if (!report || session == null || mojoExecution == null) {
+            return null;
+        }
+        return BuildReportListener.getExecutionReport(repoSession, session, mojoExecution, reportDirectory, getLog());
+    }
+
+    /**
+     * Adds this goal execution to the report (if enabled) even if it does not record anything.
+     * The report is only written if at least one goal execution has been added this way, later goal executions
+     * of this plugin are added automatically.
+     */
+    protected void addToReport() {
+        getExecutionReport();
+    }
+
+    /**
+     * Records an operation which has been skipped in the report (if enabled).
+     * @param operation the operation
+     * @param reason the reason for skipping
+     */
+    protected void recordSkipped(String operation, String reason) {
+        ExecutionReport executionReport = getExecutionReport();
+        if (executionReport != null) {
+            executionReport.recordSkipped(operation, reason);
+        }
+    }
+}
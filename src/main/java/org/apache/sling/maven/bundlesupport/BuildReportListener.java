@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.maven.execution.BuildSummary;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.apache.sling.maven.bundlesupport.report.BuildReport;
+import org.apache.sling.maven.bundlesupport.report.CriticalPath;
+import org.apache.sling.maven.bundlesupport.report.ExecutionReport;
+import org.eclipse.aether.RepositorySystemSession;
+
+/**
+ * Tracks all executions of this plugin's goals in the reactor and writes the {@link BuildReport} at the end of the
+ * Maven session. Only a single instance is installed per session.
+ */
+final class BuildReportListener extends DelegatingExecutionListener {
+
+    private final BuildReport report;
+    private final AtomicBoolean installed = new AtomicBoolean();
+    private final Map<MojoExecution, ExecutionReport> executions = new ConcurrentHashMap<>();
+    private final File directory;
+    private final Log log;
+    private String pluginKey;
+
+    private BuildReportListener(MavenSession session, File directory, Log log) {
+        this.report = new BuildReport(session.getRequest().getStartTime().getTime());
+        this.directory = directory;
+        this.log = log;
+    }
+
+    /**
+     * Returns the report of the given goal execution, installs the listener with the first call in a session.
+     * @param repoSession the repository system session
+     * @param session the Maven session
+     * @param mojoExecution the current goal execution
+     * @param directory the directory to write the report to
+     * @param log the log
+     * @return the report of the goal execution
+     */
+    static ExecutionReport getExecutionReport(
+            RepositorySystemSession repoSession,
+            MavenSession session,
+            MojoExecution mojoExecution,
+            File directory,
+            Log log) {
+        BuildReportListener listener = SessionDataSupport.getOrCreate(
+                repoSession, BuildReportListener.class, () -> new BuildReportListener(session, directory, log));
+        if (listener.installed.compareAndSet(false, true)) {
+            listener.pluginKey = mojoExecution.getPlugin().getKey();
+            listener.install(session);
+        }
+        return listener.executions.computeIfAbsent(
+                mojoExecution, execution -> listener.startExecution(session.getCurrentProject(), execution));
+    }
+
+    @Override
+    public void mojoStarted(ExecutionEvent event) {
+        if (isPluginExecution(event)) {
+            executions.computeIfAbsent(
+                    event.getMojoExecution(), execution -> startExecution(event.getProject(), execution));
+        }
+        super.mojoStarted(event);
+    }
+
+    @Override
+    public void mojoSucceeded(ExecutionEvent event) {
+        endExecution(event, ExecutionReport.RESULT_SUCCESS);
+        super.mojoSucceeded(event);
+    }
+
+    @Override
+    public void mojoFailed(ExecutionEvent event) {
+        endExecution(event, ExecutionReport.RESULT_FAILED);
+        super.mojoFailed(event);
+    }
+
+    @Override
+    public void mojoSkipped(ExecutionEvent event) {
+        if (isPluginExecution(event)) {
+            report.endExecution(
+                    startExecution(event.getProject(), event.getMojoExecution()), ExecutionReport.RESULT_SKIPPED);
+        }
+        super.mojoSkipped(event);
+    }
+
+    @Override
+    public void sessionEnded(ExecutionEvent event) {
+        try {
+            setModules(event.getSession());
+            report.write(directory);
+            log.info("Wrote report of Sling Maven Plugin to " + new File(directory, BuildReport.HTML_FILE_NAME));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write report to " + directory, e);
+        }
+        super.sessionEnded(event);
+    }
+
+    private ExecutionReport startExecution(MavenProject project, MojoExecution execution) {
+        return report.startExecution(getModuleName(project), execution.getGoal(), execution.getExecutionId());
+    }
+
+    private void endExecution(ExecutionEvent event, String result) {
+        if (isPluginExecution(event)) {
+            ExecutionReport execution = executions.remove(event.getMojoExecution());
+            if (execution != null) {
+                report.endExecution(execution, result);
+            }
+        }
+    }
+
+    private void setModules(MavenSession session) {
+        List<String> moduleNames = new ArrayList<>();
+        Map<String, Long> durations = new HashMap<>();
+        Map<String, List<String>> upstreamModules = new HashMap<>();
+        List<BuildReport.Module> modules = new ArrayList<>();
+        ProjectDependencyGraph graph = session.getProjectDependencyGraph();
+        for (MavenProject project : session.getProjects()) {
+            String name = getModuleName(project);
+            BuildSummary summary = session.getResult().getBuildSummary(project);
+            long wallTime = summary != null ? summary.getTime() : 0;
+            moduleNames.add(name);
+            durations.put(name, wallTime);
+            modules.add(new BuildReport.Module(name, wallTime));
+            List<String> upstream = new ArrayList<>();
+            if (graph != null) {
+                for (MavenProject upstreamProject : graph.getUpstreamProjects(project, false)) {
+                    upstream.add(getModuleName(upstreamProject));
+                }
+            }
+            upstreamModules.put(name, upstream);
+        }
+        report.setModules(modules, CriticalPath.compute(moduleNames, durations, upstreamModules));
+    }
+
+    private static String getModuleName(MavenProject project) {
+        return project != null ? project.getGroupId() + ":" + project.getArtifactId() : "unknown";
+    }
+
+    private boolean isPluginExecution(ExecutionEvent event) {
+        return event.getMojoExecution() != null
+                && pluginKey.equals(event.getMojoExecution().getPlugin().getKey());
+    }
+}
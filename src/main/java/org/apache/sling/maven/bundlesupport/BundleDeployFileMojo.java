@@ -18,8 +18,6 @@
  */
 package org.apache.sling.maven.bundlesupport;
 
-import java.io.File;
-
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -52,8 +50,8 @@ public class BundleDeployFileMojo extends AbstractBundleDeployMojo {
     }
 
     @Override
-    protected File fixBundleVersion(File jarFile) {
+    protected VersionChange getVersionChange() {
         // we just upload the file as is (the obr might fix the version, too)
-        return jarFile;
+        return null;
     }
 }
@@ -18,8 +18,6 @@
  */
 package org.apache.sling.maven.bundlesupport;
 
-import java.io.File;
-
 import org.apache.maven.artifact.versioning.ArtifactVersion;
 import org.apache.maven.artifact.versioning.OverConstrainedVersionException;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -74,6 +72,7 @@ public class BundleDeployMojo extends AbstractBundleDeployMojo {
         // don't do anything, if this step is to be skipped
         if (skip) {
             getLog().debug("Skipping bundle deployment as instructed");
+            recordSkipped("deploy", "skipped as instructed");
             return;
         }
 
@@ -86,7 +85,7 @@ public class BundleDeployMojo extends AbstractBundleDeployMojo {
     }
 
     @Override
-    protected File fixBundleVersion(File jarFile) throws MojoExecutionException {
+    protected VersionChange getVersionChange() {
         // if this is a snapshot, replace "SNAPSHOT" with the date generated
         // by the maven deploy plugin
         if (this.project.getVersion().indexOf("SNAPSHOT") > 0) {
@@ -106,7 +105,7 @@ public class BundleDeployMojo extends AbstractBundleDeployMojo {
                 newVersion = newVersion.substring(0, pos) + newVersion.substring(pos + 1);
                 pos = newVersion.indexOf('.', pos + 1);
             }
-            return changeVersion(jarFile, project.getVersion(), newVersion);
+            return new VersionChange(project.getVersion(), newVersion);
         }
 
         // if this is a final release append "final"
@@ -114,13 +113,13 @@ public class BundleDeployMojo extends AbstractBundleDeployMojo {
             final ArtifactVersion v = this.project.getArtifact().getSelectedVersion();
             if (v.getBuildNumber() == 0 && v.getQualifier() == null) {
                 final String newVersion = this.project.getArtifact().getVersion() + ".FINAL";
-                return changeVersion(jarFile, project.getVersion(), newVersion);
+                return new VersionChange(project.getVersion(), newVersion);
             }
         } catch (OverConstrainedVersionException ocve) {
             // we ignore this and don't append "final"!
         }
 
-        // just return the file in case of some issues
-        return jarFile;
+        // just upload the file as is in case of some issues
+        return null;
     }
 }
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+
+import org.apache.sling.maven.bundlesupport.bundle.BundleMetadata;
+import org.apache.sling.maven.bundlesupport.bundle.BundleMetadataCache;
+
+/**
+ * OSGi bundle file together with the manifest metadata relevant for ordering its installation.
+ */
+final class BundleFile {
+
+    private final File file;
+    private final String symbolicName;
+    private final String version;
+    private final Set<String> exportedPackages;
+    private final Set<String> importedPackages;
+    private final Set<String> requiredBundles;
+    private final String fragmentHost;
+    private final String fingerprint;
+
+    BundleFile(
+            File file,
+            String symbolicName,
+            String version,
+            Set<String> exportedPackages,
+            Set<String> importedPackages,
+            Set<String> requiredBundles,
+            String fragmentHost,
+            String fingerprint) {
+        this.file = file;
+        this.symbolicName = symbolicName;
+        this.version = version;
+        this.exportedPackages = exportedPackages;
+        this.importedPackages = importedPackages;
+        this.requiredBundles = requiredBundles;
+        this.fragmentHost = fragmentHost;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Returns the metadata from the manifest of the given file.
+     * @param file the JAR file
+     * @param bundleMetadataCache the cache of the metadata
+     * @return the bundle file or {@code null} in case the given file is no OSGi bundle
+     * @throws IOException in case the file could not be read
+     */
+    static BundleFile read(File file, BundleMetadataCache bundleMetadataCache) throws IOException {
+        BundleMetadata metadata = bundleMetadataCache.get(file);
+        if (!metadata.isBundle()) {
+            return null;
+        }
+        return new BundleFile(
+                file,
+                metadata.getSymbolicName(),
+                metadata.getVersion(),
+                metadata.getExportedPackages(),
+                metadata.getImportedPackages(),
+                metadata.getRequiredBundles(),
+                metadata.getFragmentHost(),
+                metadata.getFingerprint());
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    String getSymbolicName() {
+        return symbolicName;
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    Set<String> getExportedPackages() {
+        return exportedPackages;
+    }
+
+    /**
+     * @return the packages imported with mandatory resolution
+     */
+    Set<String> getImportedPackages() {
+        return importedPackages;
+    }
+
+    /**
+     * @return the symbolic names of the bundles required with mandatory resolution
+     */
+    Set<String> getRequiredBundles() {
+        return requiredBundles;
+    }
+
+    /**
+     * @return the symbolic name of the fragment host or {@code null} in case the bundle is no fragment
+     */
+    String getFragmentHost() {
+        return fragmentHost;
+    }
+
+    /**
+     * @return the fingerprint of the file's content
+     * @see BundleMetadata#getFingerprint()
+     */
+    String getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public String toString() {
+        return symbolicName + " " + version + " (" + file + ")";
+    }
+}
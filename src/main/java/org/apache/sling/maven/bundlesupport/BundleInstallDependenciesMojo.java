@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+/**
+ * Install all OSGi bundles the current Maven project depends on to a running Sling instance.
+ * The state of the Sling instance is retrieved once via the
+ * <a href="https://felix.apache.org/documentation/subprojects/apache-felix-web-console/web-console-restful-api.html#get-requests">Felix Web Console</a>
+ * (at {@link #slingConsoleUrl}) and only those bundles which are not installed yet or only installed in a lower version
+ * are uploaded (in parallel). Dependencies which are no OSGi bundles or whose scope is not contained in
+ * {@link #includeScopes} are skipped.
+ * <p>
+ * With deployment method {@code WebConsole} the bundles are installed in waves derived from their
+ * {@code Import-Package}/{@code Export-Package} (and {@code Require-Bundle}) headers, fragments are installed in the
+ * same wave as their host.
+ * The bundles of a wave are only started once the whole wave has been installed and the packages are refreshed
+ * only once in the end.
+ *
+ * To install a single bundle rather use goal <a href="install-file-mojo.html">install-file</a>.
+ * For details refer to <a href="bundle-installation.html">Bundle Installation</a>.
+ * @since 3.0.5
+ */
+@Mojo(
+        name = "install-dependencies",
+        requiresProject = true,
+        requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME,
+        threadSafe = true)
+public class BundleInstallDependenciesMojo extends AbstractMultiBundleInstallMojo {
+
+    /**
+     * Whether to consider transitive dependencies as well. If {@code false} only the direct dependencies
+     * of the project are installed.
+     */
+    @Parameter(property = "sling.installDependencies.transitive", defaultValue = "true")
+    private boolean transitive;
+
+    /**
+     * The scopes of the dependencies to install. By default this includes scope {@code provided} as most OSGi API
+     * bundles are declared with it. Supported are {@code compile}, {@code provided}, {@code runtime} and
+     * {@code system}.
+     */
+    @Parameter(property = "sling.installDependencies.includeScopes", defaultValue = "compile,provided,runtime")
+    private List<String> includeScopes;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        List<BundleFile> bundleFiles = getDependencyBundleFiles(project.getArtifacts(), transitive, includeScopes);
+        if (bundleFiles.isEmpty()) {
+            getLog().info("Project does not depend on any OSGi bundles");
+            return;
+        }
+
+        try (CloseableHttpClient httpClient = getHttpClient();
+                ParallelExecutor executor = createParallelExecutor()) {
+            InstalledBundles installedBundles = InstalledBundles.fetch(httpClient, getConsoleTargetURL(), getLog());
+            List<BundleFile> missingBundleFiles = getMissingBundleFiles(installedBundles, bundleFiles);
+            getLog().info("Installing " + missingBundleFiles.size() + " of " + bundleFiles.size()
+                    + " bundle dependencies (the others are already installed)");
+            if (missingBundleFiles.isEmpty()) {
+                return;
+            }
+            installInWaves(
+                    httpClient,
+                    executor,
+                    missingBundleFiles,
+                    createDeployContext(httpClient).getBundleStartLevel());
+            refreshPackages(httpClient);
+            getLog().info("Bundles installed successfully");
+        } catch (IOException | MojoExecutionException e) {
+            String msg = "Installation failed, cause: " + e.getMessage();
+            if (failOnError) {
+                throw new MojoExecutionException(msg, e);
+            } else {
+                getLog().error(msg, e);
+            }
+        }
+    }
+
+    /**
+     * @param artifacts the resolved artifacts of the project
+     * @param transitive whether to consider transitive dependencies as well
+     * @param includeScopes the scopes of the artifacts to consider
+     * @return the bundles among the given artifacts
+     * @throws MojoExecutionException in case a JAR file could not be read
+     */
+    List<BundleFile> getDependencyBundleFiles(
+            Collection<Artifact> artifacts, boolean transitive, Collection<String> includeScopes)
+            throws MojoExecutionException {
+        List<BundleFile> result = new ArrayList<>();
+        for (Artifact artifact : artifacts) {
+            if (!transitive && !isDirectDependency(artifact)) {
+                continue;
+            }
+            if (!includeScopes.contains(artifact.getScope())) {
+                getLog().debug("Skipping dependency " + artifact + " due to its scope");
+                continue;
+            }
+            File file = artifact.getFile();
+            if (file == null || !file.isFile() || !artifact.getArtifactHandler().isAddedToClasspath()) {
+                getLog().debug("Skipping dependency " + artifact + " as it is no JAR file");
+                continue;
+            }
+            final BundleFile bundleFile;
+            try {
+                bundleFile = readBundleFile(file);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Could not read manifest from " + file, e);
+            }
+            if (bundleFile == null) {
+                getLog().debug("Skipping dependency " + artifact + " as it is no OSGi bundle");
+                continue;
+            }
+            result.add(bundleFile);
+        }
+        return result;
+    }
+
+    /**
+     * @param artifact a resolved artifact of the project
+     * @return {@code true} in case the artifact is a direct dependency of the project (i.e. its trail only contains the
+     *      project and the artifact itself)
+     */
+    static boolean isDirectDependency(Artifact artifact) {
+        List<String> trail = artifact.getDependencyTrail();
+        return trail != null && trail.size() == 2;
+    }
+}
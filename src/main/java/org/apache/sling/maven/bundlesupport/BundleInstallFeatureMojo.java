@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.sling.maven.bundlesupport.FeatureBundles.FeatureBundle;
+import org.eclipse.aether.resolution.ArtifactResult;
+
+/**
+ * Install all bundles of a <a href="https://sling.apache.org/documentation/development/feature-model.html">Sling Feature Model</a>
+ * file to a running Sling instance.
+ * All bundles are resolved from the Maven repository in one batch, in parallel to retrieving the state of the Sling
+ * instance via the
+ * <a href="https://felix.apache.org/documentation/subprojects/apache-felix-web-console/web-console-restful-api.html#get-requests">Felix Web Console</a>
+ * (at {@link #slingConsoleUrl}). Only those bundles which are not installed yet or only installed in a lower version
+ * are uploaded (in parallel).
+ * <p>
+ * The bundles are installed grouped by their {@code start-order} (which is also used as start level), bundles without
+ * {@code start-order} use the start level given by {@code sling.bundle.startlevel}.
+ * With deployment method {@code WebConsole} the bundles of each group are further ordered in waves
+ * derived from their {@code Import-Package}/{@code Export-Package} headers, the same as for goal
+ * <a href="install-dependencies-mojo.html">install-dependencies</a>.
+ * <p>
+ * Only the {@code bundles} section of the feature is evaluated, configurations, framework properties and
+ * extensions are ignored.
+ * @since 3.0.5
+ */
+@Mojo(name = "install-feature", requiresProject = false, threadSafe = true)
+public class BundleInstallFeatureMojo extends AbstractMultiBundleInstallMojo {
+
+    /**
+     * The Sling Feature Model JSON file containing the bundles to install.
+     */
+    @Parameter(property = "sling.featureFile", required = true)
+    private File featureFile;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        List<FeatureBundle> featureBundles = readFeatureBundles();
+        if (featureBundles.isEmpty()) {
+            getLog().info("Feature " + featureFile + " does not contain any bundles");
+            return;
+        }
+
+        try (CloseableHttpClient httpClient = getHttpClient();
+                ParallelExecutor executor = createParallelExecutor()) {
+            // resolve all bundles in one batch while retrieving the state of all bundles
+            Future<List<ArtifactResult>> resolvedArtifacts = executor.submit(() -> resolveArtifacts(
+                    featureBundles.stream().map(FeatureBundle::getArtifact).collect(Collectors.toList())));
+            InstalledBundles installedBundles = InstalledBundles.fetch(httpClient, getConsoleTargetURL(), getLog());
+            Map<Integer, List<BundleFile>> bundleFilesByStartLevel =
+                    getBundleFilesByStartLevel(
+                            featureBundles,
+                            ParallelExecutor.get(resolvedArtifacts),
+                            createDeployContext(httpClient).getBundleStartLevel());
+
+            int bundleCount = 0;
+            int installedBundleCount = 0;
+            for (Map.Entry<Integer, List<BundleFile>> entry : bundleFilesByStartLevel.entrySet()) {
+                List<BundleFile> missingBundleFiles = getMissingBundleFiles(installedBundles, entry.getValue());
+                bundleCount += entry.getValue().size();
+                installedBundleCount += missingBundleFiles.size();
+                if (!missingBundleFiles.isEmpty()) {
+                    getLog().info("Installing " + missingBundleFiles.size() + " bundle(s) with start level "
+                            + entry.getKey());
+                    installInWaves(httpClient, executor, missingBundleFiles, String.valueOf(entry.getKey()));
+                }
+            }
+            if (installedBundleCount > 0) {
+                refreshPackages(httpClient);
+            }
+            getLog().info("Installed " + installedBundleCount + " of " + bundleCount
+                    + " bundles of feature (the others are already installed)");
+        } catch (IOException | MojoExecutionException e) {
+            String msg = "Installation failed, cause: " + e.getMessage();
+            if (failOnError) {
+                throw new MojoExecutionException(msg, e);
+            } else {
+                getLog().error(msg, e);
+            }
+        }
+    }
+
+    private List<FeatureBundle> readFeatureBundles() throws MojoExecutionException {
+        try {
+            return FeatureBundles.parse(new String(Files.readAllBytes(featureFile.toPath()), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not read feature file " + featureFile, e);
+        } catch (RuntimeException e) {
+            throw new MojoExecutionException("Invalid feature file " + featureFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param featureBundles the bundles of the feature
+     * @param artifactResults the resolved artifacts of the bundles (in the same order)
+     * @param defaultStartLevel the start level of bundles without start order
+     * @return the bundle files by start level
+     * @throws MojoExecutionException in case a bundle could not be read or the default start level is required but
+     *      not numeric
+     */
+    Map<Integer, List<BundleFile>> getBundleFilesByStartLevel(
+            List<FeatureBundle> featureBundles, List<ArtifactResult> artifactResults, String defaultStartLevel)
+            throws MojoExecutionException {
+        Map<Integer, List<BundleFile>> result = new TreeMap<>();
+        for (int i = 0; i < featureBundles.size(); i++) {
+            FeatureBundle featureBundle = featureBundles.get(i);
+            File file = getResolvedFile(artifactResults.get(i));
+            final BundleFile bundleFile;
+            try {
+                bundleFile = readBundleFile(file);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Could not read manifest from " + file, e);
+            }
+            if (bundleFile == null) {
+                getLog().warn("Skipping " + featureBundle.getArtifact() + " as it is no OSGi bundle");
+                continue;
+            }
+            int startLevel = featureBundle.getStartOrder();
+            if (startLevel <= 0) {
+                try {
+                    startLevel = Integer.parseInt(defaultStartLevel.trim());
+                } catch (NumberFormatException e) {
+                    throw new MojoExecutionException("Invalid start level '" + defaultStartLevel + "' (parameter "
+                            + "sling.bundle.startlevel) for bundle " + featureBundle.getArtifact()
+                            + " without start-order in feature file " + featureFile + ", must be numeric", e);
+                }
+            }
+            result.computeIfAbsent(startLevel, key -> new ArrayList<>()).add(bundleFile);
+        }
+        return result;
+    }
+}
@@ -24,6 +24,7 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.util.StringUtils;
+import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
 
 /**
@@ -38,8 +39,8 @@ import org.eclipse.aether.artifact.DefaultArtifact;
  * To install a bundle which has been built from the current Maven project rather use goal <a href="install-mojo.html">install</a>.
  * For details refer to <a href="bundle-installation.html">Bundle Installation</a>.
  */
-@Mojo(name = "install-file", requiresProject = false)
-public class BundleInstallFileMojo extends AbstractBundleInstallMojo {
+@Mojo(name = "install-file", requiresProject = false, threadSafe = true)
+public class BundleInstallFileMojo extends AbstractSingleBundleInstallMojo {
 
     /**
      * The path of the bundle file to install.
@@ -109,22 +110,31 @@ public class BundleInstallFileMojo extends AbstractBundleInstallMojo {
         if (artifactId == null && artifact == null) {
             return null;
         }
+        final Artifact resolvableArtifact;
         if (artifactId == null) {
-            String[] tokens = StringUtils.split(artifact, ":");
-            if (tokens.length != 3 && tokens.length != 4 && tokens.length != 5) {
-                throw new MojoExecutionException("Invalid artifact, you must specify "
-                        + "groupId:artifactId:version[:packaging[:classifier]] " + artifact);
-            }
-            groupId = tokens[0];
-            artifactId = tokens[1];
-            version = tokens[2];
-            if (tokens.length >= 4) packaging = tokens[3];
-            if (tokens.length == 5) classifier = tokens[4];
+            resolvableArtifact = toArtifact(artifact);
+        } else {
+            resolvableArtifact = new DefaultArtifact(groupId, artifactId, classifier, packaging, version);
         }
 
-        File resolvedArtifactFile =
-                resolveArtifact(new DefaultArtifact(groupId, artifactId, classifier, packaging, version));
+        File resolvedArtifactFile = resolveArtifact(resolvableArtifact);
         getLog().info("Resolved artifact to " + resolvedArtifactFile.getAbsolutePath());
         return resolvedArtifactFile;
     }
+
+    /**
+     * @param artifact a string of the form {@code groupId:artifactId:version[:packaging[:classifier]]}
+     * @return the artifact
+     * @throws MojoExecutionException in case the given string has an invalid format
+     */
+    static Artifact toArtifact(String artifact) throws MojoExecutionException {
+        String[] tokens = StringUtils.split(artifact, ":");
+        if (tokens.length != 3 && tokens.length != 4 && tokens.length != 5) {
+            throw new MojoExecutionException("Invalid artifact, you must specify "
+                    + "groupId:artifactId:version[:packaging[:classifier]] " + artifact);
+        }
+        String packaging = tokens.length >= 4 ? tokens[3] : "jar";
+        String classifier = tokens.length == 5 ? tokens[4] : null;
+        return new DefaultArtifact(tokens[0], tokens[1], classifier, packaging, tokens[2]);
+    }
 }
@@ -32,8 +32,8 @@ import org.apache.maven.plugins.annotations.Parameter;
  * For details refer to <a href="bundle-installation.html">Bundle Installation</a>.
  * To install an arbitrary bundle not attached to the current Maven project use goal <a href="install-file-mojo.html">install-file</a>.
  */
-@Mojo(name = "install", defaultPhase = LifecyclePhase.INSTALL)
-public class BundleInstallMojo extends AbstractBundleInstallMojo {
+@Mojo(name = "install", defaultPhase = LifecyclePhase.INSTALL, threadSafe = true)
+public class BundleInstallMojo extends AbstractSingleBundleInstallMojo {
 
     /**
      * Whether to skip this step even though it has been configured in the
@@ -47,6 +47,7 @@ public class BundleInstallMojo extends AbstractBundleInstallMojo {
         // don't do anything, if this step is to be skipped
         if (skip) {
             getLog().debug("Skipping bundle installation as instructed");
+            recordSkipped("install", "skipped as instructed");
             return;
         }
         super.execute();
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Orders bundles into waves so that the providers of all packages (and required bundles) are installed
+ * in an earlier wave than their consumers. Bundles within the same wave don't depend on each other and can therefore
+ * be installed in parallel. Bundles with cyclic dependencies end up in the same wave.
+ * Fragments end up in the same wave as their host, so they are installed before the host is started and are attached
+ * when the host is resolved (instead of only after a refresh of the host).
+ * Only dependencies between the given bundles are considered, all other imports are expected to be satisfied by
+ * the bundles already installed.
+ */
+final class BundleInstallWaves {
+
+    private BundleInstallWaves() {
+        // static methods only
+    }
+
+    /**
+     * @param bundles the bundles to install
+     * @return the waves in installation order, each containing the bundles in the order given
+     */
+    static List<List<BundleFile>> compute(List<BundleFile> bundles) {
+        Map<BundleFile, Set<BundleFile>> dependencies = getDependencies(bundles);
+
+        // the strongly connected components are emitted after all components they depend on
+        Map<BundleFile, Integer> waveIndexes = new IdentityHashMap<>();
+        int waveCount = 0;
+        for (List<BundleFile> component : new StronglyConnectedComponents(bundles, dependencies).compute()) {
+            int waveIndex = 0;
+            for (BundleFile bundle : component) {
+                for (BundleFile dependency : dependencies.get(bundle)) {
+                    Integer dependencyWaveIndex = waveIndexes.get(dependency);
+                    // dependencies within the same component are not yet assigned
+                    if (dependencyWaveIndex != null) {
+                        waveIndex = Math.max(waveIndex, dependencyWaveIndex + 1);
+                    }
+                }
+            }
+            for (BundleFile bundle : component) {
+                waveIndexes.put(bundle, waveIndex);
+            }
+            waveCount = Math.max(waveCount, waveIndex + 1);
+        }
+
+        List<List<BundleFile>> waves = new ArrayList<>();
+        for (int i = 0; i < waveCount; i++) {
+            waves.add(new ArrayList<>());
+        }
+        for (BundleFile bundle : bundles) {
+            waves.get(waveIndexes.get(bundle)).add(bundle);
+        }
+        return waves;
+    }
+
+    private static Map<BundleFile, Set<BundleFile>> getDependencies(Collection<BundleFile> bundles) {
+        Map<String, List<BundleFile>> exporters = new HashMap<>();
+        Map<String, List<BundleFile>> bundlesBySymbolicName = new HashMap<>();
+        for (BundleFile bundle : bundles) {
+            for (String exportedPackage : bundle.getExportedPackages()) {
+                exporters
+                        .computeIfAbsent(exportedPackage, key -> new ArrayList<>())
+                        .add(bundle);
+            }
+            bundlesBySymbolicName
+                    .computeIfAbsent(bundle.getSymbolicName(), key -> new ArrayList<>())
+                    .add(bundle);
+        }
+        Map<BundleFile, Set<BundleFile>> dependencies = new IdentityHashMap<>();
+        for (BundleFile bundle : bundles) {
+            Set<BundleFile> bundleDependencies = new LinkedHashSet<>();
+            for (String importedPackage : bundle.getImportedPackages()) {
+                bundleDependencies.addAll(exporters.getOrDefault(importedPackage, List.of()));
+            }
+            for (String requiredBundle : bundle.getRequiredBundles()) {
+                bundleDependencies.addAll(bundlesBySymbolicName.getOrDefault(requiredBundle, List.of()));
+            }
+            // bundles may import their own exports
+            bundleDependencies.remove(bundle);
+            dependencies.put(bundle, bundleDependencies);
+        }
+        // host and fragment depend on each other to be put into the same wave
+        for (BundleFile bundle : bundles) {
+            if (bundle.getFragmentHost() != null) {
+                for (BundleFile host : bundlesBySymbolicName.getOrDefault(bundle.getFragmentHost(), List.of())) {
+                    if (host != bundle) {
+                        dependencies.get(bundle).add(host);
+                        dependencies.get(host).add(bundle);
+                    }
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Tarjan's algorithm (iterative to not exceed the stack size with long dependency chains).
+     */
+    private static final class StronglyConnectedComponents {
+
+        private final List<BundleFile> bundles;
+        private final Map<BundleFile, Set<BundleFile>> dependencies;
+        private final Map<BundleFile, Integer> indexes = new IdentityHashMap<>();
+        private final Map<BundleFile, Integer> lowLinks = new IdentityHashMap<>();
+        private final Set<BundleFile> onStack = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Deque<BundleFile> stack = new ArrayDeque<>();
+        private final List<List<BundleFile>> components = new ArrayList<>();
+        private int index;
+
+        StronglyConnectedComponents(List<BundleFile> bundles, Map<BundleFile, Set<BundleFile>> dependencies) {
+            this.bundles = bundles;
+            this.dependencies = dependencies;
+        }
+
+        List<List<BundleFile>> compute() {
+            for (BundleFile bundle : bundles) {
+                if (!indexes.containsKey(bundle)) {
+                    visit(bundle);
+                }
+            }
+            return components;
+        }
+
+        private void visit(BundleFile root) {
+            Deque<Frame> callStack = new ArrayDeque<>();
+            callStack.push(enter(root));
+            while (!callStack.isEmpty()) {
+                Frame frame = callStack.peek();
+                if (frame.remainingDependencies.hasNext()) {
+                    BundleFile dependency = frame.remainingDependencies.next();
+                    if (!indexes.containsKey(dependency)) {
+                        callStack.push(enter(dependency));
+                    } else if (onStack.contains(dependency)) {
+                        lowLinks.put(frame.bundle, Math.min(lowLinks.get(frame.bundle), indexes.get(dependency)));
+                    }
+                    continue;
+                }
+                callStack.pop();
+                if (!callStack.isEmpty()) {
+                    BundleFile parent = callStack.peek().bundle;
+                    lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLinks.get(frame.bundle)));
+                }
+                if (lowLinks.get(frame.bundle).equals(indexes.get(frame.bundle))) {
+                    List<BundleFile> component = new ArrayList<>();
+                    BundleFile member;
+                    do {
+                        member = stack.pop();
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (member != frame.bundle);
+                    components.add(component);
+                }
+            }
+        }
+
+        private Frame enter(BundleFile bundle) {
+            indexes.put(bundle, index);
+            lowLinks.put(bundle, index);
+            index++;
+            stack.push(bundle);
+            onStack.add(bundle);
+            return new Frame(bundle, dependencies.get(bundle).iterator());
+        }
+    }
+
+    /**
+     * Bundle being visited together with its dependencies not visited yet.
+     */
+    private static final class Frame {
+        private final BundleFile bundle;
+        private final Iterator<BundleFile> remainingDependencies;
+
+        Frame(BundleFile bundle, Iterator<BundleFile> remainingDependencies) {
+            this.bundle = bundle;
+            this.remainingDependencies = remainingDependencies;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.util.regex.Pattern;
+
+/**
+ * Matches bundle symbolic names against a glob pattern (supporting wildcards {@code *} and {@code ?})
+ * or against a regular expression (if the pattern is prefixed with {@code regex:}).
+ */
+final class BundleNameMatcher {
+
+    static final String REGEX_PREFIX = "regex:";
+
+    private final Pattern pattern;
+
+    BundleNameMatcher(String pattern) {
+        if (pattern.startsWith(REGEX_PREFIX)) {
+            this.pattern = Pattern.compile(pattern.substring(REGEX_PREFIX.length()));
+        } else {
+            this.pattern = Pattern.compile(globToRegex(pattern));
+        }
+    }
+
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+
+    /**
+     * @param symbolicName the bundle symbolic name
+     * @return {@code true} if the whole symbolic name matches the pattern
+     */
+    boolean matches(String symbolicName) {
+        return pattern.matcher(symbolicName).matches();
+    }
+
+    @Override
+    public String toString() {
+        return pattern.pattern();
+    }
+}
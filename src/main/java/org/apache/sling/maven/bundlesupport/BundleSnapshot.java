@@ -0,0 +1,455 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonException;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import jakarta.json.JsonWriter;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.sling.maven.bundlesupport.InstalledBundles.InstalledBundle;
+import org.apache.sling.maven.bundlesupport.deploy.method.JsonResponseHandler;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.osgi.framework.Version;
+
+/**
+ * The set of bundles installed in a Sling instance at a certain point in time.
+ * Each bundle's fingerprint is calculated from the content of the bundle's artifact (resolved from its location or
+ * given explicitly) when the snapshot is taken. As the Felix Web Console does not expose the content of installed
+ * bundles, the bundles of a Sling instance are compared with the snapshot by symbolic name and version only, and the
+ * fingerprint ensures that exactly the recorded content is installed when restoring the snapshot.
+ */
+final class BundleSnapshot {
+
+    private static final String PROP_LOCATION = "Location";
+    private static final String PROP_START_LEVEL = "Start Level";
+
+    private final List<Entry> entries;
+
+    BundleSnapshot(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Retrieves the snapshot (without fingerprints) from the Felix Web Console. Requires one request for the bundle
+     * list and one request per bundle (executed in parallel) for the details.
+     * @param httpClient the http client to use
+     * @param consoleTargetUrl the web console base url
+     * @param executor the executor for the parallel requests
+     * @param log the logger
+     * @return the snapshot
+     * @throws IOException in case the bundle list could not be retrieved
+     * @throws MojoExecutionException in case the details of some bundle could not be retrieved
+     */
+    static BundleSnapshot fetch(
+            CloseableHttpClient httpClient, URI consoleTargetUrl, ParallelExecutor executor, Log log)
+            throws IOException, MojoExecutionException {
+        List<Callable<Entry>> requests = new ArrayList<>();
+        for (InstalledBundle bundle :
+                InstalledBundles.fetch(httpClient, consoleTargetUrl, log).getAll()) {
+            requests.add(() -> fetchEntry(httpClient, consoleTargetUrl, bundle, log));
+        }
+        return new BundleSnapshot(executor.invokeAll(requests));
+    }
+
+    private static Entry fetchEntry(
+            CloseableHttpClient httpClient, URI consoleTargetUrl, InstalledBundle bundle, Log log)
+            throws MojoExecutionException {
+        final URI getUrl = consoleTargetUrl.resolve("bundles/" + bundle.getId() + ".json");
+        log.debug("Get details of bundle " + bundle + " via request to " + getUrl);
+        try {
+            return httpClient.execute(
+                    new HttpGet(getUrl), new JsonResponseHandler<>(parser -> parseEntry(bundle, parser)));
+        } catch (IOException e) {
+            throw new MojoExecutionException(
+                    "Error getting details of bundle " + bundle + " via " + getUrl + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses the properties relevant for the snapshot from the bundle details returned by {@code bundles/<id>.json}.
+     * @param bundle the bundle
+     * @param parser JSON parser located at the beginning of the document
+     * @return the snapshot entry (without fingerprint)
+     */
+    static Entry parseEntry(InstalledBundle bundle, JsonParser parser) {
+        if (parser.next() != Event.START_OBJECT
+                || JsonSupport.findKey(parser, "data") != Event.START_ARRAY
+                || parser.next() != Event.START_OBJECT
+                || JsonSupport.findKey(parser, "props") != Event.START_ARRAY) {
+            throw new JsonException("Missing array 'props' in bundle details");
+        }
+        Map<String, String> props = new HashMap<>();
+        while (parser.next() == Event.START_OBJECT) {
+            JsonObject prop = parser.getObject();
+            String key = prop.getString("key", null);
+            JsonValue value = prop.get("value");
+            if (key != null && value instanceof JsonString) {
+                props.put(key, ((JsonString) value).getString());
+            } else if (key != null && value instanceof JsonNumber) {
+                props.put(key, value.toString());
+            }
+        }
+        int startLevel = 0;
+        try {
+            startLevel = Integer.parseInt(props.getOrDefault(PROP_START_LEVEL, "0"));
+        } catch (NumberFormatException e) {
+            // no start level
+        }
+        return new Entry(
+                bundle.getId(),
+                bundle.getSymbolicName(),
+                bundle.getVersion(),
+                props.get(PROP_LOCATION),
+                startLevel,
+                bundle.isActive(),
+                bundle.isFragment(),
+                null);
+    }
+
+    static BundleSnapshot read(File file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+                JsonReader jsonReader = Json.createReader(reader)) {
+            List<Entry> entries = new ArrayList<>();
+            for (JsonValue value : jsonReader.readObject().getJsonArray("bundles")) {
+                JsonObject entry = (JsonObject) value;
+                entries.add(new Entry(
+                        entry.getJsonNumber("id").longValue(),
+                        entry.getString("symbolicName"),
+                        entry.getString("version"),
+                        entry.getString("location", null),
+                        entry.getInt("startLevel", 0),
+                        entry.getBoolean("active", false),
+                        entry.getBoolean("fragment", false),
+                        entry.getString("fingerprint", null)));
+            }
+            return new BundleSnapshot(entries);
+        } catch (JsonException | ClassCastException | NullPointerException e) {
+            throw new IOException("Invalid bundle snapshot " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    void write(File file) throws IOException {
+        JsonArrayBuilder bundles = Json.createArrayBuilder();
+        for (Entry entry : entries) {
+            bundles.add(Json.createObjectBuilder()
+                    .add("id", entry.getId())
+                    .add("symbolicName", entry.getSymbolicName())
+                    .add("version", entry.getVersion())
+                    .add("location", toJsonValue(entry.getLocation()))
+                    .add("startLevel", entry.getStartLevel())
+                    .add("active", entry.isActive())
+                    .add("fragment", entry.isFragment())
+                    .add("fingerprint", toJsonValue(entry.getFingerprint())));
+        }
+        if (file.getParentFile() != null) {
+            Files.createDirectories(file.getParentFile().toPath());
+        }
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+                JsonWriter jsonWriter = Json.createWriterFactory(
+                                Collections.singletonMap(JsonGenerator.PRETTY_PRINTING, true))
+                        .createWriter(writer)) {
+            jsonWriter.writeObject(
+                    Json.createObjectBuilder().add("bundles", bundles).build());
+        }
+    }
+
+    private static JsonValue toJsonValue(String value) {
+        return value != null ? Json.createValue(value) : JsonValue.NULL;
+    }
+
+    /**
+     * @param artifacts Maven coordinates in the format {@code groupId:artifactId:version[:packaging[:classifier]]}
+     *      providing the content of bundles whose location does not reference a Maven artifact (may be {@code null})
+     * @return the artifacts which may provide the content of the bundles of this snapshot
+     * @throws MojoExecutionException in case of invalid coordinates
+     */
+    List<Artifact> getContentArtifacts(List<String> artifacts) throws MojoExecutionException {
+        List<Artifact> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            Artifact artifact = entry.getMavenArtifact();
+            if (artifact != null) {
+                result.add(artifact);
+            }
+        }
+        if (artifacts != null) {
+            for (String artifact : artifacts) {
+                result.add(BundleInstallFileMojo.toArtifact(artifact));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param bundleFiles the resolved content of the bundles
+     * @return the snapshot with the fingerprints of the bundles whose content is given (matched by symbolic name
+     *      and version)
+     */
+    BundleSnapshot withFingerprints(Collection<BundleFile> bundleFiles) {
+        Map<String, BundleFile> bundleFilesByKey = getBundleFilesByKey(bundleFiles);
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            BundleFile bundleFile = bundleFilesByKey.get(getKey(entry.getSymbolicName(), entry.getVersion()));
+            result.add(bundleFile != null ? entry.withFingerprint(bundleFile.getFingerprint()) : entry);
+        }
+        return new BundleSnapshot(result);
+    }
+
+    /**
+     * Computes the changes necessary to turn the given live state into this snapshot. Bundles are matched by
+     * symbolic name and version, so that restoring a snapshot does not change anything the next time.
+     * A bundle whose symbolic name is installed in a different version only is updated instead of being uninstalled
+     * and installed again. The system bundle is never touched.
+     * @param live the bundles currently installed in the Sling instance
+     * @return the diff
+     */
+    Diff diff(InstalledBundles live) {
+        Map<String, Entry> missingEntries = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            if (entry.getId() != 0) {
+                missingEntries.put(getKey(entry.getSymbolicName(), entry.getVersion()), entry);
+            }
+        }
+        Map<String, List<InstalledBundle>> unexpectedBundles = new LinkedHashMap<>();
+        for (InstalledBundle bundle : live.getAll()) {
+            if (bundle.getId() != 0
+                    && missingEntries.remove(getKey(bundle.getSymbolicName(), bundle.getVersion())) == null) {
+                unexpectedBundles.computeIfAbsent(bundle.getSymbolicName(), key -> new ArrayList<>()).add(bundle);
+            }
+        }
+        Map<Entry, InstalledBundle> toUpdate = new LinkedHashMap<>();
+        List<Entry> toInstall = new ArrayList<>();
+        for (Entry entry : missingEntries.values()) {
+            List<InstalledBundle> otherVersions = unexpectedBundles.get(entry.getSymbolicName());
+            if (otherVersions != null && !otherVersions.isEmpty()) {
+                toUpdate.put(entry, otherVersions.remove(0));
+            } else {
+                toInstall.add(entry);
+            }
+        }
+        List<InstalledBundle> toUninstall = new ArrayList<>();
+        unexpectedBundles.values().forEach(toUninstall::addAll);
+        return new Diff(toUninstall, toUpdate, toInstall);
+    }
+
+    /**
+     * @param bundleFiles the bundle files
+     * @return the given bundle files by symbolic name and version
+     */
+    static Map<String, BundleFile> getBundleFilesByKey(Collection<BundleFile> bundleFiles) {
+        Map<String, BundleFile> result = new HashMap<>();
+        for (BundleFile bundleFile : bundleFiles) {
+            result.put(getKey(bundleFile.getSymbolicName(), bundleFile.getVersion()), bundleFile);
+        }
+        return result;
+    }
+
+    /**
+     * @param symbolicName the bundle symbolic name
+     * @param version the bundle version
+     * @return the key identifying a bundle, with the version normalized according to the OSGi semantics
+     */
+    static String getKey(String symbolicName, String version) {
+        String normalizedVersion;
+        try {
+            normalizedVersion = Version.parseVersion(version).toString();
+        } catch (IllegalArgumentException e) {
+            normalizedVersion = version;
+        }
+        return symbolicName + ":" + normalizedVersion;
+    }
+
+    /**
+     * Bundles to uninstall from, update in and install to a Sling instance.
+     */
+    static final class Diff {
+
+        private final List<InstalledBundle> toUninstall;
+        private final Map<Entry, InstalledBundle> toUpdate;
+        private final List<Entry> toInstall;
+
+        Diff(List<InstalledBundle> toUninstall, Map<Entry, InstalledBundle> toUpdate, List<Entry> toInstall) {
+            this.toUninstall = toUninstall;
+            this.toUpdate = toUpdate;
+            this.toInstall = toInstall;
+        }
+
+        List<InstalledBundle> getToUninstall() {
+            return toUninstall;
+        }
+
+        /**
+         * @return the entries to update mapped to the installed bundle with the same symbolic name which is replaced
+         */
+        Map<Entry, InstalledBundle> getToUpdate() {
+            return toUpdate;
+        }
+
+        List<Entry> getToInstall() {
+            return toInstall;
+        }
+
+        boolean isEmpty() {
+            return toUninstall.isEmpty() && toUpdate.isEmpty() && toInstall.isEmpty();
+        }
+    }
+
+    /**
+     * State of a single bundle.
+     */
+    static final class Entry {
+
+        private final long id;
+        private final String symbolicName;
+        private final String version;
+        private final String location;
+        private final int startLevel;
+        private final boolean active;
+        private final boolean fragment;
+        private final String fingerprint;
+
+        Entry(
+                long id,
+                String symbolicName,
+                String version,
+                String location,
+                int startLevel,
+                boolean active,
+                boolean fragment,
+                String fingerprint) {
+            this.id = id;
+            this.symbolicName = symbolicName;
+            this.version = version;
+            this.location = location;
+            this.startLevel = startLevel;
+            this.active = active;
+            this.fragment = fragment;
+            this.fingerprint = fingerprint;
+        }
+
+        Entry withFingerprint(String fingerprint) {
+            return new Entry(id, symbolicName, version, location, startLevel, active, fragment, fingerprint);
+        }
+
+        /**
+         * @return the bundle id at the time the snapshot was taken
+         */
+        long getId() {
+            return id;
+        }
+
+        String getSymbolicName() {
+            return symbolicName;
+        }
+
+        String getVersion() {
+            return version;
+        }
+
+        /**
+         * @return the location the bundle was installed from or {@code null} if not known
+         */
+        String getLocation() {
+            return location;
+        }
+
+        /**
+         * @return the start level or {@code 0} if not known
+         */
+        int getStartLevel() {
+            return startLevel;
+        }
+
+        boolean isActive() {
+            return active;
+        }
+
+        boolean isFragment() {
+            return fragment;
+        }
+
+        /**
+         * @return the fingerprint of the bundle's content or {@code null} in case the content could not be resolved
+         *      when the snapshot was taken
+         * @see BundleFile#getFingerprint()
+         */
+        String getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * @return the artifact referenced by a location in the format
+         *      {@code mvn:[repository!]groupId/artifactId/version[/type[/classifier]]} or {@code null} for other locations
+         */
+        Artifact getMavenArtifact() {
+            if (location == null || !location.startsWith("mvn:")) {
+                return null;
+            }
+            String coordinates = location.substring("mvn:".length());
+            int repositorySeparatorPos = coordinates.lastIndexOf('!');
+            if (repositorySeparatorPos >= 0) {
+                coordinates = coordinates.substring(repositorySeparatorPos + 1);
+            }
+            String[] parts = coordinates.split("/");
+            if (parts.length < 3 || parts.length > 5) {
+                return null;
+            }
+            String type = parts.length >= 4 && !parts[3].isEmpty() ? parts[3] : "jar";
+            String classifier = parts.length == 5 ? parts[4] : "";
+            return new DefaultArtifact(parts[0], parts[1], classifier, type, parts[2]);
+        }
+
+        @Override
+        public String toString() {
+            return symbolicName + " " + version + " (" + location + ")";
+        }
+    }
+}
@@ -21,22 +21,29 @@ package org.apache.sling.maven.bundlesupport;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.regex.PatternSyntaxException;
 
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.sling.maven.bundlesupport.InstalledBundles.InstalledBundle;
 import org.apache.sling.maven.bundlesupport.deploy.BundleDeploymentMethod;
 import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
+import org.apache.sling.maven.bundlesupport.deploy.method.FelixBundleActions;
 import org.apache.sling.maven.bundlesupport.fsresource.SlingInitialContentMounter;
 
 /**
  * Uninstall an OSGi bundle from a running Sling instance.
+ * Alternatively all bundles whose symbolic name matches {@link #bundleNamePattern} are uninstalled at once.
  *
  * For details refer to <a href="bundle-installation.html">Bundle Uninstallation</a>.
  */
-@Mojo(name = "uninstall")
-public class BundleUninstallMojo extends AbstractBundleInstallMojo {
+@Mojo(name = "uninstall", threadSafe = true)
+public class BundleUninstallMojo extends AbstractSingleBundleInstallMojo {
 
     /**
      * The path of bundle file to uninstall.
@@ -56,6 +63,19 @@ public class BundleUninstallMojo extends AbstractBundleInstallMojo {
     @Parameter(property = "sling.bundle.name")
     private String bundleName;
 
+    /**
+     * A pattern for the symbolic names of the bundles to uninstall. Either a glob pattern supporting the wildcards
+     * {@code *} and {@code ?} (e.g. {@code com.acme.*}) or a regular expression prefixed with {@code regex:}.
+     * The matching bundles are determined with a single request, uninstalled in parallel
+     * (bounded by {@code sling.parallelRequests}) and the packages are refreshed once in the end
+     * (if {@code sling.refreshPackages} is {@code true}).
+     * Only supported for deployment method {@code WebConsole}.
+     * If this parameter is set, it takes precedence over {@link #bundleName} and {@link #bundleFileName}.
+     * @since 3.0.5
+     */
+    @Parameter(property = "sling.bundle.namePattern")
+    private String bundleNamePattern;
+
     @Override
     protected File getBundleFileName() {
         return bundleFileName;
@@ -66,6 +86,10 @@ public class BundleUninstallMojo extends AbstractBundleInstallMojo {
      */
     @Override
     public void execute() throws MojoExecutionException {
+        if (bundleNamePattern != null) {
+            uninstallMatchingBundles();
+            return;
+        }
         final String bundleName;
         if (this.bundleName == null) {
             // only uninstall if file is really an OSGi bundle
@@ -90,7 +114,7 @@ public class BundleUninstallMojo extends AbstractBundleInstallMojo {
 
         try (CloseableHttpClient httpClient = getHttpClient()) {
             if (mountByFS) {
-                configure(httpClient, targetURL, null);
+                executeExclusively(() -> configure(httpClient, getConsoleTargetURL(), null));
             }
             getLog().info("Uninstalling Bundle " + bundleName + " from " + targetURL + " via " + deployMethod + "...");
             deployMethod
@@ -114,9 +138,66 @@ public class BundleUninstallMojo extends AbstractBundleInstallMojo {
         }
     }
 
+    private void uninstallMatchingBundles() throws MojoExecutionException {
+        if (getDeploymentMethod() != BundleDeploymentMethod.WebConsole) {
+            throw new MojoExecutionException(
+                    "Parameter 'bundleNamePattern' is only supported for deployment method WebConsole");
+        }
+        final BundleNameMatcher matcher;
+        try {
+            matcher = new BundleNameMatcher(bundleNamePattern);
+        } catch (PatternSyntaxException e) {
+            throw new MojoExecutionException("Invalid bundle name pattern " + bundleNamePattern, e);
+        }
+        // bundles.json and the bundle actions are provided by the web console
+        URI consoleTargetURL = getConsoleTargetURL();
+
+        try (CloseableHttpClient httpClient = getHttpClient();
+                ParallelExecutor executor = createParallelExecutor()) {
+            if (mountByFS) {
+                executeExclusively(() -> configure(httpClient, getConsoleTargetURL(), null));
+            }
+            DeployContext context = createDeployContext(httpClient);
+            List<Callable<Boolean>> uninstalls = new ArrayList<>();
+            for (InstalledBundle bundle : InstalledBundles.fetch(httpClient, consoleTargetURL, getLog())
+                    .getAll()) {
+                // never touch the system bundle
+                if (bundle.getId() == 0 || !matcher.matches(bundle.getSymbolicName())) {
+                    continue;
+                }
+                uninstalls.add(() -> {
+                    getLog().info("Uninstalling Bundle " + bundle + " from " + consoleTargetURL + "...");
+                    return FelixBundleActions.execute(
+                            consoleTargetURL,
+                            String.valueOf(bundle.getId()),
+                            FelixBundleActions.ACTION_UNINSTALL,
+                            context);
+                });
+            }
+            if (uninstalls.isEmpty()) {
+                getLog().info("No bundle matching " + bundleNamePattern + " installed in " + consoleTargetURL);
+                return;
+            }
+            executor.invokeAll(uninstalls);
+            if (context.isRefreshPackages()) {
+                FelixBundleActions.refreshPackages(consoleTargetURL, context);
+            }
+            getLog().info(uninstalls.size() + " bundle(s) uninstalled successfully!");
+        } catch (IOException | MojoExecutionException e) {
+            String msg = "Uninstall from " + consoleTargetURL + " failed, cause: " + e.getMessage();
+            if (failOnError) {
+                throw new MojoExecutionException(msg, e);
+            } else {
+                getLog().error(msg, e);
+            }
+        }
+    }
+
     @Override
     protected void configure(CloseableHttpClient httpClient, final URI targetURL, final File file)
             throws MojoExecutionException {
-        new SlingInitialContentMounter(getLog(), httpClient, getRequestConfigBuilder(), project).unmount(targetURL);
+        new SlingInitialContentMounter(
+                        getLog(), httpClient, getRequestConfigBuilder(), project, getBundleMetadataCache())
+                .unmount(targetURL);
     }
 }
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.util.List;
+
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.sling.maven.bundlesupport.InstalledBundles.InstalledBundle;
+import org.apache.sling.maven.bundlesupport.deploy.method.FelixBundleActions;
+
+/**
+ * Refresh the packages of a set of OSGi bundles in a running Sling instance (which restarts them and all bundles depending on them).
+ * As the refresh is executed asynchronously, the goal waits until the bundles have left their previous state and the
+ * previously active ones are active again. It fails if this is not observed within the verification timeout.
+ * @since 3.0.5
+ */
+@Mojo(name = "bundles-refresh", requiresProject = false, threadSafe = true)
+public class BundlesRefreshMojo extends AbstractBundlesActionMojo {
+
+    @Override
+    protected String getAction() {
+        return FelixBundleActions.ACTION_REFRESH;
+    }
+
+    @Override
+    protected boolean isExpectedState(InstalledBundle before, List<InstalledBundle> observed) {
+        return isRestarted(before, observed);
+    }
+
+    @Override
+    protected long getVerificationPollIntervalMillis() {
+        // executed asynchronously, the intermediate states are only observable for a short time
+        return RESTART_POLL_INTERVAL_MS;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.sling.maven.bundlesupport.BundleSnapshot.Diff;
+import org.apache.sling.maven.bundlesupport.BundleSnapshot.Entry;
+import org.apache.sling.maven.bundlesupport.InstalledBundles.InstalledBundle;
+import org.apache.sling.maven.bundlesupport.deploy.BundleDeploymentMethod;
+import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
+import org.apache.sling.maven.bundlesupport.deploy.method.FelixBundleActions;
+
+/**
+ * Restores the bundle set recorded with goal <a href="bundles-snapshot-mojo.html">bundles-snapshot</a> in a running
+ * Sling instance via the
+ * <a href="https://felix.apache.org/documentation/subprojects/apache-felix-web-console/web-console-restful-api.html#post-requests">Felix Web Console</a>.
+ * Only the differences are applied: bundles which are not part of the snapshot are uninstalled, bundles which are
+ * installed in a different version are updated, bundles which are missing are installed and the bundle states are
+ * aligned with the snapshot. Bundles are matched by symbolic name and version, therefore restoring the same snapshot
+ * again does not change anything. The snapshot file itself is never modified.
+ * All requests of a step are executed in parallel (bounded by {@code sling.parallelRequests}).
+ * <p>
+ * The content of the bundles to update or install is resolved from the Maven repository, either from the bundle's
+ * location (in case it has the format {@code mvn:groupId/artifactId/version[/type[/classifier]]}) or from the
+ * given {@link #artifacts}, and must match the fingerprint recorded in the snapshot.
+ * Bundles are updated by uploading their content, for which the Felix Web Console updates the installed bundle with
+ * the same symbolic name in place, i.e. it keeps its id, location and start level. (The Web Console's
+ * {@code update} action cannot be used as it only updates a bundle from its original location.)
+ * Only deployment method {@code WebConsole} is supported.
+ * @since 3.0.5
+ */
+@Mojo(name = "bundles-restore", requiresProject = false, threadSafe = true)
+public class BundlesRestoreMojo extends AbstractMultiBundleInstallMojo {
+
+    /**
+     * The file containing the snapshot to restore.
+     */
+    @Parameter(
+            property = "sling.bundlesSnapshotFile",
+            defaultValue = "${project.build.directory}/bundles-snapshot.json",
+            required = true)
+    private File snapshotFile;
+
+    /**
+     * Maven coordinates of bundles in the format {@code groupId:artifactId:version[:packaging[:classifier]]} providing
+     * the content for bundles whose location does not reference a Maven artifact. They are matched by the
+     * bundle symbolic name and version.
+     */
+    @Parameter(property = "sling.artifacts")
+    private List<String> artifacts;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (getDeploymentMethod() != BundleDeploymentMethod.WebConsole) {
+            throw new MojoExecutionException("Goal bundles-restore only supports deployment method WebConsole");
+        }
+        final BundleSnapshot snapshot;
+        try {
+            snapshot = BundleSnapshot.read(snapshotFile);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not read bundle snapshot " + snapshotFile, e);
+        }
+
+        URI consoleTargetURL = getConsoleTargetURL();
+        try (CloseableHttpClient httpClient = getHttpClient();
+                ParallelExecutor executor = createParallelExecutor()) {
+            Diff diff = snapshot.diff(InstalledBundles.fetch(httpClient, consoleTargetURL, getLog()));
+            getLog().info("Restoring " + snapshotFile + ": uninstalling "
+                    + diff.getToUninstall().size() + ", updating "
+                    + diff.getToUpdate().size() + " and installing "
+                    + diff.getToInstall().size() + " bundle(s)");
+            DeployContext context = createDeployContext(httpClient);
+
+            // resolve the content first to not leave a half-restored instance behind
+            List<Entry> entriesToDeploy = new ArrayList<>(diff.getToUpdate().keySet());
+            entriesToDeploy.addAll(diff.getToInstall());
+            Map<Integer, List<BundleFile>> bundleFilesByStartLevel =
+                    getBundleFilesByStartLevel(entriesToDeploy, context.getBundleStartLevel());
+
+            List<Callable<Boolean>> uninstalls = new ArrayList<>();
+            for (InstalledBundle bundle : diff.getToUninstall()) {
+                uninstalls.add(() -> {
+                    getLog().info("Uninstalling Bundle " + bundle);
+                    return FelixBundleActions.execute(
+                            consoleTargetURL,
+                            String.valueOf(bundle.getId()),
+                            FelixBundleActions.ACTION_UNINSTALL,
+                            context);
+                });
+            }
+            executor.invokeAll(uninstalls);
+
+            for (Map.Entry<Entry, InstalledBundle> update : diff.getToUpdate().entrySet()) {
+                getLog().info("Updating Bundle " + update.getValue() + " to version " + update.getKey().getVersion());
+            }
+            for (Map.Entry<Integer, List<BundleFile>> bundleFiles : bundleFilesByStartLevel.entrySet()) {
+                installInWaves(httpClient, executor, bundleFiles.getValue(), String.valueOf(bundleFiles.getKey()));
+            }
+
+            alignStates(httpClient, executor, snapshot, context);
+            if (!diff.isEmpty()) {
+                refreshPackages(httpClient);
+            }
+            getLog().info("Bundles restored successfully");
+        } catch (IOException | MojoExecutionException e) {
+            String msg = "Restore of bundles failed, cause: " + e.getMessage();
+            if (failOnError) {
+                throw new MojoExecutionException(msg, e);
+            } else {
+                getLog().error(msg, e);
+            }
+        }
+    }
+
+    private Map<Integer, List<BundleFile>> getBundleFilesByStartLevel(List<Entry> entries, String defaultStartLevel)
+            throws MojoExecutionException {
+        Map<Integer, List<BundleFile>> result = new TreeMap<>();
+        if (entries.isEmpty()) {
+            return result;
+        }
+        Map<String, BundleFile> bundleFiles = BundleSnapshot.getBundleFilesByKey(
+                resolveBundleFiles(new BundleSnapshot(entries).getContentArtifacts(artifacts)));
+        List<Entry> missingContent = new ArrayList<>();
+        List<Entry> changedContent = new ArrayList<>();
+        for (Entry entry : entries) {
+            BundleFile bundleFile =
+                    bundleFiles.get(BundleSnapshot.getKey(entry.getSymbolicName(), entry.getVersion()));
+            if (bundleFile == null) {
+                missingContent.add(entry);
+                continue;
+            }
+            if (entry.getFingerprint() != null && !entry.getFingerprint().equals(bundleFile.getFingerprint())) {
+                changedContent.add(entry);
+                continue;
+            }
+            int startLevel = entry.getStartLevel();
+            if (startLevel <= 0) {
+                try {
+                    startLevel = Integer.parseInt(defaultStartLevel);
+                } catch (NumberFormatException e) {
+                    throw new MojoExecutionException("Invalid start level '" + defaultStartLevel + "' (parameter "
+                            + "sling.bundle.startlevel) for bundle " + entry + " without start level in snapshot "
+                            + snapshotFile + ", must be numeric", e);
+                }
+            }
+            result.computeIfAbsent(startLevel, key -> new ArrayList<>()).add(bundleFile);
+        }
+        if (!missingContent.isEmpty()) {
+            throw new MojoExecutionException("Could not find the content of the following bundles, "
+                    + "provide it via parameter 'artifacts': " + missingContent);
+        }
+        if (!changedContent.isEmpty()) {
+            throw new MojoExecutionException("The content of the following bundles differs from the content recorded "
+                    + "in the snapshot (e.g. because the artifact has been deployed again): " + changedContent);
+        }
+        return result;
+    }
+
+    /**
+     * Starts or stops bundles whose state differs from the snapshot.
+     */
+    private void alignStates(
+            CloseableHttpClient httpClient, ParallelExecutor executor, BundleSnapshot snapshot, DeployContext context)
+            throws IOException, MojoExecutionException {
+        URI consoleTargetURL = getConsoleTargetURL();
+        InstalledBundles installedBundles = InstalledBundles.fetch(httpClient, consoleTargetURL, getLog());
+        List<Callable<Boolean>> actions = new ArrayList<>();
+        for (Entry entry : snapshot.getEntries()) {
+            InstalledBundle installedBundle = installedBundles.get(entry.getSymbolicName(), entry.getVersion());
+            if (installedBundle == null
+                    || installedBundle.getId() == 0
+                    || installedBundle.isFragment()
+                    || installedBundle.isActive() == entry.isActive()) {
+                continue;
+            }
+            String action = entry.isActive() ? FelixBundleActions.ACTION_START : FelixBundleActions.ACTION_STOP;
+            actions.add(() -> {
+                getLog().info("Executing action '" + action + "' on bundle " + installedBundle);
+                return FelixBundleActions.execute(
+                        consoleTargetURL, String.valueOf(installedBundle.getId()), action, context);
+            });
+        }
+        executor.invokeAll(actions);
+    }
+}
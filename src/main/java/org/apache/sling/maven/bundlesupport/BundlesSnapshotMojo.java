@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.sling.maven.bundlesupport.BundleSnapshot.Entry;
+
+/**
+ * Records all bundles installed in a running Sling instance (symbolic name, version, location, start level, state
+ * and a fingerprint of the content) in a file via the
+ * <a href="https://felix.apache.org/documentation/subprojects/apache-felix-web-console/web-console-restful-api.html#get-requests">Felix Web Console</a>
+ * (at {@link #slingConsoleUrl}).
+ * The fingerprint is calculated from the bundle's artifact, which is resolved from the Maven repository, either from
+ * the bundle's location (in case it has the format {@code mvn:groupId/artifactId/version[/type[/classifier]]}) or from
+ * the given {@link #artifacts}.
+ * The file can be used afterwards to restore the bundle set with goal <a href="bundles-restore-mojo.html">bundles-restore</a>.
+ * @since 3.0.5
+ */
+@Mojo(name = "bundles-snapshot", requiresProject = false, threadSafe = true)
+public class BundlesSnapshotMojo extends AbstractBundleRequestMojo {
+
+    /**
+     * The file to write the snapshot to.
+     */
+    @Parameter(
+            property = "sling.bundlesSnapshotFile",
+            defaultValue = "${project.build.directory}/bundles-snapshot.json",
+            required = true)
+    private File snapshotFile;
+
+    /**
+     * Maven coordinates of bundles in the format {@code groupId:artifactId:version[:packaging[:classifier]]} providing
+     * the content for bundles whose location does not reference a Maven artifact. They are matched by the
+     * bundle symbolic name and version.
+     */
+    @Parameter(property = "sling.artifacts")
+    private List<String> artifacts;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        try (CloseableHttpClient httpClient = getHttpClient();
+                ParallelExecutor executor = createParallelExecutor()) {
+            BundleSnapshot snapshot = BundleSnapshot.fetch(httpClient, getConsoleTargetURL(), executor, getLog());
+            snapshot = snapshot.withFingerprints(resolveBundleFiles(snapshot.getContentArtifacts(artifacts)));
+            List<Entry> withoutContent = new ArrayList<>();
+            for (Entry entry : snapshot.getEntries()) {
+                if (entry.getId() != 0 && entry.getFingerprint() == null) {
+                    withoutContent.add(entry);
+                }
+            }
+            if (!withoutContent.isEmpty()) {
+                getLog().warn("Could not find the content of the following bundles, provide it via parameter "
+                        + "'artifacts' to record their fingerprints: " + withoutContent);
+            }
+            snapshot.write(snapshotFile);
+            getLog().info("Recorded " + snapshot.getEntries().size() + " bundles in " + snapshotFile);
+        } catch (IOException | MojoExecutionException e) {
+            String msg = "Snapshot of bundles failed, cause: " + e.getMessage();
+            if (failOnError) {
+                throw new MojoExecutionException(msg, e);
+            } else {
+                getLog().error(msg, e);
+            }
+        }
+    }
+}
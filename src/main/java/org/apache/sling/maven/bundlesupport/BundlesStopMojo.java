@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.util.List;
+
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.sling.maven.bundlesupport.InstalledBundles.InstalledBundle;
+import org.apache.sling.maven.bundlesupport.deploy.method.FelixBundleActions;
+
+/**
+ * Stop a set of OSGi bundles in a running Sling instance. Fragments are skipped.
+ * @since 3.0.5
+ */
+@Mojo(name = "bundles-stop", requiresProject = false, threadSafe = true)
+public class BundlesStopMojo extends AbstractBundlesActionMojo {
+
+    @Override
+    protected String getAction() {
+        return FelixBundleActions.ACTION_STOP;
+    }
+
+    @Override
+    protected boolean isApplicable(InstalledBundle bundle) {
+        return !bundle.isFragment();
+    }
+
+    @Override
+    protected boolean isExpectedState(InstalledBundle before, List<InstalledBundle> observed) {
+        return !observed.get(observed.size() - 1).isActive();
+    }
+}
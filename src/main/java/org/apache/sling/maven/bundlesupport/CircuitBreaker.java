@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.IOException;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for the requests to a single target.
+ * <ul>
+ * <li>In state {@link State#CLOSED} all requests are permitted. After {@code failureThreshold} consecutive failures the
+ * circuit opens.</li>
+ * <li>In state {@link State#OPEN} all requests fail fast until the cool-down period has elapsed. Afterwards a single
+ * probe request is permitted (state {@link State#HALF_OPEN}).</li>
+ * <li>In state {@link State#HALF_OPEN} all other requests fail fast. The outcome of the probe either closes the
+ * circuit again or re-opens it for another cool-down period.</li>
+ * </ul>
+ * This class is thread-safe.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String target;
+    private final int failureThreshold;
+    private final long coolDownMillis;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    /**
+     * @param target the target (only used for messages)
+     * @param failureThreshold the number of consecutive failures after which the circuit opens
+     * @param coolDownMillis the time in milliseconds during which requests fail fast once the circuit is open
+     * @param clock the source of the current time in milliseconds
+     */
+    CircuitBreaker(String target, int failureThreshold, long coolDownMillis, LongSupplier clock) {
+        this.target = target;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.coolDownMillis = coolDownMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Must be called before each request. Each successful call must be followed by exactly one call to either
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     * @throws CircuitBreakerOpenException in case the request is not permitted
+     */
+    synchronized void acquire() throws CircuitBreakerOpenException {
+        switch (state) {
+            case CLOSED:
+                return;
+            case OPEN:
+                long remainingMillis = openedAt + coolDownMillis - clock.getAsLong();
+                if (remainingMillis > 0) {
+                    throw new CircuitBreakerOpenException("Circuit breaker for " + target + " is open after "
+                            + consecutiveFailures + " consecutive failures, failing fast for another "
+                            + ((remainingMillis + 999) / 1000) + "s");
+                }
+                // this request is the probe
+                state = State.HALF_OPEN;
+                return;
+            default:
+                throw new CircuitBreakerOpenException("Circuit breaker for " + target
+                        + " is half-open, waiting for the outcome of the probe request");
+        }
+    }
+
+    /**
+     * Records a successful request, closes the circuit.
+     */
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * Records a failed request, opens the circuit if the threshold is reached or if the probe failed.
+     */
+    synchronized void onFailure() {
+        if (state == State.OPEN) {
+            // outcome of a request started before the circuit opened
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Thrown instead of sending a request while the circuit is open.
+     */
+    static final class CircuitBreakerOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        CircuitBreakerOpenException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+
+/**
+ * The bundles listed in a <a href="https://sling.apache.org/documentation/development/feature-model.html">Sling Feature Model</a>
+ * JSON file. Only the {@code bundles} section (and the {@code variables} used therein) is evaluated.
+ */
+final class FeatureBundles {
+
+    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
+
+    private FeatureBundles() {
+        // static methods only
+    }
+
+    /**
+     * @param featureJson the content of the feature file
+     * @return the bundle entries in the order given in the feature
+     * @throws IllegalArgumentException in case the feature contains invalid bundle entries
+     */
+    static List<FeatureBundle> parse(String featureJson) {
+        JsonObject feature = JsonSupport.parseObject(featureJson);
+        Map<String, String> variables = new HashMap<>();
+        JsonObject variablesObject = feature.getJsonObject("variables");
+        if (variablesObject != null) {
+            for (Map.Entry<String, JsonValue> entry : variablesObject.entrySet()) {
+                if (entry.getValue() instanceof JsonString) {
+                    variables.put(entry.getKey(), ((JsonString) entry.getValue()).getString());
+                } else if (entry.getValue() != JsonValue.NULL) {
+                    variables.put(entry.getKey(), entry.getValue().toString());
+                }
+            }
+        }
+        if (!feature.containsKey("bundles")) {
+            return Collections.emptyList();
+        }
+        List<FeatureBundle> result = new ArrayList<>();
+        for (JsonValue value : feature.getJsonArray("bundles")) {
+            final String id;
+            String startOrder = null;
+            if (value instanceof JsonString) {
+                id = ((JsonString) value).getString();
+            } else if (value instanceof JsonObject) {
+                JsonObject bundle = (JsonObject) value;
+                id = bundle.getString("id", null);
+                if (bundle.containsKey("start-order")) {
+                    JsonValue startOrderValue = bundle.get("start-order");
+                    startOrder = startOrderValue instanceof JsonString
+                            ? ((JsonString) startOrderValue).getString()
+                            : startOrderValue.toString();
+                }
+            } else {
+                throw new IllegalArgumentException("Invalid bundle entry: " + value);
+            }
+            if (id == null) {
+                throw new IllegalArgumentException("Missing id in bundle entry: " + value);
+            }
+            int startOrderValue = 0;
+            if (startOrder != null) {
+                try {
+                    startOrderValue = Integer.parseInt(
+                            replaceVariables(startOrder, variables).trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(
+                            "Invalid start-order '" + startOrder + "' of bundle " + id + ", must be numeric", e);
+                }
+            }
+            result.add(new FeatureBundle(toArtifact(replaceVariables(id, variables)), startOrderValue));
+        }
+        return result;
+    }
+
+    /**
+     * Converts a Maven id in the format {@code groupId:artifactId[:type[:classifier]]:version} to an artifact.
+     */
+    static Artifact toArtifact(String id) {
+        String[] parts = id.split(":");
+        switch (parts.length) {
+            case 3:
+                return new DefaultArtifact(parts[0], parts[1], "jar", parts[2]);
+            case 4:
+                return new DefaultArtifact(parts[0], parts[1], parts[2], parts[3]);
+            case 5:
+                return new DefaultArtifact(parts[0], parts[1], parts[3], parts[2], parts[4]);
+            default:
+                throw new IllegalArgumentException(
+                        "Invalid bundle id, must be groupId:artifactId[:type[:classifier]]:version " + id);
+        }
+    }
+
+    private static String replaceVariables(String value, Map<String, String> variables) {
+        Matcher matcher = VARIABLE_PATTERN.matcher(value);
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            String variable = variables.get(matcher.group(1));
+            if (variable == null) {
+                throw new IllegalArgumentException("Undefined variable " + matcher.group() + " used in " + value);
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(variable));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    /**
+     * Bundle entry of a feature.
+     */
+    static final class FeatureBundle {
+
+        private final Artifact artifact;
+        private final int startOrder;
+
+        FeatureBundle(Artifact artifact, int startOrder) {
+            this.artifact = artifact;
+            this.startOrder = startOrder;
+        }
+
+        Artifact getArtifact() {
+            return artifact;
+        }
+
+        /**
+         * @return the start order or {@code 0} if none is set
+         */
+        int getStartOrder() {
+            return startOrder;
+        }
+    }
+}
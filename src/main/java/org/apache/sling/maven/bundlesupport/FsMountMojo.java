@@ -22,19 +22,14 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
-import jakarta.json.JsonArray;
-import jakarta.json.JsonException;
-import jakarta.json.JsonObject;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.hc.client5.http.HttpResponseException;
-import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.impl.classic.BasicHttpClientResponseHandler;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.core5.http.HttpStatus;
-import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -43,7 +38,9 @@ import org.apache.sling.maven.bundlesupport.deploy.BundleDeploymentMethod;
 import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
 import org.apache.sling.maven.bundlesupport.fsresource.FileVaultXmlMounter;
 import org.apache.sling.maven.bundlesupport.fsresource.SlingInitialContentMounter;
+import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.resolution.ArtifactResult;
 
 /**
  * Create OSGi configurations for the
@@ -52,7 +49,7 @@ import org.eclipse.aether.artifact.DefaultArtifact;
  * Otherwise it tries to detect a FileVault content package layout starting at {@link AbstractFsMountMojo#fileVaultJcrRootFile} or the project's resource directories and potentially creates a configuration for each path in the package's {@code filter.xml}.
  * @since 2.2.0
  */
-@Mojo(name = "fsmount", requiresProject = true)
+@Mojo(name = "fsmount", requiresProject = true, threadSafe = true)
 public class FsMountMojo extends AbstractFsMountMojo {
 
     private static final String BUNDLE_GROUP_ID = "org.apache.sling";
@@ -190,7 +187,8 @@ public class FsMountMojo extends AbstractFsMountMojo {
     protected void configureSlingInitialContent(
             CloseableHttpClient httpClient, final URI consoleTargetUrl, final File bundleFile)
             throws MojoExecutionException {
-        new SlingInitialContentMounter(getLog(), getHttpClient(), getRequestConfigBuilder(), project)
+        new SlingInitialContentMounter(
+                        getLog(), httpClient, getRequestConfigBuilder(), project, getBundleMetadataCache())
                 .mount(consoleTargetUrl, bundleFile);
     }
 
@@ -245,46 +243,112 @@ public class FsMountMojo extends AbstractFsMountMojo {
             addDeployFsResourceBundlePrerequisite(legacyAncient);
         }
 
-        boolean foundMatch = false;
-        for (BundlePrerequisite bundlePrerequisite : deployFsResourceBundlePrerequisites) {
-            if (isBundlePrerequisitesPreconditionsMet(httpClient, bundlePrerequisite, consoleTargetUrl)) {
-                for (Bundle bundle : bundlePrerequisite.getBundles()) {
-                    deployBundle(httpClient, bundle, consoleTargetUrl);
+        // all modules of a reactor build share the same prerequisites
+        SingleFlight.get(repoSession)
+                .execute(
+                        "ensureBundlesInstalled:" + consoleTargetUrl + ":"
+                                + deployFsResourceBundlePrerequisites.stream()
+                                        .map(prerequisite ->
+                                                prerequisite.getBundles() + "/" + prerequisite.getPreconditions())
+                                        .collect(Collectors.joining(",")),
+                        () -> {
+                            deployMissingBundles(httpClient, consoleTargetUrl);
+                            return null;
+                        });
+    }
+
+    void deployMissingBundles(CloseableHttpClient httpClient, URI consoleTargetUrl) throws MojoExecutionException {
+        try (ParallelExecutor executor = createParallelExecutor()) {
+            // speculatively resolve the bundles of the preferred alternative while retrieving the state of all bundles,
+            // the other alternatives (usually legacy bundles) are only resolved once the server requires them
+            BundlePrerequisite preferredPrerequisite =
+                    deployFsResourceBundlePrerequisites.isEmpty() ? null : deployFsResourceBundlePrerequisites.get(0);
+            Future<Map<Bundle, ArtifactResult>> preferredArtifactResults = preferredPrerequisite != null
+                    ? executor.submit(() -> resolveBundleArtifacts(preferredPrerequisite.getBundles()))
+                    : null;
+            InstalledBundles installedBundles = fetchInstalledBundles(httpClient, consoleTargetUrl);
+
+            BundlePrerequisite matchingPrerequisite = null;
+            for (BundlePrerequisite bundlePrerequisite : deployFsResourceBundlePrerequisites) {
+                if (isBundlePrerequisitesPreconditionsMet(installedBundles, bundlePrerequisite)) {
+                    matchingPrerequisite = bundlePrerequisite;
+                    break;
                 }
-                foundMatch = true;
-                break;
             }
-        }
-        if (!foundMatch) {
-            throw new MojoExecutionException(
-                    "Target server does not meet any of the prerequisites for this goal. Haven't found the necessary bundles: "
-                            + deployFsResourceBundlePrerequisites.stream()
-                                    .map(bundlePrerequisite -> bundlePrerequisite.getPreconditions().stream()
-                                            .map(BundlePrerequisite.Bundle::toString)
-                                            .collect(Collectors.joining(", ")))
-                                    .collect(Collectors.joining(" OR ")));
+            if (matchingPrerequisite == null) {
+                throw new MojoExecutionException(
+                        "Target server does not meet any of the prerequisites for this goal. Haven't found the necessary bundles: "
+                                + deployFsResourceBundlePrerequisites.stream()
+                                        .map(bundlePrerequisite -> bundlePrerequisite.getPreconditions().stream()
+                                                .map(BundlePrerequisite.Bundle::toString)
+                                                .collect(Collectors.joining(", ")))
+                                        .collect(Collectors.joining(" OR ")));
+            }
+
+            List<Bundle> missingBundles = new ArrayList<>();
+            for (Bundle bundle : matchingPrerequisite.getBundles()) {
+                if (isBundleInstalled(installedBundles, bundle)) {
+                    getLog().debug("Bundle " + bundle.getSymbolicName() + " " + bundle.getOsgiVersion()
+                            + " (or higher) already installed.");
+                    recordSkipped(
+                            "install " + bundle.getSymbolicName() + " " + bundle.getOsgiVersion(), "already installed");
+                } else {
+                    missingBundles.add(bundle);
+                }
+            }
+            if (missingBundles.isEmpty()) {
+                // no need to wait for the speculative resolution, the executor interrupts it when being closed
+                return;
+            }
+            final Map<Bundle, ArtifactResult> artifactResults;
+            if (matchingPrerequisite == preferredPrerequisite) {
+                artifactResults = ParallelExecutor.get(preferredArtifactResults);
+            } else {
+                // free the executor thread for the deployments
+                preferredArtifactResults.cancel(true);
+                // only resolve the bundles of the matching alternative which are actually missing
+                artifactResults = resolveBundleArtifacts(missingBundles);
+            }
+            List<Callable<Void>> deployments = new ArrayList<>();
+            for (Bundle bundle : missingBundles) {
+                File file = getResolvedFile(artifactResults.get(bundle));
+                // other prerequisite alternatives (e.g. from differently configured modules) may share bundles
+                deployments.add(() -> SingleFlight.get(repoSession)
+                        .execute("deployBundle:" + getTargetURL() + ":" + bundle, () -> {
+                            deployBundle(httpClient, bundle, file, consoleTargetUrl);
+                            return null;
+                        }));
+            }
+            executor.invokeAll(deployments);
         }
     }
 
-    private void deployBundle(CloseableHttpClient httpClient, Bundle bundle, URI consoleTargetUrl)
+    InstalledBundles fetchInstalledBundles(CloseableHttpClient httpClient, URI consoleTargetUrl)
             throws MojoExecutionException {
         try {
-            if (isBundleInstalled(httpClient, bundle, consoleTargetUrl)) {
-                getLog().debug("Bundle " + bundle.getSymbolicName() + " " + bundle.getOsgiVersion()
-                        + " (or higher) already installed.");
-                return;
-            }
+            return InstalledBundles.fetch(httpClient, consoleTargetUrl, getLog());
         } catch (IOException e) {
             throw new MojoExecutionException(
-                    "Error getting installation status of " + bundle + " via " + consoleTargetUrl + ": "
-                            + e.getMessage(),
-                    e);
+                    "Error getting installation status of bundles via " + consoleTargetUrl + ": " + e.getMessage(), e);
+        }
+    }
+
+    Map<Bundle, ArtifactResult> resolveBundleArtifacts(List<Bundle> bundles) throws MojoExecutionException {
+        List<ArtifactResult> results = resolveArtifacts(
+                bundles.stream().map(bundle -> getArtifact(bundle, "jar")).collect(Collectors.toList()));
+        Map<Bundle, ArtifactResult> artifactResults = new IdentityHashMap<>();
+        for (int i = 0; i < bundles.size(); i++) {
+            artifactResults.put(bundles.get(i), results.get(i));
         }
+        return artifactResults;
+    }
+
+    void deployBundle(CloseableHttpClient httpClient, Bundle bundle, File file, URI consoleTargetUrl)
+            throws MojoExecutionException {
         try {
             getLog().info("Installing Bundle " + bundle.getSymbolicName() + " " + bundle.getOsgiVersion() + " to "
                     + consoleTargetUrl + " via " + deploymentMethod);
 
-            File file = getArtifactFile(bundle, "jar");
             deploymentMethod
                     .execute()
                     .deploy(
@@ -294,7 +358,8 @@ public class FsMountMojo extends AbstractFsMountMojo {
                             new DeployContext()
                                     .log(getLog())
                                     .httpClient(httpClient)
-                                    .failOnError(failOnError));
+                                    .failOnError(failOnError)
+                                    .uploadStatistics(getUploadStatistics()));
         } catch (IOException e) {
             throw new MojoExecutionException(
                     "Error deploying bundle " + bundle + " to " + getTargetURL() + ": " + e.getMessage(), e);
@@ -302,73 +367,22 @@ public class FsMountMojo extends AbstractFsMountMojo {
     }
 
     private boolean isBundlePrerequisitesPreconditionsMet(
-            CloseableHttpClient httpClient, BundlePrerequisite bundlePrerequisite, URI targetUrl)
-            throws MojoExecutionException {
+            InstalledBundles installedBundles, BundlePrerequisite bundlePrerequisite) {
         for (Bundle precondition : bundlePrerequisite.getPreconditions()) {
-            try {
-                if (!isBundleInstalled(httpClient, precondition, targetUrl)) {
-                    getLog().debug("Bundle " + precondition.getSymbolicName() + " " + precondition.getOsgiVersion()
-                            + " (or higher) is not installed.");
-                    return false;
-                }
-            } catch (IOException e) {
-                throw new MojoExecutionException(
-                        "Reading bundle data for bundle " + precondition + " failed, cause: " + e.getMessage(), e);
+            if (!isBundleInstalled(installedBundles, precondition)) {
+                getLog().debug("Bundle " + precondition.getSymbolicName() + " " + precondition.getOsgiVersion()
+                        + " (or higher) is not installed.");
+                return false;
             }
         }
         return true;
     }
 
-    private boolean isBundleInstalled(CloseableHttpClient httpClient, Bundle bundle, URI consoleTargetUrl)
-            throws IOException {
-        String installedVersionString =
-                getBundleInstalledVersion(httpClient, bundle.getSymbolicName(), consoleTargetUrl);
-        if (StringUtils.isBlank(installedVersionString)) {
-            return false;
-        }
-        DefaultArtifactVersion installedVersion = new DefaultArtifactVersion(installedVersionString);
-        DefaultArtifactVersion requiredVersion = new DefaultArtifactVersion(bundle.getOsgiVersion());
-        return (installedVersion.compareTo(requiredVersion) >= 0);
-    }
-
-    /**
-     * Get version of fsresource bundle that is installed in the instance.
-     * @param httpClient the http client to use
-     * @param targetUrl Target URL
-     * @return Version number or null if non installed
-     * @throws MojoExecutionException
-     */
-    private String getBundleInstalledVersion(
-            CloseableHttpClient httpClient, final String bundleSymbolicName, final URI consoleTargetUrl)
-            throws IOException {
-        final URI getUrl = consoleTargetUrl.resolve("bundles/" + bundleSymbolicName + ".json");
-        getLog().debug("Get bundle data via request to " + getUrl);
-        final HttpGet get = new HttpGet(getUrl);
-
-        try {
-            final String jsonText = httpClient.execute(get, new BasicHttpClientResponseHandler());
-            JsonObject response = JsonSupport.parseObject(jsonText);
-            JsonArray data = response.getJsonArray("data");
-            if (!data.isEmpty()) {
-                JsonObject bundleData = data.getJsonObject(0);
-                return bundleData.getString("version");
-            }
-
-        } catch (JsonException ex) {
-            throw new IOException("Reading bundle data from " + getUrl + " failed, cause: " + ex.getMessage(), ex);
-        } catch (HttpResponseException e) {
-            // accept 404 response
-            if (e.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
-                return null;
-            }
-            throw e;
-        }
-        // no version detected, bundle is not installed
-        return null;
+    private boolean isBundleInstalled(InstalledBundles installedBundles, Bundle bundle) {
+        return installedBundles.isInstalled(bundle.getSymbolicName(), bundle.getOsgiVersion());
     }
 
-    private File getArtifactFile(Bundle bundle, String extension) throws MojoExecutionException {
-        return resolveArtifact(
-                new DefaultArtifact(bundle.getGroupId(), bundle.getArtifactId(), extension, bundle.getVersion()));
+    private static Artifact getArtifact(Bundle bundle, String extension) {
+        return new DefaultArtifact(bundle.getGroupId(), bundle.getArtifactId(), extension, bundle.getVersion());
     }
 }
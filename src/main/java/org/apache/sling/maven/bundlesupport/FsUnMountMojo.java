@@ -34,13 +34,15 @@ import org.apache.sling.maven.bundlesupport.fsresource.SlingInitialContentMounte
  * Otherwise it tries to detect a FileVault content package layout starting at {@link AbstractFsMountMojo#fileVaultJcrRootFile} or the project's resource directories and potentially creates a configuration for each path in the package's {@code filter.xml}.
  * @since 2.2.0
  */
-@Mojo(name = "fsunmount", requiresProject = true)
+@Mojo(name = "fsunmount", requiresProject = true, threadSafe = true)
 public class FsUnMountMojo extends AbstractFsMountMojo {
 
     @Override
     protected void configureSlingInitialContent(
             CloseableHttpClient httpClient, final URI targetUrl, final File bundleFile) throws MojoExecutionException {
-        new SlingInitialContentMounter(getLog(), httpClient, getRequestConfigBuilder(), project).unmount(targetUrl);
+        new SlingInitialContentMounter(
+                        getLog(), httpClient, getRequestConfigBuilder(), project, getBundleMetadataCache())
+                .unmount(targetUrl);
     }
 
     @Override
@@ -36,7 +36,6 @@ import io.github.classgraph.ScanResult;
 import jakarta.json.Json;
 import jakarta.json.JsonException;
 import jakarta.json.JsonWriter;
-import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
@@ -58,7 +57,7 @@ import org.codehaus.plexus.util.StringUtils;
         defaultPhase = LifecyclePhase.PROCESS_CLASSES,
         threadSafe = true,
         requiresDependencyResolution = ResolutionScope.COMPILE)
-public class GenerateAdapterMetadataMojo extends AbstractMojo {
+public class GenerateAdapterMetadataMojo extends AbstractSlingMojo {
 
     private static final String DEFAULT_CONDITION = "If the adaptable is a %s.";
 
@@ -85,6 +84,7 @@ public class GenerateAdapterMetadataMojo extends AbstractMojo {
     private MavenProject project;
 
     public void execute() throws MojoExecutionException, MojoFailureException {
+        addToReport();
         final Map<String, Object> descriptor = new HashMap<>();
         ClassGraph classGraph = new ClassGraph()
                 .enableAnnotationInfo() // only consider annotation info
@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.sling.maven.bundlesupport.deploy.method.JsonResponseHandler;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.Version;
+
+/**
+ * Snapshot of all bundles installed in a Sling instance, retrieved with a single request to the
+ * <a href="https://felix.apache.org/documentation/subprojects/apache-felix-web-console/web-console-restful-api.html#get-requests">Felix Web Console</a>
+ * ({@code bundles.json}) and indexed by bundle symbolic name.
+ */
+final class InstalledBundles {
+
+    private final Map<String, List<InstalledBundle>> bundlesBySymbolicName = new HashMap<>();
+    private final List<InstalledBundle> bundles = new ArrayList<>();
+
+    InstalledBundles(Collection<InstalledBundle> bundles) {
+        for (InstalledBundle bundle : bundles) {
+            this.bundles.add(bundle);
+            bundlesBySymbolicName
+                    .computeIfAbsent(bundle.getSymbolicName(), key -> new ArrayList<>())
+                    .add(bundle);
+        }
+    }
+
+    /**
+     * Retrieves the state of all bundles from the Felix Web Console.
+     * @param httpClient the http client to use
+     * @param consoleTargetUrl the web console base url
+     * @param log the logger
+     * @return the snapshot of installed bundles
+     * @throws IOException in case the bundle list could not be retrieved
+     */
+    static InstalledBundles fetch(CloseableHttpClient httpClient, URI consoleTargetUrl, Log log) throws IOException {
+        final URI getUrl = consoleTargetUrl.resolve("bundles.json");
+        log.debug("Get data of all bundles via request to " + getUrl);
+        InstalledBundles result =
+                httpClient.execute(new HttpGet(getUrl), new JsonResponseHandler<>(InstalledBundles::parse));
+        log.debug("Found " + result.getAll().size() + " installed bundles");
+        return result;
+    }
+
+    /**
+     * Parses the bundle list from the JSON returned by {@code bundles.json}.
+     * Only the fields required for {@link InstalledBundle} are extracted.
+     * @param parser JSON parser located at the beginning of the document
+     * @return the snapshot of installed bundles
+     */
+    static InstalledBundles parse(JsonParser parser) {
+        List<InstalledBundle> result = new ArrayList<>();
+        if (parser.next() != Event.START_OBJECT || JsonSupport.findKey(parser, "data") != Event.START_ARRAY) {
+            throw new JsonException("Missing array 'data'");
+        }
+        Event event;
+        while ((event = parser.next()) != Event.END_ARRAY) {
+            if (event != Event.START_OBJECT) {
+                throw new JsonException("Expected JSON object but found " + event);
+            }
+            InstalledBundle bundle = parseBundle(parser);
+            if (bundle.getSymbolicName() != null) {
+                result.add(bundle);
+            }
+        }
+        return new InstalledBundles(result);
+    }
+
+    private static InstalledBundle parseBundle(JsonParser parser) {
+        long id = -1;
+        String symbolicName = null;
+        String version = null;
+        String state = null;
+        int stateRaw = 0;
+        boolean fragment = false;
+        Event event;
+        while ((event = parser.next()) != Event.END_OBJECT) {
+            if (event != Event.KEY_NAME) {
+                throw new JsonException("Expected key but found " + event);
+            }
+            String key = parser.getString();
+            Event valueEvent = parser.next();
+            switch (key) {
+                case "id":
+                    id = parser.getLong();
+                    break;
+                case "symbolicName":
+                    symbolicName = parser.getString();
+                    break;
+                case "version":
+                    version = parser.getString();
+                    break;
+                case "state":
+                    state = parser.getString();
+                    break;
+                case "stateRaw":
+                    stateRaw = parser.getInt();
+                    break;
+                case "fragment":
+                    fragment = valueEvent == Event.VALUE_TRUE;
+                    break;
+                default:
+                    JsonSupport.skipValue(parser, valueEvent);
+            }
+        }
+        return new InstalledBundle(id, symbolicName, version, state, stateRaw, fragment);
+    }
+
+    /**
+     * @return all installed bundles
+     */
+    List<InstalledBundle> getAll() {
+        return Collections.unmodifiableList(bundles);
+    }
+
+    /**
+     * @param symbolicName the bundle symbolic name
+     * @return the installed bundle with the given symbolic name (the one with the highest version in case
+     *      multiple versions are installed) or {@code null} if no such bundle is installed
+     */
+    InstalledBundle get(String symbolicName) {
+        InstalledBundle result = null;
+        for (InstalledBundle bundle : bundlesBySymbolicName.getOrDefault(symbolicName, Collections.emptyList())) {
+            if (result == null || compareVersions(bundle.getVersion(), result.getVersion()) > 0) {
+                result = bundle;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param symbolicName the bundle symbolic name
+     * @param version the version
+     * @return the installed bundle with the given symbolic name and (semantically) equal version or {@code null} if no
+     *      such bundle is installed
+     */
+    InstalledBundle get(String symbolicName, String version) {
+        for (InstalledBundle bundle : bundlesBySymbolicName.getOrDefault(symbolicName, Collections.emptyList())) {
+            if (compareVersions(bundle.getVersion(), version) == 0) {
+                return bundle;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param symbolicName the bundle symbolic name
+     * @param minVersion the minimum version
+     * @return {@code true} if a bundle with the given symbolic name is installed in the given or a higher version
+     */
+    boolean isInstalled(String symbolicName, String minVersion) {
+        InstalledBundle bundle = get(symbolicName);
+        if (bundle == null) {
+            return false;
+        }
+        return compareVersions(bundle.getVersion(), minVersion) >= 0;
+    }
+
+    /**
+     * Compares bundle versions according to the OSGi semantics (e.g. {@code 1.0.0.SNAPSHOT} is higher than
+     * {@code 1.0.0}). Only if one of the versions is no valid OSGi version they are compared as Maven versions.
+     * @param version1 the first version, may be {@code null}
+     * @param version2 the second version, may be {@code null}
+     * @return a negative integer, zero, or a positive integer as the first version is lower than, equal to, or higher
+     *      than the second version
+     */
+    static int compareVersions(String version1, String version2) {
+        String v1 = version1 != null ? version1 : "0";
+        String v2 = version2 != null ? version2 : "0";
+        try {
+            return Version.parseVersion(v1).compareTo(Version.parseVersion(v2));
+        } catch (IllegalArgumentException e) {
+            return new DefaultArtifactVersion(v1).compareTo(new DefaultArtifactVersion(v2));
+        }
+    }
+
+    /**
+     * Bundle data as exposed by the Felix Web Console.
+     */
+    static final class InstalledBundle {
+
+        private final long id;
+        private final String symbolicName;
+        private final String version;
+        private final String state;
+        private final int stateRaw;
+        private final boolean fragment;
+
+        InstalledBundle(long id, String symbolicName, String version, String state, int stateRaw, boolean fragment) {
+            this.id = id;
+            this.symbolicName = symbolicName;
+            this.version = version;
+            this.state = state;
+            this.stateRaw = stateRaw;
+            this.fragment = fragment;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        String getSymbolicName() {
+            return symbolicName;
+        }
+
+        String getVersion() {
+            return version;
+        }
+
+        /**
+         * @return the human readable state (e.g. "Active" or "Fragment")
+         */
+        String getState() {
+            return state;
+        }
+
+        /**
+         * @return the state as defined in {@link Bundle#getState()}
+         */
+        int getStateRaw() {
+            return stateRaw;
+        }
+
+        boolean isFragment() {
+            return fragment;
+        }
+
+        /**
+         * @return {@code true} if the bundle is active or a resolved fragment
+         */
+        boolean isActive() {
+            return stateRaw == Bundle.ACTIVE || (fragment && stateRaw == Bundle.RESOLVED);
+        }
+
+        @Override
+        public String toString() {
+            return symbolicName + " " + version + " (id " + id + ", " + state + ")";
+        }
+    }
+}
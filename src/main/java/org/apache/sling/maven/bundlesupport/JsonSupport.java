@@ -18,7 +18,9 @@
  */
 package org.apache.sling.maven.bundlesupport;
 
+import java.io.InputStream;
 import java.io.StringReader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -31,6 +33,9 @@ import jakarta.json.JsonObject;
 import jakarta.json.JsonObjectBuilder;
 import jakarta.json.JsonReader;
 import jakarta.json.JsonReaderFactory;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParserFactory;
 
 import static org.apache.sling.jcr.contentparser.impl.JsonTicksConverter.tickToDoubleQuote;
 
@@ -40,12 +45,17 @@ public final class JsonSupport {
     public static final String JSON_MIME_TYPE = "application/json";
 
     private static final JsonReaderFactory JSON_READER_FACTORY;
+    private static final JsonParserFactory JSON_PARSER_FACTORY;
 
     static {
         // allow comments in JSON files
         Map<String, Object> jsonFactoryConfig = new HashMap<>();
         jsonFactoryConfig.put("org.apache.johnzon.supports-comments", true);
         JSON_READER_FACTORY = Json.createReaderFactory(jsonFactoryConfig);
+        // the streaming parser is used for HTTP responses, use a smaller read-ahead buffer than the default (64k)
+        Map<String, Object> jsonParserFactoryConfig = new HashMap<>(jsonFactoryConfig);
+        jsonParserFactoryConfig.put("org.apache.johnzon.default-char-buffer", 8192);
+        JSON_PARSER_FACTORY = Json.createParserFactory(jsonParserFactoryConfig);
     }
 
     private JsonSupport() {
@@ -76,6 +86,55 @@ public final class JsonSupport {
         }
     }
 
+    /**
+     * Create a streaming parser for the given JSON input.
+     * @param inputStream JSON input stream
+     * @param charset Charset of the input stream
+     * @return JSON parser (must be closed by the caller)
+     */
+    public static JsonParser createParser(InputStream inputStream, Charset charset) {
+        return JSON_PARSER_FACTORY.createParser(inputStream, charset);
+    }
+
+    /**
+     * Moves the given parser (which must be located within an object) to the value of the given key
+     * on the current object level. Values of all other keys are skipped without being materialized.
+     * @param parser JSON parser positioned within an object
+     * @param key the key to look for
+     * @return the event of the value of the given key or {@code null} if the object does not contain the key
+     *      (in that case the parser is located at the end of the object)
+     */
+    public static Event findKey(JsonParser parser, String key) {
+        while (parser.hasNext()) {
+            Event event = parser.next();
+            if (event == Event.END_OBJECT) {
+                return null;
+            }
+            if (event == Event.KEY_NAME) {
+                boolean matches = key.equals(parser.getString());
+                Event valueEvent = parser.next();
+                if (matches) {
+                    return valueEvent;
+                }
+                skipValue(parser, valueEvent);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Skips the value of the current event in case it is an object or array.
+     * @param parser JSON parser
+     * @param event current event of the parser
+     */
+    public static void skipValue(JsonParser parser, Event event) {
+        if (event == Event.START_OBJECT) {
+            parser.skipObject();
+        } else if (event == Event.START_ARRAY) {
+            parser.skipArray();
+        }
+    }
+
     /**
      * Validate JSON structure
      * @param jsonString JSON string
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.sling.maven.bundlesupport.metrics.MetricsRegistry;
+import org.apache.sling.maven.bundlesupport.metrics.MetricsWriter;
+
+/**
+ * Records the duration of all executions of this plugin's goals and writes the metrics at the end of the Maven session.
+ * Only a single instance is installed per session (see {@link AbstractBundleRequestMojo#getMetricsRegistry()}).
+ */
+final class MetricsListener extends DelegatingExecutionListener {
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final AtomicBoolean installed = new AtomicBoolean();
+    private final Map<MojoExecution, Long> starts = new ConcurrentHashMap<>();
+    private final File directory;
+    private final Log log;
+    private String pluginKey;
+
+    MetricsListener(File directory, Log log) {
+        this.directory = directory;
+        this.log = log;
+        registry.gauge(
+                "sling_metrics_timestamp_seconds",
+                "Time when the metrics were written in seconds since the epoch",
+                () -> System.currentTimeMillis() / 1000d);
+    }
+
+    MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Installs the listener once per session. The currently running goal execution is recorded from now on.
+     * @param session the Maven session
+     * @param mojoExecution the current goal execution
+     */
+    void install(MavenSession session, MojoExecution mojoExecution) {
+        if (installed.compareAndSet(false, true)) {
+            pluginKey = mojoExecution.getPlugin().getKey();
+            starts.put(mojoExecution, System.nanoTime());
+            install(session);
+        }
+    }
+
+    @Override
+    public void mojoStarted(ExecutionEvent event) {
+        if (isPluginExecution(event)) {
+            starts.put(event.getMojoExecution(), System.nanoTime());
+        }
+        super.mojoStarted(event);
+    }
+
+    @Override
+    public void mojoSucceeded(ExecutionEvent event) {
+        recordGoal(event);
+        super.mojoSucceeded(event);
+    }
+
+    @Override
+    public void mojoFailed(ExecutionEvent event) {
+        recordGoal(event);
+        super.mojoFailed(event);
+    }
+
+    @Override
+    public void sessionEnded(ExecutionEvent event) {
+        try {
+            MetricsWriter.write(registry, directory);
+            log.info("Wrote metrics of Sling Maven Plugin to " + directory);
+        } catch (IOException e) {
+            log.warn("Could not write metrics to " + directory, e);
+        }
+        super.sessionEnded(event);
+    }
+
+    private void recordGoal(ExecutionEvent event) {
+        if (!isPluginExecution(event)) {
+            return;
+        }
+        Long start = starts.remove(event.getMojoExecution());
+        if (start != null) {
+            registry.goalDuration(event.getMojoExecution().getGoal()).record(System.nanoTime() - start);
+        }
+    }
+
+    private boolean isPluginExecution(ExecutionEvent event) {
+        return event.getMojoExecution() != null
+                && pluginKey.equals(event.getMojoExecution().getPlugin().getKey());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Executes tasks (usually HTTP requests or artifact resolutions) with a bounded number of threads.
+ * The threads inherit the context class loader of the creating thread (i.e. the plugin's class realm).
+ */
+final class ParallelExecutor implements AutoCloseable {
+
+    private final ExecutorService executorService;
+
+    ParallelExecutor(String name, int parallelism) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executorService = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submits a single task for asynchronous execution.
+     * @param task the task
+     * @return the future of the task, use {@link #get(Future)} to retrieve the result
+     * @param <T> the type of the result
+     */
+    <T> Future<T> submit(Callable<T> task) {
+        return executorService.submit(task);
+    }
+
+    /**
+     * Executes all given tasks in parallel and waits for all of them to finish (even if some of them fail).
+     * @param tasks the tasks
+     * @return the results in the order of the given tasks
+     * @throws MojoExecutionException in case at least one task failed (further failures are added as suppressed exceptions)
+     * @param <T> the type of the results
+     */
+    <T> List<T> invokeAll(List<? extends Callable<T>> tasks) throws MojoExecutionException {
+        List<Future<T>> futures = new ArrayList<>();
+        for (Callable<T> task : tasks) {
+            futures.add(executorService.submit(task));
+        }
+        List<T> results = new ArrayList<>();
+        MojoExecutionException failure = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(get(future));
+            } catch (MojoExecutionException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * Waits for the given future and unwraps the exception of a failed task.
+     * @param future the future
+     * @return the result of the task
+     * @throws MojoExecutionException in case the task failed or waiting was interrupted
+     * @param <T> the type of the result
+     */
+    static <T> T get(Future<T> future) throws MojoExecutionException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for parallel task", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof MojoExecutionException) {
+                throw (MojoExecutionException) cause;
+            }
+            throw new MojoExecutionException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Interrupts all tasks which are still running.
+     */
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+    }
+}
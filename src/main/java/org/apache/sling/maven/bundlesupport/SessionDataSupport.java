@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.util.function.Supplier;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+
+/**
+ * Manages objects shared by all goal executions of a Maven session (i.e. all modules of a reactor build).
+ */
+final class SessionDataSupport {
+
+    private SessionDataSupport() {
+        // static methods only
+    }
+
+    /**
+     * Returns the instance of the given type bound to the session, creates it if necessary.
+     * The type's class object is used as key. As it is specific to the plugin's class realm, different plugin
+     * versions never share an instance.
+     * @param session the repository system session
+     * @param type the type of the instance
+     * @param factory creates a new instance
+     * @return the instance bound to the given session
+     * @param <T> the type of the instance
+     */
+    static <T> T getOrCreate(RepositorySystemSession session, Class<T> type, Supplier<T> factory) {
+        SessionData data = session.getData();
+        while (true) {
+            Object existing = data.get(type);
+            if (existing != null) {
+                return type.cast(existing);
+            }
+            T instance = factory.get();
+            if (data.set(type, null, instance)) {
+                return instance;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.eclipse.aether.RepositorySystemSession;
+
+/**
+ * Executes operations identified by a key only once per Maven session, no matter how many goal executions
+ * (e.g. of different reactor modules, potentially running in parallel) request them.
+ * Concurrent callers wait for the ongoing execution, later callers receive the stored result.
+ * Failed executions are not stored, i.e. they are executed again by later callers.
+ */
+final class SingleFlight {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+
+    private SingleFlight() {
+        // use get(...) instead
+    }
+
+    /**
+     * @param session the repository system session (shared by all modules of a reactor build)
+     * @return the instance bound to the given session
+     */
+    static SingleFlight get(RepositorySystemSession session) {
+        return SessionDataSupport.getOrCreate(session, SingleFlight.class, SingleFlight::new);
+    }
+
+    /**
+     * Executes the given operation unless an operation with the same key has already been executed successfully or is
+     * currently being executed in this session.
+     * @param key the key identifying the operation (should include the target URL)
+     * @param operation the operation
+     * @return the result of the (potentially shared) execution
+     * @throws MojoExecutionException in case the (potentially shared) execution failed
+     * @param <T> the type of the result
+     */
+    @SuppressWarnings("unchecked")
+    <T> T execute(String key, Callable<T> operation) throws MojoExecutionException {
+        CompletableFuture<Object> newCall = new CompletableFuture<>();
+        CompletableFuture<Object> call = calls.putIfAbsent(key, newCall);
+        if (call == null) {
+            try {
+                T result = operation.call();
+                newCall.complete(result);
+                return result;
+            } catch (Throwable e) {
+                // allow later callers to retry, waiting callers must never block forever (not even on errors)
+                calls.remove(key, newCall);
+                newCall.completeExceptionally(e);
+                if (e instanceof MojoExecutionException) {
+                    throw (MojoExecutionException) e;
+                }
+                if (e instanceof Error) {
+                    throw (Error) e;
+                }
+                throw new MojoExecutionException(e.getMessage(), e);
+            }
+        }
+        return (T) ParallelExecutor.get(call);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.eclipse.aether.RepositorySystemSession;
+
+/**
+ * Coordinates the requests of all goal executions of a Maven session (potentially running in parallel with
+ * {@code -T}) per target host.
+ * <ul>
+ * <li>Limits the number of concurrent requests per target host (via {@link #createExecChainHandler(int)}).</li>
+ * <li>Fails fast while a target host is unhealthy (via {@link #createCircuitBreakerHandler(int, int)}).</li>
+ * <li>Serializes operations which must not run concurrently against the same target (via {@link #executeExclusively(String, ExclusiveOperation)}).</li>
+ * </ul>
+ */
+final class TargetGovernor {
+
+    private final ConcurrentMap<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * @param session the repository system session (shared by all modules of a reactor build)
+     * @return the instance bound to the given session
+     */
+    static TargetGovernor get(RepositorySystemSession session) {
+        return SessionDataSupport.getOrCreate(session, TargetGovernor.class, TargetGovernor::new);
+    }
+
+    /**
+     * Creates a handler for the HTTP client execution chain which blocks until a permit for the request's target host
+     * is available. The permit is held while the request is being sent and until the response head has been received.
+     * @param maxConcurrentRequests the maximum number of concurrent requests per target host (only the value used
+     *      with the first request to a target in the session is effective)
+     * @return the exec chain handler
+     */
+    ExecChainHandler createExecChainHandler(int maxConcurrentRequests) {
+        return (ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain) -> {
+            Semaphore semaphore = permits.computeIfAbsent(
+                    scope.route.getTargetHost().toURI(), key -> new Semaphore(Math.max(1, maxConcurrentRequests)));
+            acquire(semaphore);
+            try {
+                return chain.proceed(request, scope);
+            } finally {
+                semaphore.release();
+            }
+        };
+    }
+
+    /**
+     * Creates a handler for the HTTP client execution chain which guards each target host with a {@link CircuitBreaker}.
+     * I/O errors (e.g. timeouts or refused connections) and the status codes 502, 503 and 504 are considered failures,
+     * all other responses are considered successes. While the circuit is open requests fail with an
+     * {@link IOException} without being sent.
+     * @param failureThreshold the number of consecutive failures after which the circuit opens
+     * @param coolDownSec the time in seconds during which requests fail fast once the circuit is open
+     *      (only the values used with the first request to a target in the session are effective)
+     * @return the exec chain handler
+     */
+    ExecChainHandler createCircuitBreakerHandler(int failureThreshold, int coolDownSec) {
+        return (ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain) -> {
+            CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(
+                    scope.route.getTargetHost().toURI(),
+                    key -> new CircuitBreaker(key, failureThreshold, coolDownSec * 1000L, System::currentTimeMillis));
+            circuitBreaker.acquire();
+            boolean success = false;
+            try {
+                ClassicHttpResponse response = chain.proceed(request, scope);
+                success = !isUnavailable(response.getCode());
+                return response;
+            } finally {
+                if (success) {
+                    circuitBreaker.onSuccess();
+                } else {
+                    circuitBreaker.onFailure();
+                }
+            }
+        };
+    }
+
+    private static boolean isUnavailable(int statusCode) {
+        return statusCode == HttpStatus.SC_BAD_GATEWAY
+                || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE
+                || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT;
+    }
+
+    private static void acquire(Semaphore semaphore) throws InterruptedIOException {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException exception = new InterruptedIOException("Interrupted while waiting for permit");
+            exception.initCause(e);
+            throw exception;
+        }
+    }
+
+    /**
+     * Executes the given operation while no other exclusive operation on the same target is running in the session.
+     * @param target the target (e.g. the console URL)
+     * @param operation the operation
+     * @throws MojoExecutionException in case the operation failed
+     */
+    void executeExclusively(String target, ExclusiveOperation operation) throws MojoExecutionException {
+        ReentrantLock lock = locks.computeIfAbsent(target, key -> new ReentrantLock());
+        lock.lock();
+        try {
+            operation.execute();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Operation to execute exclusively.
+     */
+    @FunctionalInterface
+    interface ExclusiveOperation {
+        void execute() throws MojoExecutionException;
+    }
+}
@@ -33,7 +33,6 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.maven.model.Resource;
-import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
@@ -48,7 +47,7 @@ import org.sonatype.plexus.build.incremental.BuildContext;
  * Validate all JSON files of a project. It only ensures they are well-formed but not that they are valid against a certain schema.
  */
 @Mojo(name = "validate", defaultPhase = LifecyclePhase.PROCESS_RESOURCES, threadSafe = true)
-public class ValidationMojo extends AbstractMojo {
+public class ValidationMojo extends AbstractSlingMojo {
 
     private static final Pattern LINE_NUMBER_PATTERN = Pattern.compile("lineNumber=(\\d+),");
     private static final Pattern COLUMN_NUMBER_PATTERN = Pattern.compile("columnNumber=(\\d+),");
@@ -87,8 +86,10 @@ public class ValidationMojo extends AbstractMojo {
      * @see org.apache.maven.plugin.AbstractMojo#execute()
      */
     public void execute() throws MojoExecutionException, MojoFailureException {
+        addToReport();
         if (this.skip) {
             getLog().info("Validation is skipped.");
+            recordSkipped("validate", "skipped as instructed");
             return;
         }
 
@@ -0,0 +1,408 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.PatternSyntaxException;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonException;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.sling.maven.bundlesupport.InstalledBundles.InstalledBundle;
+import org.apache.sling.maven.bundlesupport.deploy.method.JsonResponseHandler;
+import org.osgi.framework.Bundle;
+
+/**
+ * Waits until a (starting) Sling instance is ready, i.e. until all bundles (or the selected ones) are active and
+ * optionally a <a href="https://sling.apache.org/documentation/bundles/sling-health-check-tool.html">Sling health check</a>
+ * endpoint reports {@code OK}.
+ * The bundle states are polled via the
+ * <a href="https://felix.apache.org/documentation/subprojects/apache-felix-web-console/web-console-restful-api.html#get-requests">Felix Web Console</a>
+ * (at {@link #slingConsoleUrl}) with a single request each time. All requests are sent sequentially over one
+ * (kept alive) connection. The poll interval starts at {@link #initialPollIntervalMs} and doubles up to
+ * {@link #maxPollIntervalMs} while nothing changes, it is reset whenever a bundle changes its state.
+ * Connection errors and error responses (e.g. while the instance is still starting) are tolerated until the
+ * {@link #timeoutSec timeout} is reached.
+ * Optionally the goal fails early if the bundle states did not change at all for {@link #stuckTimeoutSec}, listing
+ * the bundles which are not active (including the unresolved imports of the installed ones).
+ * @since 3.0.5
+ */
+@Mojo(name = "wait-for-ready", requiresProject = false, threadSafe = true)
+public class WaitForReadyMojo extends AbstractBundleRequestMojo {
+
+    /** Maximum number of bundles for which the details are retrieved to diagnose why they are stuck. */
+    private static final int MAX_DIAGNOSED_BUNDLES = 10;
+
+    private static final String PROP_IMPORTED_PACKAGES = "Imported Packages";
+    private static final String UNRESOLVED_IMPORT_PREFIX = "ERROR:";
+    private static final String HEALTH_CHECK_OK = "OK";
+
+    /**
+     * The maximum number of seconds to wait for the instance to become ready.
+     */
+    @Parameter(property = "sling.waitForReady.timeout", defaultValue = "300")
+    private int timeoutSec;
+
+    /**
+     * The symbolic names of the bundles which need to be active. If neither this nor {@link #bundleNamePattern} is
+     * set, all bundles need to be active (fragments need to be resolved).
+     */
+    @Parameter(property = "sling.waitForReady.bundleNames")
+    private List<String> bundleNames;
+
+    /**
+     * A pattern for the symbolic names of the bundles which need to be active. Either a glob pattern supporting the
+     * wildcards {@code *} and {@code ?} (e.g. {@code com.acme.*}) or a regular expression prefixed with {@code regex:}.
+     */
+    @Parameter(property = "sling.waitForReady.bundleNamePattern")
+    private String bundleNamePattern;
+
+    /**
+     * The path (or URL) of a Sling health check servlet endpoint returning JSON, e.g.
+     * {@code /system/health.json?tags=systemalive}. It is resolved against {@link #slingUrl} with the
+     * {@link #slingUrlSuffix} appended, i.e. relative paths are relative to the suffix. It is only polled once the
+     * bundles are active and needs to return status code 200 with an {@code overallResult} of {@code OK}. If not set,
+     * no health checks are evaluated.
+     */
+    @Parameter(property = "sling.waitForReady.healthCheckPath")
+    private String healthCheckPath;
+
+    /**
+     * The number of seconds after which the goal fails if the states of the bundles did not change at all while some
+     * of them are still not active. Disabled by default (i.e. the goal only fails once {@link #timeoutSec} is reached)
+     * as cold starts of large instances may have long quiet periods, e.g. while the repository is initialized.
+     * Set it to a value higher than the longest expected quiet period to detect stuck instances early.
+     */
+    @Parameter(property = "sling.waitForReady.stuckTimeout", defaultValue = "0")
+    private int stuckTimeoutSec;
+
+    /**
+     * The initial poll interval in milliseconds.
+     */
+    @Parameter(property = "sling.waitForReady.initialPollInterval", defaultValue = "250")
+    private long initialPollIntervalMs;
+
+    /**
+     * The maximum poll interval in milliseconds.
+     */
+    @Parameter(property = "sling.waitForReady.maxPollInterval", defaultValue = "5000")
+    private long maxPollIntervalMs;
+
+    /**
+     * Whether to skip this step even though it has been configured in the
+     * project to be executed.
+     */
+    @Parameter(property = "sling.waitForReady.skip", defaultValue = "false")
+    private boolean skip;
+
+    /** The bundle states of the last successful poll. */
+    private String lastBundleStates;
+
+    /** The time when {@link #lastBundleStates} was first seen. */
+    private long lastBundleStatesChange;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (skip) {
+            getLog().debug("Skipping waiting for the Sling instance as instructed");
+            recordSkipped("wait-for-ready", "skipped as instructed");
+            return;
+        }
+        final BundleNameMatcher matcher;
+        try {
+            matcher = bundleNamePattern != null ? new BundleNameMatcher(bundleNamePattern) : null;
+        } catch (PatternSyntaxException e) {
+            throw new MojoExecutionException("Invalid bundle name pattern " + bundleNamePattern, e);
+        }
+        URI consoleTargetURL = getConsoleTargetURL();
+        long start = System.currentTimeMillis();
+        long deadline = start + TimeUnit.SECONDS.toMillis(timeoutSec);
+        lastBundleStatesChange = start;
+        long pollInterval = initialPollIntervalMs;
+        String lastStatus = null;
+        getLog().info("Waiting for Sling instance at " + consoleTargetURL + " to become ready...");
+        try (CloseableHttpClient httpClient = getHttpClient()) {
+            while (true) {
+                String previousBundleStates = lastBundleStates;
+                String status = checkBundles(httpClient, consoleTargetURL, matcher);
+                if (status == null && healthCheckPath != null) {
+                    status = checkHealth(httpClient, getTargetURL().resolve(healthCheckPath));
+                }
+                if (status == null) {
+                    getLog().info("Sling instance is ready after " + (System.currentTimeMillis() - start) + " ms");
+                    return;
+                }
+                if (!status.equals(lastStatus)) {
+                    getLog().info(status);
+                    lastStatus = status;
+                }
+                long now = System.currentTimeMillis();
+                if (now >= deadline) {
+                    throw new MojoExecutionException(
+                            "Sling instance not ready within " + timeoutSec + " seconds: " + status);
+                }
+                if (lastBundleStates != null && !lastBundleStates.equals(previousBundleStates)) {
+                    // progress, poll quickly again
+                    pollInterval = initialPollIntervalMs;
+                } else {
+                    pollInterval = Math.min(pollInterval * 2, maxPollIntervalMs);
+                }
+                Thread.sleep(Math.max(0, Math.min(pollInterval, deadline - now)));
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Waiting for Sling instance failed, cause: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for Sling instance", e);
+        }
+    }
+
+    @Override
+    protected boolean isCircuitBreakerEnabled() {
+        // the instance is expected to be unavailable initially, failing fast would only delay the detection
+        return false;
+    }
+
+    /**
+     * @return {@code null} if all selected bundles are active, otherwise a description of the current state
+     * @throws MojoExecutionException in case the bundle states did not change for {@link #stuckTimeoutSec}
+     */
+    private String checkBundles(CloseableHttpClient httpClient, URI consoleTargetURL, BundleNameMatcher matcher)
+            throws MojoExecutionException {
+        final InstalledBundles installedBundles;
+        try {
+            installedBundles = InstalledBundles.fetch(httpClient, consoleTargetURL, getLog());
+        } catch (IOException e) {
+            getLog().debug("Could not retrieve bundle states", e);
+            return "Sling instance not available: " + e.getMessage();
+        }
+        List<String> notReady = getNotReadyBundles(installedBundles, bundleNames, matcher);
+
+        StringBuilder bundleStates = new StringBuilder();
+        for (InstalledBundle bundle : installedBundles.getAll()) {
+            bundleStates
+                    .append(bundle.getId())
+                    .append(':')
+                    .append(bundle.getStateRaw())
+                    .append(',');
+        }
+        long now = System.currentTimeMillis();
+        if (!bundleStates.toString().equals(lastBundleStates)) {
+            lastBundleStates = bundleStates.toString();
+            lastBundleStatesChange = now;
+        } else if (!notReady.isEmpty()
+                && stuckTimeoutSec > 0
+                && now - lastBundleStatesChange >= TimeUnit.SECONDS.toMillis(stuckTimeoutSec)) {
+            throw new MojoExecutionException("Bundle states did not change within " + stuckTimeoutSec
+                    + " seconds, bundles not active: " + diagnose(httpClient, consoleTargetURL, installedBundles));
+        }
+        if (notReady.isEmpty()) {
+            return null;
+        }
+        return "Waiting for " + notReady.size() + " bundle(s) to become active: " + abbreviate(notReady);
+    }
+
+    /**
+     * @param installedBundles the installed bundles
+     * @param bundleNames the symbolic names of the bundles which need to be active (may be {@code null})
+     * @param matcher the matcher for the symbolic names of the bundles which need to be active (may be {@code null})
+     * @return the selected bundles which are not active (or not installed at all)
+     */
+    static List<String> getNotReadyBundles(
+            InstalledBundles installedBundles, List<String> bundleNames, BundleNameMatcher matcher) {
+        List<String> result = new ArrayList<>();
+        boolean selectAll = (bundleNames == null || bundleNames.isEmpty()) && matcher == null;
+        if (bundleNames != null) {
+            for (String bundleName : bundleNames) {
+                InstalledBundle bundle = installedBundles.get(bundleName.trim());
+                if (bundle == null) {
+                    result.add(bundleName.trim() + " (not installed)");
+                } else if (!bundle.isActive()) {
+                    result.add(bundle.toString());
+                }
+            }
+        }
+        if (selectAll || matcher != null) {
+            for (InstalledBundle bundle : installedBundles.getAll()) {
+                if ((selectAll || matcher.matches(bundle.getSymbolicName())) && !bundle.isActive()) {
+                    result.add(bundle.toString());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String abbreviate(List<String> items) {
+        if (items.size() <= MAX_DIAGNOSED_BUNDLES) {
+            return String.join(", ", items);
+        }
+        return String.join(", ", items.subList(0, MAX_DIAGNOSED_BUNDLES)) + " and "
+                + (items.size() - MAX_DIAGNOSED_BUNDLES) + " more";
+    }
+
+    /**
+     * Lists the bundles which are not active, including the unresolved imports of (at most
+     * {@link #MAX_DIAGNOSED_BUNDLES}) installed bundles.
+     */
+    private String diagnose(CloseableHttpClient httpClient, URI consoleTargetURL, InstalledBundles installedBundles) {
+        // group by state
+        TreeMap<String, List<String>> bundlesByState = new TreeMap<>();
+        int diagnosedBundles = 0;
+        for (InstalledBundle bundle : installedBundles.getAll()) {
+            if (bundle.isActive()) {
+                continue;
+            }
+            String description = bundle.getSymbolicName() + " " + bundle.getVersion();
+            if (bundle.getStateRaw() == Bundle.INSTALLED && diagnosedBundles++ < MAX_DIAGNOSED_BUNDLES) {
+                URI getUrl = consoleTargetURL.resolve("bundles/" + bundle.getId() + ".json");
+                try {
+                    List<String> unresolvedImports = httpClient.execute(
+                            new HttpGet(getUrl), new JsonResponseHandler<>(WaitForReadyMojo::parseUnresolvedImports));
+                    if (!unresolvedImports.isEmpty()) {
+                        description += " " + unresolvedImports;
+                    }
+                } catch (IOException e) {
+                    getLog().debug("Could not retrieve details of bundle " + bundle + " via " + getUrl, e);
+                }
+            }
+            bundlesByState
+                    .computeIfAbsent(bundle.getState(), key -> new ArrayList<>())
+                    .add(description);
+        }
+        StringBuilder result = new StringBuilder();
+        bundlesByState.forEach((state, bundles) ->
+                result.append(System.lineSeparator()).append(state).append(": ").append(abbreviate(bundles)));
+        return result.toString();
+    }
+
+    /**
+     * Extracts the unresolved imported packages from the bundle details returned by {@code bundles/<id>.json}.
+     * @param parser JSON parser located at the beginning of the document
+     * @return the unresolved imports (e.g. {@code ERROR: com.acme.api -- Cannot be resolved})
+     */
+    static List<String> parseUnresolvedImports(JsonParser parser) {
+        if (parser.next() != Event.START_OBJECT
+                || JsonSupport.findKey(parser, "data") != Event.START_ARRAY
+                || parser.next() != Event.START_OBJECT
+                || JsonSupport.findKey(parser, "props") != Event.START_ARRAY) {
+            throw new JsonException("Missing array 'props' in bundle details");
+        }
+        List<String> result = new ArrayList<>();
+        while (parser.next() == Event.START_OBJECT) {
+            JsonObject prop = parser.getObject();
+            JsonValue value = prop.get("value");
+            if (PROP_IMPORTED_PACKAGES.equals(prop.getString("key", null)) && value instanceof JsonArray) {
+                for (JsonValue item : (JsonArray) value) {
+                    if (item instanceof JsonString
+                            && ((JsonString) item).getString().startsWith(UNRESOLVED_IMPORT_PREFIX)) {
+                        result.add(((JsonString) item).getString());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return {@code null} if the health check endpoint returns {@code OK}, otherwise a description of the result
+     */
+    private String checkHealth(CloseableHttpClient httpClient, URI healthCheckUrl) {
+        getLog().debug("Get health check result via request to " + healthCheckUrl);
+        try {
+            // the health check servlet returns the JSON result for failed checks as well (e.g. with status code 503)
+            return httpClient.execute(new HttpGet(healthCheckUrl), response -> {
+                try {
+                    return JsonResponseHandler.parse(
+                            response.getEntity(), parser -> getHealthCheckFailure(response.getCode(), parser));
+                } catch (JsonResponseHandler.UnexpectedContentException e) {
+                    getLog().debug("Unexpected health check result", e);
+                    return "Health check returned status code " + response.getCode() + " without a valid JSON result";
+                }
+            });
+        } catch (IOException e) {
+            getLog().debug("Could not retrieve health check result", e);
+            return "Health check at " + healthCheckUrl + " not available: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Parses the result incrementally, so arbitrarily large results (e.g. with many checks or verbose logs) are
+     * supported.
+     * @param statusCode the status code of the health check response
+     * @param parser parser for the body of the health check response (in the format of the Sling health check servlet)
+     * @return {@code null} if the health check result is {@code OK}, otherwise a description of the result
+     *      including the names of the failed health checks
+     */
+    static String getHealthCheckFailure(int statusCode, JsonParser parser) {
+        if (parser.next() != Event.START_OBJECT) {
+            throw new JsonException("Expected JSON object");
+        }
+        String overallResult = "missing";
+        List<String> failedChecks = new ArrayList<>();
+        Event event;
+        while ((event = parser.next()) != Event.END_OBJECT) {
+            if (event != Event.KEY_NAME) {
+                throw new JsonException("Expected key but found " + event);
+            }
+            String key = parser.getString();
+            Event valueEvent = parser.next();
+            if ("overallResult".equals(key) && valueEvent == Event.VALUE_STRING) {
+                overallResult = parser.getString();
+            } else if ("results".equals(key) && valueEvent == Event.START_ARRAY) {
+                // only materialize one check at a time
+                while ((event = parser.next()) != Event.END_ARRAY) {
+                    if (event == Event.START_OBJECT) {
+                        addFailedCheck(failedChecks, parser.getObject());
+                    } else {
+                        JsonSupport.skipValue(parser, event);
+                    }
+                }
+            } else {
+                JsonSupport.skipValue(parser, valueEvent);
+            }
+        }
+        if (statusCode == HttpStatus.SC_OK && HEALTH_CHECK_OK.equals(overallResult)) {
+            return null;
+        }
+        return "Health check result is " + overallResult + " (status code " + statusCode + ")"
+                + (failedChecks.isEmpty() ? "" : ": " + abbreviate(failedChecks));
+    }
+
+    private static void addFailedCheck(List<String> failedChecks, JsonObject check) {
+        String status = check.getString("status", null);
+        if (status != null && !HEALTH_CHECK_OK.equals(status)) {
+            failedChecks.add(check.getString("name", "unnamed") + " (" + status + ")");
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipException;
+
+import org.apache.sling.commons.osgi.ManifestHeader;
+import org.apache.sling.maven.bundlesupport.jfr.PhaseEvent;
+import org.osgi.framework.Constants;
+
+/**
+ * The metadata of a JAR file relevant for deploying it as OSGi bundle. All values are extracted with a single pass
+ * over the file. Use {@link BundleMetadataCache#get(File)} to reuse the metadata of unchanged files.
+ */
+public final class BundleMetadata {
+
+    /** Header containing the sling initial content information. */
+    public static final String HEADER_INITIAL_CONTENT = "Sling-Initial-Content";
+
+    private final File file;
+    private final String symbolicName;
+    private final String version;
+    private final Set<String> exportedPackages;
+    private final Set<String> importedPackages;
+    private final Set<String> requiredBundles;
+    private final String fragmentHost;
+    private final String initialContent;
+    private final String fingerprint;
+
+    BundleMetadata(
+            File file,
+            String symbolicName,
+            String version,
+            Set<String> exportedPackages,
+            Set<String> importedPackages,
+            Set<String> requiredBundles,
+            String fragmentHost,
+            String initialContent,
+            String fingerprint) {
+        this.file = file;
+        this.symbolicName = symbolicName;
+        this.version = version;
+        this.exportedPackages = exportedPackages;
+        this.importedPackages = importedPackages;
+        this.requiredBundles = requiredBundles;
+        this.fragmentHost = fragmentHost;
+        this.initialContent = initialContent;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Reads the metadata from the given file (without caching).
+     * The manifest is read with {@link ZipManifestReader}, only for archives not supported by it {@link JarFile} is
+     * used.
+     * @param file the JAR file
+     * @return the metadata, for files which are no OSGi bundles only the fingerprint is set
+     * @throws IOException in case the file could not be read
+     */
+    public static BundleMetadata read(File file) throws IOException {
+        PhaseEvent event = PhaseEvent.begin(PhaseEvent.PHASE_MANIFEST_READ, file);
+        try {
+            ZipManifestReader.Result result = ZipManifestReader.read(file.toPath());
+            return create(file, result.getManifest(), result.getFingerprint());
+        } catch (ZipException e) {
+            return readWithJarFile(file);
+        } finally {
+            PhaseEvent.end(event);
+        }
+    }
+
+    static BundleMetadata readWithJarFile(File file) throws IOException {
+        try (JarFile jarFile = new JarFile(file)) {
+            ContentFingerprint fingerprint = new ContentFingerprint();
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                fingerprint.addEntry(entry.getName(), entry.getSize(), entry.getCrc());
+            }
+            return create(file, jarFile.getManifest(), fingerprint.build());
+        }
+    }
+
+    private static BundleMetadata create(File file, Manifest manifest, String fingerprint) {
+        Attributes attributes = manifest != null ? manifest.getMainAttributes() : new Attributes();
+        Set<String> symbolicNames = getValues(attributes, Constants.BUNDLE_SYMBOLICNAME, false);
+        String version = attributes.getValue(Constants.BUNDLE_VERSION);
+        Set<String> fragmentHosts = getValues(attributes, Constants.FRAGMENT_HOST, false);
+        return new BundleMetadata(
+                file,
+                symbolicNames.isEmpty() ? null : symbolicNames.iterator().next(),
+                version != null ? version.trim() : "0.0.0",
+                Collections.unmodifiableSet(getValues(attributes, Constants.EXPORT_PACKAGE, false)),
+                Collections.unmodifiableSet(getValues(attributes, Constants.IMPORT_PACKAGE, true)),
+                Collections.unmodifiableSet(getValues(attributes, Constants.REQUIRE_BUNDLE, true)),
+                fragmentHosts.isEmpty() ? null : fragmentHosts.iterator().next(),
+                attributes.getValue(HEADER_INITIAL_CONTENT),
+                fingerprint);
+    }
+
+    private static Set<String> getValues(Attributes attributes, String headerName, boolean mandatoryOnly) {
+        String value = attributes.getValue(headerName);
+        if (value == null) {
+            return Collections.emptySet();
+        }
+        ManifestHeader header = ManifestHeader.parse(value);
+        if (header == null) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (ManifestHeader.Entry entry : header.getEntries()) {
+            if (mandatoryOnly
+                    && Constants.RESOLUTION_OPTIONAL.equals(entry.getDirectiveValue(Constants.RESOLUTION_DIRECTIVE))) {
+                continue;
+            }
+            result.add(entry.getValue().trim());
+        }
+        return result;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the value of the {@code Bundle-SymbolicName} header (without directives) or {@code null} in case the
+     *      file is no OSGi bundle
+     */
+    public String getSymbolicName() {
+        return symbolicName;
+    }
+
+    /**
+     * @return {@code true} in case the file is an OSGi bundle
+     */
+    public boolean isBundle() {
+        return symbolicName != null;
+    }
+
+    /**
+     * @return the value of the {@code Bundle-Version} header or {@code 0.0.0} if not set
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public Set<String> getExportedPackages() {
+        return exportedPackages;
+    }
+
+    /**
+     * @return the packages imported with mandatory resolution
+     */
+    public Set<String> getImportedPackages() {
+        return importedPackages;
+    }
+
+    /**
+     * @return the symbolic names of the bundles required with mandatory resolution
+     */
+    public Set<String> getRequiredBundles() {
+        return requiredBundles;
+    }
+
+    /**
+     * @return the symbolic name of the host (from the {@code Fragment-Host} header) or {@code null} in case the bundle
+     *      is no fragment
+     */
+    public String getFragmentHost() {
+        return fragmentHost;
+    }
+
+    /**
+     * @return the raw value of the {@code Sling-Initial-Content} header or {@code null} if not set
+     */
+    public String getInitialContent() {
+        return initialContent;
+    }
+
+    /**
+     * @return a fingerprint of the file's content, changes whenever any entry is added, removed or modified
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public String toString() {
+        return symbolicName + " " + version + " (" + file + ")";
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Caches the {@link BundleMetadata} of JAR files keyed by path, size and last modification time, so that each file is
+ * only read once even if multiple goal executions (e.g. of a reactor build) deal with it.
+ * The goals share one instance per Maven session, the cache is limited to the {@link #MAX_ENTRIES} least recently
+ * used files.
+ * This class is thread-safe.
+ */
+public final class BundleMetadataCache {
+
+    static final int MAX_ENTRIES = 1024;
+
+    private final Map<Key, BundleMetadata> cache = new LinkedHashMap<Key, BundleMetadata>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, BundleMetadata> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Returns the metadata of the given file, reads it only if the file has not been read before or has been
+     * modified since.
+     * @param file the JAR file
+     * @return the metadata
+     * @throws IOException in case the file does not exist or could not be read
+     */
+    public BundleMetadata get(File file) throws IOException {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Key key = new Key(path, attributes.size(), attributes.lastModifiedTime().toMillis());
+        synchronized (cache) {
+            BundleMetadata metadata = cache.get(key);
+            if (metadata != null) {
+                return metadata;
+            }
+        }
+        // read outside the lock, concurrent reads of the same file are harmless
+        BundleMetadata metadata = BundleMetadata.read(file);
+        synchronized (cache) {
+            cache.put(key, metadata);
+        }
+        return metadata;
+    }
+
+    private static final class Key {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+
+        Key(Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return size == other.size && lastModified == other.lastModified && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, size, lastModified);
+        }
+    }
+}
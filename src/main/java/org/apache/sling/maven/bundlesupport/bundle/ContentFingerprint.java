@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Calculates a fingerprint of a ZIP file from the names, sizes and CRC-32 checksums of its entries as given in the
+ * central directory, i.e. without decompressing any entry.
+ */
+final class ContentFingerprint {
+
+    private final MessageDigest digest;
+    private final ByteBuffer numbers = ByteBuffer.allocate(2 * Long.BYTES + 1);
+
+    ContentFingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported by JRE", e); // should never happen
+        }
+    }
+
+    /**
+     * Adds an entry, must be called in the order of the central directory.
+     * @param name the entry name
+     * @param size the uncompressed size
+     * @param crc the CRC-32 checksum
+     */
+    void addEntry(String name, long size, long crc) {
+        addEntry(name.getBytes(StandardCharsets.UTF_8), size, crc);
+    }
+
+    /**
+     * Adds an entry, must be called in the order of the central directory.
+     * @param name the UTF-8 encoded entry name
+     * @param size the uncompressed size
+     * @param crc the CRC-32 checksum
+     */
+    void addEntry(byte[] name, long size, long crc) {
+        digest.update(name);
+        numbers.clear();
+        numbers.put((byte) 0).putLong(size).putLong(crc);
+        digest.update(numbers.array());
+    }
+
+    /**
+     * @return the fingerprint as hex string
+     */
+    String build() {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
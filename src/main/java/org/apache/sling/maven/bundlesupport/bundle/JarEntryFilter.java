@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarFile;
+
+import org.codehaus.plexus.util.SelectorUtils;
+
+/**
+ * Selects the entries of a JAR file by include and exclude glob patterns (Ant style, e.g. {@code OSGI-OPT/**}).
+ * An entry is selected if it matches any include pattern (or no include patterns are given) and no exclude pattern.
+ * The manifest is always selected.
+ */
+public final class JarEntryFilter {
+
+    private final List<String> includes;
+    private final List<String> excludes;
+
+    /**
+     * @param includes the include patterns (may be {@code null})
+     * @param excludes the exclude patterns (may be {@code null})
+     */
+    public JarEntryFilter(List<String> includes, List<String> excludes) {
+        this.includes = normalize(includes);
+        this.excludes = normalize(excludes);
+    }
+
+    private static List<String> normalize(List<String> patterns) {
+        if (patterns == null) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (pattern != null && !pattern.trim().isEmpty()) {
+                result.add(pattern.trim());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return {@code true} if neither include nor exclude patterns are given, i.e. all entries are selected
+     */
+    public boolean isEmpty() {
+        return includes.isEmpty() && excludes.isEmpty();
+    }
+
+    /**
+     * @param name the entry name
+     * @return {@code true} if the entry is selected
+     */
+    public boolean isIncluded(String name) {
+        if (JarFile.MANIFEST_NAME.equalsIgnoreCase(name)) {
+            return true;
+        }
+        if (!includes.isEmpty() && !matchesAny(includes, name)) {
+            return false;
+        }
+        return !matchesAny(excludes, name);
+    }
+
+    private static boolean matchesAny(List<String> patterns, String name) {
+        for (String pattern : patterns) {
+            if (SelectorUtils.matchPath(pattern, name, "/", true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "includes " + includes + ", excludes " + excludes;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * A copy of a JAR file with a modified manifest. Only the manifest entry is rewritten, all other entries are
+ * copied as they are (i.e. their compressed data, CRC and sizes are reused without inflating and deflating them).
+ * The copy is either written to a file or on the fly to a stream (e.g. a request body), its size is known upfront.
+ */
+public final class ManifestRewriter {
+
+    private static final int METHOD_DEFLATED = 8;
+    private static final byte[] MANIFEST_NAME = JarFile.MANIFEST_NAME.getBytes(StandardCharsets.UTF_8);
+
+    private final File source;
+    private final byte[] manifest;
+    private final byte[] compressedManifest;
+    private final long manifestCrc;
+    private final int manifestDosDateTime;
+    private final List<RawZipWriter.Entry> entries;
+
+    private ManifestRewriter(
+            File source,
+            byte[] manifest,
+            byte[] compressedManifest,
+            long manifestCrc,
+            int manifestDosDateTime,
+            List<RawZipWriter.Entry> entries) {
+        this.source = source;
+        this.manifest = manifest;
+        this.compressedManifest = compressedManifest;
+        this.manifestCrc = manifestCrc;
+        this.manifestDosDateTime = manifestDosDateTime;
+        this.entries = entries;
+    }
+
+    /**
+     * Reads the manifest of the given file and applies the modifications.
+     * @param source the source JAR file containing a manifest
+     * @param modifier modifies the manifest
+     * @return the rewriter
+     * @throws ZipException in case the source archive is not supported (ZIP64, multi-disk, data prepended to the
+     *      archive) or does not contain a manifest
+     * @throws IOException in case of an I/O error
+     */
+    public static ManifestRewriter create(File source, Consumer<Manifest> modifier) throws IOException {
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            ZipCentralDirectory cen = ZipCentralDirectory.read(channel);
+            Manifest manifest = null;
+            int dosDateTime = 0;
+            List<RawZipWriter.Entry> entries = new ArrayList<>();
+            while (cen.next()) {
+                if (!JarFile.MANIFEST_NAME.equalsIgnoreCase(cen.getName())) {
+                    entries.add(RawZipWriter.Entry.of(cen));
+                } else if (manifest == null) {
+                    manifest = new Manifest(new ByteArrayInputStream(ZipManifestReader.readEntry(channel, cen)));
+                    dosDateTime = cen.getDosDateTime();
+                }
+            }
+            if (manifest == null) {
+                throw new ZipException("No manifest found in " + source);
+            }
+            modifier.accept(manifest);
+
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            manifest.write(content);
+            byte[] bytes = content.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            return new ManifestRewriter(source, bytes, deflate(bytes), crc.getValue(), dosDateTime, entries);
+        }
+    }
+
+    /**
+     * Creates a copy of the given file with a modified manifest.
+     * @param source the source JAR file containing a manifest
+     * @param target the target JAR file (overwritten if existing), must not be the source file
+     * @param modifier modifies the manifest
+     * @throws ZipException in case the source archive is not supported (ZIP64, multi-disk, data prepended to the
+     *      archive) or does not contain a manifest
+     * @throws IOException in case of an I/O error
+     * @throws IllegalArgumentException in case source and target are the same file
+     */
+    public static void rewrite(File source, File target, Consumer<Manifest> modifier) throws IOException {
+        // the target is truncated before the source is read
+        if (target.equals(source) || (target.exists() && Files.isSameFile(source.toPath(), target.toPath()))) {
+            throw new IllegalArgumentException("Source and target must not be the same file: " + source);
+        }
+        ManifestRewriter rewriter = create(source, modifier);
+        try (FileChannel targetChannel = FileChannel.open(
+                target.toPath(),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            rewriter.writeTo(targetChannel);
+        }
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+        } finally {
+            deflater.end();
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * @return the size of the rewritten JAR file in bytes
+     */
+    public long getSize() {
+        return RawZipWriter.getSize(
+                entries, RawZipWriter.getEntrySize(MANIFEST_NAME.length, compressedManifest.length));
+    }
+
+    /**
+     * Writes the rewritten JAR file.
+     * @param out the output stream (not closed by this method)
+     * @throws IOException in case reading the source file or writing to the stream failed
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        writeTo(Channels.newChannel(out));
+    }
+
+    private void writeTo(WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            RawZipWriter writer = new RawZipWriter(target);
+            // the manifest must be the first entry to be found by JarInputStream
+            writer.writeEntry(
+                    MANIFEST_NAME,
+                    compressedManifest,
+                    METHOD_DEFLATED,
+                    manifestCrc,
+                    manifest.length,
+                    manifestDosDateTime);
+            for (RawZipWriter.Entry entry : entries) {
+                writer.copyEntry(channel, entry);
+            }
+            writer.finish();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipException;
+
+/**
+ * Writes a ZIP archive whose entries are mostly copied as they are (i.e. without inflating and deflating their data)
+ * from another archive. Afterwards a new central directory with the adjusted offsets is written.
+ */
+final class RawZipWriter {
+
+    private static final int VERSION_NEEDED = 20;
+
+    private final WritableByteChannel target;
+    private final List<ByteBuffer> records = new ArrayList<>();
+    private long offset;
+
+    /**
+     * @param target the channel to write to (not closed by this class)
+     */
+    RawZipWriter(WritableByteChannel target) {
+        this.target = target;
+    }
+
+    /**
+     * Copies an entry as is.
+     * @param source the source archive
+     * @param entry the entry of the source archive
+     * @throws IOException in case of an I/O error
+     */
+    void copyEntry(FileChannel source, Entry entry) throws IOException {
+        long localOffset = entry.localOffset;
+        long localLength = entry.localLength;
+        ByteBuffer newRecord = copy(entry.record);
+        // relative offset of local header
+        newRecord.putInt(42, (int) offset);
+        records.add(newRecord);
+        long transferred = 0;
+        while (transferred < localLength) {
+            long count = source.transferTo(localOffset + transferred, localLength - transferred, target);
+            if (count <= 0) {
+                throw new ZipException("Unexpected end of file");
+            }
+            transferred += count;
+        }
+        offset += localLength;
+    }
+
+    /**
+     * Writes a new entry with the given (already compressed) data.
+     * @param name the UTF-8 encoded entry name
+     * @param data the compressed data
+     * @param method the compression method of the data
+     * @param crc the CRC-32 checksum of the uncompressed data
+     * @param size the size of the uncompressed data
+     * @param dosDateTime the modification time in MS-DOS format (time in the lower, date in the upper 16 bits)
+     * @throws IOException in case of an I/O error
+     */
+    void writeEntry(byte[] name, byte[] data, int method, long crc, long size, int dosDateTime) throws IOException {
+        ByteBuffer localHeader = ByteBuffer.allocate(ZipCentralDirectory.LOC_HEADER_LENGTH + name.length)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(ZipCentralDirectory.LOC_SIGNATURE)
+                .putShort((short) VERSION_NEEDED)
+                .putShort((short) 0) // flags
+                .putShort((short) method)
+                .putInt(dosDateTime)
+                .putInt((int) crc)
+                .putInt(data.length)
+                .putInt((int) size)
+                .putShort((short) name.length)
+                .putShort((short) 0) // extra field length
+                .put(name);
+        localHeader.flip();
+        ByteBuffer record = ByteBuffer.allocate(ZipCentralDirectory.CEN_HEADER_LENGTH + name.length)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(ZipCentralDirectory.CEN_SIGNATURE)
+                .putShort((short) VERSION_NEEDED) // version made by
+                .putShort((short) VERSION_NEEDED)
+                .putShort((short) 0) // flags
+                .putShort((short) method)
+                .putInt(dosDateTime)
+                .putInt((int) crc)
+                .putInt(data.length)
+                .putInt((int) size)
+                .putShort((short) name.length)
+                .putShort((short) 0) // extra field length
+                .putShort((short) 0) // comment length
+                .putShort((short) 0) // disk number
+                .putShort((short) 0) // internal attributes
+                .putInt(0) // external attributes
+                .putInt((int) offset)
+                .put(name);
+        record.flip();
+        records.add(record);
+        writeFully(localHeader);
+        writeFully(ByteBuffer.wrap(data));
+        offset += localHeader.capacity() + data.length;
+    }
+
+    /**
+     * Writes the central directory and the end of central directory record.
+     * @throws IOException in case of an I/O error
+     */
+    void finish() throws IOException {
+        long cenOffset = offset;
+        long cenSize = 0;
+        for (ByteBuffer record : records) {
+            cenSize += record.remaining();
+            writeFully(record);
+        }
+        ByteBuffer eocd = ByteBuffer.allocate(ZipCentralDirectory.EOCD_MIN_LENGTH)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(ZipCentralDirectory.EOCD_SIGNATURE)
+                .putShort((short) 0) // number of this disk
+                .putShort((short) 0) // disk where central directory starts
+                .putShort((short) records.size())
+                .putShort((short) records.size())
+                .putInt((int) cenSize)
+                .putInt((int) cenOffset)
+                .putShort((short) 0); // comment length
+        eocd.flip();
+        writeFully(eocd);
+    }
+
+    /**
+     * @param entries the entries to copy
+     * @param additionalSize the size of additionally written entries (including their central directory records)
+     * @return the size of the archive
+     */
+    static long getSize(List<Entry> entries, long additionalSize) {
+        long size = additionalSize + ZipCentralDirectory.EOCD_MIN_LENGTH;
+        for (Entry entry : entries) {
+            size += entry.localLength + entry.record.remaining();
+        }
+        return size;
+    }
+
+    /**
+     * @param nameLength the length of the UTF-8 encoded entry name
+     * @param dataLength the length of the compressed data
+     * @return the number of bytes written by {@link #writeEntry(byte[], byte[], int, long, long, int)}
+     */
+    static long getEntrySize(int nameLength, int dataLength) {
+        return ZipCentralDirectory.LOC_HEADER_LENGTH
+                + ZipCentralDirectory.CEN_HEADER_LENGTH
+                + 2L * nameLength
+                + dataLength;
+    }
+
+    private static ByteBuffer copy(ByteBuffer buffer) {
+        ByteBuffer original = buffer.duplicate();
+        ByteBuffer result = ByteBuffer.allocate(original.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        result.put(original).flip();
+        return result;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    /**
+     * An entry of a source archive to copy as is.
+     */
+    static final class Entry {
+        private final long localOffset;
+        private final long localLength;
+        private final ByteBuffer record;
+
+        private Entry(long localOffset, long localLength, ByteBuffer record) {
+            this.localOffset = localOffset;
+            this.localLength = localLength;
+            this.record = record;
+        }
+
+        /**
+         * @param cen the central directory positioned at the entry
+         * @return the current entry of the given central directory
+         * @throws IOException in case the local file header could not be read
+         */
+        static Entry of(ZipCentralDirectory cen) throws IOException {
+            return new Entry(cen.getLocalHeaderOffset(), cen.getLocalRecordLength(), cen.getRecord());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipException;
+
+/**
+ * A JAR file reduced to the entries selected by a {@link JarEntryFilter}. The reduced archive is not stored anywhere
+ * but written on the fly by {@link #writeTo(OutputStream)}: the selected entries are copied as they are (i.e. their
+ * compressed data is neither inflated nor deflated) followed by a new central directory.
+ * The size of the reduced archive is known upfront, so that it can be sent with a {@code Content-Length}.
+ */
+public final class SlimJar {
+
+    private final File file;
+    private final List<RawZipWriter.Entry> entries;
+    private final int removedEntries;
+    private final long originalSize;
+
+    private SlimJar(File file, List<RawZipWriter.Entry> entries, int removedEntries, long originalSize) {
+        this.file = file;
+        this.entries = entries;
+        this.removedEntries = removedEntries;
+        this.originalSize = originalSize;
+    }
+
+    /**
+     * Determines the entries of the given file to keep.
+     * @param file the JAR file
+     * @param filter the filter selecting the entries to keep
+     * @return the reduced JAR file
+     * @throws ZipException in case the archive is not supported (ZIP64, multi-disk, data prepended to the archive)
+     * @throws IOException in case the file could not be read
+     */
+    public static SlimJar create(File file, JarEntryFilter filter) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ZipCentralDirectory cen = ZipCentralDirectory.read(channel);
+            List<RawZipWriter.Entry> entries = new ArrayList<>();
+            int removedEntries = 0;
+            while (cen.next()) {
+                if (filter.isIncluded(cen.getName())) {
+                    entries.add(RawZipWriter.Entry.of(cen));
+                } else {
+                    removedEntries++;
+                }
+            }
+            return new SlimJar(file, entries, removedEntries, cen.getFileSize());
+        }
+    }
+
+    /**
+     * @return the number of removed entries
+     */
+    public int getRemovedEntries() {
+        return removedEntries;
+    }
+
+    /**
+     * @return the size of the original file in bytes
+     */
+    public long getOriginalSize() {
+        return originalSize;
+    }
+
+    /**
+     * @return the size of the reduced archive in bytes
+     */
+    public long getSize() {
+        return RawZipWriter.getSize(entries, 0);
+    }
+
+    /**
+     * Writes the reduced archive.
+     * @param out the output stream (not closed by this method)
+     * @throws IOException in case reading the original file or writing to the stream failed
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            RawZipWriter writer = new RawZipWriter(Channels.newChannel(out));
+            for (RawZipWriter.Entry entry : entries) {
+                writer.copyEntry(channel, entry);
+            }
+            writer.finish();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipException;
+
+/**
+ * The central directory of a ZIP file, read with one positional read for the end of central directory record and
+ * one for the central directory itself. The entries are iterated with a cursor ({@link #next()}) directly on the
+ * read buffer.
+ * Unusual archives (ZIP64, multi-disk, data prepended to the archive) are rejected with a {@link ZipException}.
+ */
+final class ZipCentralDirectory {
+
+    static final int LOC_SIGNATURE = 0x04034b50;
+    static final int LOC_HEADER_LENGTH = 30;
+    static final int CEN_SIGNATURE = 0x02014b50;
+    static final int CEN_HEADER_LENGTH = 46;
+    static final int EOCD_SIGNATURE = 0x06054b50;
+    static final int EOCD_MIN_LENGTH = 22;
+
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int entryCount;
+    private final ByteBuffer cen;
+    private int index = -1;
+    private int position;
+    private int recordLength;
+
+    private ZipCentralDirectory(FileChannel channel, long fileSize, int entryCount, ByteBuffer cen) {
+        this.channel = channel;
+        this.fileSize = fileSize;
+        this.entryCount = entryCount;
+        this.cen = cen;
+    }
+
+    /**
+     * @param channel the channel of the ZIP file (not closed by this class)
+     * @return the central directory positioned before the first entry
+     * @throws ZipException in case the archive is not supported
+     * @throws IOException in case the file could not be read
+     */
+    static ZipCentralDirectory read(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        long tailStart = Math.max(0, fileSize - EOCD_MIN_LENGTH - MAX_COMMENT_LENGTH);
+        ByteBuffer tail = read(channel, tailStart, fileSize);
+        int eocd = findEndOfCentralDirectory(tail);
+        int diskNumber = Short.toUnsignedInt(tail.getShort(eocd + 4));
+        int entryCount = Short.toUnsignedInt(tail.getShort(eocd + 10));
+        long cenSize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+        long cenOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+        if (diskNumber != 0 || entryCount == 0xFFFF || cenSize == ZIP64_MAGIC || cenOffset == ZIP64_MAGIC) {
+            throw new ZipException("Multi-disk and ZIP64 archives are not supported");
+        }
+        if (cenOffset + cenSize > tailStart + eocd) {
+            throw new ZipException("Invalid central directory location");
+        }
+        return new ZipCentralDirectory(channel, fileSize, entryCount, read(channel, cenOffset, cenOffset + cenSize));
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer tail) throws ZipException {
+        for (int pos = tail.limit() - EOCD_MIN_LENGTH; pos >= 0; pos--) {
+            if (tail.getInt(pos) == EOCD_SIGNATURE
+                    && pos + EOCD_MIN_LENGTH + Short.toUnsignedInt(tail.getShort(pos + 20)) == tail.limit()) {
+                return pos;
+            }
+        }
+        throw new ZipException("End of central directory record not found");
+    }
+
+    /**
+     * Reads the given range of the file with a single positional read.
+     * @param channel the file channel
+     * @param start the start offset (inclusive)
+     * @param end the end offset (exclusive)
+     * @return the little endian buffer containing the range
+     * @throws IOException in case the file could not be read
+     */
+    static ByteBuffer read(FileChannel channel, long start, long end) throws IOException {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new ZipException("Range too large");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start)).order(ByteOrder.LITTLE_ENDIAN);
+        long pos = start;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, pos);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of file");
+            }
+            pos += read;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Moves the cursor to the next entry.
+     * @return {@code false} if there are no more entries
+     * @throws ZipException in case the central directory is invalid or the entry is a ZIP64 entry
+     */
+    boolean next() throws ZipException {
+        if (index >= 0) {
+            position += recordLength;
+        }
+        if (++index >= entryCount) {
+            return false;
+        }
+        if (position + CEN_HEADER_LENGTH > cen.limit() || cen.getInt(position) != CEN_SIGNATURE) {
+            throw new ZipException("Invalid central directory header");
+        }
+        recordLength = CEN_HEADER_LENGTH
+                + Short.toUnsignedInt(cen.getShort(position + 28))
+                + Short.toUnsignedInt(cen.getShort(position + 30))
+                + Short.toUnsignedInt(cen.getShort(position + 32));
+        if (position + recordLength > cen.limit()) {
+            throw new ZipException("Invalid central directory header");
+        }
+        if (getCompressedSize() == ZIP64_MAGIC || getSize() == ZIP64_MAGIC || getLocalHeaderOffset() == ZIP64_MAGIC) {
+            throw new ZipException("ZIP64 entries are not supported");
+        }
+        return true;
+    }
+
+    int getFlags() {
+        return Short.toUnsignedInt(cen.getShort(position + 8));
+    }
+
+    int getMethod() {
+        return Short.toUnsignedInt(cen.getShort(position + 10));
+    }
+
+    long getCrc() {
+        return Integer.toUnsignedLong(cen.getInt(position + 16));
+    }
+
+    long getCompressedSize() {
+        return Integer.toUnsignedLong(cen.getInt(position + 20));
+    }
+
+    long getSize() {
+        return Integer.toUnsignedLong(cen.getInt(position + 24));
+    }
+
+    /**
+     * @return the modification time in MS-DOS format (time in the lower, date in the upper 16 bits)
+     */
+    int getDosDateTime() {
+        return cen.getInt(position + 12);
+    }
+
+    long getLocalHeaderOffset() {
+        return Integer.toUnsignedLong(cen.getInt(position + 42));
+    }
+
+    /**
+     * @return the UTF-8 encoded name of the current entry
+     */
+    byte[] getNameBytes() {
+        byte[] name = new byte[Short.toUnsignedInt(cen.getShort(position + 28))];
+        cen.position(position + CEN_HEADER_LENGTH);
+        cen.get(name);
+        return name;
+    }
+
+    String getName() {
+        return new String(getNameBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return a copy of the central directory record of the current entry
+     */
+    ByteBuffer getRecord() {
+        ByteBuffer record = ByteBuffer.allocate(recordLength).order(ByteOrder.LITTLE_ENDIAN);
+        record.put(cen.array(), position, recordLength);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * @return the offset of the compressed data of the current entry
+     * @throws IOException in case the local file header could not be read
+     */
+    long getDataOffset() throws IOException {
+        long localHeaderOffset = getLocalHeaderOffset();
+        ByteBuffer localHeader = read(channel, localHeaderOffset, localHeaderOffset + LOC_HEADER_LENGTH);
+        if (localHeader.getInt(0) != LOC_SIGNATURE) {
+            throw new ZipException("Invalid local file header");
+        }
+        long dataOffset = localHeaderOffset
+                + LOC_HEADER_LENGTH
+                + Short.toUnsignedInt(localHeader.getShort(26))
+                + Short.toUnsignedInt(localHeader.getShort(28));
+        if (dataOffset + getCompressedSize() > fileSize) {
+            throw new ZipException("Invalid entry data location");
+        }
+        return dataOffset;
+    }
+
+    /**
+     * @return the length of the local file header, the compressed data and the optional data descriptor of the
+     *      current entry, i.e. the number of bytes to copy for copying the entry as is
+     * @throws IOException in case the local file header could not be read
+     */
+    long getLocalRecordLength() throws IOException {
+        long end = getDataOffset() + getCompressedSize();
+        if ((getFlags() & FLAG_DATA_DESCRIPTOR) != 0) {
+            // the signature of the data descriptor is optional
+            ByteBuffer signature = read(channel, end, Math.min(end + 4, fileSize));
+            boolean hasSignature = signature.remaining() == 4 && signature.getInt(0) == DATA_DESCRIPTOR_SIGNATURE;
+            end += hasSignature ? 16 : 12;
+        }
+        if (end > fileSize) {
+            throw new ZipException("Invalid entry data location");
+        }
+        return end - getLocalHeaderOffset();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Reads the manifest of a JAR file without building an index of all entries (and without verifying signatures) as
+ * {@link JarFile} does: only the {@link ZipCentralDirectory} is read and only the manifest entry is inflated.
+ * The {@link ContentFingerprint} is calculated while scanning the central directory.
+ * Unusual archives (ZIP64, multi-disk, data prepended to the archive) are rejected with a {@link ZipException},
+ * callers are supposed to fall back to {@link JarFile} in that case.
+ */
+final class ZipManifestReader {
+
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    /** Upper bound for the size of the manifest to prevent excessive memory usage for corrupt archives. */
+    private static final long MAX_MANIFEST_SIZE = 16L * 1024 * 1024;
+
+    private ZipManifestReader() {
+        // static methods only
+    }
+
+    /**
+     * @param path the JAR file
+     * @return the manifest (may be {@code null}) and the content fingerprint
+     * @throws ZipException in case the archive is not supported by this reader
+     * @throws IOException in case the file could not be read
+     */
+    static Result read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ZipCentralDirectory cen = ZipCentralDirectory.read(channel);
+            ContentFingerprint fingerprint = new ContentFingerprint();
+            Manifest manifest = null;
+            while (cen.next()) {
+                byte[] name = cen.getNameBytes();
+                fingerprint.addEntry(name, cen.getSize(), cen.getCrc());
+                if (manifest == null
+                        && name.length == JarFile.MANIFEST_NAME.length()
+                        && JarFile.MANIFEST_NAME.equalsIgnoreCase(new String(name, StandardCharsets.UTF_8))) {
+                    manifest = new Manifest(new ByteArrayInputStream(readEntry(channel, cen)));
+                }
+            }
+            return new Result(manifest, fingerprint.build());
+        }
+    }
+
+    /**
+     * Reads and inflates the current entry of the given central directory.
+     * @param channel the channel of the ZIP file
+     * @param cen the central directory positioned at the manifest entry
+     * @return the uncompressed content
+     * @throws IOException in case the entry could not be read
+     */
+    static byte[] readEntry(FileChannel channel, ZipCentralDirectory cen) throws IOException {
+        long size = cen.getSize();
+        long compressedSize = cen.getCompressedSize();
+        if (size > MAX_MANIFEST_SIZE || compressedSize > MAX_MANIFEST_SIZE) {
+            throw new ZipException("Manifest too large");
+        }
+        long dataOffset = cen.getDataOffset();
+        ByteBuffer data = ZipCentralDirectory.read(channel, dataOffset, dataOffset + compressedSize);
+        byte[] content;
+        if (cen.getMethod() == METHOD_STORED) {
+            content = new byte[data.remaining()];
+            data.get(content);
+        } else if (cen.getMethod() == METHOD_DEFLATED) {
+            content = inflate(data, (int) size);
+        } else {
+            throw new ZipException("Unsupported compression method " + cen.getMethod());
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(content);
+        if (checksum.getValue() != cen.getCrc()) {
+            throw new ZipException("CRC mismatch of manifest entry");
+        }
+        return content;
+    }
+
+    private static byte[] inflate(ByteBuffer data, int size) throws ZipException {
+        Inflater inflater = new Inflater(true);
+        try {
+            byte[] input = new byte[data.remaining()];
+            data.get(input);
+            inflater.setInput(input);
+            byte[] content = new byte[size];
+            int length = 0;
+            while (length < size && !inflater.finished()) {
+                int inflated = inflater.inflate(content, length, size - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != size) {
+                throw new ZipException("Unexpected size of inflated manifest entry");
+            }
+            return content;
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid deflated data of manifest entry: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * The manifest and content fingerprint of a JAR file.
+     */
+    static final class Result {
+        private final Manifest manifest;
+        private final String fingerprint;
+
+        Result(Manifest manifest, String fingerprint) {
+            this.manifest = manifest;
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * @return the manifest or {@code null} in case the file does not contain one
+         */
+        Manifest getManifest() {
+            return manifest;
+        }
+
+        String getFingerprint() {
+            return fingerprint;
+        }
+    }
+}
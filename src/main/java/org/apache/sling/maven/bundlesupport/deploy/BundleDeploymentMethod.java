@@ -21,6 +21,7 @@ package org.apache.sling.maven.bundlesupport.deploy;
 import org.apache.sling.maven.bundlesupport.deploy.method.FelixPostDeployMethod;
 import org.apache.sling.maven.bundlesupport.deploy.method.SlingPostDeployMethod;
 import org.apache.sling.maven.bundlesupport.deploy.method.WebDavPutDeployMethod;
+import org.apache.sling.maven.bundlesupport.jfr.RecordingDeployMethod;
 
 /**
  * Possible methodologies for deploying (installing and uninstalling)
@@ -47,7 +48,7 @@ public enum BundleDeploymentMethod {
     private final DeployMethod deployMethod;
 
     private BundleDeploymentMethod(DeployMethod deployMethod) {
-        this.deployMethod = deployMethod;
+        this.deployMethod = new RecordingDeployMethod(name(), deployMethod);
     }
 
     public DeployMethod execute() {
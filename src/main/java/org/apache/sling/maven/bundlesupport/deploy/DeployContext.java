@@ -20,6 +20,7 @@ package org.apache.sling.maven.bundlesupport.deploy;
 
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.maven.plugin.logging.Log;
+import org.apache.sling.maven.bundlesupport.bundle.JarEntryFilter;
 
 public final class DeployContext {
 
@@ -30,6 +31,8 @@ public final class DeployContext {
     private boolean bundleStart = true;
     private String mimeType = "application/java-archive";
     private boolean refreshPackages = true;
+    private UploadStatistics uploadStatistics = new UploadStatistics();
+    private JarEntryFilter uploadEntryFilter;
 
     public Log getLog() {
         return log;
@@ -93,4 +96,28 @@ public final class DeployContext {
         this.refreshPackages = refreshPackages;
         return this;
     }
+
+    /**
+     * @return the statistics to which all uploads of the deploy methods are recorded
+     */
+    public UploadStatistics getUploadStatistics() {
+        return uploadStatistics;
+    }
+
+    public DeployContext uploadStatistics(UploadStatistics uploadStatistics) {
+        this.uploadStatistics = uploadStatistics;
+        return this;
+    }
+
+    /**
+     * @return the filter selecting the entries of the bundle to upload or {@code null} to upload the bundle as is
+     */
+    public JarEntryFilter getUploadEntryFilter() {
+        return uploadEntryFilter;
+    }
+
+    public DeployContext uploadEntryFilter(JarEntryFilter uploadEntryFilter) {
+        this.uploadEntryFilter = uploadEntryFilter;
+        return this;
+    }
 }
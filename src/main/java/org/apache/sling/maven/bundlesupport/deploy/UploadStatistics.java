@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.deploy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the size and duration of all uploads (i.e. of the request bodies sent by the deploy methods).
+ * This class is thread-safe.
+ */
+public final class UploadStatistics {
+
+    private static final double BYTES_PER_MB = 1024d * 1024d;
+
+    private final List<Upload> uploads = new CopyOnWriteArrayList<>();
+
+    /**
+     * Records a completed upload.
+     * @param name the name of the upload (usually the file name)
+     * @param bytes the number of bytes sent
+     * @param startNanos the {@link System#nanoTime()} when the upload started
+     * @param endNanos the {@link System#nanoTime()} when the upload was complete
+     */
+    public void record(String name, long bytes, long startNanos, long endNanos) {
+        uploads.add(new Upload(name, bytes, startNanos, endNanos));
+    }
+
+    /**
+     * @return all recorded uploads in the order of their completion
+     */
+    public List<Upload> getUploads() {
+        return Collections.unmodifiableList(new ArrayList<>(uploads));
+    }
+
+    /**
+     * @return the total number of bytes sent by all uploads
+     */
+    public long getTotalBytes() {
+        return uploads.stream().mapToLong(Upload::getBytes).sum();
+    }
+
+    /**
+     * @return the time in milliseconds during which at least one upload was in progress, i.e. parallel uploads are
+     *      only counted once
+     */
+    public long getWallClockDurationMillis() {
+        List<Upload> sortedUploads = new ArrayList<>(uploads);
+        if (sortedUploads.isEmpty()) {
+            return 0;
+        }
+        sortedUploads.sort(Comparator.comparingLong(upload -> upload.startNanos));
+        // merge the overlapping intervals
+        long durationNanos = 0;
+        long intervalStart = sortedUploads.get(0).startNanos;
+        long intervalEnd = sortedUploads.get(0).endNanos;
+        for (Upload upload : sortedUploads) {
+            if (upload.startNanos - intervalEnd > 0) {
+                durationNanos += intervalEnd - intervalStart;
+                intervalStart = upload.startNanos;
+            }
+            if (upload.endNanos - intervalEnd > 0) {
+                intervalEnd = upload.endNanos;
+            }
+        }
+        durationNanos += intervalEnd - intervalStart;
+        return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    /**
+     * @return the throughput of all uploads in bytes per second, based on the {@link #getWallClockDurationMillis()
+     *      wall-clock duration} so that parallel uploads add up, or {@code 0} if nothing was uploaded
+     */
+    public double getBytesPerSecond() {
+        return uploads.isEmpty() ? 0 : getTotalBytes() * 1000d / Math.max(1, getWallClockDurationMillis());
+    }
+
+    /**
+     * @param bytes number of bytes
+     * @return the given number of bytes formatted in MB
+     */
+    public static String formatMegabytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f MB", bytes / BYTES_PER_MB);
+    }
+
+    /**
+     * @param bytes number of bytes
+     * @param durationMillis the time in milliseconds it took to transfer the bytes
+     * @return the throughput formatted in MB/s
+     */
+    public static String formatThroughput(long bytes, long durationMillis) {
+        return String.format(Locale.ROOT, "%.1f MB/s", bytes / BYTES_PER_MB * 1000d / Math.max(1, durationMillis));
+    }
+
+    /**
+     * A single completed upload.
+     */
+    public static final class Upload {
+
+        private final String name;
+        private final long bytes;
+        private final long startNanos;
+        private final long endNanos;
+        private final long durationMillis;
+
+        Upload(String name, long bytes, long startNanos, long endNanos) {
+            this.name = name;
+            this.bytes = bytes;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.durationMillis = TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         * @return the average throughput in bytes per second
+         */
+        public double getBytesPerSecond() {
+            return bytes * 1000d / Math.max(1, durationMillis);
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + formatMegabytes(bytes) + " in " + durationMillis + " ms, "
+                    + formatThroughput(bytes, durationMillis) + ")";
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.deploy.method;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+
+/**
+ * Similar to {@link org.apache.hc.client5.http.impl.classic.BasicHttpClientResponseHandler} but never buffers
+ * more than a given number of characters of the response body.
+ * The response body is only used for logging and sanity checks, so there is no need to keep e.g. a huge HTML error page
+ * in memory.
+ * Throws {@link HttpResponseException} for all response codes greater than or equal to 300 without reading
+ * the response body at all.
+ */
+public final class BoundedStringResponseHandler implements HttpClientResponseHandler<String> {
+
+    /** Default maximum number of characters being read from a response body. */
+    public static final int DEFAULT_MAX_LENGTH = 16 * 1024;
+
+    private static final String TRUNCATION_MARKER = "[...]";
+
+    private final int maxLength;
+
+    public BoundedStringResponseHandler() {
+        this(DEFAULT_MAX_LENGTH);
+    }
+
+    public BoundedStringResponseHandler(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public String handleResponse(ClassicHttpResponse response) throws IOException {
+        if (response.getCode() >= HttpStatus.SC_REDIRECTION) {
+            // the body of error responses is not read at all
+            throw new HttpResponseException(response.getCode(), response.getReasonPhrase());
+        }
+        return toString(response.getEntity(), maxLength);
+    }
+
+    /**
+     * Reads at most {@code maxLength} characters from the given entity.
+     * If the entity contains more characters the returned string is suffixed with {@code [...]}.
+     * The stream of the entity is not closed (i.e. not consumed) by this method.
+     * @param entity the entity, may be {@code null}
+     * @param maxLength maximum number of characters to read
+     * @return the (potentially truncated) entity as string, never {@code null}
+     * @throws IOException in case reading from the entity fails
+     */
+    public static String toString(HttpEntity entity, int maxLength) throws IOException {
+        if (entity == null) {
+            return "";
+        }
+        InputStream inputStream = entity.getContent();
+        if (inputStream == null) {
+            return "";
+        }
+        return toString(inputStream, getCharset(entity), maxLength);
+    }
+
+    static String toString(InputStream inputStream, Charset charset, int maxLength) throws IOException {
+        Reader reader = new InputStreamReader(inputStream, charset);
+        StringBuilder result = new StringBuilder();
+        char[] buffer = new char[Math.min(maxLength + 1, 4096)];
+        int read;
+        while (result.length() <= maxLength
+                && (read = reader.read(buffer, 0, Math.min(buffer.length, maxLength + 1 - result.length()))) != -1) {
+            result.append(buffer, 0, read);
+        }
+        if (result.length() > maxLength) {
+            result.setLength(maxLength);
+            result.append(TRUNCATION_MARKER);
+        }
+        return result.toString();
+    }
+
+    static Charset getCharset(HttpEntity entity) {
+        Charset charset = null;
+        if (entity.getContentType() != null) {
+            try {
+                charset = ContentType.parse(entity.getContentType()).getCharset();
+            } catch (IllegalArgumentException e) {
+                // fall back to default
+            }
+        }
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.deploy.method;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonParser.Event;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.entity.UrlEncodedFormEntity;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.NameValuePair;
+import org.apache.hc.core5.http.message.BasicNameValuePair;
+import org.apache.sling.maven.bundlesupport.JsonSupport;
+import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
+
+/**
+ * Executes actions on already installed bundles via the <a href="https://felix.apache.org/documentation/subprojects/apache-felix-web-console/web-console-restful-api.html#post-requests">
+ * ReST service provided by the Felix Web Console</a>.
+ */
+public final class FelixBundleActions {
+
+    public static final String ACTION_START = "start";
+    public static final String ACTION_STOP = "stop";
+    public static final String ACTION_REFRESH = "refresh";
+    public static final String ACTION_UPDATE = "update";
+    public static final String ACTION_UNINSTALL = "uninstall";
+
+    private FelixBundleActions() {
+        // static methods only
+    }
+
+    /**
+     * Executes an action on a single bundle.
+     * @param consoleTargetUrl the web console base url
+     * @param bundle the bundle symbolic name or bundle id
+     * @param action one of the {@code ACTION_...} constants
+     * @param context the deploy context
+     * @return {@code true} in case the bundle is a fragment
+     * @throws IOException in case the action failed or an unexpected response was received
+     */
+    public static boolean execute(URI consoleTargetUrl, String bundle, String action, DeployContext context)
+            throws IOException {
+        URI postUrl = consoleTargetUrl.resolve("bundles/" + bundle);
+        context.getLog().debug("Executing action '" + action + "' via POST to " + postUrl);
+        final HttpPost post = new HttpPost(postUrl);
+        List<NameValuePair> params = new ArrayList<>();
+        params.add(new BasicNameValuePair("action", action));
+        post.setEntity(new UrlEncodedFormEntity(params));
+        // sanity check on response (has really the right servlet answered?)
+        // must be JSON
+        // (https://github.com/apache/felix-dev/blob/8e35c940a95c91f3fee09c537dbaf9665e5d027e/webconsole/src/main/java/org/apache/felix/webconsole/internal/core/BundlesServlet.java#L420_
+        boolean fragment;
+        try {
+            fragment = context.getHttpClient().execute(post, new JsonResponseHandler<>(parser -> {
+                if (parser.next() != Event.START_OBJECT) {
+                    throw new JsonException("Expected JSON object");
+                }
+                // must contain boolean
+                Event event = JsonSupport.findKey(parser, "fragment");
+                if (event != Event.VALUE_TRUE && event != Event.VALUE_FALSE) {
+                    throw new JsonException("Missing boolean property 'fragment'");
+                }
+                return event == Event.VALUE_TRUE;
+            }));
+        } catch (JsonResponseHandler.UnexpectedContentException e) {
+            throw new IOException(
+                    "Unexpected response received from " + postUrl
+                            + ". Maybe wrong endpoint? Must be valid JSON containing boolean property 'fragment' but was: "
+                            + e.getContent(),
+                    e);
+        }
+        context.getLog().debug("Received response from " + postUrl + ": fragment=" + fragment);
+        return fragment;
+    }
+
+    /**
+     * Refreshes the packages of all bundles (i.e. of all bundles which have been updated or uninstalled before).
+     * This triggers a single resolution pass of the OSGi framework.
+     * @param consoleTargetUrl the web console base url
+     * @param context the deploy context
+     * @throws IOException in case the refresh could not be triggered
+     */
+    public static void refreshPackages(URI consoleTargetUrl, DeployContext context) throws IOException {
+        URI postUrl = consoleTargetUrl.resolve("bundles");
+        context.getLog().debug("Refreshing packages via POST to " + postUrl);
+        final HttpPost post = new HttpPost(postUrl);
+        List<NameValuePair> params = new ArrayList<>();
+        params.add(new BasicNameValuePair("action", "refreshPackages"));
+        post.setEntity(new UrlEncodedFormEntity(params));
+        // the web console redirects to the bundle list afterwards
+        context.getHttpClient()
+                .execute(
+                        post,
+                        new ResponseCodeEnforcingResponseHandler(
+                                HttpStatus.SC_OK, HttpStatus.SC_MOVED_TEMPORARILY, HttpStatus.SC_SEE_OTHER));
+    }
+}
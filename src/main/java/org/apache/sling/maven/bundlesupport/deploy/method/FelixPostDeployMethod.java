@@ -21,18 +21,10 @@ package org.apache.sling.maven.bundlesupport.deploy.method;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
-import java.util.ArrayList;
-import java.util.List;
 
-import jakarta.json.JsonException;
-import jakarta.json.JsonObject;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
-import org.apache.hc.client5.http.entity.UrlEncodedFormEntity;
 import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
-import org.apache.hc.client5.http.impl.classic.BasicHttpClientResponseHandler;
-import org.apache.hc.core5.http.NameValuePair;
-import org.apache.hc.core5.http.message.BasicNameValuePair;
-import org.apache.sling.maven.bundlesupport.JsonSupport;
+import org.apache.hc.core5.http.ContentType;
 import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
 import org.apache.sling.maven.bundlesupport.deploy.DeployMethod;
 
@@ -64,9 +56,9 @@ public class FelixPostDeployMethod implements DeployMethod {
         if (context.isRefreshPackages()) {
             builder.addTextBody("refreshPackages", "true");
         }
-        builder.addBinaryBody("bundlefile", file);
-        filePost.setEntity(builder.build());
-        String response = context.getHttpClient().execute(filePost, new BasicHttpClientResponseHandler());
+        builder.addPart("bundlefile", UploadBodies.createFileBody(file, ContentType.DEFAULT_BINARY, context));
+        filePost.setEntity(new UploadProgressEntity(builder.build(), file.getName(), context));
+        String response = context.getHttpClient().execute(filePost, new BoundedStringResponseHandler());
         // sanity check on response (has really the right servlet answered?)
         // must be empty in this case
         // (https://github.com/apache/felix-dev/blob/8e35c940a95c91f3fee09c537dbaf9665e5d027e/webconsole/src/main/java/org/apache/felix/webconsole/internal/core/BundlesServlet.java#L340)
@@ -78,24 +70,6 @@ public class FelixPostDeployMethod implements DeployMethod {
 
     @Override
     public void undeploy(URI targetURL, String bundleSymbolicName, DeployContext context) throws IOException {
-        URI postUrl = targetURL.resolve("bundles/" + bundleSymbolicName);
-        context.getLog().debug("Uninstalling via POST to " + postUrl);
-        final HttpPost post = new HttpPost(postUrl);
-        List<NameValuePair> params = new ArrayList<>();
-        params.add(new BasicNameValuePair("action", "uninstall"));
-        post.setEntity(new UrlEncodedFormEntity(params));
-        String response = context.getHttpClient().execute(post, new BasicHttpClientResponseHandler());
-        // sanity check on response (has really the right servlet answered?)
-        // must be JSON
-        // (https://github.com/apache/felix-dev/blob/8e35c940a95c91f3fee09c537dbaf9665e5d027e/webconsole/src/main/java/org/apache/felix/webconsole/internal/core/BundlesServlet.java#L420_
-        try {
-            JsonObject jsonObject = JsonSupport.parseObject(response);
-            // must contain boolean
-            jsonObject.getBoolean("fragment");
-        } catch (JsonException | ClassCastException | NullPointerException e) {
-            throw new IOException("Unexpected response received from " + postUrl
-                    + ". Maybe wrong endpoint? Must be valid JSON but was: " + response);
-        }
-        context.getLog().debug("Received response from " + postUrl + ": " + response);
+        FelixBundleActions.execute(targetURL, bundleSymbolicName, FelixBundleActions.ACTION_UNINSTALL, context);
     }
 }
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.deploy.method;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.NoSuchElementException;
+
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonParser;
+import org.apache.hc.client5.http.ClientProtocolException;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.sling.maven.bundlesupport.JsonSupport;
+
+/**
+ * Parses the response body incrementally with a {@link JsonParser} directly from the response stream,
+ * i.e. without buffering the whole body in memory.
+ * The given {@link JsonStreamReader} is supposed to only extract the fields it needs and skip everything else.
+ * If the response body is no JSON at all (e.g. an HTML error or login page) at most
+ * {@link BoundedStringResponseHandler#DEFAULT_MAX_LENGTH} characters of it are read for the exception message.
+ * Throws {@link HttpResponseException} for all response codes greater than or equal to 300.
+ * @param <T> the type of the extracted result
+ */
+public final class JsonResponseHandler<T> implements HttpClientResponseHandler<T> {
+
+    /** Maximum number of bytes the parser may have read ahead while still being able to report the beginning of the content. */
+    private static final int MARK_LIMIT = 64 * 1024;
+
+    private final JsonStreamReader<T> reader;
+
+    public JsonResponseHandler(JsonStreamReader<T> reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public T handleResponse(ClassicHttpResponse response) throws IOException {
+        if (response.getCode() >= HttpStatus.SC_REDIRECTION) {
+            throw new HttpResponseException(response.getCode(), response.getReasonPhrase());
+        }
+        return parse(response.getEntity(), reader);
+    }
+
+    /**
+     * Parses the given entity with the given reader.
+     * @param entity the entity
+     * @param reader the reader extracting the result
+     * @return the extracted result
+     * @throws IOException in case the entity is empty or cannot be read
+     * @throws UnexpectedContentException in case the entity does not contain the expected JSON
+     * @param <T> the type of the extracted result
+     */
+    public static <T> T parse(HttpEntity entity, JsonStreamReader<T> reader) throws IOException {
+        if (entity == null) {
+            throw new ClientProtocolException("Response does not contain a body");
+        }
+        Charset charset = BoundedStringResponseHandler.getCharset(entity);
+        InputStream inputStream = new BufferedInputStream(entity.getContent());
+        // remember the beginning of the stream to be able to include it in the exception message
+        inputStream.mark(MARK_LIMIT);
+        JsonParser parser = JsonSupport.createParser(inputStream, charset);
+        T result;
+        try {
+            result = reader.read(parser);
+        } catch (JsonException | IllegalStateException | NoSuchElementException e) {
+            // the parser is deliberately not closed here as that would consume the remaining (unexpected) response
+            String content;
+            try {
+                inputStream.reset();
+                content = BoundedStringResponseHandler.toString(
+                        inputStream, charset, BoundedStringResponseHandler.DEFAULT_MAX_LENGTH);
+            } catch (IOException resetException) {
+                // more than the mark limit has been read already
+                content = "<not available>";
+            }
+            throw new UnexpectedContentException(e, content);
+        }
+        parser.close();
+        return result;
+    }
+
+    /**
+     * Thrown in case the response body does not contain the expected JSON.
+     */
+    public static final class UnexpectedContentException extends ClientProtocolException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String content;
+
+        UnexpectedContentException(Exception cause, String content) {
+            super("Unexpected response content, cause: " + cause.getMessage() + ", content: " + content, cause);
+            this.content = content;
+        }
+
+        /**
+         * @return the beginning of the response body (at most {@link BoundedStringResponseHandler#DEFAULT_MAX_LENGTH}
+         *      characters)
+         */
+        public String getContent() {
+            return content;
+        }
+    }
+
+    /**
+     * Extracts a result from a JSON stream.
+     * @param <T> the type of the extracted result
+     */
+    @FunctionalInterface
+    public interface JsonStreamReader<T> {
+
+        /**
+         * @param parser parser located at the beginning of the document
+         * @return the extracted result
+         * @throws IOException in case the JSON does not have the expected structure
+         */
+        T read(JsonParser parser) throws IOException;
+    }
+}
@@ -66,7 +66,8 @@ public final class ResponseCodeEnforcingResponseHandler implements HttpClientRes
         final HttpEntity entity = response.getEntity();
         try {
             if (responseStringPredicate != null) {
-                String responseContent = EntityUtils.toString(entity);
+                String responseContent =
+                        BoundedStringResponseHandler.toString(entity, BoundedStringResponseHandler.DEFAULT_MAX_LENGTH);
                 if (!responseStringPredicate.test(responseContent)) {
                     throw new ClientProtocolException("Unexpected response content returned: " + responseContent);
                 }
@@ -28,7 +28,6 @@ import java.util.List;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.entity.UrlEncodedFormEntity;
 import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
-import org.apache.hc.client5.http.impl.classic.BasicHttpClientResponseHandler;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.NameValuePair;
 import org.apache.hc.core5.http.message.BasicNameValuePair;
@@ -53,10 +52,10 @@ public class SlingPostDeployMethod implements DeployMethod {
         filePost.setHeader("Accept", JSON_MIME_TYPE);
         MultipartEntityBuilder builder = MultipartEntityBuilder.create();
         builder.addTextBody("*@TypeHint", "nt:file");
-        builder.addBinaryBody("*", file, ContentType.create(context.getMimeType()), file.getName());
-        filePost.setEntity(builder.build());
+        builder.addPart("*", UploadBodies.createFileBody(file, ContentType.create(context.getMimeType()), context));
+        filePost.setEntity(new UploadProgressEntity(builder.build(), file.getName(), context));
 
-        String response = context.getHttpClient().execute(filePost, new BasicHttpClientResponseHandler());
+        String response = context.getHttpClient().execute(filePost, new BoundedStringResponseHandler());
         context.getLog().debug("Received response: " + response);
     }
 
@@ -70,7 +69,7 @@ public class SlingPostDeployMethod implements DeployMethod {
         params.add(new BasicNameValuePair(":operation", "delete"));
         post.setEntity(new UrlEncodedFormEntity(params));
 
-        String response = context.getHttpClient().execute(post, new BasicHttpClientResponseHandler());
+        String response = context.getHttpClient().execute(post, new BoundedStringResponseHandler());
         context.getLog().debug("Received response: " + response);
     }
 
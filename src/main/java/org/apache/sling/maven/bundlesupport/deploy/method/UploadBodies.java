@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.deploy.method;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.ZipException;
+
+import org.apache.hc.client5.http.entity.mime.AbstractContentBody;
+import org.apache.hc.client5.http.entity.mime.ContentBody;
+import org.apache.hc.client5.http.entity.mime.FileBody;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.EntityTemplate;
+import org.apache.hc.core5.http.io.entity.FileEntity;
+import org.apache.sling.maven.bundlesupport.bundle.JarEntryFilter;
+import org.apache.sling.maven.bundlesupport.bundle.SlimJar;
+import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
+import org.apache.sling.maven.bundlesupport.deploy.UploadStatistics;
+
+/**
+ * Creates the request bodies for uploading bundle files, which are reduced to the entries selected by
+ * {@link DeployContext#getUploadEntryFilter()} (if set) while being sent.
+ */
+final class UploadBodies {
+
+    private UploadBodies() {
+        // static methods only
+    }
+
+    /**
+     * @param file the bundle file
+     * @param contentType the content type
+     * @param context the deploy context
+     * @return the body part for a multipart request
+     * @throws IOException in case the file could not be read
+     */
+    static ContentBody createFileBody(File file, ContentType contentType, DeployContext context) throws IOException {
+        SlimJar slimJar = createSlimJar(file, context);
+        if (slimJar == null) {
+            return new FileBody(file, contentType, file.getName());
+        }
+        return new SlimJarBody(slimJar, contentType, file.getName());
+    }
+
+    /**
+     * @param file the bundle file
+     * @param contentType the content type
+     * @param context the deploy context
+     * @return the request entity
+     * @throws IOException in case the file could not be read
+     */
+    static HttpEntity createFileEntity(File file, ContentType contentType, DeployContext context) throws IOException {
+        SlimJar slimJar = createSlimJar(file, context);
+        if (slimJar == null) {
+            return new FileEntity(file, contentType);
+        }
+        return new EntityTemplate(slimJar.getSize(), contentType, null, slimJar::writeTo);
+    }
+
+    /**
+     * @return the reduced bundle file or {@code null} in case the file should be sent as is
+     */
+    private static SlimJar createSlimJar(File file, DeployContext context) throws IOException {
+        JarEntryFilter filter = context.getUploadEntryFilter();
+        if (filter == null || filter.isEmpty()) {
+            return null;
+        }
+        final SlimJar slimJar;
+        try {
+            slimJar = SlimJar.create(file, filter);
+        } catch (ZipException e) {
+            context.getLog().warn("Cannot strip entries from " + file + ", uploading it as is: " + e.getMessage());
+            return null;
+        }
+        if (slimJar.getRemovedEntries() == 0) {
+            context.getLog().debug("No entries of " + file + " excluded by " + filter);
+            return null;
+        }
+        context.getLog()
+                .info("Stripped " + slimJar.getRemovedEntries() + " entries from " + file.getName() + ", uploading "
+                        + UploadStatistics.formatMegabytes(slimJar.getSize()) + " instead of "
+                        + UploadStatistics.formatMegabytes(slimJar.getOriginalSize()));
+        return slimJar;
+    }
+
+    private static final class SlimJarBody extends AbstractContentBody {
+
+        private final SlimJar slimJar;
+        private final String filename;
+
+        SlimJarBody(SlimJar slimJar, ContentType contentType, String filename) {
+            super(contentType);
+            this.slimJar = slimJar;
+            this.filename = filename;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            slimJar.writeTo(out);
+        }
+
+        @Override
+        public long getContentLength() {
+            return slimJar.getSize();
+        }
+    }
+}
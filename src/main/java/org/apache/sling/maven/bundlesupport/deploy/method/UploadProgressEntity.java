@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.deploy.method;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
+import org.apache.sling.maven.bundlesupport.deploy.UploadStatistics;
+
+/**
+ * Wraps a request entity to count the bytes while they are being sent.
+ * For uploads taking longer than {@link #REPORT_INTERVAL_NANOS} the progress (including the current throughput and
+ * the estimated remaining time) is logged at that rate, followed by the overall throughput once the upload is complete.
+ * Each completed upload is recorded in the {@link DeployContext#getUploadStatistics() upload statistics}.
+ */
+final class UploadProgressEntity extends HttpEntityWrapper {
+
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final String name;
+    private final DeployContext context;
+
+    UploadProgressEntity(HttpEntity entity, String name, DeployContext context) {
+        super(entity);
+        this.name = name;
+        this.context = context;
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        ProgressOutputStream progressStream = new ProgressOutputStream(outStream, getContentLength());
+        super.writeTo(progressStream);
+        progressStream.complete();
+    }
+
+    private final class ProgressOutputStream extends FilterOutputStream {
+
+        private final long contentLength;
+        private final long start = System.nanoTime();
+        private long bytes;
+        private long lastReport = start;
+        private long lastReportBytes;
+        private boolean reported;
+
+        ProgressOutputStream(OutputStream out, long contentLength) {
+            super(out);
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            onWritten(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            onWritten(len);
+        }
+
+        private void onWritten(int count) {
+            bytes += count;
+            long now = System.nanoTime();
+            if (now - lastReport >= REPORT_INTERVAL_NANOS) {
+                report(now);
+            }
+        }
+
+        private void report(long now) {
+            StringBuilder message = new StringBuilder("Uploading ").append(name).append(": ");
+            message.append(UploadStatistics.formatMegabytes(bytes));
+            if (contentLength > 0) {
+                message.append(" of ")
+                        .append(UploadStatistics.formatMegabytes(contentLength))
+                        .append(" (")
+                        .append(bytes * 100 / contentLength)
+                        .append("%)");
+            }
+            message.append(", ")
+                    .append(UploadStatistics.formatThroughput(
+                            bytes - lastReportBytes, TimeUnit.NANOSECONDS.toMillis(now - lastReport)));
+            if (contentLength > bytes && bytes > 0) {
+                long remainingNanos = (now - start) * (contentLength - bytes) / bytes;
+                message.append(", ETA ")
+                        .append(TimeUnit.NANOSECONDS.toSeconds(remainingNanos) + 1)
+                        .append(" s");
+            }
+            context.getLog().info(message);
+            lastReport = now;
+            lastReportBytes = bytes;
+            reported = true;
+        }
+
+        void complete() {
+            long end = System.nanoTime();
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(end - start);
+            context.getUploadStatistics().record(name, bytes, start, end);
+            String message = "Uploaded " + name + " (" + UploadStatistics.formatMegabytes(bytes) + ") in "
+                    + durationMillis + " ms (" + UploadStatistics.formatThroughput(bytes, durationMillis) + ")";
+            if (reported) {
+                context.getLog().info(message);
+            } else {
+                context.getLog().debug(message);
+            }
+        }
+    }
+}
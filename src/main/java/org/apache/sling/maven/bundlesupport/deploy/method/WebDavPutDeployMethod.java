@@ -27,10 +27,8 @@ import org.apache.hc.client5.http.HttpResponseException;
 import org.apache.hc.client5.http.classic.methods.HttpDelete;
 import org.apache.hc.client5.http.classic.methods.HttpHead;
 import org.apache.hc.client5.http.classic.methods.HttpPut;
-import org.apache.hc.client5.http.impl.classic.BasicHttpClientResponseHandler;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.HttpStatus;
-import org.apache.hc.core5.http.io.entity.FileEntity;
 import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
 import org.apache.sling.maven.bundlesupport.deploy.DeployMethod;
 
@@ -66,7 +64,10 @@ public class WebDavPutDeployMethod implements DeployMethod {
 
     private void performPut(URI targetURL, File file, DeployContext context) throws IOException {
         HttpPut filePut = new HttpPut(SlingPostDeployMethod.getURLWithFilename(targetURL, file.getName()));
-        filePut.setEntity(new FileEntity(file, ContentType.create(context.getMimeType())));
+        filePut.setEntity(new UploadProgressEntity(
+                UploadBodies.createFileEntity(file, ContentType.create(context.getMimeType()), context),
+                file.getName(),
+                context));
         // sanity check on response (has really the right servlet answered?)
         // check status code, must be either 201 (created) for new resources or 204 (no content) for updated existing
         // resources
@@ -80,13 +81,13 @@ public class WebDavPutDeployMethod implements DeployMethod {
 
     private void performHead(URI uri, DeployContext context) throws IOException {
         HttpHead head = new HttpHead(uri);
-        context.getHttpClient().execute(head, new BasicHttpClientResponseHandler());
+        context.getHttpClient().execute(head, new BoundedStringResponseHandler());
         // this never returns a body
     }
 
     private void performMkCol(URI uri, DeployContext context) throws IOException {
         WebDavMkCol mkCol = new WebDavMkCol(uri);
-        String response = context.getHttpClient().execute(mkCol, new BasicHttpClientResponseHandler());
+        String response = context.getHttpClient().execute(mkCol, new BoundedStringResponseHandler());
         context.getLog().info("Received response: " + response);
         // must be 201 (created)
         // https://github.com/apache/jackrabbit/blob/88490006e6bdba0b0ad52d209b1bfa040477c2ec/jackrabbit-webdav/src/main/java/org/apache/jackrabbit/webdav/server/AbstractWebdavServlet.java#L746
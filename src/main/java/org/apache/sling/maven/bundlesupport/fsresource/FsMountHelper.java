@@ -33,6 +33,7 @@ import jakarta.json.Json;
 import jakarta.json.JsonArray;
 import jakarta.json.JsonException;
 import jakarta.json.JsonObject;
+import jakarta.json.stream.JsonParser.Event;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hc.client5.http.HttpResponseException;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
@@ -45,12 +46,12 @@ import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.NameValuePair;
 import org.apache.hc.core5.http.ProtocolException;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.message.BasicNameValuePair;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 import org.apache.sling.maven.bundlesupport.JsonSupport;
+import org.apache.sling.maven.bundlesupport.deploy.method.JsonResponseHandler;
 import org.apache.sling.maven.bundlesupport.deploy.method.ResponseCodeEnforcingResponseHandler;
 
 /**
@@ -259,55 +260,61 @@ final class FsMountHelper {
                             + "the initial content through file system provider configs. "
                             + "Either upgrade the web console or disable this feature.");
                 }
-                final String jsonText = EntityUtils.toString(response.getEntity());
-                try {
-                    JsonArray array = JsonSupport.parseArray(jsonText);
-                    for (int i = 0; i < array.size(); i++) {
-                        final JsonObject obj = array.getJsonObject(i);
-                        final String pid = obj.getString("pid");
-                        final JsonObject properties = obj.getJsonObject("properties");
-                        final String fsmode = getConfigPropertyValue(properties, PROPERTY_FSMODE);
-                        final String path = getConfigPropertyValue(properties, PROPERTY_PATH);
-                        final String initialContentImportOptions =
-                                getConfigPropertyValue(properties, PROPERTY_INITIAL_CONTENT_IMPORT_OPTIONS);
-                        final String fileVaultFilterXml =
-                                getConfigPropertyValue(properties, PROPERTY_FILEVAULT_FILTER_XML);
-                        String root = getConfigPropertyValue(properties, PROPERTY_ROOTS);
-                        if (root == null) {
-                            root = getConfigPropertyValue(properties, PROPERTY_ROOT);
-                        }
-                        if (path != null
-                                && path.startsWith(this.project.getBasedir().getAbsolutePath())
-                                && root != null) {
-                            FsResourceConfiguration cfg = new FsResourceConfiguration()
-                                    .fsMode(fsmode)
-                                    .resourceRootPath(root)
-                                    .fsRootPath(new File(path))
-                                    .initialContentImportOptions(initialContentImportOptions)
-                                    .fileVaultFilterXml(fileVaultFilterXml);
-                            log.debug("Found configuration with pid: " + pid + ", " + cfg);
-                            result.put(pid, cfg);
-                        }
+                // parse incrementally and only materialize one configuration at a time
+                final int count = JsonResponseHandler.parse(response.getEntity(), parser -> {
+                    if (parser.next() != Event.START_ARRAY) {
+                        throw new JsonException("Expected JSON array");
                     }
-                    if (array.isEmpty()) {
-                        log.info("Found no existing configurations for factory PID " + FS_FACTORY);
+                    int configCount = 0;
+                    Event event;
+                    while ((event = parser.next()) != Event.END_ARRAY) {
+                        if (event != Event.START_OBJECT) {
+                            throw new JsonException("Expected JSON object but found " + event);
+                        }
+                        addCurrentConfiguration(result, parser.getObject());
+                        configCount++;
                     }
-                } catch (JsonException ex) {
-                    throw new MojoExecutionException(
-                            "Reading configuration from " + getUrl + " failed, cause: " + ex.getMessage(), ex);
+                    return configCount;
+                });
+                if (count == 0) {
+                    log.info("Found no existing configurations for factory PID " + FS_FACTORY);
                 }
             } else {
                 throw new HttpResponseException(
                         response.getCode(),
                         "Unexpected status code " + response.getCode() + ": " + response.getReasonPhrase());
             }
-        } catch (IOException | ProtocolException ex) {
+        } catch (IOException | ProtocolException | JsonException ex) {
             throw new MojoExecutionException(
                     "Reading configuration from " + getUrl + " failed, cause: " + ex.getMessage(), ex);
         }
         return result;
     }
 
+    private void addCurrentConfiguration(Map<String, FsResourceConfiguration> result, JsonObject obj) {
+        final String pid = obj.getString("pid");
+        final JsonObject properties = obj.getJsonObject("properties");
+        final String fsmode = getConfigPropertyValue(properties, PROPERTY_FSMODE);
+        final String path = getConfigPropertyValue(properties, PROPERTY_PATH);
+        final String initialContentImportOptions =
+                getConfigPropertyValue(properties, PROPERTY_INITIAL_CONTENT_IMPORT_OPTIONS);
+        final String fileVaultFilterXml = getConfigPropertyValue(properties, PROPERTY_FILEVAULT_FILTER_XML);
+        String root = getConfigPropertyValue(properties, PROPERTY_ROOTS);
+        if (root == null) {
+            root = getConfigPropertyValue(properties, PROPERTY_ROOT);
+        }
+        if (path != null && path.startsWith(this.project.getBasedir().getAbsolutePath()) && root != null) {
+            FsResourceConfiguration cfg = new FsResourceConfiguration()
+                    .fsMode(fsmode)
+                    .resourceRootPath(root)
+                    .fsRootPath(new File(path))
+                    .initialContentImportOptions(initialContentImportOptions)
+                    .fileVaultFilterXml(fileVaultFilterXml);
+            log.debug("Found configuration with pid: " + pid + ", " + cfg);
+            result.put(pid, cfg);
+        }
+    }
+
     private String getConfigPropertyValue(JsonObject obj, String subKey) {
         if (obj.containsKey(subKey)) {
             JsonObject subObj = obj.getJsonObject(subKey);
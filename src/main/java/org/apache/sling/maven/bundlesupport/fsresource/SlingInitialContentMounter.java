@@ -25,8 +25,6 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.jar.JarFile;
-import java.util.jar.Manifest;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hc.client5.http.config.RequestConfig;
@@ -37,23 +35,27 @@ import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 import org.apache.sling.commons.osgi.ManifestHeader;
 import org.apache.sling.commons.osgi.ManifestHeader.Entry;
+import org.apache.sling.maven.bundlesupport.bundle.BundleMetadataCache;
 
 /**
  * Manages OSGi configurations for File System Resource Provider for Sling-Initial-Content.
  */
 public final class SlingInitialContentMounter {
 
-    /** Header containing the sling initial content information. */
-    private static final String HEADER_INITIAL_CONTENT = "Sling-Initial-Content";
-
     private final Log log;
     private final MavenProject project;
+    private final BundleMetadataCache bundleMetadataCache;
     private final FsMountHelper helper;
 
     public SlingInitialContentMounter(
-            Log log, CloseableHttpClient httpClient, RequestConfig.Builder requestConfigBuilder, MavenProject project) {
+            Log log,
+            CloseableHttpClient httpClient,
+            RequestConfig.Builder requestConfigBuilder,
+            MavenProject project,
+            BundleMetadataCache bundleMetadataCache) {
         this.log = log;
         this.project = project;
+        this.bundleMetadataCache = bundleMetadataCache;
         this.helper = new FsMountHelper(log, httpClient, requestConfigBuilder, project);
     }
 
@@ -67,8 +69,7 @@ public final class SlingInitialContentMounter {
         // first, let's get the manifest and see if initial content is configured
         ManifestHeader header = null;
         try {
-            final Manifest mf = getManifest(bundleFile);
-            final String value = mf.getMainAttributes().getValue(HEADER_INITIAL_CONTENT);
+            final String value = bundleMetadataCache.get(bundleFile).getInitialContent();
             if (value == null) {
                 log.warn("Bundle has no initial content - no file system provider config created.");
                 return;
@@ -175,16 +176,4 @@ public final class SlingInitialContentMounter {
         final Map<String, FsResourceConfiguration> oldConfigs = helper.getCurrentConfigurations(consoleTargetUrl);
         helper.removeConfigurations(consoleTargetUrl, oldConfigs);
     }
-
-    /**
-     * Get the manifest from the File.
-     * @param bundleFile The bundle jar
-     * @return The manifest.
-     * @throws IOException Exception
-     */
-    private Manifest getManifest(final File bundleFile) throws IOException {
-        try (JarFile file = new JarFile(bundleFile)) {
-            return file.getManifest();
-        }
-    }
 }
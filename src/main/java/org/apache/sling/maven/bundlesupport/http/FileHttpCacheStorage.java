@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.http;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.client5.http.impl.cache.AbstractBinaryCacheStorage;
+import org.apache.hc.client5.http.impl.cache.HttpByteArrayCacheEntrySerializer;
+
+/**
+ * HTTP cache storage which persists each cache entry (in HTTP wire format) in a dedicated file below a given directory.
+ * In contrast to the storages shipped with httpclient5-cache the entries survive the JVM and can therefore be
+ * revalidated by subsequent Maven executions.
+ * The "compare and swap" value is the serialized entry itself.
+ */
+public final class FileHttpCacheStorage extends AbstractBinaryCacheStorage<byte[]> {
+
+    private static final String FILE_EXTENSION = ".http";
+    private static final int MAX_UPDATE_RETRIES = 1;
+
+    private final Path directory;
+
+    public FileHttpCacheStorage(File directory) throws IOException {
+        super(MAX_UPDATE_RETRIES, HttpByteArrayCacheEntrySerializer.INSTANCE);
+        this.directory = directory.toPath();
+        Files.createDirectories(this.directory);
+    }
+
+    @Override
+    protected String digestToStorageKey(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest(key.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported by JRE", e); // should never happen
+        }
+    }
+
+    @Override
+    protected void store(String storageKey, byte[] storageObject) throws ResourceIOException {
+        Path file = getFile(storageKey);
+        try {
+            // write to temporary file first to never expose partially written entries
+            Path tmpFile = Files.createTempFile(directory, storageKey, ".tmp");
+            Files.write(tmpFile, storageObject);
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ResourceIOException("Could not write cache entry " + file, e);
+        }
+    }
+
+    @Override
+    protected byte[] restore(String storageKey) throws ResourceIOException {
+        Path file = getFile(storageKey);
+        try {
+            return Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new ResourceIOException("Could not read cache entry " + file, e);
+        }
+    }
+
+    @Override
+    protected byte[] getForUpdateCAS(String storageKey) throws ResourceIOException {
+        return restore(storageKey);
+    }
+
+    @Override
+    protected byte[] getStorageObject(byte[] cas) {
+        return cas;
+    }
+
+    @Override
+    protected synchronized boolean updateCAS(String storageKey, byte[] cas, byte[] storageObject)
+            throws ResourceIOException {
+        if (!Arrays.equals(cas, restore(storageKey))) {
+            return false;
+        }
+        store(storageKey, storageObject);
+        return true;
+    }
+
+    @Override
+    protected void delete(String storageKey) throws ResourceIOException {
+        Path file = getFile(storageKey);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new ResourceIOException("Could not delete cache entry " + file, e);
+        }
+    }
+
+    @Override
+    protected Map<String, byte[]> bulkRestore(Collection<String> storageKeys) throws ResourceIOException {
+        Map<String, byte[]> result = new HashMap<>();
+        for (String storageKey : storageKeys) {
+            byte[] storageObject = restore(storageKey);
+            if (storageObject != null) {
+                result.put(storageKey, storageObject);
+            }
+        }
+        return result;
+    }
+
+    private Path getFile(String storageKey) {
+        return directory.resolve(storageKey + FILE_EXTENSION);
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.http;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hc.client5.http.cache.CacheResponseStatus;
+import org.apache.hc.client5.http.cache.HttpCacheContext;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.sling.maven.bundlesupport.jfr.HttpExchangeEvent;
+import org.apache.sling.maven.bundlesupport.metrics.MetricsRegistry;
+import org.apache.sling.maven.bundlesupport.report.ExecutionReport;
+
+/**
+ * Instruments the requests executed by a HTTP client: records a flight recorder {@link HttpExchangeEvent}, the
+ * {@link MetricsRegistry metrics} and the {@link ExecutionReport report} for each request and logs requests exceeding
+ * a threshold with their {@link HttpTimings timing breakdown}, each of them only if enabled.
+ * The phases are determined by an additional handler right after the connect handler of the execution chain, by the
+ * connection manager created with {@link HttpTimings#createConnectionManager(int, int)} and by wrapping the request
+ * and response entities.
+ * An exchange is completed once the response body has been consumed or closed.
+ * Nothing is done unless metrics, the report or the slow request log are enabled or a flight recording with the event
+ * being enabled is running (all of them are disabled by default).
+ */
+public final class HttpExchangeRecorder implements ExecChainHandler {
+
+    private static final ExecChainHandler CONNECTED_HANDLER = (request, scope, chain) -> {
+        HttpTimings.markConnected();
+        return chain.proceed(request, scope);
+    };
+
+    private final String goal;
+    private MetricsRegistry metrics;
+    private ExecutionReport report;
+    private long slowRequestThresholdNanos;
+    private Log log;
+
+    private HttpExchangeRecorder(String goal) {
+        this.goal = goal;
+    }
+
+    /**
+     * @param goal the goal executing the requests
+     * @return a new recorder which only records flight recorder events until configured otherwise
+     */
+    public static HttpExchangeRecorder create(String goal) {
+        return new HttpExchangeRecorder(goal);
+    }
+
+    /**
+     * @param metrics the metrics registry or {@code null} if metrics are not enabled
+     * @return this
+     */
+    public HttpExchangeRecorder metrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * @param report the report of the goal execution or {@code null} if the report is not enabled
+     * @return this
+     */
+    public HttpExchangeRecorder report(ExecutionReport report) {
+        this.report = report;
+        return this;
+    }
+
+    /**
+     * @param thresholdMillis the duration in milliseconds above which requests are logged as warning, {@code 0} to
+     *      disable the slow request log
+     * @param log the log to use
+     * @return this
+     */
+    public HttpExchangeRecorder slowRequestLog(long thresholdMillis, Log log) {
+        this.slowRequestThresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, thresholdMillis));
+        this.log = log;
+        return this;
+    }
+
+    /**
+     * Adds the handlers to the given builder. Should be called before adding handlers which should not be covered by
+     * the events (e.g. ones waiting for permits).
+     * @param builder the builder of the HTTP client
+     * @return the builder
+     */
+    public HttpClientBuilder register(HttpClientBuilder builder) {
+        return builder.addExecInterceptorFirst("sling-http-exchange", this)
+                .addExecInterceptorAfter(
+                        ChainElement.CONNECT.name(), "sling-http-exchange-connected", CONNECTED_HANDLER);
+    }
+
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain)
+            throws IOException, HttpException {
+        HttpExchangeEvent event = new HttpExchangeEvent();
+        if (!event.isEnabled() && metrics == null && report == null && slowRequestThresholdNanos == 0) {
+            return chain.proceed(request, scope);
+        }
+        event.begin();
+        Exchange exchange = new Exchange(
+                event,
+                HttpTimings.start(),
+                scope.clientContext,
+                scope.route.getTargetHost().toURI(),
+                request.getMethod(),
+                request.getRequestUri());
+        HttpEntity entity = request.getEntity();
+        TimedEntity timedEntity = null;
+        if (entity != null) {
+            timedEntity = new TimedEntity(entity);
+            request.setEntity(timedEntity);
+        }
+        ClassicHttpResponse response;
+        try {
+            response = chain.proceed(request, scope);
+        } catch (IOException | HttpException | RuntimeException e) {
+            exchange.failure = e.toString();
+            exchange.complete();
+            throw e;
+        } finally {
+            exchange.timings.markResponseHead();
+            if (timedEntity != null) {
+                request.setEntity(entity);
+                exchange.requestBytes = timedEntity.bytes;
+                if (timedEntity.written > 0) {
+                    exchange.timings.markWritten(timedEntity.written);
+                }
+            }
+        }
+        exchange.status = response.getCode();
+        HttpEntity responseEntity = response.getEntity();
+        if (responseEntity != null) {
+            exchange.responseBytes = responseEntity.getContentLength();
+            // completed once the body has been consumed by the caller
+            response.setEntity(new DownloadTimedEntity(responseEntity, exchange));
+        } else {
+            exchange.complete();
+        }
+        return response;
+    }
+
+    private static boolean isCached(HttpContext context) {
+        Object status = context.getAttribute(HttpCacheContext.CACHE_RESPONSE_STATUS);
+        return status == CacheResponseStatus.CACHE_HIT || status == CacheResponseStatus.VALIDATED;
+    }
+
+    /**
+     * State of a single exchange which is completed at most once.
+     */
+    private final class Exchange {
+
+        private final HttpExchangeEvent event;
+        private final HttpTimings timings;
+        private final HttpContext context;
+        private final String target;
+        private final String method;
+        private final String uri;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private int status;
+        private String failure;
+        private long requestBytes;
+        private long responseBytes = -1;
+
+        Exchange(
+                HttpExchangeEvent event,
+                HttpTimings timings,
+                HttpContext context,
+                String target,
+                String method,
+                String uri) {
+            this.event = event;
+            this.timings = timings;
+            this.context = context;
+            this.target = target;
+            this.method = method;
+            this.uri = uri;
+        }
+
+        void complete() {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            timings.markEnd();
+            event.setExchange(target, method, uri, status, failure, requestBytes, responseBytes);
+            event.setPhases(
+                    timings.getDnsNanos(),
+                    timings.getTcpConnectNanos(),
+                    timings.getTlsHandshakeNanos(),
+                    timings.getConnectNanos(),
+                    timings.getUploadNanos(),
+                    timings.getServerNanos(),
+                    timings.getDownloadNanos());
+            event.commit();
+            if (metrics != null) {
+                recordMetrics();
+            }
+            if (report != null) {
+                report.recordHttpExchange(
+                        method,
+                        uri,
+                        status,
+                        requestBytes,
+                        responseBytes,
+                        timings.getTotalNanos(),
+                        isCached(context));
+            }
+            if (slowRequestThresholdNanos > 0 && timings.getTotalNanos() > slowRequestThresholdNanos) {
+                log.warn("Slow HTTP request " + method + " " + target + uri + " (status " + status + ") took "
+                        + TimeUnit.NANOSECONDS.toMillis(timings.getTotalNanos()) + " ms: " + timings);
+            }
+        }
+
+        private void recordMetrics() {
+            metrics.httpRequests(goal, method, status).increment();
+            metrics.httpSentBytes(goal).add(requestBytes);
+            metrics.httpReceivedBytes(goal).add(responseBytes);
+            // only new connections have a DNS, TCP and TLS phase
+            if (timings.getDnsNanos() > 0) {
+                metrics.phaseDuration(goal, MetricsRegistry.PHASE_HTTP_DNS).record(timings.getDnsNanos());
+            }
+            if (timings.getTcpConnectNanos() > 0) {
+                metrics.phaseDuration(goal, MetricsRegistry.PHASE_HTTP_TCP_CONNECT)
+                        .record(timings.getTcpConnectNanos());
+            }
+            if (timings.getTlsHandshakeNanos() > 0) {
+                metrics.phaseDuration(goal, MetricsRegistry.PHASE_HTTP_TLS_HANDSHAKE)
+                        .record(timings.getTlsHandshakeNanos());
+            }
+            metrics.phaseDuration(goal, MetricsRegistry.PHASE_HTTP_CONNECT).record(timings.getConnectNanos());
+            if (requestBytes > 0) {
+                metrics.phaseDuration(goal, MetricsRegistry.PHASE_HTTP_UPLOAD).record(timings.getUploadNanos());
+            }
+            metrics.phaseDuration(goal, MetricsRegistry.PHASE_HTTP_SERVER).record(timings.getServerNanos());
+            metrics.phaseDuration(goal, MetricsRegistry.PHASE_HTTP_DOWNLOAD).record(timings.getDownloadNanos());
+        }
+    }
+
+    /**
+     * Counts the bytes of the request body and records the time when it has been written completely.
+     */
+    private static final class TimedEntity extends HttpEntityWrapper {
+
+        private long bytes;
+        private long written;
+
+        TimedEntity(HttpEntity entity) {
+            super(entity);
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream) throws IOException {
+            // each retry writes the body again
+            bytes = 0;
+            super.writeTo(new FilterOutputStream(outStream) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    bytes++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    bytes += len;
+                }
+            });
+            written = System.nanoTime();
+        }
+    }
+
+    /**
+     * Counts the bytes of the response body and completes the exchange once the body has been read until its end or
+     * has been closed.
+     */
+    private static final class DownloadTimedEntity extends HttpEntityWrapper {
+
+        private final Exchange exchange;
+        private long bytes;
+
+        DownloadTimedEntity(HttpEntity entity, Exchange exchange) {
+            super(entity);
+            this.exchange = exchange;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b < 0) {
+                        complete();
+                    } else {
+                        bytes++;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int read = super.read(b, off, len);
+                    if (read < 0) {
+                        complete();
+                    } else {
+                        bytes += read;
+                    }
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        complete();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream) throws IOException {
+            try {
+                super.writeTo(outStream);
+            } finally {
+                complete();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                complete();
+            }
+        }
+
+        private void complete() {
+            // the content length is unknown for chunked responses
+            exchange.responseBytes = Math.max(exchange.responseBytes, bytes);
+            exchange.complete();
+        }
+    }
+}
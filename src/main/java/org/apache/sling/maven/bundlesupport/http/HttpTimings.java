@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.http;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Timestamps (from {@link System#nanoTime()}) of the phases of a single HTTP exchange.
+ * As the classic HTTP client resolves and connects in the thread executing the request, the DNS resolver and socket
+ * factories of the connection manager created by {@link #createConnectionManager(int, int)} record their durations
+ * in the timings bound to the current thread (via {@link #start()}).
+ */
+public final class HttpTimings {
+
+    private static final ThreadLocal<HttpTimings> CURRENT = new ThreadLocal<>();
+
+    private final long start = System.nanoTime();
+    private long dnsNanos;
+    private long tcpConnectNanos;
+    private long tlsHandshakeNanos;
+    private long connected;
+    private long written;
+    private long responseHead;
+    private long end;
+
+    private HttpTimings() {
+        // created via start()
+    }
+
+    /**
+     * Starts new timings and binds them to the current thread.
+     * @return the timings
+     */
+    public static HttpTimings start() {
+        HttpTimings timings = new HttpTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /**
+     * Marks the connection as being established (or leased from the pool) for the timings bound to the current thread.
+     */
+    public static void markConnected() {
+        HttpTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.connected = System.nanoTime();
+        }
+    }
+
+    /**
+     * Marks the response head as being received and unbinds the timings from the current thread.
+     */
+    public void markResponseHead() {
+        responseHead = System.nanoTime();
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * @param writtenNanos the time when the request body was written completely
+     */
+    public void markWritten(long writtenNanos) {
+        written = writtenNanos;
+    }
+
+    /**
+     * Marks the response body as being received completely.
+     */
+    public void markEnd() {
+        end = System.nanoTime();
+    }
+
+    public long getDnsNanos() {
+        return dnsNanos;
+    }
+
+    public long getTcpConnectNanos() {
+        return tcpConnectNanos;
+    }
+
+    public long getTlsHandshakeNanos() {
+        return tlsHandshakeNanos;
+    }
+
+    /**
+     * @return the time until a connection has been leased from the pool or established (including DNS, TCP connect
+     *      and TLS handshake)
+     */
+    public long getConnectNanos() {
+        return getConnected() - start;
+    }
+
+    /**
+     * @return the time for sending the request body
+     */
+    public long getUploadNanos() {
+        return getWritten() - getConnected();
+    }
+
+    /**
+     * @return the time between sending the request and receiving the response head
+     */
+    public long getServerNanos() {
+        return Math.max(0, getResponseHead() - getWritten());
+    }
+
+    /**
+     * @return the time for receiving the response body
+     */
+    public long getDownloadNanos() {
+        return Math.max(0, getEnd() - getResponseHead());
+    }
+
+    /**
+     * @return the overall duration
+     */
+    public long getTotalNanos() {
+        return getEnd() - start;
+    }
+
+    private long getConnected() {
+        return connected > 0 ? connected : start;
+    }
+
+    private long getWritten() {
+        return written > 0 ? written : getConnected();
+    }
+
+    private long getResponseHead() {
+        return responseHead > 0 ? responseHead : getWritten();
+    }
+
+    private long getEnd() {
+        return end > 0 ? end : getResponseHead();
+    }
+
+    @Override
+    public String toString() {
+        return "DNS " + toMillis(dnsNanos) + " ms, TCP connect " + toMillis(tcpConnectNanos) + " ms, TLS handshake "
+                + toMillis(tlsHandshakeNanos) + " ms, connection " + toMillis(getConnectNanos()) + " ms, upload "
+                + toMillis(getUploadNanos()) + " ms, server " + toMillis(getServerNanos()) + " ms, download "
+                + toMillis(getDownloadNanos()) + " ms";
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Creates a connection manager which records the DNS resolution, TCP connect and TLS handshake durations.
+     * Apart from that it is configured like the default one of {@code PoolingHttpClientConnectionManagerBuilder}.
+     * @param maxConnPerRoute the maximum number of connections per route
+     * @param maxConnTotal the maximum number of connections
+     * @return the connection manager
+     */
+    public static PoolingHttpClientConnectionManager createConnectionManager(int maxConnPerRoute, int maxConnTotal) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register(URIScheme.HTTP.id, new TimingPlainConnectionSocketFactory())
+                        .register(URIScheme.HTTPS.id, new TimingSSLConnectionSocketFactory())
+                        .build(),
+                PoolConcurrencyPolicy.STRICT,
+                PoolReusePolicy.LIFO,
+                TimeValue.NEG_ONE_MILLISECOND,
+                null,
+                new TimingDnsResolver(),
+                null);
+        connectionManager.setDefaultMaxPerRoute(maxConnPerRoute);
+        connectionManager.setMaxTotal(maxConnTotal);
+        return connectionManager;
+    }
+
+    private static final class TimingDnsResolver implements DnsResolver {
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            long startNanos = System.nanoTime();
+            try {
+                return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+            } finally {
+                HttpTimings timings = CURRENT.get();
+                if (timings != null) {
+                    timings.dnsNanos += System.nanoTime() - startNanos;
+                }
+            }
+        }
+
+        @Override
+        public String resolveCanonicalHostname(String host) throws UnknownHostException {
+            return SystemDefaultDnsResolver.INSTANCE.resolveCanonicalHostname(host);
+        }
+    }
+
+    private static final class TimingPlainConnectionSocketFactory extends PlainConnectionSocketFactory {
+
+        @Override
+        public Socket connectSocket(
+                TimeValue connectTimeout,
+                Socket socket,
+                HttpHost host,
+                InetSocketAddress remoteAddress,
+                InetSocketAddress localAddress,
+                HttpContext context)
+                throws IOException {
+            long startNanos = System.nanoTime();
+            try {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                HttpTimings timings = CURRENT.get();
+                if (timings != null) {
+                    timings.tcpConnectNanos += System.nanoTime() - startNanos;
+                }
+            }
+        }
+    }
+
+    private static final class TimingSSLConnectionSocketFactory extends SSLConnectionSocketFactory {
+
+        TimingSSLConnectionSocketFactory() {
+            super(SSLContexts.createDefault());
+        }
+
+        @Override
+        public Socket connectSocket(
+                TimeValue connectTimeout,
+                Socket socket,
+                HttpHost host,
+                InetSocketAddress remoteAddress,
+                InetSocketAddress localAddress,
+                HttpContext context)
+                throws IOException {
+            long startNanos = System.nanoTime();
+            HttpTimings timings = CURRENT.get();
+            long tlsNanosBefore = timings != null ? timings.tlsHandshakeNanos : 0;
+            try {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                if (timings != null) {
+                    // the handshake is part of connectSocket but recorded separately by createLayeredSocket
+                    long tlsNanos = timings.tlsHandshakeNanos - tlsNanosBefore;
+                    timings.tcpConnectNanos += System.nanoTime() - startNanos - tlsNanos;
+                }
+            }
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context)
+                throws IOException {
+            long startNanos = System.nanoTime();
+            try {
+                return super.createLayeredSocket(socket, target, port, context);
+            } finally {
+                HttpTimings timings = CURRENT.get();
+                if (timings != null) {
+                    timings.tlsHandshakeNanos += System.nanoTime() - startNanos;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.http;
+
+import java.util.Iterator;
+
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HeaderElement;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpResponseInterceptor;
+import org.apache.hc.core5.http.message.MessageSupport;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+/**
+ * Response interceptor which makes the HTTP cache revalidate every cached response with a conditional request,
+ * no matter how long the Sling instance (or a proxy in front of it) declares the response to be fresh.
+ * The cached responses (e.g. {@code bundles.json}) reflect server state which is modified by the goals themselves
+ * and therefore must never be served without asking the server.
+ * <p>
+ * The freshness information is replaced before the response reaches the cache, as request interceptors are only
+ * called after the cache lookup. Request directives are not sufficient either: the cache answers {@code no-cache}
+ * requests with unconditional requests and ignores {@code max-age=0} for entries younger than one second.
+ */
+public final class RevalidatingResponseInterceptor implements HttpResponseInterceptor {
+
+    private static final String NO_STORE = "no-store";
+    private static final String CACHE_CONTROL_REVALIDATE = "private, max-age=0";
+
+    @Override
+    public void process(HttpResponse response, EntityDetails entity, HttpContext context) {
+        Iterator<HeaderElement> directives = MessageSupport.iterate(response, HttpHeaders.CACHE_CONTROL);
+        while (directives.hasNext()) {
+            if (NO_STORE.equalsIgnoreCase(directives.next().getName())) {
+                return;
+            }
+        }
+        response.removeHeaders(HttpHeaders.EXPIRES);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL_REVALIDATE);
+    }
+}
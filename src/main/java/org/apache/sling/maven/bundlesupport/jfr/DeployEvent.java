@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for installing or uninstalling a single bundle with one of the
+ * {@link org.apache.sling.maven.bundlesupport.deploy.BundleDeploymentMethod deployment methods}.
+ * The HTTP exchanges of the deployment are recorded as nested {@link HttpExchangeEvent}s in the same thread.
+ */
+@Name("org.apache.sling.maven.Deploy")
+@Label("Bundle Deployment")
+@Category({"Sling Maven Plugin", "Deploy"})
+@Description("Installation or uninstallation of a bundle")
+@StackTrace(false)
+public final class DeployEvent extends jdk.jfr.Event {
+
+    /** Operation for installing a bundle */
+    static final String OPERATION_DEPLOY = "deploy";
+
+    /** Operation for uninstalling a bundle */
+    static final String OPERATION_UNDEPLOY = "undeploy";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Deployment Method")
+    String deploymentMethod;
+
+    @Label("Target")
+    String target;
+
+    @Label("Bundle")
+    @Description("Bundle symbolic name or file name")
+    String bundle;
+
+    @Label("File Size")
+    @DataAmount
+    long fileSize;
+
+    @Label("Failure")
+    String failure;
+}
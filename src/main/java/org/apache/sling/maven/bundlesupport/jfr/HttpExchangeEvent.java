@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for a single HTTP exchange (including redirects and retries) with a Sling instance.
+ * The duration is split into the phases connect (with DNS resolution, TCP connect and TLS handshake for new
+ * connections), upload, server wait and download.
+ * @see org.apache.sling.maven.bundlesupport.http.HttpExchangeRecorder
+ */
+@Name("org.apache.sling.maven.HttpExchange")
+@Label("HTTP Exchange")
+@Category({"Sling Maven Plugin", "HTTP"})
+@Description("HTTP request sent by the Sling Maven Plugin until the response body has been received")
+@StackTrace(false)
+public final class HttpExchangeEvent extends jdk.jfr.Event {
+
+    @Label("Target")
+    @Description("Scheme, host and port of the target")
+    String target;
+
+    @Label("Method")
+    String method;
+
+    @Label("URI")
+    String uri;
+
+    @Label("Status")
+    @Description("HTTP status code of the response or 0 in case no response has been received")
+    int status;
+
+    @Label("Failure")
+    String failure;
+
+    @Label("Request Bytes")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Response Bytes")
+    @Description("Content length of the response or -1 if unknown")
+    @DataAmount
+    long responseBytes;
+
+    @Label("DNS")
+    @Description("Time for resolving the target host, 0 if no new connection has been established")
+    @Timespan
+    long dnsDuration;
+
+    @Label("TCP Connect")
+    @Description("Time for establishing the TCP connection, 0 if no new connection has been established")
+    @Timespan
+    long tcpConnectDuration;
+
+    @Label("TLS Handshake")
+    @Description("Time for the TLS handshake, 0 if no new TLS connection has been established")
+    @Timespan
+    long tlsHandshakeDuration;
+
+    @Label("Connect")
+    @Description("Time until a connection to the target has been leased or established (including DNS, TCP connect and"
+            + " TLS handshake)")
+    @Timespan
+    long connectDuration;
+
+    @Label("Upload")
+    @Description("Time for sending the request body")
+    @Timespan
+    long uploadDuration;
+
+    @Label("Server Wait")
+    @Description("Time between sending the request and receiving the response head")
+    @Timespan
+    long serverWaitDuration;
+
+    @Label("Download")
+    @Description("Time between receiving the response head and consuming the response body")
+    @Timespan
+    long downloadDuration;
+
+    /**
+     * @param target scheme, host and port of the target
+     * @param method the request method
+     * @param uri the request URI
+     * @param status the status code of the response or {@code 0} in case no response has been received
+     * @param failure the failure or {@code null}
+     * @param requestBytes the number of bytes of the request body
+     * @param responseBytes the number of bytes of the response body or {@code -1} if unknown
+     */
+    public void setExchange(
+            String target,
+            String method,
+            String uri,
+            int status,
+            String failure,
+            long requestBytes,
+            long responseBytes) {
+        this.target = target;
+        this.method = method;
+        this.uri = uri;
+        this.status = status;
+        this.failure = failure;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+    }
+
+    /**
+     * Sets the durations of the phases (all in nanoseconds).
+     */
+    public void setPhases(
+            long dnsDuration,
+            long tcpConnectDuration,
+            long tlsHandshakeDuration,
+            long connectDuration,
+            long uploadDuration,
+            long serverWaitDuration,
+            long downloadDuration) {
+        this.dnsDuration = dnsDuration;
+        this.tcpConnectDuration = tcpConnectDuration;
+        this.tlsHandshakeDuration = tlsHandshakeDuration;
+        this.connectDuration = connectDuration;
+        this.uploadDuration = uploadDuration;
+        this.serverWaitDuration = serverWaitDuration;
+        this.downloadDuration = downloadDuration;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a local phase of a goal execution which precedes the HTTP exchanges.
+ */
+@Name("org.apache.sling.maven.Phase")
+@Label("Phase")
+@Category({"Sling Maven Plugin", "Phase"})
+@Description("Local work of the Sling Maven Plugin like resolving artifacts or reading manifests")
+@StackTrace(false)
+public final class PhaseEvent extends jdk.jfr.Event {
+
+    /** Resolving artifacts from the Maven repositories */
+    public static final String PHASE_RESOLVE = "resolve";
+
+    /** Reading the manifest of a bundle */
+    public static final String PHASE_MANIFEST_READ = "manifest read";
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Subject")
+    @Description("File or artifacts being processed")
+    String subject;
+
+    /**
+     * @param phase the phase
+     * @param subject the file or artifacts being processed
+     * @return the started event or {@code null} if the event is not enabled (i.e. no recording is running)
+     */
+    public static PhaseEvent begin(String phase, Object subject) {
+        PhaseEvent event = new PhaseEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.phase = phase;
+        event.subject = String.valueOf(subject);
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the given event if it exceeds the configured threshold.
+     * @param event the event returned by {@link #begin(String, Object)}, may be {@code null}
+     */
+    public static void end(PhaseEvent event) {
+        if (event != null) {
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+
+import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
+import org.apache.sling.maven.bundlesupport.deploy.DeployMethod;
+
+/**
+ * Records a {@link DeployEvent} for each installation and uninstallation of the wrapped deploy method.
+ */
+public final class RecordingDeployMethod implements DeployMethod {
+
+    private final String name;
+    private final DeployMethod delegate;
+
+    /**
+     * @param name the name of the deployment method
+     * @param delegate the deploy method
+     */
+    public RecordingDeployMethod(String name, DeployMethod delegate) {
+        this.name = name;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void deploy(URI targetURL, File file, String bundleSymbolicName, DeployContext context) throws IOException {
+        DeployEvent event = new DeployEvent();
+        if (!event.isEnabled()) {
+            delegate.deploy(targetURL, file, bundleSymbolicName, context);
+            return;
+        }
+        event.begin();
+        event.operation = DeployEvent.OPERATION_DEPLOY;
+        event.fileSize = file.length();
+        record(
+                event,
+                targetURL,
+                bundleSymbolicName,
+                () -> delegate.deploy(targetURL, file, bundleSymbolicName, context));
+    }
+
+    @Override
+    public void undeploy(URI targetURL, String bundleName, DeployContext context) throws IOException {
+        DeployEvent event = new DeployEvent();
+        if (!event.isEnabled()) {
+            delegate.undeploy(targetURL, bundleName, context);
+            return;
+        }
+        event.begin();
+        event.operation = DeployEvent.OPERATION_UNDEPLOY;
+        record(event, targetURL, bundleName, () -> delegate.undeploy(targetURL, bundleName, context));
+    }
+
+    private void record(DeployEvent event, URI targetURL, String bundle, Operation operation) throws IOException {
+        event.deploymentMethod = name;
+        event.target = String.valueOf(targetURL);
+        event.bundle = bundle;
+        try {
+            operation.execute();
+        } catch (IOException | RuntimeException e) {
+            event.failure = e.toString();
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void execute() throws IOException;
+    }
+}
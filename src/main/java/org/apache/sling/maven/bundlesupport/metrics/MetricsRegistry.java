@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+
+/**
+ * Registry of the counters, gauges and histograms recorded during a Maven session.
+ * Metrics are identified by a name and optional labels (given as alternating names and values).
+ * Durations are recorded in nanoseconds and exported in seconds (the name should end with {@code _seconds}).
+ * @see MetricsWriter
+ */
+public final class MetricsRegistry {
+
+    /** Phase for resolving artifacts from the Maven repositories */
+    public static final String PHASE_RESOLVE = "resolve";
+
+    /** Phase for reading the manifest of bundles */
+    public static final String PHASE_MANIFEST = "manifest";
+
+    /** Phase for calculating and applying the fsmount configuration diff */
+    public static final String PHASE_FSMOUNT_CONFIG_DIFF = "fsmount config diff";
+
+    /** Phase for resolving the host name of a new connection */
+    public static final String PHASE_HTTP_DNS = "http dns";
+
+    /** Phase for establishing the TCP connection of a new connection */
+    public static final String PHASE_HTTP_TCP_CONNECT = "http tcp connect";
+
+    /** Phase for the TLS handshake of a new connection */
+    public static final String PHASE_HTTP_TLS_HANDSHAKE = "http tls handshake";
+
+    /** Phase for establishing a connection (or leasing one from the pool) */
+    public static final String PHASE_HTTP_CONNECT = "http connect";
+
+    /** Phase for sending the request body */
+    public static final String PHASE_HTTP_UPLOAD = "http upload";
+
+    /** Phase between sending the request and receiving the response head */
+    public static final String PHASE_HTTP_SERVER = "http server";
+
+    /** Phase between receiving the response head and consuming the response body */
+    public static final String PHASE_HTTP_DOWNLOAD = "http download";
+
+    /**
+     * Type of a metric.
+     */
+    public enum Type {
+        COUNTER,
+        GAUGE,
+        HISTOGRAM
+    }
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param name the metric name
+     * @param help the description of the metric
+     * @param labels the alternating label names and values
+     * @return the counter, created on first access
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) getFamily(name, help, Type.COUNTER).get(labels, key -> new Counter());
+    }
+
+    /**
+     * Registers a gauge whose value is determined when the metrics are exported.
+     * A gauge registered again with the same name and labels is not replaced.
+     * @param name the metric name
+     * @param help the description of the metric
+     * @param value supplies the current value
+     * @param labels the alternating label names and values
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        getFamily(name, help, Type.GAUGE).get(labels, key -> value);
+    }
+
+    /**
+     * @param name the metric name
+     * @param help the description of the metric
+     * @param labels the alternating label names and values
+     * @return the histogram, created on first access
+     */
+    public Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) getFamily(name, help, Type.HISTOGRAM).get(labels, key -> new Histogram());
+    }
+
+    /**
+     * @param goal the goal
+     * @return the histogram of the durations of the goal's executions in nanoseconds
+     */
+    public Histogram goalDuration(String goal) {
+        return histogram("sling_goal_duration_seconds", "Duration of goal executions", "goal", goal);
+    }
+
+    /**
+     * @param goal the goal
+     * @param phase the phase (e.g. {@link #PHASE_RESOLVE})
+     * @return the histogram of the durations of the phase in nanoseconds
+     */
+    public Histogram phaseDuration(String goal, String phase) {
+        return histogram(
+                "sling_phase_duration_seconds",
+                "Duration of the phases of goal executions",
+                "goal",
+                goal,
+                "phase",
+                phase);
+    }
+
+    /**
+     * @param goal the goal
+     * @param method the HTTP method
+     * @param status the status code of the response or 0 if no response has been received
+     * @return the counter of HTTP requests
+     */
+    public Counter httpRequests(String goal, String method, int status) {
+        return counter(
+                "sling_http_requests_total",
+                "Number of HTTP requests",
+                "goal",
+                goal,
+                "method",
+                method,
+                "status",
+                Integer.toString(status));
+    }
+
+    /**
+     * @param goal the goal
+     * @return the counter of bytes sent in HTTP request bodies
+     */
+    public Counter httpSentBytes(String goal) {
+        return counter("sling_http_sent_bytes_total", "Bytes sent in HTTP request bodies", "goal", goal);
+    }
+
+    /**
+     * @param goal the goal
+     * @return the counter of bytes received in HTTP response bodies (as announced by the content length)
+     */
+    public Counter httpReceivedBytes(String goal) {
+        return counter("sling_http_received_bytes_total", "Bytes received in HTTP response bodies", "goal", goal);
+    }
+
+    /**
+     * @return the metric families ordered by name
+     */
+    public Collection<Family> getFamilies() {
+        return Collections.unmodifiableCollection(families.values());
+    }
+
+    private Family getFamily(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (family.getType() != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as " + family.getType());
+        }
+        return family;
+    }
+
+    /**
+     * All metrics of the same name and type with different labels.
+     */
+    public static final class Family {
+
+        private final String name;
+        private final String help;
+        private final Type type;
+        private final ConcurrentMap<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+        private Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getHelp() {
+            return help;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * @return the metrics ordered by their labels
+         */
+        public Collection<Metric> getMetrics() {
+            return Collections.unmodifiableCollection(metrics.values());
+        }
+
+        private Object get(String[] labels, Function<String, Object> factory) {
+            if (labels.length % 2 != 0) {
+                throw new IllegalArgumentException("Labels must be given as name/value pairs");
+            }
+            Map<String, String> labelMap = new LinkedHashMap<>();
+            for (int i = 0; i < labels.length; i += 2) {
+                labelMap.put(labels[i], labels[i + 1]);
+            }
+            return metrics.computeIfAbsent(labelMap.toString(), key -> new Metric(labelMap, factory.apply(key))).value;
+        }
+    }
+
+    /**
+     * A metric with its labels.
+     */
+    public static final class Metric {
+
+        private final Map<String, String> labels;
+        private final Object value;
+
+        private Metric(Map<String, String> labels, Object value) {
+            this.labels = Collections.unmodifiableMap(labels);
+            this.value = value;
+        }
+
+        public Map<String, String> getLabels() {
+            return labels;
+        }
+
+        /**
+         * @return the {@link Counter}, the {@link DoubleSupplier} of a gauge or the {@link Histogram}
+         */
+        public Object getValue() {
+            return value;
+        }
+    }
+}
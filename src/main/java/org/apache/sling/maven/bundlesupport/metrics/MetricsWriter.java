@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonWriter;
+import jakarta.json.stream.JsonGenerator;
+
+/**
+ * Exports the metrics of a {@link MetricsRegistry} as JSON and in the Prometheus text exposition format
+ * (e.g. for the textfile collector of the Prometheus node exporter). Histograms are exported as summaries with the
+ * quantiles {@link #QUANTILES}.
+ */
+public final class MetricsWriter {
+
+    /** Name of the JSON file */
+    public static final String JSON_FILE_NAME = "sling-plugin-metrics.json";
+
+    /** Name of the file in Prometheus text exposition format */
+    public static final String PROMETHEUS_FILE_NAME = "sling-plugin-metrics.prom";
+
+    static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private MetricsWriter() {
+        // static methods only
+    }
+
+    /**
+     * Writes the metrics to {@link #JSON_FILE_NAME} and {@link #PROMETHEUS_FILE_NAME} in the given directory.
+     * Existing files are replaced atomically.
+     * @param registry the metrics
+     * @param directory the target directory (created if necessary)
+     * @throws IOException in case the files could not be written
+     */
+    public static void write(MetricsRegistry registry, File directory) throws IOException {
+        Path dir = directory.toPath();
+        Files.createDirectories(dir);
+        Path jsonFile = dir.resolve(JSON_FILE_NAME);
+        Path jsonTmpFile = Files.createTempFile(dir, JSON_FILE_NAME, ".tmp");
+        try (Writer writer = Files.newBufferedWriter(jsonTmpFile, StandardCharsets.UTF_8)) {
+            writeJson(registry, writer);
+        }
+        Files.move(jsonTmpFile, jsonFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Path prometheusFile = dir.resolve(PROMETHEUS_FILE_NAME);
+        Path prometheusTmpFile = Files.createTempFile(dir, PROMETHEUS_FILE_NAME, ".tmp");
+        try (Writer writer = Files.newBufferedWriter(prometheusTmpFile, StandardCharsets.UTF_8)) {
+            writePrometheus(registry, writer);
+        }
+        Files.move(
+                prometheusTmpFile, prometheusFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param registry the metrics
+     * @param writer the writer (not closed by this method)
+     */
+    public static void writeJson(MetricsRegistry registry, Writer writer) {
+        JsonArrayBuilder metrics = Json.createArrayBuilder();
+        for (MetricsRegistry.Family family : registry.getFamilies()) {
+            JsonArrayBuilder values = Json.createArrayBuilder();
+            for (MetricsRegistry.Metric metric : family.getMetrics()) {
+                JsonObjectBuilder labels = Json.createObjectBuilder();
+                metric.getLabels().forEach(labels::add);
+                JsonObjectBuilder value = Json.createObjectBuilder().add("labels", labels);
+                switch (family.getType()) {
+                    case COUNTER:
+                        value.add("value", ((Counter) metric.getValue()).get());
+                        break;
+                    case GAUGE:
+                        value.add("value", ((DoubleSupplier) metric.getValue()).getAsDouble());
+                        break;
+                    default:
+                        Histogram histogram = (Histogram) metric.getValue();
+                        value.add("count", histogram.getCount())
+                                .add("sum", toSeconds(histogram.getSum()))
+                                .add("min", toSeconds(histogram.getMin()))
+                                .add("max", toSeconds(histogram.getMax()));
+                        for (double quantile : QUANTILES) {
+                            value.add(
+                                    "p" + Math.round(quantile * 100),
+                                    toSeconds(histogram.getValueAtQuantile(quantile)));
+                        }
+                }
+                values.add(value);
+            }
+            metrics.add(Json.createObjectBuilder()
+                    .add("name", family.getName())
+                    .add("type", family.getType().name().toLowerCase(Locale.ROOT))
+                    .add("help", family.getHelp())
+                    .add("values", values));
+        }
+        JsonWriter jsonWriter = Json.createWriterFactory(Collections.singletonMap(JsonGenerator.PRETTY_PRINTING, true))
+                .createWriter(writer);
+        jsonWriter.writeObject(Json.createObjectBuilder()
+                .add("timestamp", System.currentTimeMillis())
+                .add("metrics", metrics)
+                .build());
+    }
+
+    /**
+     * @param registry the metrics
+     * @param writer the writer (not closed by this method)
+     * @throws IOException in case writing failed
+     */
+    public static void writePrometheus(MetricsRegistry registry, Writer writer) throws IOException {
+        for (MetricsRegistry.Family family : registry.getFamilies()) {
+            String name = family.getName();
+            writer.write("# HELP " + name + " " + escapeHelp(family.getHelp()) + "\n");
+            writer.write("# TYPE " + name + " " + getPrometheusType(family.getType()) + "\n");
+            for (MetricsRegistry.Metric metric : family.getMetrics()) {
+                Map<String, String> labels = metric.getLabels();
+                switch (family.getType()) {
+                    case COUNTER:
+                        writeSample(writer, name, labels, null, ((Counter) metric.getValue()).get());
+                        break;
+                    case GAUGE:
+                        writeSample(writer, name, labels, null, ((DoubleSupplier) metric.getValue()).getAsDouble());
+                        break;
+                    default:
+                        Histogram histogram = (Histogram) metric.getValue();
+                        for (double quantile : QUANTILES) {
+                            writeSample(
+                                    writer,
+                                    name,
+                                    labels,
+                                    "quantile=\"" + quantile + "\"",
+                                    toSeconds(histogram.getValueAtQuantile(quantile)));
+                        }
+                        writeSample(writer, name + "_sum", labels, null, toSeconds(histogram.getSum()));
+                        writeSample(writer, name + "_count", labels, null, histogram.getCount());
+                }
+            }
+        }
+    }
+
+    private static String getPrometheusType(MetricsRegistry.Type type) {
+        switch (type) {
+            case COUNTER:
+                return "counter";
+            case GAUGE:
+                return "gauge";
+            default:
+                return "summary";
+        }
+    }
+
+    private static void writeSample(
+            Writer writer, String name, Map<String, String> labels, String additionalLabel, double value)
+            throws IOException {
+        StringBuilder line = new StringBuilder(name);
+        if (!labels.isEmpty() || additionalLabel != null) {
+            line.append('{');
+            boolean first = true;
+            for (Map.Entry<String, String> label : labels.entrySet()) {
+                if (!first) {
+                    line.append(',');
+                }
+                line.append(label.getKey())
+                        .append("=\"")
+                        .append(escapeLabelValue(label.getValue()))
+                        .append('"');
+                first = false;
+            }
+            if (additionalLabel != null) {
+                if (!first) {
+                    line.append(',');
+                }
+                line.append(additionalLabel);
+            }
+            line.append('}');
+        }
+        line.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            line.append((long) value);
+        } else {
+            line.append(value);
+        }
+        writer.write(line.append('\n').toString());
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / NANOS_PER_SECOND;
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String escapeLabelValue(String value) {
+        return escapeHelp(value).replace("\"", "\\\"");
+    }
+}
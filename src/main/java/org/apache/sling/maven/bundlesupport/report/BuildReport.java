@@ -0,0 +1,433 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonWriter;
+import jakarta.json.stream.JsonGenerator;
+import org.apache.sling.maven.bundlesupport.deploy.UploadStatistics;
+
+/**
+ * Aggregated report of all executions of this plugin's goals in a reactor build, written as JSON and HTML at the end
+ * of the build. It contains the wall time per module, the critical path of the reactor, the slowest HTTP calls,
+ * the transferred bytes and the skipped or cached operations.
+ */
+public final class BuildReport {
+
+    /** Name of the JSON file */
+    public static final String JSON_FILE_NAME = "sling-plugin-report.json";
+
+    /** Name of the HTML file */
+    public static final String HTML_FILE_NAME = "sling-plugin-report.html";
+
+    static final int MAX_SLOWEST_HTTP_CALLS = 20;
+
+    private static final Comparator<HttpCall> BY_DURATION = Comparator.comparingLong(HttpCall::getDurationNanos);
+
+    private final long startMillis;
+    private final Queue<ExecutionReport> executions = new ConcurrentLinkedQueue<>();
+    // min-heap to evict the fastest call once the limit is reached
+    private final PriorityQueue<HttpCall> slowestHttpCalls = new PriorityQueue<>(BY_DURATION);
+    private volatile List<Module> modules = Collections.emptyList();
+    private volatile List<String> criticalPath = Collections.emptyList();
+
+    /**
+     * @param startMillis the start of the build in milliseconds since the epoch
+     */
+    public BuildReport(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * @param module the module (project id) of the execution
+     * @param goal the goal
+     * @param executionId the execution id
+     * @return the report of the new execution
+     */
+    public ExecutionReport startExecution(String module, String goal, String executionId) {
+        ExecutionReport execution = new ExecutionReport(this, module, goal, executionId, System.currentTimeMillis());
+        executions.add(execution);
+        return execution;
+    }
+
+    /**
+     * @param execution the execution
+     * @param result one of the {@code RESULT_} constants of {@link ExecutionReport}
+     */
+    public void endExecution(ExecutionReport execution, String result) {
+        execution.end(result, System.currentTimeMillis());
+    }
+
+    /**
+     * Sets the modules of the reactor, should be called at the end of the build.
+     * @param reactorModules the modules in build order
+     * @param reactorCriticalPath the modules on the critical path (see {@link CriticalPath})
+     */
+    public void setModules(List<Module> reactorModules, List<String> reactorCriticalPath) {
+        this.modules = new ArrayList<>(reactorModules);
+        this.criticalPath = new ArrayList<>(reactorCriticalPath);
+    }
+
+    void recordHttpCall(HttpCall call) {
+        synchronized (slowestHttpCalls) {
+            if (slowestHttpCalls.size() < MAX_SLOWEST_HTTP_CALLS) {
+                slowestHttpCalls.add(call);
+            } else if (call.getDurationNanos() > slowestHttpCalls.peek().getDurationNanos()) {
+                slowestHttpCalls.poll();
+                slowestHttpCalls.add(call);
+            }
+        }
+    }
+
+    /**
+     * @return the executions in the order they have been started
+     */
+    public List<ExecutionReport> getExecutions() {
+        return new ArrayList<>(executions);
+    }
+
+    /**
+     * @return the slowest HTTP calls, the slowest first
+     */
+    public List<HttpCall> getSlowestHttpCalls() {
+        List<HttpCall> calls;
+        synchronized (slowestHttpCalls) {
+            calls = new ArrayList<>(slowestHttpCalls);
+        }
+        calls.sort(BY_DURATION.reversed());
+        return calls;
+    }
+
+    /**
+     * @param module the module
+     * @return the accumulated duration of all executions in the given module in milliseconds
+     */
+    long getPluginTimeMillis(String module) {
+        long total = 0;
+        for (ExecutionReport execution : executions) {
+            if (execution.getModule().equals(module)) {
+                total += execution.getDurationMillis();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Writes the report to {@link #JSON_FILE_NAME} and {@link #HTML_FILE_NAME} in the given directory.
+     * Existing files are replaced atomically.
+     * @param directory the target directory (created if necessary)
+     * @throws IOException in case the files could not be written
+     */
+    public void write(File directory) throws IOException {
+        Path dir = directory.toPath();
+        Files.createDirectories(dir);
+        Path jsonTmpFile = Files.createTempFile(dir, JSON_FILE_NAME, ".tmp");
+        try (Writer writer = Files.newBufferedWriter(jsonTmpFile, StandardCharsets.UTF_8)) {
+            writeJson(writer);
+        }
+        Files.move(
+                jsonTmpFile,
+                dir.resolve(JSON_FILE_NAME),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        Path htmlTmpFile = Files.createTempFile(dir, HTML_FILE_NAME, ".tmp");
+        try (Writer writer = Files.newBufferedWriter(htmlTmpFile, StandardCharsets.UTF_8)) {
+            writeHtml(writer);
+        }
+        Files.move(
+                htmlTmpFile,
+                dir.resolve(HTML_FILE_NAME),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param writer the writer (not closed by this method)
+     */
+    void writeJson(Writer writer) {
+        Set<String> criticalModules = new HashSet<>(criticalPath);
+        JsonArrayBuilder moduleArray = Json.createArrayBuilder();
+        for (Module module : modules) {
+            moduleArray.add(Json.createObjectBuilder()
+                    .add("name", module.getName())
+                    .add("wallTimeMillis", module.getWallTimeMillis())
+                    .add("pluginTimeMillis", getPluginTimeMillis(module.getName()))
+                    .add("criticalPath", criticalModules.contains(module.getName())));
+        }
+        JsonArrayBuilder criticalPathArray = Json.createArrayBuilder();
+        criticalPath.forEach(criticalPathArray::add);
+        long bytesSent = 0;
+        long bytesReceived = 0;
+        JsonArrayBuilder executionArray = Json.createArrayBuilder();
+        for (ExecutionReport execution : executions) {
+            JsonArrayBuilder skipped = Json.createArrayBuilder();
+            execution.getSkippedOperations().forEach(skipped::add);
+            executionArray.add(Json.createObjectBuilder()
+                    .add("module", execution.getModule())
+                    .add("goal", execution.getGoal())
+                    .add("executionId", execution.getExecutionId())
+                    .add("startOffsetMillis", execution.getStartMillis() - startMillis)
+                    .add("durationMillis", execution.getDurationMillis())
+                    .add("result", execution.getResult())
+                    .add("requests", execution.getRequests())
+                    .add("cachedResponses", execution.getCachedResponses())
+                    .add("bytesSent", execution.getBytesSent())
+                    .add("bytesReceived", execution.getBytesReceived())
+                    .add("skippedOperations", skipped));
+            bytesSent += execution.getBytesSent();
+            bytesReceived += execution.getBytesReceived();
+        }
+        JsonArrayBuilder httpCallArray = Json.createArrayBuilder();
+        for (HttpCall call : getSlowestHttpCalls()) {
+            httpCallArray.add(Json.createObjectBuilder()
+                    .add("module", call.getExecution().getModule())
+                    .add("goal", call.getExecution().getGoal())
+                    .add("method", call.getMethod())
+                    .add("uri", call.getUri())
+                    .add("status", call.getStatus())
+                    .add("durationMillis", call.getDurationMillis())
+                    .add("requestBytes", call.getRequestBytes()));
+        }
+        JsonObjectBuilder report = Json.createObjectBuilder()
+                .add("startMillis", startMillis)
+                .add("bytesSent", bytesSent)
+                .add("bytesReceived", bytesReceived)
+                .add("modules", moduleArray)
+                .add("criticalPath", criticalPathArray)
+                .add("executions", executionArray)
+                .add("slowestHttpCalls", httpCallArray);
+        JsonWriter jsonWriter = Json.createWriterFactory(Collections.singletonMap(JsonGenerator.PRETTY_PRINTING, true))
+                .createWriter(writer);
+        jsonWriter.writeObject(report.build());
+    }
+
+    /**
+     * @param writer the writer (not closed by this method)
+     * @throws IOException in case writing failed
+     */
+    void writeHtml(Writer writer) throws IOException {
+        List<ExecutionReport> executionList = getExecutions();
+        long bytesSent = 0;
+        long bytesReceived = 0;
+        long cachedResponses = 0;
+        for (ExecutionReport execution : executionList) {
+            bytesSent += execution.getBytesSent();
+            bytesReceived += execution.getBytesReceived();
+            cachedResponses += execution.getCachedResponses();
+        }
+        Set<String> criticalModules = new HashSet<>(criticalPath);
+
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n")
+                .append("<title>Sling Maven Plugin Build Report</title>\n")
+                .append("<style>body{font-family:sans-serif;font-size:14px}table{border-collapse:collapse}")
+                .append("th,td{border:1px solid #ccc;padding:2px 8px;text-align:left}")
+                .append("td.num{text-align:right}tr.critical{background:#fee}</style>\n")
+                .append("</head>\n<body>\n<h1>Sling Maven Plugin Build Report</h1>\n");
+
+        html.append("<p>")
+                .append(executionList.size())
+                .append(" goal executions, sent ")
+                .append(escape(UploadStatistics.formatMegabytes(bytesSent)))
+                .append(", received ")
+                .append(escape(UploadStatistics.formatMegabytes(bytesReceived)))
+                .append(", ")
+                .append(cachedResponses)
+                .append(" cached responses</p>\n");
+
+        html.append("<h2>Modules</h2>\n<table>\n")
+                .append("<tr><th>Module</th><th>Wall time (ms)</th><th>Plugin time (ms)</th></tr>\n");
+        for (Module module : modules) {
+            html.append(criticalModules.contains(module.getName()) ? "<tr class=\"critical\">" : "<tr>");
+            cell(html, module.getName());
+            numberCell(html, module.getWallTimeMillis());
+            numberCell(html, getPluginTimeMillis(module.getName()));
+            html.append("</tr>\n");
+        }
+        html.append("</table>\n");
+
+        html.append("<h2>Critical path</h2>\n<ol>\n");
+        for (String module : criticalPath) {
+            html.append("<li>").append(escape(module)).append("</li>\n");
+        }
+        html.append("</ol>\n");
+
+        html.append("<h2>Goal executions</h2>\n<table>\n")
+                .append("<tr><th>Module</th><th>Goal</th><th>Execution</th><th>Start (ms)</th><th>Duration (ms)</th>")
+                .append("<th>Result</th><th>Requests</th><th>Cached</th><th>Sent</th><th>Received</th></tr>\n");
+        for (ExecutionReport execution : executionList) {
+            html.append("<tr>");
+            cell(html, execution.getModule());
+            cell(html, execution.getGoal());
+            cell(html, execution.getExecutionId());
+            numberCell(html, execution.getStartMillis() - startMillis);
+            numberCell(html, execution.getDurationMillis());
+            cell(html, execution.getResult());
+            numberCell(html, execution.getRequests());
+            numberCell(html, execution.getCachedResponses());
+            cell(html, UploadStatistics.formatMegabytes(execution.getBytesSent()));
+            cell(html, UploadStatistics.formatMegabytes(execution.getBytesReceived()));
+            html.append("</tr>\n");
+        }
+        html.append("</table>\n");
+
+        html.append("<h2>Slowest HTTP calls</h2>\n<table>\n")
+                .append("<tr><th>Module</th><th>Goal</th><th>Request</th><th>Status</th><th>Duration (ms)</th>")
+                .append("<th>Sent</th></tr>\n");
+        for (HttpCall call : getSlowestHttpCalls()) {
+            html.append("<tr>");
+            cell(html, call.getExecution().getModule());
+            cell(html, call.getExecution().getGoal());
+            cell(html, call.getMethod() + " " + call.getUri());
+            numberCell(html, call.getStatus());
+            numberCell(html, call.getDurationMillis());
+            cell(html, UploadStatistics.formatMegabytes(call.getRequestBytes()));
+            html.append("</tr>\n");
+        }
+        html.append("</table>\n");
+
+        html.append("<h2>Skipped operations</h2>\n<ul>\n");
+        for (ExecutionReport execution : executionList) {
+            for (String skipped : execution.getSkippedOperations()) {
+                html.append("<li>")
+                        .append(escape(execution.getModule() + " (" + execution.getGoal() + "): " + skipped))
+                        .append("</li>\n");
+            }
+        }
+        html.append("</ul>\n</body>\n</html>\n");
+        writer.write(html.toString());
+    }
+
+    private static void cell(StringBuilder html, String value) {
+        html.append("<td>").append(escape(value)).append("</td>");
+    }
+
+    private static void numberCell(StringBuilder html, long value) {
+        html.append("<td class=\"num\">").append(value).append("</td>");
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;");
+    }
+
+    /**
+     * A module of the reactor.
+     */
+    public static final class Module {
+
+        private final String name;
+        private final long wallTimeMillis;
+
+        /**
+         * @param name the module name (project id)
+         * @param wallTimeMillis the build time of the module in milliseconds (including other plugins)
+         */
+        public Module(String name, long wallTimeMillis) {
+            this.name = name;
+            this.wallTimeMillis = wallTimeMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getWallTimeMillis() {
+            return wallTimeMillis;
+        }
+    }
+
+    /**
+     * A HTTP call of a goal execution.
+     */
+    public static final class HttpCall {
+
+        private final ExecutionReport execution;
+        private final String method;
+        private final String uri;
+        private final int status;
+        private final long durationNanos;
+        private final long requestBytes;
+
+        HttpCall(
+                ExecutionReport execution,
+                String method,
+                String uri,
+                int status,
+                long durationNanos,
+                long requestBytes) {
+            this.execution = execution;
+            this.method = method;
+            this.uri = uri;
+            this.status = status;
+            this.durationNanos = durationNanos;
+            this.requestBytes = requestBytes;
+        }
+
+        public ExecutionReport getExecution() {
+            return execution;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public long getDurationMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        }
+
+        public long getRequestBytes() {
+            return requestBytes;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.report;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the critical path of a reactor build, i.e. the chain of modules depending on each other with the highest
+ * accumulated build time. With unlimited parallelism the build cannot finish faster than this chain.
+ */
+public final class CriticalPath {
+
+    private CriticalPath() {
+        // static methods only
+    }
+
+    /**
+     * @param modules the modules in build order (i.e. each module after its upstream modules)
+     * @param durations the build time per module (missing modules are counted as 0)
+     * @param upstreamModules the modules each module directly depends on (modules not contained in {@code modules}
+     *      are ignored)
+     * @return the modules on the critical path starting with the first module being built
+     */
+    public static List<String> compute(
+            List<String> modules,
+            Map<String, Long> durations,
+            Map<String, ? extends Collection<String>> upstreamModules) {
+        Map<String, Long> finishTimes = new HashMap<>();
+        Map<String, String> predecessors = new HashMap<>();
+        String last = null;
+        for (String module : modules) {
+            long start = 0;
+            Collection<String> upstreams = upstreamModules.get(module);
+            for (String upstream : upstreams != null ? upstreams : Collections.<String>emptyList()) {
+                Long upstreamFinish = finishTimes.get(upstream);
+                if (upstreamFinish != null && upstreamFinish > start) {
+                    start = upstreamFinish;
+                    predecessors.put(module, upstream);
+                }
+            }
+            long finish = start + durations.getOrDefault(module, 0L);
+            finishTimes.put(module, finish);
+            if (last == null || finish > finishTimes.get(last)) {
+                last = module;
+            }
+        }
+        List<String> path = new ArrayList<>();
+        for (String module = last; module != null; module = predecessors.get(module)) {
+            path.add(module);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.report;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records a single execution of a goal of this plugin for the {@link BuildReport}.
+ */
+public final class ExecutionReport {
+
+    /** Result of an execution which has not finished yet */
+    public static final String RESULT_RUNNING = "running";
+
+    /** Result of a successful execution */
+    public static final String RESULT_SUCCESS = "success";
+
+    /** Result of a failed execution */
+    public static final String RESULT_FAILED = "failed";
+
+    /** Result of an execution skipped by Maven */
+    public static final String RESULT_SKIPPED = "skipped";
+
+    private final BuildReport buildReport;
+    private final String module;
+    private final String goal;
+    private final String executionId;
+    private final long startMillis;
+    private volatile long endMillis = -1;
+    private volatile String result = RESULT_RUNNING;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cachedResponses = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final Queue<String> skippedOperations = new ConcurrentLinkedQueue<>();
+
+    ExecutionReport(BuildReport buildReport, String module, String goal, String executionId, long startMillis) {
+        this.buildReport = buildReport;
+        this.module = module;
+        this.goal = goal;
+        this.executionId = executionId;
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * Records a completed HTTP exchange.
+     * @param method the HTTP method
+     * @param uri the request URI
+     * @param status the status code of the response or 0 if no response has been received
+     * @param requestBytes the bytes sent in the request body
+     * @param responseBytes the content length of the response or -1 if unknown
+     * @param durationNanos the duration until the response head has been received
+     * @param cached {@code true} if the response has been served or validated by the HTTP cache
+     */
+    public void recordHttpExchange(
+            String method,
+            String uri,
+            int status,
+            long requestBytes,
+            long responseBytes,
+            long durationNanos,
+            boolean cached) {
+        requests.increment();
+        if (cached) {
+            cachedResponses.increment();
+        }
+        bytesSent.add(Math.max(0, requestBytes));
+        bytesReceived.add(Math.max(0, responseBytes));
+        buildReport.recordHttpCall(new BuildReport.HttpCall(this, method, uri, status, durationNanos, requestBytes));
+    }
+
+    /**
+     * Records an operation which has been skipped (e.g. because a bundle is already installed).
+     * @param operation the operation
+     * @param reason the reason for skipping
+     */
+    public void recordSkipped(String operation, String reason) {
+        skippedOperations.add(operation + ": " + reason);
+    }
+
+    /**
+     * @param endResult one of the {@code RESULT_} constants
+     * @param end the end time in milliseconds since the epoch
+     */
+    void end(String endResult, long end) {
+        this.result = endResult;
+        this.endMillis = end;
+    }
+
+    public String getModule() {
+        return module;
+    }
+
+    public String getGoal() {
+        return goal;
+    }
+
+    public String getExecutionId() {
+        return executionId;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * @return the end time in milliseconds since the epoch or -1 if still running
+     */
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    /**
+     * @return the duration in milliseconds (0 if still running)
+     */
+    public long getDurationMillis() {
+        long end = endMillis;
+        return end >= 0 ? end - startMillis : 0;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getCachedResponses() {
+        return cachedResponses.sum();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    public List<String> getSkippedOperations() {
+        return new ArrayList<>(skippedOperations);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import org.apache.hc.client5.http.entity.mime.ContentBody;
+import org.apache.hc.client5.http.entity.mime.FileBody;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("deprecation")
+public class AbstractBundleDeployMojoTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testGetFileName() {
+        AbstractBundleDeployMojo.VersionChange versionChange =
+                new AbstractBundleDeployMojo.VersionChange("1.0.0-SNAPSHOT", "1.0.0.20240101-120000");
+        assertEquals(
+                "bundle-1.0.0.20240101-120000.jar", versionChange.getFileName(new File("bundle-1.0.0-SNAPSHOT.jar")));
+        // file names without the version get the new version appended
+        assertEquals("bundle-1.0.0.20240101-120000.jar", versionChange.getFileName(new File("bundle.jar")));
+        assertEquals("bundle-1.0.0.20240101-120000", versionChange.getFileName(new File("bundle")));
+    }
+
+    @Test
+    public void testChangeVersionWithoutVersionInFileName() throws IOException, MojoExecutionException {
+        File source = createBundle("custom-name.jar");
+        byte[] sourceContent = Files.readAllBytes(source.toPath());
+
+        File target = new BundleDeployFileMojo().changeVersion(source, "1.0.0", "1.0.0.FINAL");
+
+        assertEquals(new File(tmpFolder.getRoot(), "custom-name-1.0.0.FINAL.jar"), target);
+        // the source is left untouched
+        assertArrayEquals(sourceContent, Files.readAllBytes(source.toPath()));
+        try (JarFile targetJar = new JarFile(target)) {
+            assertEquals(
+                    "1.0.0.FINAL", targetJar.getManifest().getMainAttributes().getValue("Bundle-Version"));
+        }
+    }
+
+    @Test
+    public void testStreamRewrittenBody() throws IOException, MojoExecutionException {
+        File source = createBundle("bundle-1.0.0-SNAPSHOT.jar");
+
+        ContentBody body = new BundleDeployFileMojo()
+                .createRewrittenBody(
+                        source, new AbstractBundleDeployMojo.VersionChange("1.0.0-SNAPSHOT", "1.0.0.FINAL"));
+
+        assertFalse(body instanceof FileBody);
+        assertEquals("bundle-1.0.0.FINAL.jar", body.getFilename());
+        // nothing is written to the file system
+        assertEquals(Arrays.asList("bundle-1.0.0-SNAPSHOT.jar"), Arrays.asList(tmpFolder.getRoot().list()));
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        body.writeTo(content);
+        assertEquals(content.size(), body.getContentLength());
+        assertEntityContentLength(body);
+
+        File target = tmpFolder.newFile("streamed.jar");
+        Files.write(target.toPath(), content.toByteArray());
+        try (JarFile targetJar = new JarFile(target)) {
+            assertEquals(
+                    "1.0.0.FINAL", targetJar.getManifest().getMainAttributes().getValue("Bundle-Version"));
+            assertNotNull(targetJar.getEntry("org/example/Api.class"));
+        }
+    }
+
+    @Test
+    public void testStreamRewrittenBodyFallbackToFile() throws IOException, MojoExecutionException {
+        File source = createBundle("bundle-1.0.0-SNAPSHOT.jar");
+        // data prepended to the archive is not supported for streaming, but still readable as JAR
+        byte[] bundleContent = Files.readAllBytes(source.toPath());
+        try (OutputStream out = Files.newOutputStream(source.toPath())) {
+            out.write("#!/bin/sh\n".getBytes(StandardCharsets.UTF_8));
+            out.write(bundleContent);
+        }
+
+        ContentBody body = new BundleDeployFileMojo()
+                .createRewrittenBody(
+                        source, new AbstractBundleDeployMojo.VersionChange("1.0.0-SNAPSHOT", "1.0.0.FINAL"));
+
+        assertTrue(body instanceof FileBody);
+        File target = ((FileBody) body).getFile();
+        assertEquals(new File(tmpFolder.getRoot(), "bundle-1.0.0.FINAL.jar"), target);
+        assertEquals(target.length(), body.getContentLength());
+        assertEntityContentLength(body);
+        try (JarFile targetJar = new JarFile(target)) {
+            assertEquals(
+                    "1.0.0.FINAL", targetJar.getManifest().getMainAttributes().getValue("Bundle-Version"));
+        }
+    }
+
+    private static void assertEntityContentLength(ContentBody body) throws IOException {
+        HttpEntity entity = AbstractBundleDeployMojo.createEntity(body);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        entity.writeTo(content);
+        assertEquals(content.size(), entity.getContentLength());
+    }
+
+    private File createBundle(String fileName) throws IOException {
+        File file = tmpFolder.newFile(fileName);
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Bundle-SymbolicName", "org.example.bundle");
+        manifest.getMainAttributes().putValue("Bundle-Version", "1.0.0");
+        try (JarOutputStream jarOut = new JarOutputStream(Files.newOutputStream(file.toPath()), manifest)) {
+            jarOut.putNextEntry(new ZipEntry("org/example/Api.class"));
+            jarOut.write("class content".getBytes(StandardCharsets.UTF_8));
+            jarOut.closeEntry();
+        }
+        return file;
+    }
+}
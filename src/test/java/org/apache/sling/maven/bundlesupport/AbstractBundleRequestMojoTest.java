@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AbstractBundleRequestMojoTest {
+
+    private static final RemoteRepository CENTRAL = new RemoteRepository.Builder(
+                    "central", "default", "https://repo.maven.apache.org/maven2")
+            .setReleasePolicy(new RepositoryPolicy(true, RepositoryPolicy.UPDATE_POLICY_ALWAYS, "fail"))
+            .setSnapshotPolicy(new RepositoryPolicy(false, RepositoryPolicy.UPDATE_POLICY_DAILY, "warn"))
+            .build();
+
+    @Test
+    public void testDefaultUpdatePolicies() throws MojoExecutionException {
+        List<RemoteRepository> repositories = AbstractBundleRequestMojo.getRemoteRepositoriesWithUpdatePolicy(
+                Collections.singletonList(CENTRAL), "never", "interval:5");
+
+        assertEquals(1, repositories.size());
+        RemoteRepository repository = repositories.get(0);
+        assertEquals("central", repository.getId());
+        assertEquals("https://repo.maven.apache.org/maven2", repository.getUrl());
+
+        RepositoryPolicy releasePolicy = repository.getPolicy(false);
+        assertTrue(releasePolicy.isEnabled());
+        assertEquals(RepositoryPolicy.UPDATE_POLICY_NEVER, releasePolicy.getUpdatePolicy());
+        assertEquals("fail", releasePolicy.getChecksumPolicy());
+
+        RepositoryPolicy snapshotPolicy = repository.getPolicy(true);
+        assertFalse(snapshotPolicy.isEnabled());
+        assertEquals("interval:5", snapshotPolicy.getUpdatePolicy());
+        assertEquals("warn", snapshotPolicy.getChecksumPolicy());
+    }
+
+    @Test
+    public void testValidUpdatePolicies() throws MojoExecutionException {
+        for (String updatePolicy : new String[] {"never", "always", "daily", "interval:1", "interval:1440"}) {
+            AbstractBundleRequestMojo.validateUpdatePolicy("releaseUpdatePolicy", updatePolicy);
+        }
+    }
+
+    @Test
+    public void testInvalidUpdatePolicies() {
+        for (String updatePolicy : new String[] {null, "", "hourly", "Never", "interval", "interval:", "interval:5m"}) {
+            try {
+                AbstractBundleRequestMojo.getRemoteRepositoriesWithUpdatePolicy(
+                        Collections.singletonList(CENTRAL), "never", updatePolicy);
+                fail("Expected failure for update policy '" + updatePolicy + "'");
+            } catch (MojoExecutionException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("snapshotUpdatePolicy"));
+            }
+        }
+    }
+}
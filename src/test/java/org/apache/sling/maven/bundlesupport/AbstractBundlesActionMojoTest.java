@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.sling.maven.bundlesupport.InstalledBundles.InstalledBundle;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AbstractBundlesActionMojoTest {
+
+    private static final InstalledBundle FRAMEWORK = active(0, "org.apache.felix.framework");
+    private static final InstalledBundle API = active(10, "com.acme.api");
+    private static final InstalledBundle IMPL = resolved(11, "com.acme.impl");
+    private static final InstalledBundle FRAGMENT =
+            new InstalledBundle(12, "com.acme.fragment", "1.0.0", "Fragment", Bundle.RESOLVED, true);
+    private static final InstalledBundle OTHER = active(13, "org.example.other");
+
+    private final InstalledBundles installedBundles =
+            new InstalledBundles(Arrays.asList(FRAMEWORK, API, IMPL, FRAGMENT, OTHER));
+
+    @Test
+    public void testSelectBundlesByNameAndPattern() throws MojoExecutionException {
+        Map<Long, InstalledBundle> selected = AbstractBundlesActionMojo.selectBundles(
+                installedBundles,
+                Collections.singletonList(" org.example.other "),
+                new BundleNameMatcher("com.acme.*"),
+                bundle -> true);
+        assertEquals(Arrays.asList(13L, 10L, 11L, 12L), new ArrayList<>(selected.keySet()));
+    }
+
+    @Test
+    public void testSelectBundlesNeverSelectsSystemBundle() throws MojoExecutionException {
+        assertEquals(
+                Collections.singletonList(10L),
+                new ArrayList<>(AbstractBundlesActionMojo.selectBundles(
+                                installedBundles,
+                                Arrays.asList("org.apache.felix.framework", "com.acme.api"),
+                                null,
+                                bundle -> true)
+                        .keySet()));
+        assertEquals(
+                Arrays.asList(10L, 11L, 13L),
+                new ArrayList<>(AbstractBundlesActionMojo.selectBundles(
+                                installedBundles, null, new BundleNameMatcher("*"), bundle -> !bundle.isFragment())
+                        .keySet()));
+    }
+
+    @Test
+    public void testSelectBundlesSkipsFragmentsForStartAndStop() throws MojoExecutionException {
+        BundleNameMatcher matcher = new BundleNameMatcher("com.acme.*");
+        assertEquals(
+                Arrays.asList(10L, 11L),
+                new ArrayList<>(AbstractBundlesActionMojo.selectBundles(
+                                installedBundles, null, matcher, new BundlesStartMojo()::isApplicable)
+                        .keySet()));
+        assertEquals(
+                Arrays.asList(10L, 11L),
+                new ArrayList<>(AbstractBundlesActionMojo.selectBundles(
+                                installedBundles, null, matcher, new BundlesStopMojo()::isApplicable)
+                        .keySet()));
+        assertEquals(
+                Arrays.asList(10L, 11L, 12L),
+                new ArrayList<>(AbstractBundlesActionMojo.selectBundles(
+                                installedBundles, null, matcher, new BundlesRefreshMojo()::isApplicable)
+                        .keySet()));
+        assertEquals(
+                Arrays.asList(10L, 11L, 12L),
+                new ArrayList<>(AbstractBundlesActionMojo.selectBundles(
+                                installedBundles, null, matcher, new BundlesUpdateMojo()::isApplicable)
+                        .keySet()));
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void testSelectBundlesNotInstalled() throws MojoExecutionException {
+        AbstractBundlesActionMojo.selectBundles(
+                installedBundles, Collections.singletonList("com.acme.missing"), null, bundle -> true);
+    }
+
+    @Test
+    public void testIsExpectedStateStart() {
+        BundlesStartMojo mojo = new BundlesStartMojo();
+        assertTrue(mojo.isExpectedState(IMPL, Arrays.asList(IMPL, active(11, "com.acme.impl"))));
+        assertFalse(mojo.isExpectedState(IMPL, Collections.singletonList(IMPL)));
+    }
+
+    @Test
+    public void testIsExpectedStateStop() {
+        BundlesStopMojo mojo = new BundlesStopMojo();
+        assertTrue(mojo.isExpectedState(API, Collections.singletonList(resolved(10, "com.acme.api"))));
+        assertFalse(mojo.isExpectedState(API, Arrays.asList(resolved(10, "com.acme.api"), API)));
+    }
+
+    @Test
+    public void testIsExpectedStateRefreshAndUpdate() {
+        InstalledBundle apiResolved = resolved(10, "com.acme.api");
+        InstalledBundle implInstalled = installed(11, "com.acme.impl");
+        for (AbstractBundlesActionMojo mojo : Arrays.asList(new BundlesRefreshMojo(), new BundlesUpdateMojo())) {
+            // previously active bundles must have been restarted
+            assertTrue(mojo.isExpectedState(API, Arrays.asList(API, apiResolved, API)));
+            assertTrue(mojo.isExpectedState(API, Arrays.asList(apiResolved, API)));
+            assertFalse(mojo.isExpectedState(API, Collections.singletonList(API)));
+            assertFalse(mojo.isExpectedState(API, Arrays.asList(API, API, API)));
+            assertFalse(mojo.isExpectedState(API, Arrays.asList(API, apiResolved)));
+            // previously resolved bundles must have left their state (they are not necessarily resolved again)
+            assertTrue(mojo.isExpectedState(IMPL, Arrays.asList(IMPL, implInstalled)));
+            assertTrue(mojo.isExpectedState(IMPL, Arrays.asList(implInstalled, IMPL)));
+            assertFalse(mojo.isExpectedState(IMPL, Arrays.asList(IMPL, IMPL)));
+            // the state of unresolved bundles does not change
+            assertTrue(mojo.isExpectedState(implInstalled, Collections.singletonList(implInstalled)));
+        }
+    }
+
+    @Test
+    public void testVerifyStatesUntilExpectedState() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        new BundlesStartMojo()
+                .verifyStates(
+                        () -> requests.incrementAndGet() < 3
+                                ? installedBundles
+                                : new InstalledBundles(Collections.singletonList(active(11, "com.acme.impl"))),
+                        Collections.singletonMap(IMPL.getId(), IMPL),
+                        10000,
+                        1);
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void testVerifyStatesTimeout() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        long start = System.currentTimeMillis();
+        try {
+            new BundlesStartMojo()
+                    .verifyStates(
+                            () -> {
+                                requests.incrementAndGet();
+                                return installedBundles;
+                            },
+                            Collections.singletonMap(IMPL.getId(), IMPL),
+                            200,
+                            20);
+            fail("Expected exception");
+        } catch (MojoExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("com.acme.impl"));
+        }
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        // polled repeatedly, but not more often than the poll interval permits
+        assertTrue(String.valueOf(requests.get()), requests.get() > 1 && requests.get() <= 12);
+    }
+
+    @Test
+    public void testVerifyStatesRefreshObserved() throws Exception {
+        List<InstalledBundles> states = new ArrayList<>(Arrays.asList(
+                installedBundles,
+                new InstalledBundles(Collections.singletonList(resolved(10, "com.acme.api"))),
+                new InstalledBundles(Collections.singletonList(starting(10, "com.acme.api"))),
+                installedBundles));
+        AtomicInteger requests = new AtomicInteger();
+        new BundlesRefreshMojo()
+                .verifyStates(
+                        () -> states.get(Math.min(requests.getAndIncrement(), states.size() - 1)),
+                        Collections.singletonMap(API.getId(), API),
+                        10000,
+                        1);
+        assertEquals(4, requests.get());
+    }
+
+    @Test
+    public void testVerifyStatesRefreshNeverHappens() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        try {
+            new BundlesRefreshMojo()
+                    .verifyStates(
+                            () -> {
+                                requests.incrementAndGet();
+                                return installedBundles;
+                            },
+                            Collections.singletonMap(API.getId(), API),
+                            200,
+                            20);
+            fail("Expected exception");
+        } catch (MojoExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("com.acme.api 1.0.0 (id 10, Active) (state unchanged)"));
+        }
+        assertTrue(String.valueOf(requests.get()), requests.get() > 1);
+    }
+
+    @Test
+    public void testVerifyStatesUninstalledBundle() throws Exception {
+        try {
+            new BundlesStopMojo()
+                    .verifyStates(
+                            () -> new InstalledBundles(Collections.emptyList()),
+                            Collections.singletonMap(API.getId(), API),
+                            0,
+                            1);
+            fail("Expected exception");
+        } catch (MojoExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("is no longer installed"));
+        }
+    }
+
+    private static InstalledBundle active(long id, String symbolicName) {
+        return new InstalledBundle(id, symbolicName, "1.0.0", "Active", Bundle.ACTIVE, false);
+    }
+
+    private static InstalledBundle resolved(long id, String symbolicName) {
+        return new InstalledBundle(id, symbolicName, "1.0.0", "Resolved", Bundle.RESOLVED, false);
+    }
+
+    private static InstalledBundle starting(long id, String symbolicName) {
+        return new InstalledBundle(id, symbolicName, "1.0.0", "Starting", Bundle.STARTING, false);
+    }
+
+    private static InstalledBundle installed(long id, String symbolicName) {
+        return new InstalledBundle(id, symbolicName, "1.0.0", "Installed", Bundle.INSTALLED, false);
+    }
+}
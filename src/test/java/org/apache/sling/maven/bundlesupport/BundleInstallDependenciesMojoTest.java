@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BundleInstallDependenciesMojoTest {
+
+    private static final String PROJECT = "org.example:project:jar:1.0.0";
+
+    private static final List<String> DEFAULT_SCOPES = Arrays.asList("compile", "provided", "runtime");
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testIsDirectDependency() throws IOException {
+        assertTrue(BundleInstallDependenciesMojo.isDirectDependency(
+                artifact("direct", createJar("org.example.direct"), PROJECT)));
+        assertFalse(BundleInstallDependenciesMojo.isDirectDependency(
+                artifact("transitive", createJar("org.example.transitive"), PROJECT, "org.example:direct:jar:1.0.0")));
+        Artifact withoutTrail = artifact("unknown", createJar("org.example.unknown"));
+        withoutTrail.setDependencyTrail(null);
+        assertFalse(BundleInstallDependenciesMojo.isDirectDependency(withoutTrail));
+    }
+
+    @Test
+    public void testGetDependencyBundleFiles() throws IOException, MojoExecutionException {
+        List<Artifact> artifacts = Arrays.asList(
+                artifact("direct", createJar("org.example.direct"), PROJECT),
+                artifact("transitive", createJar("org.example.transitive"), PROJECT, "org.example:direct:jar:1.0.0"),
+                artifact("plain", createJar(null), PROJECT),
+                artifact("missing", new File(tmpFolder.getRoot(), "missing.jar"), PROJECT));
+        BundleInstallDependenciesMojo mojo = new BundleInstallDependenciesMojo();
+        mojo.repoSession = new DefaultRepositorySystemSession();
+
+        assertEquals(
+                Arrays.asList("org.example.direct", "org.example.transitive"),
+                getSymbolicNames(mojo.getDependencyBundleFiles(artifacts, true, DEFAULT_SCOPES)));
+        assertEquals(
+                Collections.singletonList("org.example.direct"),
+                getSymbolicNames(mojo.getDependencyBundleFiles(artifacts, false, DEFAULT_SCOPES)));
+    }
+
+    @Test
+    public void testGetDependencyBundleFilesSkipsNonClasspathArtifacts() throws IOException, MojoExecutionException {
+        DefaultArtifactHandler pomHandler = new DefaultArtifactHandler("pom");
+        Artifact pom = new DefaultArtifact("org.example", "parent", "1.0.0", "compile", "pom", null, pomHandler);
+        pom.setFile(createJar("org.example.parent"));
+        pom.setDependencyTrail(Arrays.asList(PROJECT, pom.getId()));
+        BundleInstallDependenciesMojo mojo = new BundleInstallDependenciesMojo();
+        mojo.repoSession = new DefaultRepositorySystemSession();
+
+        assertTrue(mojo.getDependencyBundleFiles(Collections.singletonList(pom), true, DEFAULT_SCOPES).isEmpty());
+    }
+
+    @Test
+    public void testGetDependencyBundleFilesFiltersScopes() throws IOException, MojoExecutionException {
+        List<Artifact> artifacts = Arrays.asList(
+                artifact("compile", "compile", createJar("org.example.compile"), PROJECT),
+                artifact("provided", "provided", createJar("org.example.provided"), PROJECT),
+                artifact("runtime", "runtime", createJar("org.example.runtime"), PROJECT),
+                artifact("system", "system", createJar("org.example.system"), PROJECT));
+        BundleInstallDependenciesMojo mojo = new BundleInstallDependenciesMojo();
+        mojo.repoSession = new DefaultRepositorySystemSession();
+
+        // provided API bundles are installed by default
+        assertEquals(
+                Arrays.asList("org.example.compile", "org.example.provided", "org.example.runtime"),
+                getSymbolicNames(mojo.getDependencyBundleFiles(artifacts, true, DEFAULT_SCOPES)));
+        assertEquals(
+                Arrays.asList("org.example.compile", "org.example.runtime"),
+                getSymbolicNames(mojo.getDependencyBundleFiles(artifacts, true, Arrays.asList("compile", "runtime"))));
+    }
+
+    private static List<String> getSymbolicNames(List<BundleFile> bundleFiles) {
+        return bundleFiles.stream().map(BundleFile::getSymbolicName).collect(Collectors.toList());
+    }
+
+    private static Artifact artifact(String artifactId, File file, String... parentTrail) {
+        return artifact(artifactId, "compile", file, parentTrail);
+    }
+
+    private static Artifact artifact(String artifactId, String scope, File file, String... parentTrail) {
+        DefaultArtifactHandler handler = new DefaultArtifactHandler("jar");
+        handler.setAddedToClasspath(true);
+        Artifact artifact = new DefaultArtifact("org.example", artifactId, "1.0.0", scope, "jar", null, handler);
+        artifact.setFile(file);
+        List<String> trail = new ArrayList<>(Arrays.asList(parentTrail));
+        trail.add(artifact.getId());
+        artifact.setDependencyTrail(trail);
+        return artifact;
+    }
+
+    private File createJar(String symbolicName) throws IOException {
+        Manifest manifest = new Manifest();
+        Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (symbolicName != null) {
+            attributes.putValue("Bundle-SymbolicName", symbolicName);
+            attributes.putValue("Bundle-Version", "1.0.0");
+        }
+        File file = tmpFolder.newFile();
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            // manifest only
+            new JarOutputStream(out, manifest).finish();
+        }
+        return file;
+    }
+}
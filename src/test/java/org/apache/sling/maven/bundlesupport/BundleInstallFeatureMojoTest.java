@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.sling.maven.bundlesupport.FeatureBundles.FeatureBundle;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BundleInstallFeatureMojoTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testGetBundleFilesByStartLevel() throws IOException, MojoExecutionException {
+        List<FeatureBundle> featureBundles = Arrays.asList(
+                new FeatureBundle(new DefaultArtifact("org.example:api:1.0.0"), 0),
+                new FeatureBundle(new DefaultArtifact("org.example:impl:1.0.0"), 5));
+
+        Map<Integer, List<BundleFile>> result =
+                createMojo().getBundleFilesByStartLevel(featureBundles, resolve(featureBundles), "20");
+
+        assertEquals(Arrays.asList(5, 20), Arrays.asList(result.keySet().toArray()));
+        assertEquals(Collections.singletonList("org.example.impl"), getSymbolicNames(result.get(5)));
+        assertEquals(Collections.singletonList("org.example.api"), getSymbolicNames(result.get(20)));
+    }
+
+    @Test
+    public void testGetBundleFilesByStartLevelWithInvalidDefaultStartLevel() throws IOException {
+        List<FeatureBundle> featureBundles = Arrays.asList(
+                new FeatureBundle(new DefaultArtifact("org.example:impl:1.0.0"), 5),
+                new FeatureBundle(new DefaultArtifact("org.example:api:1.0.0"), 0));
+        try {
+            createMojo().getBundleFilesByStartLevel(featureBundles, resolve(featureBundles), "late");
+            fail("Expected failure for non-numeric start level");
+        } catch (MojoExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("'late'"));
+            assertTrue(e.getMessage(), e.getMessage().contains("org.example:api:jar:1.0.0"));
+            assertTrue(e.getMessage(), e.getMessage().contains("feature file"));
+        }
+    }
+
+    private static BundleInstallFeatureMojo createMojo() {
+        BundleInstallFeatureMojo mojo = new BundleInstallFeatureMojo();
+        mojo.repoSession = new DefaultRepositorySystemSession();
+        return mojo;
+    }
+
+    private List<ArtifactResult> resolve(List<FeatureBundle> featureBundles) throws IOException {
+        List<ArtifactResult> results = new ArrayList<>();
+        for (FeatureBundle featureBundle : featureBundles) {
+            Artifact artifact = featureBundle.getArtifact();
+            artifact = artifact.setFile(createBundle("org.example." + artifact.getArtifactId()));
+            results.add(new ArtifactResult(new ArtifactRequest(artifact, null, null)).setArtifact(artifact));
+        }
+        return results;
+    }
+
+    private File createBundle(String symbolicName) throws IOException {
+        Manifest manifest = new Manifest();
+        Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        attributes.putValue("Bundle-SymbolicName", symbolicName);
+        attributes.putValue("Bundle-Version", "1.0.0");
+        File file = tmpFolder.newFile(symbolicName + ".jar");
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            new JarOutputStream(out, manifest).finish();
+        }
+        return file;
+    }
+
+    private static List<String> getSymbolicNames(List<BundleFile> bundleFiles) {
+        return bundleFiles.stream().map(BundleFile::getSymbolicName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BundleInstallWavesTest {
+
+    @Test
+    public void testIndependentBundlesInOneWave() {
+        BundleFile a = bundle("a", set("a.api"), set("org.osgi.framework"));
+        BundleFile b = bundle("b", set("b.api"), set("org.slf4j"));
+        assertEquals(Collections.singletonList(Arrays.asList(a, b)), BundleInstallWaves.compute(Arrays.asList(a, b)));
+    }
+
+    @Test
+    public void testProvidersBeforeConsumers() {
+        BundleFile impl = bundle("impl", set(), set("api", "util", "impl"));
+        BundleFile util = bundle("util", set("util"), set("api"));
+        BundleFile api = bundle("api", set("api"), set("api"));
+        BundleFile other = bundle("other", set("other"), set());
+        List<List<BundleFile>> waves = BundleInstallWaves.compute(Arrays.asList(impl, util, api, other));
+        assertEquals(
+                Arrays.asList(
+                        Arrays.asList(api, other), Collections.singletonList(util), Collections.singletonList(impl)),
+                waves);
+    }
+
+    @Test
+    public void testCycleInOneWave() {
+        BundleFile a = bundle("a", set("a.api"), set("b.api", "base"));
+        BundleFile b = bundle("b", set("b.api"), set("a.api"));
+        BundleFile base = bundle("base", set("base"), set());
+        BundleFile consumer = bundle("consumer", set(), set("a.api"));
+        List<List<BundleFile>> waves = BundleInstallWaves.compute(Arrays.asList(consumer, a, b, base));
+        assertEquals(
+                Arrays.asList(
+                        Collections.singletonList(base), Arrays.asList(a, b), Collections.singletonList(consumer)),
+                waves);
+    }
+
+    @Test
+    public void testRequiredBundle() {
+        BundleFile consumer = new BundleFile(
+                new File("consumer.jar"), "consumer", "1.0.0", set(), set(), set("provider"), null, null);
+        BundleFile provider = bundle("provider", set(), set());
+        assertEquals(
+                Arrays.asList(Collections.singletonList(provider), Collections.singletonList(consumer)),
+                BundleInstallWaves.compute(Arrays.asList(consumer, provider)));
+    }
+
+    @Test
+    public void testFragmentInSameWaveAsHost() {
+        BundleFile api = bundle("api", set("api"), set());
+        // the fragment's imports become imports of the host
+        BundleFile fragment =
+                new BundleFile(new File("fragment.jar"), "fragment", "1.0.0", set(), set("api"), set(), "host", null);
+        BundleFile host = bundle("host", set("host.api"), set());
+        BundleFile consumer = bundle("consumer", set(), set("host.api"));
+        assertEquals(
+                Arrays.asList(
+                        Collections.singletonList(api),
+                        Arrays.asList(fragment, host),
+                        Collections.singletonList(consumer)),
+                BundleInstallWaves.compute(Arrays.asList(consumer, fragment, host, api)));
+    }
+
+    @Test
+    public void testFragmentWithoutHost() {
+        // the host is already installed
+        BundleFile fragment =
+                new BundleFile(new File("fragment.jar"), "fragment", "1.0.0", set(), set(), set(), "host", null);
+        BundleFile other = bundle("other", set(), set());
+        assertEquals(
+                Collections.singletonList(Arrays.asList(fragment, other)),
+                BundleInstallWaves.compute(Arrays.asList(fragment, other)));
+    }
+
+    private static BundleFile bundle(String symbolicName, Set<String> exports, Set<String> imports) {
+        return new BundleFile(
+                new File(symbolicName + ".jar"), symbolicName, "1.0.0", exports, imports, set(), null, null);
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+}
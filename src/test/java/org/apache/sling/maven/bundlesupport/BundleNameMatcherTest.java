@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BundleNameMatcherTest {
+
+    @Test
+    public void testGlob() {
+        BundleNameMatcher matcher = new BundleNameMatcher("com.acme.*");
+        assertTrue(matcher.matches("com.acme.core"));
+        assertTrue(matcher.matches("com.acme.core.impl"));
+        assertFalse(matcher.matches("com.acme"));
+        assertFalse(matcher.matches("comXacme.core"));
+        assertFalse(matcher.matches("org.com.acme.core"));
+    }
+
+    @Test
+    public void testGlobSingleCharacter() {
+        BundleNameMatcher matcher = new BundleNameMatcher("com.acme.api?");
+        assertTrue(matcher.matches("com.acme.api2"));
+        assertFalse(matcher.matches("com.acme.api"));
+        assertFalse(matcher.matches("com.acme.api22"));
+    }
+
+    @Test
+    public void testRegex() {
+        BundleNameMatcher matcher = new BundleNameMatcher("regex:com\\.acme\\.(core|api)");
+        assertTrue(matcher.matches("com.acme.core"));
+        assertTrue(matcher.matches("com.acme.api"));
+        assertFalse(matcher.matches("com.acme.impl"));
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import jakarta.json.stream.JsonParser;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.sling.maven.bundlesupport.BundleSnapshot.Diff;
+import org.apache.sling.maven.bundlesupport.BundleSnapshot.Entry;
+import org.apache.sling.maven.bundlesupport.InstalledBundles.InstalledBundle;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BundleSnapshotTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testParseEntry() {
+        String json = "{\"status\":\"Bundle information: 1 bundle in total.\",\"s\":[1,1,0,0,0],\"data\":[{"
+                + "\"id\":10,\"name\":\"API\",\"fragment\":false,\"stateRaw\":32,\"state\":\"Active\","
+                + "\"version\":\"2.27.2\",\"symbolicName\":\"org.apache.sling.api\",\"props\":["
+                + "{\"key\":\"Symbolic Name\",\"value\":\"org.apache.sling.api\"},"
+                + "{\"key\":\"Location\",\"value\":\"mvn:org.apache.sling/org.apache.sling.api/2.27.2\"},"
+                + "{\"key\":\"Last Modification\",\"value\":\"Tue Oct 04 10:00:00 CEST 2022\"},"
+                + "{\"key\":\"Start Level\",\"value\":5},"
+                + "{\"key\":\"Imported Packages\",\"value\":[\"javax.servlet,version=3.1.0\"]}"
+                + "]}]}";
+        InstalledBundle bundle = new InstalledBundle(10, "org.apache.sling.api", "2.27.2", "Active", 32, false);
+        Entry entry;
+        try (JsonParser parser = JsonSupport.createParser(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8)) {
+            entry = BundleSnapshot.parseEntry(bundle, parser);
+        }
+        assertEquals("mvn:org.apache.sling/org.apache.sling.api/2.27.2", entry.getLocation());
+        assertEquals(5, entry.getStartLevel());
+        assertTrue(entry.isActive());
+        assertNull(entry.getFingerprint());
+        assertEquals(
+                "org.apache.sling:org.apache.sling.api:jar:2.27.2",
+                entry.getMavenArtifact().toString());
+    }
+
+    @Test
+    public void testMavenArtifact() {
+        assertEquals(
+                "org.example:example:zip:tests:1.0.0",
+                entry("a", "1.0.0", "mvn:https://repo.example.org!org.example/example/1.0.0/zip/tests", null)
+                        .getMavenArtifact()
+                        .toString());
+        assertNull(entry("a", "1.0.0", "inputstream:example.jar", null).getMavenArtifact());
+        assertNull(entry("a", "1.0.0", null, null).getMavenArtifact());
+    }
+
+    @Test
+    public void testDiff() {
+        Entry unchanged = entry("unchanged", "1.0.0", "mvn:org.example/unchanged/1.0.0", "fp1");
+        Entry changed = entry("changed", "1.0.0", "mvn:org.example/changed/1.0.0", "fp2");
+        Entry missing = entry("missing", "1.0.0", "mvn:org.example/missing/1.0.0", "fp3");
+        Entry systemBundle = new Entry(0, "org.apache.felix.framework", "7.0.5", "System Bundle", 0, true, false, null);
+        BundleSnapshot snapshot = new BundleSnapshot(Arrays.asList(systemBundle, unchanged, changed, missing));
+
+        InstalledBundle liveUnchanged = bundle(100, "unchanged", "1.0");
+        InstalledBundle liveChanged = bundle(101, "changed", "2.0.0");
+        InstalledBundle additional = bundle(102, "additional", "1.0.0");
+        Diff diff = snapshot.diff(new InstalledBundles(Arrays.asList(
+                bundle(0, "org.apache.felix.framework", "7.0.6"), liveUnchanged, liveChanged, additional)));
+
+        assertEquals(Collections.singletonList(additional), diff.getToUninstall());
+        assertEquals(Collections.singletonMap(changed, liveChanged), diff.getToUpdate());
+        assertEquals(Collections.singletonList(missing), diff.getToInstall());
+        assertFalse(diff.isEmpty());
+
+        // restoring the snapshot again does not change anything, although ids and locations differ
+        Diff restoredDiff = snapshot.diff(new InstalledBundles(Arrays.asList(
+                bundle(0, "org.apache.felix.framework", "7.0.6"),
+                liveUnchanged,
+                bundle(101, "changed", "1.0.0"),
+                bundle(103, "missing", "1.0.0"))));
+        assertTrue(restoredDiff.isEmpty());
+    }
+
+    @Test
+    public void testDiffMultipleVersions() {
+        Entry api = entry("api", "2.0.0", "mvn:org.example/api/2.0.0", "fp1");
+        BundleSnapshot snapshot = new BundleSnapshot(Collections.singletonList(api));
+
+        InstalledBundle api1 = bundle(100, "api", "1.0.0");
+        InstalledBundle api3 = bundle(101, "api", "3.0.0");
+        Diff diff = snapshot.diff(new InstalledBundles(Arrays.asList(api1, api3)));
+
+        assertEquals(Collections.singletonList(api3), diff.getToUninstall());
+        assertEquals(Collections.singletonMap(api, api1), diff.getToUpdate());
+        assertEquals(Collections.emptyList(), diff.getToInstall());
+    }
+
+    @Test
+    public void testWithFingerprints() throws MojoExecutionException {
+        BundleSnapshot snapshot = new BundleSnapshot(Arrays.asList(
+                entry("a", "1.0", "mvn:org.example/a/1.0", null),
+                entry("b", "2.0.0", "inputstream:b.jar", null),
+                entry("c", "1.0.0", "inputstream:c.jar", null)));
+        assertEquals(
+                Arrays.asList("org.example:a:jar:1.0", "org.example:b:jar:2.0.0"),
+                snapshot.getContentArtifacts(Collections.singletonList("org.example:b:2.0.0")).stream()
+                        .map(Object::toString)
+                        .collect(Collectors.toList()));
+
+        BundleSnapshot withFingerprints = snapshot.withFingerprints(
+                Arrays.asList(bundleFile("a", "1.0.0", "fp1"), bundleFile("b", "2.0.0", "fp2")));
+        assertEquals("fp1", withFingerprints.getEntries().get(0).getFingerprint());
+        assertEquals("fp2", withFingerprints.getEntries().get(1).getFingerprint());
+        assertNull(withFingerprints.getEntries().get(2).getFingerprint());
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        File file = new File(tmpFolder.getRoot(), "snapshot/bundles.json");
+        BundleSnapshot snapshot = new BundleSnapshot(Arrays.asList(
+                entry("a", "1.0.0", "mvn:org.example/a/1.0.0", "fp1"), entry("b", "2.0.0", null, null)));
+        snapshot.write(file);
+        BundleSnapshot read = BundleSnapshot.read(file);
+        assertEquals(2, read.getEntries().size());
+        for (int i = 0; i < 2; i++) {
+            Entry expected = snapshot.getEntries().get(i);
+            Entry actual = read.getEntries().get(i);
+            assertEquals(expected.getFingerprint(), actual.getFingerprint());
+            assertEquals(expected.getLocation(), actual.getLocation());
+            assertEquals(expected.getStartLevel(), actual.getStartLevel());
+            assertEquals(expected.isActive(), actual.isActive());
+        }
+    }
+
+    private static Entry entry(String symbolicName, String version, String location, String fingerprint) {
+        return new Entry(
+                symbolicName.hashCode() & 0xffff, symbolicName, version, location, 20, true, false, fingerprint);
+    }
+
+    private static InstalledBundle bundle(long id, String symbolicName, String version) {
+        return new InstalledBundle(id, symbolicName, version, "Active", 32, false);
+    }
+
+    private static BundleFile bundleFile(String symbolicName, String version, String fingerprint) {
+        return new BundleFile(
+                new File(symbolicName + ".jar"),
+                symbolicName,
+                version,
+                Collections.emptySet(),
+                Collections.emptySet(),
+                Collections.emptySet(),
+                null,
+                fingerprint);
+    }
+}
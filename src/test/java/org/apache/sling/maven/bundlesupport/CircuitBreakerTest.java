@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.sling.maven.bundlesupport.CircuitBreaker.CircuitBreakerOpenException;
+import org.apache.sling.maven.bundlesupport.CircuitBreaker.State;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("http://localhost:8080", 3, 1000, clock::get);
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() throws CircuitBreakerOpenException {
+        recordFailures(2);
+        circuitBreaker.acquire();
+        circuitBreaker.onSuccess();
+        recordFailures(2);
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+        recordFailures(1);
+        assertEquals(State.OPEN, circuitBreaker.getState());
+        assertFailsFast();
+    }
+
+    @Test
+    public void testHalfOpenProbeSucceeds() throws CircuitBreakerOpenException {
+        recordFailures(3);
+        clock.set(999);
+        assertFailsFast();
+        clock.set(1000);
+        circuitBreaker.acquire();
+        assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+        // only a single probe
+        assertFailsFast();
+        circuitBreaker.onSuccess();
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+        circuitBreaker.acquire();
+    }
+
+    @Test
+    public void testHalfOpenProbeFails() throws CircuitBreakerOpenException {
+        recordFailures(3);
+        clock.set(1000);
+        circuitBreaker.acquire();
+        circuitBreaker.onFailure();
+        assertEquals(State.OPEN, circuitBreaker.getState());
+        clock.set(1999);
+        assertFailsFast();
+        clock.set(2000);
+        circuitBreaker.acquire();
+        assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+    }
+
+    private void recordFailures(int count) throws CircuitBreakerOpenException {
+        for (int i = 0; i < count; i++) {
+            circuitBreaker.acquire();
+            circuitBreaker.onFailure();
+        }
+    }
+
+    private void assertFailsFast() {
+        try {
+            circuitBreaker.acquire();
+            fail("Expected " + CircuitBreakerOpenException.class.getSimpleName());
+        } catch (CircuitBreakerOpenException e) {
+            // expected
+        }
+    }
+}
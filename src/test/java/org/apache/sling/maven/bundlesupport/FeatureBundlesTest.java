@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.util.List;
+
+import org.apache.sling.maven.bundlesupport.FeatureBundles.FeatureBundle;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FeatureBundlesTest {
+
+    @Test
+    public void testParse() {
+        List<FeatureBundle> bundles = FeatureBundles.parse("{\n"
+                + "  // comment\n"
+                + "  \"id\":\"org.example:feature:slingosgifeature:1.0.0\",\n"
+                + "  \"variables\":{\"api.version\":\"2.27.2\"},\n"
+                + "  \"bundles\":[\n"
+                + "    \"org.apache.sling:org.apache.sling.api:${api.version}\",\n"
+                + "    {\"id\":\"org.example:example:jar:tests:1.0.0\", \"start-order\":\"5\"},\n"
+                + "    {\"id\":\"org.example:other:jar:1.0.0\", \"start-order\":10}\n"
+                + "  ]\n"
+                + "}");
+        assertEquals(3, bundles.size());
+        assertEquals(
+                "org.apache.sling:org.apache.sling.api:jar:2.27.2",
+                bundles.get(0).getArtifact().toString());
+        assertEquals(0, bundles.get(0).getStartOrder());
+        assertEquals(
+                "org.example:example:jar:tests:1.0.0",
+                bundles.get(1).getArtifact().toString());
+        assertEquals(5, bundles.get(1).getStartOrder());
+        assertEquals("org.example:other:jar:1.0.0", bundles.get(2).getArtifact().toString());
+        assertEquals(10, bundles.get(2).getStartOrder());
+    }
+
+    @Test
+    public void testParseWithoutBundles() {
+        assertEquals(
+                0,
+                FeatureBundles.parse("{\"id\":\"org.example:feature:1.0.0\"}").size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseUndefinedVariable() {
+        FeatureBundles.parse("{\"bundles\":[\"org.example:example:${undefined}\"]}");
+    }
+
+    @Test
+    public void testParseInvalidStartOrder() {
+        try {
+            FeatureBundles.parse("{\"bundles\":[{\"id\":\"org.example:example:1.0.0\", \"start-order\":\"first\"}]}");
+            fail("Expected failure for non-numeric start-order");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("org.example:example:1.0.0"));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.sling.maven.bundlesupport.BundlePrerequisite.Bundle;
+import org.apache.sling.maven.bundlesupport.InstalledBundles.InstalledBundle;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FsMountMojoTest {
+
+    private static final URI CONSOLE_URL = URI.create("http://localhost:8080/system/console/");
+
+    private TestFsMountMojo mojo;
+
+    @Before
+    public void setUp() {
+        mojo = new TestFsMountMojo();
+        mojo.repoSession = new DefaultRepositorySystemSession();
+        mojo.slingUrl = URI.create("http://localhost:8080/");
+
+        BundlePrerequisite preferred = new BundlePrerequisite();
+        preferred.addBundle(new Bundle("org.apache.sling", "org.apache.sling.fsresource", "2.3.0"));
+        preferred.addPrecondition(new Bundle("org.apache.sling", "org.apache.sling.api", "2.25.4"));
+        mojo.addDeployFsResourceBundlePrerequisite(preferred);
+
+        BundlePrerequisite legacy = new BundlePrerequisite();
+        legacy.addBundle(new Bundle("org.apache.sling", "org.apache.sling.commons.johnzon", "1.2.6"));
+        legacy.addBundle(new Bundle("org.apache.sling", "org.apache.sling.fsresource", "2.2.0"));
+        legacy.addPrecondition(new Bundle("org.apache.sling", "org.apache.sling.resourceresolver", "1.5.18"));
+        mojo.addDeployFsResourceBundlePrerequisite(legacy);
+
+        BundlePrerequisite ancient = new BundlePrerequisite();
+        ancient.addBundle(new Bundle("org.apache.sling", "org.apache.sling.fsresource", "1.4.8"));
+        mojo.addDeployFsResourceBundlePrerequisite(ancient);
+    }
+
+    @Test
+    public void testPreferredAlternativeResolvedWhileProbing() throws MojoExecutionException {
+        mojo.installedBundles = installedBundles(
+                bundle("org.apache.sling.api", "2.27.2"), bundle("org.apache.sling.resourceresolver", "1.11.0"));
+        mojo.deployMissingBundles(null, CONSOLE_URL);
+
+        assertTrue("Resolution must start before the server state is available", mojo.resolvedWhileProbing);
+        assertEquals(
+                Collections.singletonList(Collections.singletonList("org.apache.sling.fsresource:2.3.0")),
+                mojo.resolutions);
+        assertEquals(Collections.singletonList("org.apache.sling.fsresource:2.3.0"), mojo.deployments);
+    }
+
+    @Test
+    public void testOtherAlternativeResolvedAfterProbing() throws MojoExecutionException {
+        mojo.installedBundles = installedBundles(
+                bundle("org.apache.sling.resourceresolver", "1.5.18"),
+                bundle("org.apache.sling.commons.johnzon", "1.2.6"));
+        mojo.deployMissingBundles(null, CONSOLE_URL);
+
+        assertTrue("Resolution must start before the server state is available", mojo.resolvedWhileProbing);
+        // the speculative resolution of the preferred alternative is followed by the missing bundles of the legacy
+        // alternative only, neither the installed bundle nor the ancient alternative are resolved
+        assertEquals(
+                Arrays.asList(
+                        Collections.singletonList("org.apache.sling.fsresource:2.3.0"),
+                        Collections.singletonList("org.apache.sling.fsresource:2.2.0")),
+                mojo.resolutions);
+        assertEquals(Collections.singletonList("org.apache.sling.fsresource:2.2.0"), mojo.deployments);
+    }
+
+    @Test
+    public void testNothingMissing() throws MojoExecutionException {
+        mojo.installedBundles = installedBundles(
+                bundle("org.apache.sling.api", "2.27.2"), bundle("org.apache.sling.fsresource", "2.3.0"));
+        mojo.deployMissingBundles(null, CONSOLE_URL);
+
+        assertEquals(Collections.emptyList(), mojo.deployments);
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void testNoAlternativeMatching() throws MojoExecutionException {
+        TestFsMountMojo legacyOnlyMojo = new TestFsMountMojo();
+        legacyOnlyMojo.repoSession = new DefaultRepositorySystemSession();
+        BundlePrerequisite legacy = new BundlePrerequisite();
+        legacy.addBundle(new Bundle("org.apache.sling", "org.apache.sling.fsresource", "2.2.0"));
+        legacy.addPrecondition(new Bundle("org.apache.sling", "org.apache.sling.resourceresolver", "1.5.18"));
+        legacyOnlyMojo.addDeployFsResourceBundlePrerequisite(legacy);
+        legacyOnlyMojo.installedBundles = installedBundles();
+        legacyOnlyMojo.deployMissingBundles(null, CONSOLE_URL);
+    }
+
+    private static InstalledBundle bundle(String symbolicName, String version) {
+        return new InstalledBundle(0, symbolicName, version, "Active", org.osgi.framework.Bundle.ACTIVE, false);
+    }
+
+    private static InstalledBundles installedBundles(InstalledBundle... bundles) {
+        return new InstalledBundles(Arrays.asList(bundles));
+    }
+
+    private static String toString(Bundle bundle) {
+        return bundle.getArtifactId() + ":" + bundle.getVersion();
+    }
+
+    private static class TestFsMountMojo extends FsMountMojo {
+
+        private final CountDownLatch resolutionStarted = new CountDownLatch(1);
+        private final List<List<String>> resolutions = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> deployments = Collections.synchronizedList(new ArrayList<>());
+        private InstalledBundles installedBundles;
+        private boolean resolvedWhileProbing;
+
+        @Override
+        InstalledBundles fetchInstalledBundles(CloseableHttpClient httpClient, URI consoleTargetUrl)
+                throws MojoExecutionException {
+            try {
+                resolvedWhileProbing = resolutionStarted.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("Interrupted", e);
+            }
+            return installedBundles;
+        }
+
+        @Override
+        Map<Bundle, ArtifactResult> resolveBundleArtifacts(List<Bundle> bundles) {
+            resolutions.add(bundles.stream().map(FsMountMojoTest::toString).collect(Collectors.toList()));
+            resolutionStarted.countDown();
+            Map<Bundle, ArtifactResult> results = new IdentityHashMap<>();
+            for (Bundle bundle : bundles) {
+                Artifact artifact = new DefaultArtifact(
+                                bundle.getGroupId(), bundle.getArtifactId(), "jar", bundle.getVersion())
+                        .setFile(new File(bundle.getArtifactId() + ".jar"));
+                results.put(bundle, new ArtifactResult(new ArtifactRequest()).setArtifact(artifact));
+            }
+            return results;
+        }
+
+        @Override
+        void deployBundle(CloseableHttpClient httpClient, Bundle bundle, File file, URI consoleTargetUrl) {
+            deployments.add(FsMountMojoTest.toString(bundle));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import jakarta.json.stream.JsonParser;
+import org.apache.sling.maven.bundlesupport.InstalledBundles.InstalledBundle;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class InstalledBundlesTest {
+
+    private static final String BUNDLES_JSON = "{\"status\":\"Bundle information: 4 bundles in total.\","
+            + "\"s\":[4,2,1,0,1],"
+            + "\"data\":["
+            + "{\"id\":0,\"name\":\"System Bundle\",\"fragment\":false,\"stateRaw\":32,\"state\":\"Active\","
+            + "\"version\":\"7.0.5\",\"symbolicName\":\"org.apache.felix.framework\",\"category\":\"\"},"
+            + "{\"id\":10,\"name\":\"API\",\"fragment\":false,\"stateRaw\":32,\"state\":\"Active\","
+            + "\"version\":\"2.27.2\",\"symbolicName\":\"org.apache.sling.api\",\"category\":\"sling\"},"
+            + "{\"id\":11,\"name\":\"API old\",\"fragment\":false,\"stateRaw\":2,\"state\":\"Installed\","
+            + "\"version\":\"2.16.4\",\"symbolicName\":\"org.apache.sling.api\",\"category\":\"sling\"},"
+            + "{\"id\":12,\"name\":\"Fragment\",\"fragment\":true,\"stateRaw\":4,\"state\":\"Fragment\","
+            + "\"version\":\"1.0.0.SNAPSHOT\",\"symbolicName\":\"org.example.fragment\",\"props\":[{\"a\":1}]}"
+            + "]}";
+
+    private InstalledBundles underTest;
+
+    @Before
+    public void setUp() {
+        try (JsonParser parser = JsonSupport.createParser(
+                new ByteArrayInputStream(BUNDLES_JSON.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8)) {
+            underTest = InstalledBundles.parse(parser);
+        }
+    }
+
+    @Test
+    public void testGet() {
+        assertEquals(4, underTest.getAll().size());
+        InstalledBundle api = underTest.get("org.apache.sling.api");
+        assertEquals(10, api.getId());
+        assertEquals("2.27.2", api.getVersion());
+        assertTrue(api.isActive());
+        assertNull(underTest.get("org.apache.sling.fsresource"));
+    }
+
+    @Test
+    public void testGetVersion() {
+        assertEquals(11, underTest.get("org.apache.sling.api", "2.16.4").getId());
+        assertEquals(10, underTest.get("org.apache.sling.api", "2.27.2").getId());
+        assertNull(underTest.get("org.apache.sling.api", "2.25.4"));
+        assertNull(underTest.get("org.apache.sling.fsresource", "1.0.0"));
+    }
+
+    @Test
+    public void testFragment() {
+        InstalledBundle fragment = underTest.get("org.example.fragment");
+        assertTrue(fragment.isFragment());
+        assertTrue(fragment.isActive());
+    }
+
+    @Test
+    public void testIsInstalled() {
+        assertTrue(underTest.isInstalled("org.apache.sling.api", "2.25.4"));
+        assertTrue(underTest.isInstalled("org.apache.sling.api", "2.27.2"));
+        assertFalse(underTest.isInstalled("org.apache.sling.api", "2.27.3"));
+        assertFalse(underTest.isInstalled("org.apache.sling.fsresource", "1.0.0"));
+    }
+
+    @Test
+    public void testIsInstalledOsgiVersionOrdering() {
+        // qualifiers are higher than the plain version in OSGi
+        assertFalse(underTest.isInstalled("org.apache.sling.api", "2.27.2.SNAPSHOT"));
+        assertTrue(underTest.isInstalled("org.example.fragment", "1.0.0"));
+        assertTrue(underTest.isInstalled("org.example.fragment", "1.0.0.SNAPSHOT"));
+    }
+}
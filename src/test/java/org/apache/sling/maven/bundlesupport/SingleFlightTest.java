@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystemSession;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testSharedPerSession() {
+        RepositorySystemSession session = new DefaultRepositorySystemSession();
+        assertSame(SingleFlight.get(session), SingleFlight.get(session));
+        assertNotSame(SingleFlight.get(session), SingleFlight.get(new DefaultRepositorySystemSession()));
+    }
+
+    @Test
+    public void testRepeatedExecution() throws MojoExecutionException {
+        SingleFlight singleFlight = SingleFlight.get(new DefaultRepositorySystemSession());
+        AtomicInteger counter = new AtomicInteger();
+        assertEquals(1, (int) singleFlight.execute("key", counter::incrementAndGet));
+        assertEquals(1, (int) singleFlight.execute("key", counter::incrementAndGet));
+        assertEquals(2, (int) singleFlight.execute("otherKey", counter::incrementAndGet));
+    }
+
+    @Test
+    public void testConcurrentExecution() throws Exception {
+        SingleFlight singleFlight = SingleFlight.get(new DefaultRepositorySystemSession());
+        AtomicInteger counter = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ParallelExecutor executor = new ParallelExecutor("test", 2)) {
+            Future<Integer> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                release.await();
+                return counter.incrementAndGet();
+            }));
+            started.await();
+            Future<Integer> second = executor.submit(() -> singleFlight.execute("key", counter::incrementAndGet));
+            release.countDown();
+            assertEquals(1, (int) ParallelExecutor.get(first));
+            assertEquals(1, (int) ParallelExecutor.get(second));
+        }
+    }
+
+    @Test
+    public void testFailureNotStored() throws MojoExecutionException {
+        SingleFlight singleFlight = SingleFlight.get(new DefaultRepositorySystemSession());
+        try {
+            singleFlight.execute("key", () -> {
+                throw new MojoExecutionException("failure");
+            });
+            fail("Expected exception");
+        } catch (MojoExecutionException e) {
+            assertEquals("failure", e.getMessage());
+        }
+        assertEquals("success", singleFlight.execute("key", () -> "success"));
+    }
+
+    @Test
+    public void testErrorNotStored() throws MojoExecutionException {
+        SingleFlight singleFlight = SingleFlight.get(new DefaultRepositorySystemSession());
+        try {
+            singleFlight.execute("key", () -> {
+                throw new NoClassDefFoundError("failure");
+            });
+            fail("Expected error");
+        } catch (NoClassDefFoundError e) {
+            assertEquals("failure", e.getMessage());
+        }
+        assertEquals("success", singleFlight.execute("key", () -> "success"));
+    }
+}
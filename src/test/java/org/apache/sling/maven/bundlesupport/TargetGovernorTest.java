@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.classic.ExecRuntime;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.sling.maven.bundlesupport.CircuitBreaker.CircuitBreakerOpenException;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class TargetGovernorTest {
+
+    private static final HttpHost TARGET = new HttpHost("localhost", 8080);
+    private static final long TIMEOUT_MS = 5000;
+
+    private final TargetGovernor governor = TargetGovernor.get(new DefaultRepositorySystemSession());
+
+    @Test
+    public void testPermitReleasedOnResponseHead() throws Exception {
+        ExecChainHandler handler = governor.createExecChainHandler(1);
+        // the response body has not been consumed yet, still the next request must not wait for it
+        ClassicHttpResponse response = execute(handler, (request, scope) -> {
+            BasicClassicHttpResponse result = new BasicClassicHttpResponse(HttpStatus.SC_OK);
+            result.setEntity(new StringEntity("body"));
+            return result;
+        });
+        assertEquals(HttpStatus.SC_OK, response.getCode());
+        assertPermitAvailable(handler);
+    }
+
+    @Test
+    public void testPermitReleasedOnException() throws Exception {
+        ExecChainHandler handler = governor.createExecChainHandler(1);
+        try {
+            execute(handler, (request, scope) -> {
+                throw new IOException("connection refused");
+            });
+            fail("Expected exception");
+        } catch (IOException e) {
+            assertEquals("connection refused", e.getMessage());
+        }
+        assertPermitAvailable(handler);
+    }
+
+    @Test
+    public void testNoPermitHeldWhileCircuitOpen() throws Exception {
+        ExecChainHandler permitHandler = governor.createExecChainHandler(1);
+        ExecChainHandler circuitBreakerHandler = governor.createCircuitBreakerHandler(1, 60);
+        // outermost circuit breaker as in the HTTP client of the goals
+        ExecChain chain = (request, scope) -> permitHandler.execute(
+                request, scope, (innerRequest, innerScope) -> new BasicClassicHttpResponse(HttpStatus.SC_BAD_GATEWAY));
+        assertEquals(HttpStatus.SC_BAD_GATEWAY, execute(circuitBreakerHandler, chain).getCode());
+        try {
+            execute(circuitBreakerHandler, chain);
+            fail("Expected exception");
+        } catch (CircuitBreakerOpenException e) {
+            // expected
+        }
+        assertPermitAvailable(permitHandler);
+    }
+
+    @Test
+    public void testPermitsLimitConcurrentRequests() throws Exception {
+        ExecChainHandler handler = governor.createExecChainHandler(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ParallelExecutor executor = new ParallelExecutor("test", 2)) {
+            Future<ClassicHttpResponse> first = executor.submit(() -> execute(handler, (request, scope) -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+                return new BasicClassicHttpResponse(HttpStatus.SC_OK);
+            }));
+            await(started);
+            Future<ClassicHttpResponse> second =
+                    executor.submit(() -> execute(handler, (request, scope) -> new BasicClassicHttpResponse(HttpStatus.SC_OK)));
+            try {
+                second.get(200, TimeUnit.MILLISECONDS);
+                fail("Second request must wait for a permit");
+            } catch (TimeoutException e) {
+                // expected
+            }
+            release.countDown();
+            assertEquals(HttpStatus.SC_OK, first.get(TIMEOUT_MS, TimeUnit.MILLISECONDS).getCode());
+            assertEquals(HttpStatus.SC_OK, second.get(TIMEOUT_MS, TimeUnit.MILLISECONDS).getCode());
+        }
+    }
+
+    @Test
+    public void testExecuteExclusivelySameKey() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ParallelExecutor executor = new ParallelExecutor("test", 2)) {
+            Future<Void> first = executor.submit(() -> {
+                governor.executeExclusively("http://localhost:8080/system/console/", () -> {
+                    track(running, maxRunning);
+                    started.countDown();
+                    await(release);
+                    running.decrementAndGet();
+                });
+                return null;
+            });
+            await(started);
+            Future<Void> second = executor.submit(() -> {
+                governor.executeExclusively("http://localhost:8080/system/console/", () -> {
+                    track(running, maxRunning);
+                    running.decrementAndGet();
+                });
+                return null;
+            });
+            Thread.sleep(200);
+            assertFalse("Second operation must wait for the first one", second.isDone());
+            release.countDown();
+            first.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            second.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void testExecuteExclusivelyDifferentKeys() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        try (ParallelExecutor executor = new ParallelExecutor("test", 2)) {
+            Future<Void> first = executor.submit(() -> {
+                governor.executeExclusively("http://host1:8080/system/console/", () -> {
+                    bothStarted.countDown();
+                    await(bothStarted);
+                });
+                return null;
+            });
+            Future<Void> second = executor.submit(() -> {
+                governor.executeExclusively("http://host2:8080/system/console/", () -> {
+                    bothStarted.countDown();
+                    await(bothStarted);
+                });
+                return null;
+            });
+            // would time out if the operations were serialized
+            first.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            second.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static ClassicHttpResponse execute(ExecChainHandler handler, ExecChain chain) throws Exception {
+        ClassicHttpRequest request = new HttpGet("http://localhost:8080/system/console/bundles.json");
+        // the handlers do not use the runtime
+        ExecRuntime execRuntime = (ExecRuntime) Proxy.newProxyInstance(
+                ExecRuntime.class.getClassLoader(), new Class<?>[] {ExecRuntime.class}, (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        ExecChain.Scope scope =
+                new ExecChain.Scope("ex-1", new HttpRoute(TARGET), request, execRuntime, HttpClientContext.create());
+        return handler.execute(request, scope, chain);
+    }
+
+    private static void assertPermitAvailable(ExecChainHandler handler) throws Exception {
+        try (ParallelExecutor executor = new ParallelExecutor("test", 1)) {
+            Future<ClassicHttpResponse> response = executor.submit(
+                    () -> execute(handler, (request, scope) -> new BasicClassicHttpResponse(HttpStatus.SC_OK)));
+            try {
+                assertEquals(HttpStatus.SC_OK, response.get(TIMEOUT_MS, TimeUnit.MILLISECONDS).getCode());
+            } catch (TimeoutException e) {
+                fail("Permit has not been released");
+            }
+        }
+    }
+
+    private static void track(AtomicInteger running, AtomicInteger maxRunning) {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+    }
+
+    private static void await(CountDownLatch latch) throws MojoExecutionException {
+        try {
+            if (!latch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new MojoExecutionException("Timeout");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted", e);
+        }
+    }
+}
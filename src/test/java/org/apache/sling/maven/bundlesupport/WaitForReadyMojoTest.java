@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonParser;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.maven.bundlesupport.InstalledBundles.InstalledBundle;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class WaitForReadyMojoTest {
+
+    private final InstalledBundles installedBundles = new InstalledBundles(Arrays.asList(
+            new InstalledBundle(0, "org.apache.felix.framework", "7.0.5", "Active", Bundle.ACTIVE, false),
+            new InstalledBundle(10, "org.apache.sling.api", "2.27.2", "Active", Bundle.ACTIVE, false),
+            new InstalledBundle(11, "org.example.impl", "1.0.0", "Installed", Bundle.INSTALLED, false),
+            new InstalledBundle(12, "org.example.fragment", "1.0.0", "Fragment", Bundle.RESOLVED, true)));
+
+    @Test
+    public void testGetNotReadyBundles() {
+        assertEquals(
+                Collections.singletonList("org.example.impl 1.0.0 (id 11, Installed)"),
+                WaitForReadyMojo.getNotReadyBundles(installedBundles, null, null));
+        assertEquals(
+                Collections.emptyList(),
+                WaitForReadyMojo.getNotReadyBundles(installedBundles, null, new BundleNameMatcher("org.apache.*")));
+        assertEquals(
+                Arrays.asList("org.example.missing (not installed)", "org.example.impl 1.0.0 (id 11, Installed)"),
+                WaitForReadyMojo.getNotReadyBundles(
+                        installedBundles,
+                        Arrays.asList("org.apache.sling.api", "org.example.missing"),
+                        new BundleNameMatcher("org.example.*")));
+    }
+
+    @Test
+    public void testParseUnresolvedImports() {
+        String json = "{\"status\":\"\",\"data\":[{\"id\":11,\"props\":["
+                + "{\"key\":\"Symbolic Name\",\"value\":\"org.example.impl\"},"
+                + "{\"key\":\"Imported Packages\",\"value\":[\"org.osgi.framework,version=[1.8,2) from "
+                + "<a href='/system/console/bundles/0'>org.apache.felix.framework (0)</a>\","
+                + "\"ERROR: org.example.api -- Cannot be resolved\"]}]}]}";
+        try (JsonParser parser = JsonSupport.createParser(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8)) {
+            assertEquals(
+                    Collections.singletonList("ERROR: org.example.api -- Cannot be resolved"),
+                    WaitForReadyMojo.parseUnresolvedImports(parser));
+        }
+    }
+
+    @Test
+    public void testGetHealthCheckFailure() {
+        assertNull(getHealthCheckFailure(
+                200,
+                "{\"overallResult\":\"OK\",\"results\":[{\"name\":\"Bundles\",\"status\":\"OK\","
+                        + "\"messages\":[{\"status\":\"OK\",\"message\":\"all active\"}]}]}"));
+        assertEquals(
+                "Health check result is CRITICAL (status code 503): Services (CRITICAL)",
+                getHealthCheckFailure(
+                        503,
+                        "{\"results\":[{\"name\":\"Bundles\",\"status\":\"OK\"},"
+                                + "{\"name\":\"Services\",\"status\":\"CRITICAL\"}],\"overallResult\":\"CRITICAL\"}"));
+    }
+
+    @Test
+    public void testGetHealthCheckFailureLargeResult() {
+        StringBuilder json = new StringBuilder("{\"overallResult\":\"OK\",\"results\":[");
+        for (int i = 0; i < 1000; i++) {
+            json.append(i > 0 ? "," : "")
+                    .append("{\"name\":\"Check ")
+                    .append(i)
+                    .append("\",\"status\":\"OK\",\"messages\":[{\"status\":\"OK\",\"message\":\"")
+                    .append(StringUtils.repeat("x", 100))
+                    .append("\"}]}");
+        }
+        json.append("]}");
+        assertNull(getHealthCheckFailure(200, json.toString()));
+    }
+
+    @Test(expected = JsonException.class)
+    public void testGetHealthCheckFailureNoJsonObject() {
+        getHealthCheckFailure(404, "[]");
+    }
+
+    private static String getHealthCheckFailure(int statusCode, String json) {
+        try (JsonParser parser = JsonSupport.createParser(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8)) {
+            return WaitForReadyMojo.getHealthCheckFailure(statusCode, parser);
+        }
+    }
+}
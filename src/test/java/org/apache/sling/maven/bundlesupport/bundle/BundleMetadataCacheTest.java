@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BundleMetadataCacheTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private final BundleMetadataCache cache = new BundleMetadataCache();
+
+    @Test
+    public void testMetadata() throws IOException {
+        Manifest manifest = new Manifest();
+        Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        attributes.putValue("Bundle-SymbolicName", "org.example.bundle;singleton:=true");
+        attributes.putValue("Bundle-Version", "1.2.3");
+        attributes.putValue("Export-Package", "org.example.api;version=\"1.0\",org.example.spi");
+        attributes.putValue(
+                "Import-Package", "org.osgi.framework;version=\"[1.8,2)\",org.example.optional;resolution:=optional");
+        attributes.putValue("Require-Bundle", "org.example.required");
+        attributes.putValue("Sling-Initial-Content", "SLING-INF/content;path:=/apps/example");
+        File file = createJar(manifest, "content");
+
+        BundleMetadata metadata = cache.get(file);
+        assertEquals("org.example.bundle", metadata.getSymbolicName());
+        assertEquals("1.2.3", metadata.getVersion());
+        assertEquals(
+                new LinkedHashSet<>(Arrays.asList("org.example.api", "org.example.spi")),
+                metadata.getExportedPackages());
+        assertEquals(Collections.singleton("org.osgi.framework"), metadata.getImportedPackages());
+        assertEquals(Collections.singleton("org.example.required"), metadata.getRequiredBundles());
+        assertNull(metadata.getFragmentHost());
+        assertEquals("SLING-INF/content;path:=/apps/example", metadata.getInitialContent());
+    }
+
+    @Test
+    public void testFragmentMetadata() throws IOException {
+        Manifest manifest = new Manifest();
+        Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        attributes.putValue("Bundle-SymbolicName", "org.example.fragment");
+        attributes.putValue("Fragment-Host", "org.example.host;bundle-version=\"[1.0,2)\"");
+        File file = createJar(manifest, "content");
+
+        BundleMetadata metadata = cache.get(file);
+        assertEquals("org.example.host", metadata.getFragmentHost());
+        // the host is not required to be installed in an earlier wave
+        assertTrue(metadata.getRequiredBundles().isEmpty());
+    }
+
+    @Test
+    public void testNoBundle() throws IOException {
+        BundleMetadata metadata = cache.get(createJar(null, "content"));
+        assertFalse(metadata.isBundle());
+        assertNull(metadata.getSymbolicName());
+    }
+
+    @Test
+    public void testCacheInvalidation() throws IOException {
+        File file = createJar(null, "content");
+        long lastModified = file.lastModified();
+        BundleMetadata metadata = cache.get(file);
+        assertSame(metadata, cache.get(file));
+
+        // same size, but different content and modification time
+        File modifiedFile = createJar(null, "CONTENT");
+        Files.move(modifiedFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        assertTrue(file.setLastModified(lastModified + 2000));
+        BundleMetadata modifiedMetadata = cache.get(file);
+        assertNotSame(metadata, modifiedMetadata);
+        assertNotEquals(metadata.getFingerprint(), modifiedMetadata.getFingerprint());
+    }
+
+    private File createJar(Manifest manifest, String content) throws IOException {
+        File file = tmpFolder.newFile();
+        try (OutputStream out = Files.newOutputStream(file.toPath());
+                JarOutputStream jarOut =
+                        manifest != null ? new JarOutputStream(out, manifest) : new JarOutputStream(out)) {
+            jarOut.putNextEntry(new ZipEntry("content.txt"));
+            jarOut.write(content.getBytes(StandardCharsets.UTF_8));
+            jarOut.closeEntry();
+        }
+        return file;
+    }
+}
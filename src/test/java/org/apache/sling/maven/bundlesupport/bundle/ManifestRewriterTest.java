@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class ManifestRewriterTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testRewriteVersion() throws IOException {
+        File source = createSourceJar();
+        File target = tmpFolder.newFile("target.jar");
+
+        ManifestRewriter.rewrite(
+                source, target, mf -> mf.getMainAttributes().putValue("Bundle-Version", "1.0.0.20240101-120000"));
+
+        try (JarFile sourceJar = new JarFile(source);
+                JarFile targetJar = new JarFile(target)) {
+            assertEquals(
+                    "1.0.0.20240101-120000",
+                    targetJar.getManifest().getMainAttributes().getValue("Bundle-Version"));
+            assertEquals(
+                    "org.example.bundle",
+                    targetJar.getManifest().getMainAttributes().getValue("Bundle-SymbolicName"));
+            List<String> names = new ArrayList<>();
+            targetJar.stream().forEach(entry -> names.add(entry.getName()));
+            assertEquals(Arrays.asList("META-INF/MANIFEST.MF", "org/", "org/example/Api.class"), names);
+            // copied as is
+            JarEntry sourceEntry = sourceJar.getJarEntry("org/example/Api.class");
+            JarEntry targetEntry = targetJar.getJarEntry("org/example/Api.class");
+            assertEquals(sourceEntry.getCompressedSize(), targetEntry.getCompressedSize());
+            assertEquals(sourceEntry.getCrc(), targetEntry.getCrc());
+            assertEquals(
+                    "class content", IOUtils.toString(targetJar.getInputStream(targetEntry), StandardCharsets.UTF_8));
+        }
+        try (JarInputStream jarIn = new JarInputStream(Files.newInputStream(target.toPath()))) {
+            assertEquals(
+                    "1.0.0.20240101-120000",
+                    jarIn.getManifest().getMainAttributes().getValue("Bundle-Version"));
+            assertEquals("org/", jarIn.getNextJarEntry().getName());
+            assertEquals("org/example/Api.class", jarIn.getNextJarEntry().getName());
+            assertNull(jarIn.getNextJarEntry());
+        }
+    }
+
+    @Test
+    public void testWriteToStream() throws IOException {
+        File source = createSourceJar();
+        ManifestRewriter rewriter =
+                ManifestRewriter.create(source, mf -> mf.getMainAttributes().putValue("Bundle-Version", "1.0.0.FINAL"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        rewriter.writeTo(out);
+
+        assertEquals(rewriter.getSize(), out.size());
+        try (JarInputStream jarIn = new JarInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("1.0.0.FINAL", jarIn.getManifest().getMainAttributes().getValue("Bundle-Version"));
+            assertEquals("org/", jarIn.getNextJarEntry().getName());
+            assertEquals("org/example/Api.class", jarIn.getNextJarEntry().getName());
+            assertEquals("class content", IOUtils.toString(jarIn, StandardCharsets.UTF_8));
+            assertNull(jarIn.getNextJarEntry());
+        }
+    }
+
+    @Test
+    public void testRewriteSameFile() throws IOException {
+        File source = createSourceJar();
+        long length = source.length();
+        try {
+            ManifestRewriter.rewrite(source, new File(source.getParentFile(), source.getName()), mf -> {});
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(length, source.length());
+    }
+
+    private File createSourceJar() throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Bundle-SymbolicName", "org.example.bundle");
+        manifest.getMainAttributes().putValue("Bundle-Version", "1.0.0.SNAPSHOT");
+        File source = tmpFolder.newFile("source.jar");
+        try (JarOutputStream jarOut = new JarOutputStream(Files.newOutputStream(source.toPath()), manifest)) {
+            jarOut.putNextEntry(new ZipEntry("org/"));
+            jarOut.closeEntry();
+            jarOut.putNextEntry(new ZipEntry("org/example/Api.class"));
+            jarOut.write("class content".getBytes(StandardCharsets.UTF_8));
+            jarOut.closeEntry();
+        }
+        return source;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class SlimJarTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testJarEntryFilter() {
+        JarEntryFilter filter = new JarEntryFilter(
+                Arrays.asList("**/*.class", "OSGI-INF/**"), Collections.singletonList("**/internal/**"));
+        assertTrue(filter.isIncluded("META-INF/MANIFEST.MF"));
+        assertTrue(filter.isIncluded("org/example/Api.class"));
+        assertTrue(filter.isIncluded("OSGI-INF/component.xml"));
+        assertFalse(filter.isIncluded("org/example/internal/Impl.class"));
+        assertFalse(filter.isIncluded("README.md"));
+        assertTrue(new JarEntryFilter(null, Collections.singletonList(" ")).isEmpty());
+    }
+
+    @Test
+    public void testStripEntries() throws IOException {
+        File file = createJar();
+        SlimJar slimJar = SlimJar.create(file, new JarEntryFilter(null, Collections.singletonList("OSGI-OPT/**")));
+        assertEquals(2, slimJar.getRemovedEntries());
+        assertEquals(file.length(), slimJar.getOriginalSize());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        slimJar.writeTo(out);
+        assertEquals(slimJar.getSize(), out.size());
+        assertTrue(out.size() < file.length());
+
+        // readable via the central directory
+        File slimFile = tmpFolder.newFile();
+        Files.write(slimFile.toPath(), out.toByteArray());
+        try (JarFile jarFile = new JarFile(slimFile)) {
+            List<String> names = new ArrayList<>();
+            jarFile.stream().forEach(entry -> names.add(entry.getName()));
+            assertEquals(
+                    Arrays.asList("META-INF/MANIFEST.MF", "org/example/Api.class", "org/example/stored.txt"), names);
+            assertEquals(
+                    "class content",
+                    IOUtils.toString(
+                            jarFile.getInputStream(jarFile.getEntry("org/example/Api.class")), StandardCharsets.UTF_8));
+            assertEquals(
+                    "stored content",
+                    IOUtils.toString(
+                            jarFile.getInputStream(jarFile.getEntry("org/example/stored.txt")),
+                            StandardCharsets.UTF_8));
+        }
+        // readable as stream (like the Felix Web Console does)
+        try (JarInputStream jarIn = new JarInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertNotNull(jarIn.getManifest());
+            int count = 0;
+            JarEntry entry;
+            while ((entry = jarIn.getNextJarEntry()) != null) {
+                assertFalse(entry.getName().startsWith("OSGI-OPT"));
+                count++;
+            }
+            assertEquals(2, count);
+        }
+        // the fingerprint is based on the remaining entries only
+        assertEquals(
+                BundleMetadata.readWithJarFile(slimFile).getFingerprint(),
+                BundleMetadata.read(slimFile).getFingerprint());
+    }
+
+    private File createJar() throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Bundle-SymbolicName", "org.example.bundle");
+        File file = tmpFolder.newFile();
+        try (JarOutputStream jarOut = new JarOutputStream(Files.newOutputStream(file.toPath()), manifest)) {
+            addEntry(jarOut, "OSGI-OPT/src/org/example/Api.java", repeat("source content", 1000), ZipEntry.DEFLATED);
+            addEntry(jarOut, "org/example/Api.class", "class content", ZipEntry.DEFLATED);
+            addEntry(jarOut, "OSGI-OPT/README.txt", "readme", ZipEntry.DEFLATED);
+            addEntry(jarOut, "org/example/stored.txt", "stored content", ZipEntry.STORED);
+        }
+        return file;
+    }
+
+    private static void addEntry(JarOutputStream jarOut, String name, String content, int method) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(method);
+        if (method == ZipEntry.STORED) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            entry.setSize(bytes.length);
+            entry.setCrc(crc.getValue());
+        }
+        jarOut.putNextEntry(entry);
+        jarOut.write(bytes);
+        jarOut.closeEntry();
+    }
+
+    private static String repeat(String value, int count) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            result.append(value).append(i);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarFile;
+import java.util.zip.ZipException;
+
+/**
+ * Compares the time for reading the manifests and calculating the {@link ContentFingerprint} of many JAR files via
+ * {@link ZipManifestReader} with the time for doing the same via {@link JarFile}.
+ * Not executed as part of the build, run manually with the JAR files or directories containing JAR files
+ * (e.g. a local Maven repository) as arguments:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=org.apache.sling.maven.bundlesupport.bundle.ZipManifestReaderBenchmark \
+ *   -Dexec.args="$HOME/.m2/repository/org/apache/sling"
+ * </pre>
+ */
+public final class ZipManifestReaderBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+
+    private ZipManifestReaderBenchmark() {
+        // static methods only
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (String arg : args) {
+            collectJarFiles(new File(arg), files);
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: ZipManifestReaderBenchmark <jar file or directory>...");
+            return;
+        }
+        System.out.println("Reading manifests of " + files.size() + " JAR files");
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            runJarFile(files);
+            runZipManifestReader(files);
+        }
+        long jarFileNanos = 0;
+        long zipManifestReaderNanos = 0;
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            jarFileNanos += runJarFile(files);
+            zipManifestReaderNanos += runZipManifestReader(files);
+        }
+        System.out.printf("JarFile:           %8.2f ms per iteration%n", jarFileNanos / 1e6 / MEASUREMENT_ITERATIONS);
+        System.out.printf(
+                "ZipManifestReader: %8.2f ms per iteration%n", zipManifestReaderNanos / 1e6 / MEASUREMENT_ITERATIONS);
+    }
+
+    private static void collectJarFiles(File file, List<File> result) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    collectJarFiles(child, result);
+                }
+            }
+        } else if (file.getName().endsWith(".jar")) {
+            result.add(file);
+        }
+    }
+
+    private static long runJarFile(List<File> files) throws IOException {
+        long start = System.nanoTime();
+        int manifests = 0;
+        for (File file : files) {
+            if (BundleMetadata.readWithJarFile(file).isBundle()) {
+                manifests++;
+            }
+        }
+        long duration = System.nanoTime() - start;
+        if (manifests < 0) {
+            throw new IllegalStateException(); // prevent dead code elimination
+        }
+        return duration;
+    }
+
+    private static long runZipManifestReader(List<File> files) throws IOException {
+        long start = System.nanoTime();
+        int manifests = 0;
+        for (File file : files) {
+            try {
+                if (ZipManifestReader.read(file.toPath()).getManifest() != null) {
+                    manifests++;
+                }
+            } catch (ZipException e) {
+                // unsupported archive, BundleMetadata falls back to JarFile
+            }
+        }
+        long duration = System.nanoTime() - start;
+        if (manifests < 0) {
+            throw new IllegalStateException(); // prevent dead code elimination
+        }
+        return duration;
+    }
+}
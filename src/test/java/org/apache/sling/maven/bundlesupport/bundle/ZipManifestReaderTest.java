@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.bundle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ZipManifestReaderTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testDeflatedManifest() throws IOException {
+        File file = createJar(ZipEntry.DEFLATED, null);
+        assertSameAsJarFile(file);
+        assertEquals(
+                "org.example.bundle",
+                ZipManifestReader.read(file.toPath())
+                        .getManifest()
+                        .getMainAttributes()
+                        .getValue("Bundle-SymbolicName"));
+    }
+
+    @Test
+    public void testStoredManifestWithComment() throws IOException {
+        assertSameAsJarFile(createJar(ZipEntry.STORED, "some comment"));
+    }
+
+    @Test
+    public void testNoManifest() throws IOException {
+        File file = tmpFolder.newFile();
+        try (JarOutputStream jarOut = new JarOutputStream(Files.newOutputStream(file.toPath()))) {
+            jarOut.putNextEntry(new ZipEntry("content.txt"));
+            jarOut.closeEntry();
+        }
+        assertNull(ZipManifestReader.read(file.toPath()).getManifest());
+        assertSameAsJarFile(file);
+    }
+
+    @Test(expected = ZipException.class)
+    public void testNoZip() throws IOException {
+        File file = tmpFolder.newFile();
+        Files.write(file.toPath(), "no zip file".getBytes(StandardCharsets.UTF_8));
+        ZipManifestReader.read(file.toPath());
+    }
+
+    private static void assertSameAsJarFile(File file) throws IOException {
+        BundleMetadata expected = BundleMetadata.readWithJarFile(file);
+        ZipManifestReader.Result result = ZipManifestReader.read(file.toPath());
+        assertEquals(expected.getFingerprint(), result.getFingerprint());
+        try (JarFile jarFile = new JarFile(file)) {
+            assertEquals(jarFile.getManifest(), result.getManifest());
+        }
+    }
+
+    private File createJar(int manifestMethod, String comment) throws IOException {
+        Manifest manifest = new Manifest();
+        Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        attributes.putValue("Bundle-SymbolicName", "org.example.bundle");
+        attributes.putValue("Bundle-Version", "1.0.0");
+        byte[] manifestBytes;
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            manifest.write(out);
+            manifestBytes = out.toByteArray();
+        }
+
+        File file = tmpFolder.newFile();
+        try (OutputStream out = Files.newOutputStream(file.toPath());
+                JarOutputStream jarOut = new JarOutputStream(out)) {
+            ZipEntry manifestEntry = new ZipEntry(JarFile.MANIFEST_NAME);
+            manifestEntry.setMethod(manifestMethod);
+            if (manifestMethod == ZipEntry.STORED) {
+                CRC32 crc = new CRC32();
+                crc.update(manifestBytes);
+                manifestEntry.setSize(manifestBytes.length);
+                manifestEntry.setCrc(crc.getValue());
+            }
+            jarOut.putNextEntry(manifestEntry);
+            jarOut.write(manifestBytes);
+            jarOut.closeEntry();
+            for (int i = 0; i < 10; i++) {
+                jarOut.putNextEntry(new ZipEntry("org/example/Class" + i + ".class"));
+                jarOut.write(("content " + i).getBytes(StandardCharsets.UTF_8));
+                jarOut.closeEntry();
+            }
+            if (comment != null) {
+                jarOut.setComment(comment);
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.deploy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class UploadStatisticsTest {
+
+    private static final long BASE_NANOS = System.nanoTime();
+
+    private final UploadStatistics statistics = new UploadStatistics();
+
+    @Test
+    public void testNoUploads() {
+        assertEquals(0, statistics.getWallClockDurationMillis());
+        assertEquals(0, statistics.getBytesPerSecond(), 0);
+    }
+
+    @Test
+    public void testSequentialUploads() {
+        record("a.jar", 1000, 0, 1000);
+        record("b.jar", 3000, 2000, 3000);
+
+        assertEquals(2000, statistics.getWallClockDurationMillis());
+        assertEquals(2000, statistics.getBytesPerSecond(), 0.001);
+    }
+
+    @Test
+    public void testParallelUploads() {
+        // recorded in the order of completion
+        record("b.jar", 1000, 100, 600);
+        record("a.jar", 1000, 0, 1000);
+        record("c.jar", 1000, 900, 1500);
+        record("d.jar", 1000, 3000, 3500);
+
+        assertEquals(2000, statistics.getWallClockDurationMillis());
+        assertEquals(2000, statistics.getBytesPerSecond(), 0.001);
+        assertEquals(500, statistics.getUploads().get(0).getDurationMillis());
+        assertEquals(2000, statistics.getUploads().get(0).getBytesPerSecond(), 0.001);
+    }
+
+    private void record(String name, long bytes, long startMillis, long endMillis) {
+        statistics.record(
+                name,
+                bytes,
+                BASE_NANOS + TimeUnit.MILLISECONDS.toNanos(startMillis),
+                BASE_NANOS + TimeUnit.MILLISECONDS.toNanos(endMillis));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.deploy.method;
+
+import java.io.IOException;
+
+import jakarta.json.stream.JsonParser.Event;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.apache.sling.maven.bundlesupport.JsonSupport;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonResponseHandlerTest {
+
+    private static final JsonResponseHandler<String> VERSION_HANDLER = new JsonResponseHandler<>(parser -> {
+        if (parser.next() == Event.START_OBJECT
+                && JsonSupport.findKey(parser, "data") == Event.START_ARRAY
+                && parser.next() == Event.START_OBJECT
+                && JsonSupport.findKey(parser, "version") == Event.VALUE_STRING) {
+            return parser.getString();
+        }
+        return null;
+    });
+
+    @Test
+    public void testExtractNestedValue() throws Exception {
+        String json = "{\"status\":\"ok\",\"s\":[1,2,3],\"data\":[{\"id\":12,\"props\":[{\"key\":\"version\"}],"
+                + "\"nested\":{\"version\":\"0.0.0\"},\"version\":\"1.2.3\"}]}";
+        assertEquals(
+                "1.2.3",
+                VERSION_HANDLER.handleResponse(response(HttpStatus.SC_OK, json, ContentType.APPLICATION_JSON)));
+    }
+
+    @Test
+    public void testMissingValue() throws Exception {
+        assertNull(VERSION_HANDLER.handleResponse(
+                response(HttpStatus.SC_OK, "{\"data\":[]}", ContentType.APPLICATION_JSON)));
+    }
+
+    @Test
+    public void testGetObjectPerArrayElement() throws Exception {
+        JsonResponseHandler<Integer> handler = new JsonResponseHandler<>(parser -> {
+            parser.next();
+            int sum = 0;
+            while (parser.next() == Event.START_OBJECT) {
+                sum += parser.getObject().getInt("value");
+            }
+            return sum;
+        });
+        assertEquals(
+                Integer.valueOf(3),
+                handler.handleResponse(
+                        response(HttpStatus.SC_OK, "[{\"value\":1},{\"value\":2}]", ContentType.APPLICATION_JSON)));
+    }
+
+    @Test(expected = HttpResponseException.class)
+    public void testErrorStatus() throws Exception {
+        VERSION_HANDLER.handleResponse(response(HttpStatus.SC_NOT_FOUND, "{}", ContentType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void testUnexpectedHtml() throws IOException {
+        String html = "<html><body>Login" + StringUtils.repeat("x", 100000) + "</body></html>";
+        try {
+            VERSION_HANDLER.handleResponse(response(HttpStatus.SC_OK, html, ContentType.TEXT_HTML));
+            fail("Expected exception");
+        } catch (JsonResponseHandler.UnexpectedContentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("<html><body>Login"));
+            assertTrue(e.getContent().startsWith("<html><body>Login"));
+            // content in message must be truncated
+            assertTrue(e.getMessage().length() < BoundedStringResponseHandler.DEFAULT_MAX_LENGTH + 500);
+        }
+    }
+
+    @Test
+    public void testBoundedStringResponseHandler() throws Exception {
+        assertEquals(
+                "abc",
+                new BoundedStringResponseHandler(3).handleResponse(response(200, "abc", ContentType.TEXT_PLAIN)));
+        assertEquals(
+                "ab[...]",
+                new BoundedStringResponseHandler(2).handleResponse(response(200, "abc", ContentType.TEXT_PLAIN)));
+    }
+
+    private static BasicClassicHttpResponse response(int status, String body, ContentType contentType) {
+        BasicClassicHttpResponse response = new BasicClassicHttpResponse(status);
+        response.setEntity(new StringEntity(body, contentType));
+        return response;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.deploy.method;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
+import org.apache.sling.maven.bundlesupport.deploy.UploadStatistics.Upload;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class UploadProgressEntityTest {
+
+    @Test
+    public void testWriteToRecordsUpload() throws IOException {
+        byte[] content = new byte[100_000];
+        DeployContext context = new DeployContext().log(new SystemStreamLog());
+        UploadProgressEntity entity = new UploadProgressEntity(
+                new ByteArrayEntity(content, ContentType.APPLICATION_OCTET_STREAM), "test.jar", context);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        entity.writeTo(output);
+        entity.writeTo(output);
+
+        assertArrayEquals(content, Arrays.copyOf(output.toByteArray(), content.length));
+        assertEquals(2, context.getUploadStatistics().getUploads().size());
+        Upload upload = context.getUploadStatistics().getUploads().get(0);
+        assertEquals("test.jar", upload.getName());
+        assertEquals(content.length, upload.getBytes());
+        assertEquals(2L * content.length, context.getUploadStatistics().getTotalBytes());
+    }
+}
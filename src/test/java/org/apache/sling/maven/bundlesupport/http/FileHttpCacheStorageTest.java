@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.http;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.impl.cache.HeapResource;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FileHttpCacheStorageTest {
+
+    @Rule
+    public TemporaryFolder tmpDirectory = new TemporaryFolder();
+
+    @Test
+    public void testPutAndGetEntryAcrossInstances() throws Exception {
+        byte[] body = "{\"data\":[]}".getBytes(StandardCharsets.UTF_8);
+        HttpCacheEntry entry = new HttpCacheEntry(
+                Date.from(Instant.ofEpochSecond(1000)),
+                Date.from(Instant.ofEpochSecond(1001)),
+                HttpStatus.SC_OK,
+                new Header[] {new BasicHeader("ETag", "\"abc\"")},
+                new HeapResource(body));
+
+        new FileHttpCacheStorage(tmpDirectory.getRoot()).putEntry("key1", entry);
+
+        // a new instance must see the entry persisted by the previous one
+        FileHttpCacheStorage storage = new FileHttpCacheStorage(tmpDirectory.getRoot());
+        HttpCacheEntry restored = storage.getEntry("key1");
+        assertEquals(HttpStatus.SC_OK, restored.getStatus());
+        assertEquals("\"abc\"", restored.getFirstHeader("ETag").getValue());
+        assertArrayEquals(body, restored.getResource().get());
+        assertNull(storage.getEntry("key2"));
+
+        storage.removeEntry("key1");
+        assertNull(storage.getEntry("key1"));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.http;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HttpTimingsTest {
+
+    @Test
+    public void testPhasesAddUpToTotal() throws InterruptedException {
+        HttpTimings timings = HttpTimings.start();
+        Thread.sleep(2);
+        HttpTimings.markConnected();
+        Thread.sleep(2);
+        timings.markWritten(System.nanoTime());
+        Thread.sleep(2);
+        timings.markResponseHead();
+        Thread.sleep(2);
+        timings.markEnd();
+        assertTrue(timings.getConnectNanos() > 0);
+        assertTrue(timings.getUploadNanos() > 0);
+        assertTrue(timings.getServerNanos() > 0);
+        assertTrue(timings.getDownloadNanos() > 0);
+        assertEquals(
+                timings.getTotalNanos(),
+                timings.getConnectNanos()
+                        + timings.getUploadNanos()
+                        + timings.getServerNanos()
+                        + timings.getDownloadNanos());
+    }
+
+    @Test
+    public void testMissingPhases() {
+        HttpTimings timings = HttpTimings.start();
+        // the response head unbinds the timings from the thread
+        timings.markResponseHead();
+        HttpTimings.markConnected();
+        timings.markEnd();
+        assertEquals(0, timings.getConnectNanos());
+        assertEquals(0, timings.getUploadNanos());
+        assertEquals(0, timings.getDnsNanos());
+        assertEquals(timings.getTotalNanos(), timings.getServerNanos() + timings.getDownloadNanos());
+    }
+}
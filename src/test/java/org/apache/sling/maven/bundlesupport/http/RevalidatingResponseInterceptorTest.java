@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.http;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hc.client5.http.cache.CacheResponseStatus;
+import org.apache.hc.client5.http.cache.HttpCacheContext;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.cache.CacheConfig;
+import org.apache.hc.client5.http.impl.cache.CachingHttpClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.impl.bootstrap.HttpServer;
+import org.apache.hc.core5.http.impl.bootstrap.ServerBootstrap;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.io.CloseMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RevalidatingResponseInterceptorTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    @Rule
+    public TemporaryFolder tmpDirectory = new TemporaryFolder();
+
+    private final List<String> receivedIfNoneMatch = Collections.synchronizedList(new ArrayList<>());
+    private HttpServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = ServerBootstrap.bootstrap()
+                .register("*", (request, response, context) -> {
+                    Header ifNoneMatch = request.getFirstHeader(HttpHeaders.IF_NONE_MATCH);
+                    receivedIfNoneMatch.add(ifNoneMatch != null ? ifNoneMatch.getValue() : null);
+                    response.setHeader(HttpHeaders.ETAG, ETAG);
+                    // fresh for an hour, i.e. the cache would serve it without asking the server
+                    response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=3600");
+                    if (ifNoneMatch != null && ETAG.equals(ifNoneMatch.getValue())) {
+                        response.setCode(HttpStatus.SC_NOT_MODIFIED);
+                    } else {
+                        response.setCode(HttpStatus.SC_OK);
+                        response.setEntity(new StringEntity("{\"data\":[]}", ContentType.APPLICATION_JSON));
+                    }
+                })
+                .create();
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    public void testFreshEntryIsRevalidated() throws Exception {
+        String url = "http://localhost:" + server.getLocalPort() + "/system/console/bundles.json";
+        try (CloseableHttpClient httpClient = createHttpClient()) {
+            assertEquals(CacheResponseStatus.CACHE_MISS, get(httpClient, url));
+        }
+        // a new client (e.g. of the next goal execution) must revalidate the entry persisted by the previous one
+        try (CloseableHttpClient httpClient = createHttpClient()) {
+            assertEquals(CacheResponseStatus.VALIDATED, get(httpClient, url));
+        }
+        assertEquals(2, receivedIfNoneMatch.size());
+        assertNull(receivedIfNoneMatch.get(0));
+        assertEquals(ETAG, receivedIfNoneMatch.get(1));
+    }
+
+    private CloseableHttpClient createHttpClient() throws Exception {
+        return CachingHttpClients.custom()
+                .setHttpCacheStorage(new FileHttpCacheStorage(tmpDirectory.getRoot()))
+                .setCacheConfig(CacheConfig.custom().setSharedCache(false).build())
+                .addResponseInterceptorFirst(new RevalidatingResponseInterceptor())
+                .build();
+    }
+
+    private static CacheResponseStatus get(CloseableHttpClient httpClient, String url) throws Exception {
+        HttpCacheContext context = HttpCacheContext.create();
+        String body = httpClient.execute(new HttpGet(url), context, response -> EntityUtils.toString(response.getEntity()));
+        assertEquals("{\"data\":[]}", body);
+        return context.getCacheResponseStatus();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.sling.maven.bundlesupport.deploy.DeployContext;
+import org.apache.sling.maven.bundlesupport.deploy.DeployMethod;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RecordingDeployMethodTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testRecordDeployAndFailedUndeploy() throws IOException {
+        File bundle = tmpFolder.newFile("bundle.jar");
+        Files.write(bundle.toPath(), new byte[42]);
+        URI targetURL = URI.create("http://localhost:8080/");
+        DeployMethod deployMethod = new RecordingDeployMethod("WebConsole", new DeployMethod() {
+            @Override
+            public void deploy(URI targetURL, File file, String bundleSymbolicName, DeployContext context) {
+                // success
+            }
+
+            @Override
+            public void undeploy(URI targetURL, String bundleName, DeployContext context) throws IOException {
+                throw new IOException("Not found");
+            }
+        });
+
+        Path recordingFile = tmpFolder.getRoot().toPath().resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(DeployEvent.class).withThreshold(null);
+            recording.start();
+            deployMethod.deploy(targetURL, bundle, "org.example.bundle", new DeployContext());
+            try {
+                deployMethod.undeploy(targetURL, "org.example.bundle", new DeployContext());
+                fail("IOException expected");
+            } catch (IOException e) {
+                // expected
+            }
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        assertEquals(2, events.size());
+        RecordedEvent deploy = events.get(0);
+        assertEquals("deploy", deploy.getString("operation"));
+        assertEquals("WebConsole", deploy.getString("deploymentMethod"));
+        assertEquals("http://localhost:8080/", deploy.getString("target"));
+        assertEquals("org.example.bundle", deploy.getString("bundle"));
+        assertEquals(42, deploy.getLong("fileSize"));
+        assertNull(deploy.getString("failure"));
+        RecordedEvent undeploy = events.get(1);
+        assertEquals("undeploy", undeploy.getString("operation"));
+        assertTrue(undeploy.getString("failure").contains("Not found"));
+    }
+}
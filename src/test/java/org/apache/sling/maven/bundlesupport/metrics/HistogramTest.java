@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+    @Test
+    public void testEmpty() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getValueAtQuantile(0.99));
+    }
+
+    @Test
+    public void testQuantiles() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1_000_000);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMin());
+        assertEquals(1_000_000_000, histogram.getMax());
+        assertEquals(500_500_000_000L, histogram.getSum());
+        assertWithinPrecision(500_000_000, histogram.getValueAtQuantile(0.5));
+        assertWithinPrecision(900_000_000, histogram.getValueAtQuantile(0.9));
+        assertWithinPrecision(990_000_000, histogram.getValueAtQuantile(0.99));
+        assertEquals(1_000_000_000, histogram.getValueAtQuantile(1));
+    }
+
+    @Test
+    public void testBuckets() {
+        for (long value : new long[] {0, 1, 31, 32, 33, 63, 64, 1000, 123_456_789, Long.MAX_VALUE}) {
+            long upperBound = Histogram.getUpperBound(Histogram.getBucket(value));
+            assertTrue(value + " <= " + upperBound, value <= upperBound);
+            assertTrue(value + " close to " + upperBound, upperBound - value <= value / 32);
+        }
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(expected + " vs. " + actual, Math.abs(actual - expected) <= expected / 32);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import org.apache.sling.maven.bundlesupport.JsonSupport;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MetricsWriterTest {
+
+    @Test
+    public void testWritePrometheus() throws IOException {
+        StringWriter writer = new StringWriter();
+        MetricsWriter.writePrometheus(createRegistry(), writer);
+        assertEquals(
+                "# HELP sling_goal_duration_seconds Duration of goal executions\n"
+                        + "# TYPE sling_goal_duration_seconds summary\n"
+                        + "sling_goal_duration_seconds{goal=\"install\",quantile=\"0.5\"} 1.5\n"
+                        + "sling_goal_duration_seconds{goal=\"install\",quantile=\"0.9\"} 1.5\n"
+                        + "sling_goal_duration_seconds{goal=\"install\",quantile=\"0.99\"} 1.5\n"
+                        + "sling_goal_duration_seconds_sum{goal=\"install\"} 1.5\n"
+                        + "sling_goal_duration_seconds_count{goal=\"install\"} 1\n"
+                        + "# HELP sling_http_requests_total Number of HTTP requests\n"
+                        + "# TYPE sling_http_requests_total counter\n"
+                        + "sling_http_requests_total{goal=\"install\",method=\"POST\",status=\"200\"} 2\n"
+                        + "# HELP sling_test_gauge Gauge with \\\\ and\\nnewline\n"
+                        + "# TYPE sling_test_gauge gauge\n"
+                        + "sling_test_gauge{name=\"quote \\\" \\\\\"} 0.25\n",
+                writer.toString());
+    }
+
+    @Test
+    public void testWriteJson() {
+        StringWriter writer = new StringWriter();
+        MetricsWriter.writeJson(createRegistry(), writer);
+        JsonArray metrics = JsonSupport.parseObject(writer.toString()).getJsonArray("metrics");
+        assertEquals(3, metrics.size());
+        JsonObject goalDuration = metrics.getJsonObject(0);
+        assertEquals("sling_goal_duration_seconds", goalDuration.getString("name"));
+        assertEquals("histogram", goalDuration.getString("type"));
+        JsonObject value = goalDuration.getJsonArray("values").getJsonObject(0);
+        assertEquals("install", value.getJsonObject("labels").getString("goal"));
+        assertEquals(1, value.getInt("count"));
+        assertEquals(1.5, value.getJsonNumber("p99").doubleValue(), 0.05);
+        JsonObject requests = metrics.getJsonObject(1);
+        assertEquals("counter", requests.getString("type"));
+        assertEquals(2, requests.getJsonArray("values").getJsonObject(0).getInt("value"));
+    }
+
+    private static MetricsRegistry createRegistry() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.goalDuration("install").record(1_500_000_000L);
+        registry.httpRequests("install", "POST", 200).increment();
+        registry.httpRequests("install", "POST", 200).increment();
+        registry.gauge("sling_test_gauge", "Gauge with \\ and\nnewline", () -> 0.25, "name", "quote \" \\");
+        return registry;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.report;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import org.apache.sling.maven.bundlesupport.JsonSupport;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BuildReportTest {
+
+    @Test
+    public void testWriteJson() {
+        BuildReport report = createReport();
+
+        StringWriter writer = new StringWriter();
+        report.writeJson(writer);
+
+        JsonObject json = JsonSupport.parseObject(writer.toString());
+        assertEquals(25 * 100, json.getInt("bytesSent"));
+        JsonArray modules = json.getJsonArray("modules");
+        assertEquals(2, modules.size());
+        assertEquals("org.example:bundle", modules.getJsonObject(0).getString("name"));
+        assertTrue(modules.getJsonObject(0).getBoolean("criticalPath"));
+        assertFalse(modules.getJsonObject(1).getBoolean("criticalPath"));
+        JsonObject execution = json.getJsonArray("executions").getJsonObject(0);
+        assertEquals("install", execution.getString("goal"));
+        assertEquals("success", execution.getString("result"));
+        assertEquals(25, execution.getInt("requests"));
+        assertEquals(1, execution.getInt("cachedResponses"));
+        assertEquals(
+                "install org.example.other 1.0.0: already installed",
+                execution.getJsonArray("skippedOperations").getString(0));
+        JsonArray calls = json.getJsonArray("slowestHttpCalls");
+        assertEquals(BuildReport.MAX_SLOWEST_HTTP_CALLS, calls.size());
+        assertEquals("/bundle/24", calls.getJsonObject(0).getString("uri"));
+        assertEquals(24, calls.getJsonObject(0).getInt("durationMillis"));
+        assertEquals("/bundle/5", calls.getJsonObject(calls.size() - 1).getString("uri"));
+    }
+
+    @Test
+    public void testWriteHtml() throws IOException {
+        StringWriter writer = new StringWriter();
+        createReport().writeHtml(writer);
+
+        String html = writer.toString();
+        assertTrue(html.contains("<tr class=\"critical\"><td>org.example:bundle</td>"));
+        assertTrue(html.contains("<td>POST /bundle/24</td>"));
+        assertTrue(html.contains(
+                "<li>org.example:bundle (install): install org.example.other 1.0.0: already installed</li>"));
+    }
+
+    private static BuildReport createReport() {
+        BuildReport report = new BuildReport(System.currentTimeMillis());
+        ExecutionReport execution = report.startExecution("org.example:bundle", "install", "default");
+        for (int i = 0; i < 25; i++) {
+            execution.recordHttpExchange("POST", "/bundle/" + i, 200, 100, -1, i * 1_000_000L, i == 0);
+        }
+        execution.recordSkipped("install org.example.other 1.0.0", "already installed");
+        report.endExecution(execution, ExecutionReport.RESULT_SUCCESS);
+        report.setModules(
+                Arrays.asList(
+                        new BuildReport.Module("org.example:bundle", 100),
+                        new BuildReport.Module("org.example:<docs>", 50)),
+                Collections.singletonList("org.example:bundle"));
+        return report;
+    }
+}
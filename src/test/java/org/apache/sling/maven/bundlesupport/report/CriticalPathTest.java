@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.maven.bundlesupport.report;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CriticalPathTest {
+
+    @Test
+    public void testLongestChain() {
+        // api <- impl <- app, api <- ui (ui is slow on its own but the chain via impl takes longer)
+        List<String> modules = Arrays.asList("api", "impl", "ui", "app");
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("api", 10L);
+        durations.put("impl", 30L);
+        durations.put("ui", 35L);
+        durations.put("app", 20L);
+        Map<String, List<String>> upstream = new HashMap<>();
+        upstream.put("impl", Collections.singletonList("api"));
+        upstream.put("ui", Collections.singletonList("api"));
+        upstream.put("app", Arrays.asList("impl", "external"));
+
+        assertEquals(Arrays.asList("api", "impl", "app"), CriticalPath.compute(modules, durations, upstream));
+    }
+
+    @Test
+    public void testIndependentModules() {
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("a", 5L);
+        durations.put("b", 7L);
+
+        assertEquals(
+                Collections.singletonList("b"),
+                CriticalPath.compute(Arrays.asList("a", "b"), durations, Collections.emptyMap()));
+        assertEquals(
+                Collections.emptyList(),
+                CriticalPath.compute(Collections.emptyList(), durations, Collections.emptyMap()));
+    }
+}